@@ -0,0 +1,34 @@
+package vsp.colocated;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * Startet Displaymanager, Locationhandler, Transportplan und externalRest in einer JVM.
+ *
+ * Alle @GrpcService-Implementierungen hängen an einem gemeinsamen In-Process-Server,
+ * alle @GrpcClient-Stubs zeigen per "in-process:vsp" darauf (siehe colocated.properties).
+ * Es gibt keine Sockets zwischen den Komponenten; Protobuf-Nachrichten werden vom
+ * In-Process-Transport als Objekt durchgereicht statt serialisiert und wieder geparst.
+ *
+ * Die Application-Klassen der Module werden ausgeschlossen, damit ihr eigenes
+ * Component-Scanning und ihre application.properties nicht mitgezogen werden.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = "vsp",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "vsp\\.app\\..*Application"))
+public class ColocatedApplication {
+
+    // Eigener Config-Name, damit nicht die application.properties eines Moduls vom Classpath gewinnt
+    public static final String CONFIG_NAME = "colocated";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ColocatedApplication.class)
+                .properties("spring.config.name=" + CONFIG_NAME)
+                .run(args);
+    }
+}
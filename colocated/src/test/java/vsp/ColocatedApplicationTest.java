@@ -0,0 +1,52 @@
+package vsp;
+
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import vsp.colocated.ColocatedApplication;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ColocatedApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.config.name=" + ColocatedApplication.CONFIG_NAME)
+class ColocatedApplicationTest {
+
+    @Autowired
+    private List<BindableService> grpcServices;
+
+    @Test
+    void contextLoads_WithAllIngressServicesInOneProcess() {
+        List<String> serviceNames = grpcServices.stream()
+                .map(service -> service.bindService().getServiceDescriptor().getName())
+                .toList();
+
+        assertTrue(serviceNames.contains(DisplaymanagerIngressGrpc.SERVICE_NAME));
+        assertTrue(serviceNames.contains(LocationhandlerIngressGrpc.SERVICE_NAME));
+        assertTrue(serviceNames.contains(TransportplanIngressGrpc.SERVICE_NAME));
+        assertTrue(serviceNames.contains(DeparturesServiceGrpc.SERVICE_NAME));
+        assertTrue(serviceNames.contains(GeocodingServiceGrpc.SERVICE_NAME));
+    }
+
+    @Test
+    void inProcessServer_RejectsInvalidRequestWithoutNetwork() throws Exception {
+        ManagedChannel channel = InProcessChannelBuilder.forName("vsp").directExecutor().build();
+        try {
+            DisplaymanagerIngressGrpc.DisplaymanagerIngressBlockingStub stub =
+                    DisplaymanagerIngressGrpc.newBlockingStub(channel);
+
+            // Leere Stationsliste wird ohne Netzwerk- oder Supplier-Zugriff abgelehnt
+            io.grpc.StatusRuntimeException e = assertThrows(io.grpc.StatusRuntimeException.class,
+                    () -> stub.showDepartures(ShowDeparturesRequest.getDefaultInstance()));
+            assertEquals(io.grpc.Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
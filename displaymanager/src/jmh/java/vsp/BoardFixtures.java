@@ -0,0 +1,46 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministische Boards für die Display-Benchmarks (10 Abfahrten pro Station).
+ */
+final class BoardFixtures {
+
+    static final int DEPARTURES_PER_STATION = 10;
+
+    private static final String[] LINES = {
+            "U1 Norderstedt Mitte", "U2 Niendorf Nord", "U3 Barmbek", "S1 Wedel", "S3 Pinneberg",
+            "5 Burgwedel", "6 Borgweg", "25 Altona", "M5 Hauptbahnhof", "X35 Rathausmarkt"
+    };
+
+    private BoardFixtures() {
+    }
+
+    static List<DepartureStation> stations(int stations) {
+        long now = Instant.now().getEpochSecond();
+        List<DepartureStation> result = new ArrayList<>(stations);
+        for (int s = 0; s < stations; s++) {
+            DepartureStation.Builder station = DepartureStation.newBuilder()
+                    .setStationId("Master:" + (10950 + s))
+                    .setStationName("Haltestelle " + (char) ('A' + s % 26) + (s / 26 == 0 ? "" : String.valueOf(s / 26)))
+                    .setDistance(20.0 + s * 35);
+            for (int d = 0; d < DEPARTURES_PER_STATION; d++) {
+                station.addDepartures(Departure.newBuilder()
+                        .setLineName(LINES[(s + d) % LINES.length])
+                        // verteilt über 0..90 Minuten, damit auch "Xh YYm" gerendert wird
+                        .setDepartureTime(Timestamp.newBuilder().setSeconds(now + (s * 7L + d * 9L) % 90 * 60)));
+            }
+            result.add(station.build());
+        }
+        return result;
+    }
+
+    static Timestamp fetchedAt() {
+        return Timestamp.newBuilder().setSeconds(Instant.now().getEpochSecond()).build();
+    }
+}
@@ -0,0 +1,81 @@
+package vsp;
+
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import vsp.client.LocationClient;
+import vsp.controller.DisplayController;
+import vsp.service.DisplaymanagerIngressService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ganzer Ingest-Pfad im Displaymanager:
+ * DisplaymanagerIngressService.showDepartures -> DisplayController.displayDepartures -> DisplayView (Null-Sink).
+ * Die Weiterleitung nach dem Ack läuft synchron im Benchmark-Thread, damit sie mitgemessen wird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DisplayIngestBenchmark {
+
+    @Param({"3", "10", "50"})
+    public int stations;
+
+    private DisplaymanagerIngressService ingress;
+    private ShowDeparturesRequest request;
+    private byte[] requestBytes;
+
+    @Setup
+    public void setUp() {
+        PrintStream nullSink = new PrintStream(OutputStream.nullOutputStream());
+        DisplayView view = new DisplayView(nullSink, nullSink);
+        DisplayController controller = new DisplayController(view, new DisplayModel(view), new LocationClient());
+        ingress = new DisplaymanagerIngressService(controller, Runnable::run);
+
+        request = ShowDeparturesRequest.newBuilder()
+                .addAllStations(BoardFixtures.stations(stations))
+                .setDataFetchedAt(BoardFixtures.fetchedAt())
+                .build();
+        requestBytes = request.toByteArray();
+    }
+
+    @Benchmark
+    public void showDepartures(Blackhole blackhole) {
+        ingress.showDepartures(request, ackObserver(blackhole));
+    }
+
+    /** Wie oben, aber inkl. Protobuf-Decoding des Requests (so wie er vom Netz kommt) */
+    @Benchmark
+    public void parseAndShowDepartures(Blackhole blackhole) throws Exception {
+        ShowDeparturesRequest parsed = ShowDeparturesRequest.parseFrom(requestBytes);
+        ingress.showDepartures(parsed, ackObserver(blackhole));
+    }
+
+    private static StreamObserver<Ack> ackObserver(Blackhole blackhole) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(Ack ack) {
+                blackhole.consume(ack);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                blackhole.consume(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
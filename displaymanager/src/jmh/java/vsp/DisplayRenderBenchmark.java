@@ -0,0 +1,49 @@
+package vsp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten eines Boards in DisplayView.showDeparturesToMonitor, gerendert in einen Null-Sink
+ * (vollständiger Frame bzw. ANSI-Diff).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DisplayRenderBenchmark {
+
+    @Param({"3", "10", "50"})
+    public int stations;
+
+    // true: Diff gegen den vorherigen Frame, bei unverändertem Board wird nichts ausgegeben
+    @Param({"false", "true"})
+    public boolean ansi;
+
+    private DisplayView view;
+    private List<DepartureStation> board;
+    private com.google.protobuf.Timestamp fetchedAt;
+
+    @Setup
+    public void setUp() {
+        PrintStream nullSink = new PrintStream(OutputStream.nullOutputStream());
+        view = new DisplayView(nullSink, nullSink, ansi);
+        board = BoardFixtures.stations(stations);
+        fetchedAt = BoardFixtures.fetchedAt();
+    }
+
+    @Benchmark
+    public void render() {
+        view.showDeparturesToMonitor(board, fetchedAt);
+    }
+}
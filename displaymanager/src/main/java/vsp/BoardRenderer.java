@@ -0,0 +1,291 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Render-Engine für den Departure-Monitor.
+ *
+ * Zeilen werden in einen wiederverwendeten Puffer formatiert (Trenner, Header, Minuten- und Uhrzeit-Strings
+ * sind vorberechnet). Unveränderte Zeilen behalten die Instanz aus dem vorherigen Frame.
+ * Im ANSI-Modus wird gegen den zuletzt gezeichneten Frame gedifft und nur geänderte Zeilen
+ * per Cursor-Adressierung neu geschrieben; ohne ANSI wird jeder Frame vollständig ausgegeben (z.B. für Logs).
+ *
+ * Nicht thread-sicher, der Aufrufer (DisplayView) serialisiert.
+ */
+public class BoardRenderer {
+
+    static final int WIDTH = 87;
+    static final String SEPARATOR = "  " + "=".repeat(WIDTH);
+    static final String DIVIDER = "  " + "-".repeat(WIDTH);
+    static final String TITLE = "                              DEPARTURE MONITOR";
+    static final String SUBTITLE = "                  (Data available for Hamburg/HVV region only)";
+    static final String HEADER = String.format("  %-27s %-10s %-10s %30s", "LINE", "IN", "TIME", "STOP");
+
+    private static final String ESC = "\u001B[";
+    private static final int LINE_WIDTH = 27;
+    private static final int LINE_MAX = 20;
+    private static final int COLUMN_WIDTH = 10;
+    private static final int STOP_WIDTH = 30;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final DateTimeFormatter FETCHED_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+
+    // "now", "1 min", ..., "59 min", "1h 00m", ... für die nächsten 24 Stunden
+    private static final String[] MINUTE_STRINGS = new String[MINUTES_PER_DAY];
+    // "00:00" ... "23:59" nach Minute des Tages
+    private static final String[] TIME_STRINGS = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int i = 0; i < MINUTES_PER_DAY; i++) {
+            MINUTE_STRINGS[i] = formatMinutesUntil(i);
+            TIME_STRINGS[i] = String.format("%02d:%02d", i / 60, i % 60);
+        }
+    }
+
+    private final boolean ansi;
+    private final ZoneId zoneId;
+    private final StringBuilder row = new StringBuilder(WIDTH + 8);
+    private final StringBuilder output = new StringBuilder(4096);
+
+    private String[] rows = new String[64];
+    private int rowCount;
+    // zuletzt auf dem Terminal gezeichneter Frame (null = unbekannt, nächster Frame komplett)
+    private String[] drawn;
+    private int drawnCount;
+    private int changedRows;
+
+    public BoardRenderer(boolean ansi) {
+        this(ansi, ZoneId.systemDefault());
+    }
+
+    public BoardRenderer(boolean ansi, ZoneId zoneId) {
+        this.ansi = ansi;
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * Rendert ein Board und liefert die auszugebenden Zeichen (leer, wenn sich im ANSI-Modus nichts geändert hat).
+     * Der zurückgegebene Puffer ist nur bis zum nächsten Aufruf gültig.
+     *
+     * @param stations nicht leere Liste von Stationen
+     * @param dataFetchedAt Zeitpunkt des Datenabrufs, null = now
+     * @param now Referenzzeit für die "IN"-Spalte
+     */
+    public CharSequence render(List<DepartureStation> stations, Timestamp dataFetchedAt, Instant now) {
+        String[] previous = drawn;
+        rowCount = 0;
+
+        addRow("", previous);
+        addRow(SEPARATOR, previous);
+        addRow(TITLE, previous);
+        addRow(SUBTITLE, previous);
+        addRow(SEPARATOR, previous);
+        addRow(HEADER, previous);
+        addRow(DIVIDER, previous);
+
+        int totalDepartures = 0;
+        for (DepartureStation station : stations) {
+            String stationName = station.getStationName();
+            if (station.getDeparturesList().isEmpty()) {
+                // Station ohne Abfahrten anzeigen
+                formatRow("-", "-", "-", stationName);
+                commitRow(previous);
+                continue;
+            }
+            for (Departure dep : station.getDeparturesList()) {
+                totalDepartures++;
+                Timestamp time = dep.getDepartureTime();
+                formatRow(dep.getLineName(), minutesUntil(time, now), clockTime(time), stationName);
+                commitRow(previous);
+            }
+        }
+
+        addRow(DIVIDER, previous);
+        row.setLength(0);
+        row.append("  Total: ").append(totalDepartures).append(" departures from ")
+                .append(stations.size()).append(" stations");
+        commitRow(previous);
+
+        Instant fetchedAt = dataFetchedAt != null
+                ? Instant.ofEpochSecond(dataFetchedAt.getSeconds(), dataFetchedAt.getNanos())
+                : now;
+        row.setLength(0);
+        row.append("  Last data update: ").append(FETCHED_FORMATTER.format(LocalDateTime.ofInstant(fetchedAt, zoneId)));
+        commitRow(previous);
+
+        addRow(SEPARATOR, previous);
+        addRow("", previous);
+
+        return ansi ? writeDiff(previous) : writeFull();
+    }
+
+    /**
+     * Bildschirminhalt ist unbekannt (z.B. nach Fehlermeldungen), der nächste Frame wird komplett gezeichnet.
+     */
+    public void invalidate() {
+        drawn = null;
+        drawnCount = 0;
+    }
+
+    /**
+     * Anzahl der Zeilen, die der letzte Frame tatsächlich geschrieben hat.
+     */
+    public int lastChangedRows() {
+        return changedRows;
+    }
+
+    private CharSequence writeFull() {
+        output.setLength(0);
+        for (int i = 0; i < rowCount; i++) {
+            output.append(rows[i]).append('\n');
+        }
+        changedRows = rowCount;
+        swapFrames();
+        return output;
+    }
+
+    private CharSequence writeDiff(String[] previous) {
+        output.setLength(0);
+        changedRows = 0;
+
+        if (previous == null) {
+            output.append(ESC).append("H").append(ESC).append("2J");
+            for (int i = 0; i < rowCount; i++) {
+                output.append(rows[i]).append('\n');
+            }
+            changedRows = rowCount;
+        } else {
+            for (int i = 0; i < rowCount; i++) {
+                // commitRow übernimmt unveränderte Zeilen als dieselbe Instanz
+                if (i >= drawnCount || rows[i] != previous[i]) {
+                    moveTo(i).append(rows[i]).append(ESC).append('K');
+                    changedRows++;
+                }
+            }
+            for (int i = rowCount; i < drawnCount; i++) {
+                moveTo(i).append(ESC).append('K');
+                changedRows++;
+            }
+            if (changedRows > 0) {
+                moveTo(rowCount);
+            }
+        }
+        swapFrames();
+        return output;
+    }
+
+    private StringBuilder moveTo(int rowIndex) {
+        return output.append(ESC).append(rowIndex + 1).append(";1H");
+    }
+
+    private void swapFrames() {
+        // Zeilen-Array des alten Frames wird für den nächsten Frame wiederverwendet
+        String[] old = drawn;
+        drawn = rows;
+        drawnCount = rowCount;
+        rows = old != null ? old : new String[drawn.length];
+    }
+
+    private void addRow(String text, String[] previous) {
+        ensureCapacity();
+        int index = rowCount++;
+        rows[index] = previous != null && index < drawnCount && text.equals(previous[index]) ? previous[index] : text;
+    }
+
+    private void commitRow(String[] previous) {
+        ensureCapacity();
+        int index = rowCount++;
+        String old = previous != null && index < drawnCount ? previous[index] : null;
+        rows[index] = old != null && old.contentEquals(row) ? old : row.toString();
+    }
+
+    private void ensureCapacity() {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+    }
+
+    /**
+     * Entspricht "  %-27s %-10s %-10s %30s" mit Linie auf 20 und Haltestelle auf 30 Zeichen gekürzt.
+     */
+    private void formatRow(String line, String in, String time, String stop) {
+        row.setLength(0);
+        row.append("  ");
+        appendLeft(line, LINE_MAX, LINE_WIDTH);
+        row.append(' ');
+        appendLeft(in, Integer.MAX_VALUE, COLUMN_WIDTH);
+        row.append(' ');
+        appendLeft(time, Integer.MAX_VALUE, COLUMN_WIDTH);
+        row.append(' ');
+        appendRight(stop, STOP_WIDTH, STOP_WIDTH);
+    }
+
+    private void appendLeft(String text, int maxLength, int width) {
+        int length = appendTruncated(text, maxLength);
+        for (int i = length; i < width; i++) {
+            row.append(' ');
+        }
+    }
+
+    private void appendRight(String text, int maxLength, int width) {
+        int length = Math.min(text == null ? 0 : text.length(), maxLength);
+        for (int i = length; i < width; i++) {
+            row.append(' ');
+        }
+        appendTruncated(text, maxLength);
+    }
+
+    private int appendTruncated(String text, int maxLength) {
+        if (text == null) {
+            return 0;
+        }
+        if (text.length() > maxLength) {
+            row.append(text, 0, maxLength - 3).append("...");
+            return maxLength;
+        }
+        row.append(text);
+        return text.length();
+    }
+
+    private static String minutesUntil(Timestamp departure, Instant now) {
+        long nanos = (departure.getSeconds() - now.getEpochSecond()) * 1_000_000_000L
+                + (departure.getNanos() - now.getNano());
+        // wie ChronoUnit.MINUTES.between: Richtung 0 abgeschnitten
+        long minutes = nanos / 60_000_000_000L;
+        if (minutes < 0) {
+            return "departed";
+        }
+        return minutes < MINUTES_PER_DAY ? MINUTE_STRINGS[(int) minutes] : formatMinutesUntil(minutes);
+    }
+
+    private String clockTime(Timestamp departure) {
+        Instant instant = Instant.ofEpochSecond(departure.getSeconds(), departure.getNanos());
+        long localSeconds = departure.getSeconds() + zoneId.getRules().getOffset(instant).getTotalSeconds();
+        return TIME_STRINGS[(int) Math.floorMod(Math.floorDiv(localSeconds, 60), (long) MINUTES_PER_DAY)];
+    }
+
+    /**
+     * Formatiert Minuten bis Abfahrt für bessere Lesbarkeit
+     */
+    static String formatMinutesUntil(long minutes) {
+        if (minutes < 0) {
+            return "departed";
+        } else if (minutes == 0) {
+            return "now";
+        } else if (minutes == 1) {
+            return "1 min";
+        } else if (minutes < 60) {
+            return minutes + " min";
+        } else {
+            long hours = minutes / 60;
+            long remainingMinutes = minutes % 60;
+            return String.format("%dh %02dm", hours, remainingMinutes);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import vsp.app.DisplaymanagerApplicationConfig;
+import vsp.grpc.BoardCodec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Registry der abonnierten Tafeln (Fan-out an beliebig viele Displays).
+ *
+ * Subscriber hängen an einer Session (z.B. der gemeinsamen Session einer Adresse) oder an einer Stationsmenge.
+ * Jede Tafel, die das DisplayModel anzeigt, wird pro Session bzw. Stationsmenge einmal kodiert und in die Queue
+ * jedes passenden Subscribers gelegt. Der Publisher blockiert nie: läuft die Queue eines Subscribers über, weil er
+ * nicht schnell genug liest, wird er getrennt und muss neu abonnieren.
+ */
+@Component
+public class BoardSubscriptions {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardSubscriptions.class);
+
+    /**
+     * Ziel eines Subscribers (z.B. ein gRPC-Server-Stream). Aufrufe kommen nie gleichzeitig.
+     */
+    public interface Sink {
+        /**
+         * @return false, solange der Sink nichts aufnehmen kann; dann bleiben Tafeln in der Queue
+         */
+        boolean isReady();
+
+        void send(SubscribedBoard board);
+
+        /**
+         * Subscriber wurde wegen Überlauf getrennt.
+         */
+        void drop(String reason);
+    }
+
+    private final int queueCapacity;
+    private final int maxSubscribers;
+
+    private final ConcurrentMap<String, Set<Subscription>> bySession = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Set<String>, Set<Subscription>> byStations = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Counter delivered;
+    private final Counter dropped;
+
+    @Autowired
+    public BoardSubscriptions(DisplaymanagerApplicationConfig config, MeterRegistry meterRegistry) {
+        this(config.getSubscriptions().getQueueCapacity(), config.getSubscriptions().getMaxSubscribers(),
+                meterRegistry);
+    }
+
+    public BoardSubscriptions(int queueCapacity, int maxSubscribers, MeterRegistry meterRegistry) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+
+        Gauge.builder("vsp.display.subscribers", active, AtomicInteger::get)
+                .description("Aktive Subscriber")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("vsp.display.subscribers.boards")
+                .description("An Subscriber übergebene Tafeln")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("vsp.display.subscribers.dropped")
+                .description("Wegen Queue-Überlauf getrennte Subscriber")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abonniert alle Tafeln einer Session.
+     *
+     * @throws IllegalStateException wenn max-subscribers erreicht ist
+     */
+    public Subscription subscribeSession(String sessionId, Sink sink) {
+        Subscription subscription = register(sink, "session " + sessionId);
+        add(bySession, sessionId, subscription);
+        subscription.whenCancelled(() -> remove(bySession, sessionId, subscription));
+        return subscription;
+    }
+
+    /**
+     * Abonniert jede Tafel, die alle angegebenen Stationen enthält; zugestellt werden nur diese Stationen.
+     *
+     * @throws IllegalStateException wenn max-subscribers erreicht ist
+     */
+    public Subscription subscribeStations(Set<String> stationIds, Sink sink) {
+        if (stationIds.isEmpty()) {
+            throw new IllegalArgumentException("Station set is empty");
+        }
+        Set<String> key = Set.copyOf(stationIds);
+        Subscription subscription = register(sink, "stations " + key);
+        add(byStations, key, subscription);
+        subscription.whenCancelled(() -> remove(byStations, key, subscription));
+        return subscription;
+    }
+
+    public boolean hasSubscribers(String sessionId) {
+        return bySession.containsKey(sessionId);
+    }
+
+    public int subscriberCount() {
+        return active.get();
+    }
+
+    /**
+     * Verteilt eine angezeigte Tafel an alle passenden Subscriber; kodiert wird einmal pro Gruppe.
+     */
+    public void publish(String sessionId, List<DepartureStation> stations, Timestamp dataFetchedAt) {
+        if (active.get() == 0) {
+            return;
+        }
+        Set<Subscription> sessionSubscribers = bySession.get(sessionId);
+        if (sessionSubscribers != null) {
+            SubscribedBoard board = board(sessionId, stations, dataFetchedAt);
+            for (Subscription subscription : sessionSubscribers) {
+                subscription.offer(board);
+            }
+        }
+        if (byStations.isEmpty()) {
+            return;
+        }
+        Set<String> stationIds = stations.stream().map(DepartureStation::getStationId).collect(Collectors.toSet());
+        for (Map.Entry<Set<String>, Set<Subscription>> group : byStations.entrySet()) {
+            if (!stationIds.containsAll(group.getKey())) {
+                continue;
+            }
+            List<DepartureStation> subset = stations.stream()
+                    .filter(station -> group.getKey().contains(station.getStationId()))
+                    .toList();
+            SubscribedBoard board = board(sessionId, subset, dataFetchedAt);
+            for (Subscription subscription : group.getValue()) {
+                subscription.offer(board);
+            }
+        }
+    }
+
+    /**
+     * Stellt einem einzelnen (z.B. gerade hinzugekommenen) Subscriber die aktuelle Tafel zu.
+     */
+    public void replay(Subscription subscription, String sessionId, List<DepartureStation> stations,
+                       Timestamp dataFetchedAt) {
+        subscription.offer(board(sessionId, stations, dataFetchedAt));
+    }
+
+    private Subscription register(Sink sink, String topic) {
+        if (active.incrementAndGet() > maxSubscribers) {
+            active.decrementAndGet();
+            throw new IllegalStateException("Too many subscribers (" + maxSubscribers + ")");
+        }
+        log.info("New subscriber for {} ({} active)", topic, active.get());
+        return new Subscription(sink, topic, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    private static SubscribedBoard board(String sessionId, List<DepartureStation> stations, Timestamp dataFetchedAt) {
+        SubscribedBoard.Builder board = SubscribedBoard.newBuilder()
+                .setSessionId(sessionId)
+                .setBoard(BoardCodec.encode(stations));
+        if (dataFetchedAt != null) {
+            board.setDataFetchedAt(dataFetchedAt);
+        }
+        return board.build();
+    }
+
+    private static <K> void add(ConcurrentMap<K, Set<Subscription>> index, K key, Subscription subscription) {
+        index.compute(key, (k, subscribers) -> {
+            Set<Subscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+    }
+
+    private static <K> void remove(ConcurrentMap<K, Set<Subscription>> index, K key, Subscription subscription) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Ein Subscriber mit eigener, begrenzter Queue.
+     *
+     * offer() legt nur ab und stößt drain() an; drain() läuft nie parallel (Work-in-Progress-Zähler) und sendet,
+     * solange der Sink bereit ist. Ein nicht bereiter Sink wird später über drain() (z.B. onReady) weiter geleert.
+     */
+    public final class Subscription {
+
+        private final Sink sink;
+        private final String topic;
+        private final Queue<SubscribedBoard> queue;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final List<Runnable> cancelActions = new CopyOnWriteArrayList<>();
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+
+        private Subscription(Sink sink, String topic, Queue<SubscribedBoard> queue) {
+            this.sink = sink;
+            this.topic = topic;
+            this.queue = queue;
+        }
+
+        /**
+         * Beendet das Abo (z.B. Client hat den Stream geschlossen); weitere Tafeln werden verworfen.
+         */
+        public synchronized void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            active.decrementAndGet();
+            cancelActions.forEach(Runnable::run);
+            queue.clear();
+            log.info("Subscriber for {} left ({} active)", topic, active.get());
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public int queued() {
+            return queue.size();
+        }
+
+        /**
+         * Sendet wartende Tafeln, solange der Sink bereit ist.
+         */
+        public void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (overflowed && !cancelled) {
+                    cancel();
+                    dropped.increment();
+                    log.warn("Subscriber for {} too slow ({} boards queued), dropping", topic, queueCapacity);
+                    sink.drop("Subscriber too slow, " + queueCapacity + " boards queued");
+                }
+                SubscribedBoard board;
+                try {
+                    while (!cancelled && sink.isReady() && (board = queue.poll()) != null) {
+                        sink.send(board);
+                        delivered.increment();
+                    }
+                } catch (RuntimeException e) {
+                    // z.B. Stream inzwischen geschlossen
+                    log.debug("Sending to subscriber for {} failed: {}", topic, e.getMessage());
+                    cancel();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Läuft nach cancel() bzw. nach dem Trennen wegen Überlauf (sofort, falls schon beendet).
+         */
+        public void whenCancelled(Runnable action) {
+            boolean alreadyCancelled;
+            synchronized (this) {
+                cancelActions.add(action);
+                alreadyCancelled = cancelled;
+            }
+            if (alreadyCancelled) {
+                action.run();
+            }
+        }
+
+        private void offer(SubscribedBoard board) {
+            if (cancelled) {
+                return;
+            }
+            if (!queue.offer(board)) {
+                overflowed = true;
+            }
+            drain();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package vsp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import vsp.app.DisplaymanagerApplicationConfig;
+import vsp.client.LocationClient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aktualisiert die "IN"-Spalte der zuletzt gezeigten Boards lokal, ohne die Pipeline erneut zu durchlaufen.
+ *
+ * Tickt jeweils kurz nach einer Minutengrenze, entfernt abgelaufene Sessions und abgefahrene Einträge aus dem
+ * DisplayModel und rendert jedes Board neu. Erst wenn weniger als refetch-threshold Abfahrten sichtbar sind, wird
+ * für die gespeicherte Adresse der Session neu angefragt (höchstens einmal pro Cooldown und Session).
+ */
+@Component
+public class CountdownTicker {
+
+    private static final Logger log = LoggerFactory.getLogger(CountdownTicker.class);
+
+    // Abstand hinter der Minutengrenze, damit die Minute sicher umgesprungen ist
+    private static final long TICK_OFFSET_MILLIS = 50;
+
+    private final DisplayModel model;
+    private final LocationClient locationClient;
+    private final Clock clock;
+    private final int refetchThreshold;
+    private final Duration refetchCooldown;
+    private final Duration pruneGrace;
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter ticks;
+    private final Counter refetches;
+
+    private final ConcurrentMap<String, Instant> lastRefetch = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CountdownTicker(DisplayModel model, LocationClient locationClient,
+                           DisplaymanagerApplicationConfig config, MeterRegistry meterRegistry) {
+        this(model, locationClient, Clock.systemDefaultZone(), config.getDisplay(), meterRegistry,
+                config.getDisplay().isCountdownEnabled());
+    }
+
+    CountdownTicker(DisplayModel model, LocationClient locationClient, Clock clock,
+                    DisplaymanagerApplicationConfig.Display display, MeterRegistry meterRegistry, boolean start) {
+        this.model = model;
+        this.locationClient = locationClient;
+        this.clock = clock;
+        this.refetchThreshold = display.getRefetchThreshold();
+        this.refetchCooldown = Duration.ofSeconds(display.getRefetchCooldownSeconds());
+        this.pruneGrace = Duration.ofSeconds(display.getPruneGraceSeconds());
+
+        this.ticks = Counter.builder("vsp.display.countdown.ticks")
+                .description("Lokal aktualisierte Boards (ohne Refetch)")
+                .register(meterRegistry);
+        this.refetches = Counter.builder("vsp.display.countdown.refetches")
+                .description("Neu angeforderte Boards, weil zu wenige Abfahrten sichtbar waren")
+                .register(meterRegistry);
+
+        if (start) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "display-countdown");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduleNextTick();
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Ein Tick: abgelaufene Sessions entfernen, dann für jede Session abgefahrene Einträge entfernen,
+     * neu rendern und ggf. Refetch auslösen.
+     */
+    void tick() {
+        Instant now = clock.instant();
+        model.evictExpired();
+        for (String sessionId : model.sessionIds()) {
+            tick(sessionId, now);
+        }
+        lastRefetch.keySet().retainAll(model.sessionIds());
+    }
+
+    private void tick(String sessionId, Instant now) {
+        List<DepartureStation> board = model.pruneDeparted(sessionId, now.minus(pruneGrace));
+        if (board == null) {
+            return; // noch kein Board angezeigt
+        }
+
+        model.displayDepartures(sessionId, board, model.getDataFetchedAt(sessionId));
+        ticks.increment();
+
+        int visible = 0;
+        for (DepartureStation station : board) {
+            visible += station.getDeparturesCount();
+        }
+
+        Address address = model.getAddress(sessionId);
+        if (visible < refetchThreshold && address != null
+                && !now.isBefore(lastRefetch.getOrDefault(sessionId, Instant.EPOCH).plus(refetchCooldown))) {
+            log.info("Only {} departures left on the board of session {}, refetching for {} {}",
+                    visible, sessionId, address.getStreet(), address.getHouseNumber());
+            lastRefetch.put(sessionId, now);
+            refetches.increment();
+            locationClient.sendUserPassLocation(address, null, sessionId);
+        }
+    }
+
+    /**
+     * Verzögerung bis kurz nach der nächsten Minutengrenze.
+     */
+    static long millisUntilNextMinute(long epochMillis) {
+        return 60_000 - Math.floorMod(epochMillis, 60_000L) + TICK_OFFSET_MILLIS;
+    }
+
+    private void scheduleNextTick() {
+        scheduler.schedule(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Countdown tick failed: {}", e.getMessage(), e);
+            } finally {
+                // jedes Mal neu ausrichten statt fester Rate, damit der Takt nicht von der Minutengrenze wegdriftet
+                if (!scheduler.isShutdown()) {
+                    scheduleNextTick();
+                }
+            }
+        }, millisUntilNextMinute(clock.millis()), TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,44 +1,482 @@
 package vsp;
 
 import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import vsp.app.DisplaymanagerApplicationConfig;
+import vsp.grpc.BoardDeltas;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
+/**
+ * Zustand des DisplayManagers, getrennt pro Session (RequestMeta.session_id bzw. correlation_id).
+ *
+ * Jede Session ist ein unveränderlicher Snapshot in einer ConcurrentHashMap: Lesen ist lock-frei, Schreiben
+ * ersetzt den Snapshot atomar. Sessions verfallen nach session-ttl ohne Aktivität; wird max-sessions oder
+ * max-bytes überschritten, werden die am längsten inaktiven Sessions verdrängt.
+ * Versionierte Tafeln (board_version) werden zusätzlich unverändert gehalten, damit Deltas des Transportplans
+ * auch dann passen, wenn der Countdown-Ticker abgefahrene Einträge bereits entfernt hat.
+ */
 @Component
 public class DisplayModel {
 
+    private static final Logger log = LoggerFactory.getLogger(DisplayModel.class);
+
+    // Session für Aufrufe ohne RequestMeta (und die bisherigen Methoden ohne Session-ID)
+    public static final String DEFAULT_SESSION = "default";
+
+    // grobe Schätzung für Map-Eintrag, Record und Listen ohne die Protobuf-Nutzdaten
+    private static final long SESSION_OVERHEAD_BYTES = 256;
+
     private final DisplayView view;
-    private Address address;
-    private List<DepartureStation> departures;
+    private final RenderLoop renderLoop; // null = direkt im aufrufenden Thread rendern
+    private final BoardSubscriptions subscriptions; // null = keine weiteren Displays
+    private final Clock clock;
+    private final Duration sessionTtl;
+    private final int maxSessions;
+    private final long maxBytes;
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Unveränderlicher Zustand einer Session.
+     *
+     * @param departures angezeigtes Board (ggf. um abgefahrene Einträge bereinigt)
+     * @param boardVersion Version der zuletzt empfangenen Tafel, 0 = unversioniert
+     * @param board zuletzt empfangene Tafel dieser Version (Basis für Deltas), null wenn unversioniert
+     * @param lastAccess letzte Aktivität aus der Pipeline (Adresse oder Abfahrten gespeichert), Basis der Verdrängung
+     * @param lastUserAccess letzte Nutzeranfrage (Adresse gespeichert) bzw. Anlage der Session, Basis der TTL;
+     *                       Tafeln aus Refetches des Countdown-Tickers zählen nicht
+     * @param bytes geschätzter Speicherbedarf des Snapshots
+     */
+    public record Session(Address address, List<DepartureStation> departures, Timestamp dataFetchedAt,
+                          long boardVersion, List<DepartureStation> board, Instant lastAccess,
+                          Instant lastUserAccess, long bytes) {
+    }
 
     public DisplayModel(DisplayView view) {
+        this(view, null, new DisplaymanagerApplicationConfig.Display(), Clock.systemUTC());
+    }
+
+    @Autowired
+    public DisplayModel(DisplayView view, RenderLoop renderLoop, BoardSubscriptions subscriptions,
+                        DisplaymanagerApplicationConfig config, MeterRegistry meterRegistry) {
+        this(view, renderLoop, subscriptions, config.getDisplay(), Clock.systemUTC());
+
+        Gauge.builder("vsp.display.sessions.active", sessions, Map::size)
+                .description("Sessions mit gespeichertem Zustand")
+                .register(meterRegistry);
+        Gauge.builder("vsp.display.sessions.bytes", estimatedBytes, AtomicLong::get)
+                .description("Geschätzter Speicherbedarf aller Sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("vsp.display.sessions.evicted", expired, AtomicLong::get)
+                .description("Entfernte Sessions")
+                .tag("reason", "ttl")
+                .register(meterRegistry);
+        FunctionCounter.builder("vsp.display.sessions.evicted", evicted, AtomicLong::get)
+                .description("Entfernte Sessions")
+                .tag("reason", "size")
+                .register(meterRegistry);
+    }
+
+    DisplayModel(DisplayView view, RenderLoop renderLoop, DisplaymanagerApplicationConfig.Display display,
+                 Clock clock) {
+        this(view, renderLoop, null, display, clock);
+    }
+
+    DisplayModel(DisplayView view, RenderLoop renderLoop, BoardSubscriptions subscriptions,
+                 DisplaymanagerApplicationConfig.Display display, Clock clock) {
         this.view = view;
+        this.renderLoop = renderLoop;
+        this.subscriptions = subscriptions;
+        this.clock = clock;
+        this.sessionTtl = Duration.ofSeconds(display.getSessionTtlSeconds());
+        this.maxSessions = Math.max(1, display.getSessionMaxCount());
+        this.maxBytes = display.getSessionMaxBytes();
     }
 
     public void saveAddress(Address address) {
-        this.address = address;
+        saveAddress(DEFAULT_SESSION, address);
+    }
+
+    public void saveAddress(String sessionId, Address address) {
+        Instant now = clock.instant();
+        update(sessionId, current -> current == null
+                ? new Session(address, null, null, 0, null, now, now, 0)
+                : new Session(address, current.departures(), current.dataFetchedAt(), current.boardVersion(),
+                        current.board(), now, now, 0));
         view.notifyAddressSaved();
     }
 
+    /**
+     * Setzt die Adresse einer Session nur, wenn sie noch keine hat; Prüfen und Setzen sind atomar.
+     *
+     * @return true nur für den ersten Aufrufer, der damit die Abfrage der Session auslöst
+     */
+    public boolean claimAddress(String sessionId, Address address) {
+        Instant now = clock.instant();
+        AtomicBoolean claimed = new AtomicBoolean();
+        update(sessionId, current -> {
+            if (current != null && current.address() != null) {
+                return current;
+            }
+            claimed.set(true);
+            return current == null
+                    ? new Session(address, null, null, 0, null, now, now, 0)
+                    : new Session(address, current.departures(), current.dataFetchedAt(), current.boardVersion(),
+                            current.board(), now, now, 0);
+        });
+        if (claimed.get()) {
+            view.notifyAddressSaved();
+        }
+        return claimed.get();
+    }
+
     public void saveDepartures(List<DepartureStation> departures) {
-        this.departures = departures;
+        saveDepartures(DEFAULT_SESSION, departures);
+    }
+
+    public void saveDepartures(String sessionId, List<DepartureStation> departures) {
+        saveBoard(sessionId, departures, 0);
+    }
+
+    /**
+     * Speichert eine volle Tafel mit ihrer Version; folgende Deltas müssen auf dieser Version aufsetzen.
+     *
+     * @param boardVersion 0 = unversioniert (keine Deltas möglich)
+     */
+    public void saveBoard(String sessionId, List<DepartureStation> departures, long boardVersion) {
+        Instant now = clock.instant();
+        List<DepartureStation> board = boardVersion != 0 ? departures : null;
+        update(sessionId, current -> current == null
+                ? new Session(null, departures, null, boardVersion, board, now, now, 0)
+                : new Session(current.address(), departures, current.dataFetchedAt(), boardVersion, board, now,
+                        current.lastUserAccess(), 0));
         view.notifyDeparturesSaved();
     }
 
+    /**
+     * Version der zuletzt empfangenen Tafel einer Session.
+     *
+     * @return 0, wenn die Session unbekannt ist oder keine versionierte Tafel hat
+     */
+    public long getBoardVersion(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.boardVersion() : 0;
+    }
+
+    /**
+     * Wendet ein Delta auf die gespeicherte Tafel an, sofern sie noch die Basisversion des Deltas hat.
+     *
+     * @return das neue Board, null wenn die Version nicht (mehr) passt; dann ist eine volle Tafel nötig
+     */
+    public List<DepartureStation> applyDelta(String sessionId, BoardDelta delta) {
+        Instant now = clock.instant();
+        List<List<DepartureStation>> applied = new ArrayList<>(1);
+        sessions.computeIfPresent(sessionId, (id, current) -> {
+            if (current.board() == null || current.boardVersion() != delta.getBaseVersion()) {
+                return current;
+            }
+            List<DepartureStation> board = BoardDeltas.apply(current.board(), delta);
+            Session next = new Session(current.address(), board, current.dataFetchedAt(), delta.getVersion(),
+                    board, now, current.lastUserAccess(), estimateBytes(id, current.address(), board, board));
+            estimatedBytes.addAndGet(next.bytes() - current.bytes());
+            applied.add(board);
+            return next;
+        });
+        if (applied.isEmpty()) {
+            return null;
+        }
+        enforceBounds();
+        view.notifyDeparturesSaved();
+        return applied.get(0);
+    }
+
+    /**
+     * Zeigt ab jetzt die Boards dieser Session auf der Konsole (Session der letzten Nutzeranfrage).
+     */
+    public void showOnConsole(String sessionId) {
+        if (renderLoop != null) {
+            renderLoop.bindConsole(sessionId);
+        }
+    }
+
     public void displayDepartures(List<DepartureStation> departures) {
-        displayDepartures(departures, null);
+        displayDepartures(DEFAULT_SESSION, departures, null);
     }
 
     public void displayDepartures(List<DepartureStation> departures, Timestamp dataFetchedAt) {
-        view.showDeparturesToMonitor(departures, dataFetchedAt);
+        displayDepartures(DEFAULT_SESSION, departures, dataFetchedAt);
+    }
+
+    public void displayDepartures(String sessionId, List<DepartureStation> departures, Timestamp dataFetchedAt) {
+        // für den Countdown-Ticker, der das zuletzt gezeigte Board neu rendert; zählt nicht als Aktivität
+        sessions.computeIfPresent(sessionId, (id, current) -> Objects.equals(current.dataFetchedAt(), dataFetchedAt)
+                ? current
+                : new Session(current.address(), current.departures(), dataFetchedAt,
+                        current.boardVersion(), current.board(), current.lastAccess(), current.lastUserAccess(),
+                        current.bytes()));
+
+        if (renderLoop != null) {
+            renderLoop.submit(sessionId, departures, dataFetchedAt);
+        } else {
+            view.showDeparturesToMonitor(departures, dataFetchedAt);
+        }
+        // weitere Displays dieser Session bzw. Stationen; blockiert nicht
+        if (subscriptions != null) {
+            subscriptions.publish(sessionId, departures, dataFetchedAt);
+        }
+    }
+
+    /**
+     * Entfernt Abfahrten vor cutoff aus dem gespeicherten Board der Default-Session.
+     *
+     * @return das bereinigte Board, null wenn noch keins gespeichert ist
+     */
+    public List<DepartureStation> pruneDeparted(Instant cutoff) {
+        return pruneDeparted(DEFAULT_SESSION, cutoff);
+    }
+
+    /**
+     * Entfernt Abfahrten vor cutoff aus dem gespeicherten Board der Session (Stationen bleiben erhalten).
+     *
+     * @return das bereinigte Board, null wenn die Session kein Board hat
+     */
+    public List<DepartureStation> pruneDeparted(String sessionId, Instant cutoff) {
+        while (true) {
+            Session current = sessions.get(sessionId);
+            if (current == null || current.departures() == null) {
+                return null;
+            }
+            List<DepartureStation> pruned = prune(current.departures(), cutoff.getEpochSecond());
+            if (pruned == current.departures()) {
+                return pruned;
+            }
+            // die empfangene Tafel (board) bleibt unverändert, Deltas setzen weiter darauf auf
+            Session next = new Session(current.address(), pruned, current.dataFetchedAt(), current.boardVersion(),
+                    current.board(), current.lastAccess(), current.lastUserAccess(),
+                    estimateBytes(sessionId, current.address(), pruned, current.board()));
+            // nur ersetzen, wenn zwischendurch niemand geschrieben hat; sonst mit dem neuen Snapshot wiederholen
+            if (sessions.replace(sessionId, current, next)) {
+                estimatedBytes.addAndGet(next.bytes() - current.bytes());
+                return pruned;
+            }
+        }
+    }
+
+    /**
+     * Entfernt Sessions ohne Nutzeranfrage seit session-ttl. Refetches des Countdown-Tickers halten eine Session
+     * nicht am Leben, sonst würde sie sich endlos selbst aktualisieren. Sessions mit Subscribern bleiben, bis der
+     * letzte Subscriber geht.
+     *
+     * @return Anzahl entfernter Sessions
+     */
+    public int evictExpired() {
+        Instant cutoff = clock.instant().minus(sessionTtl);
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (session.lastUserAccess().isBefore(cutoff) && !isSubscribed(entry.getKey())
+                    && remove(entry.getKey(), session)) {
+                expired.incrementAndGet();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Expired {} idle session(s), {} left", removed, sessions.size());
+        }
+        return removed;
+    }
+
+    /**
+     * Entfernt eine Session sofort (z.B. wenn ihr letzter Subscriber gegangen ist).
+     */
+    public void removeSession(String sessionId) {
+        Session removed = sessions.remove(sessionId);
+        if (removed != null) {
+            estimatedBytes.addAndGet(-removed.bytes());
+        }
+    }
+
+    /**
+     * Lock-freier Snapshot einer Session.
+     *
+     * @return null, wenn die Session unbekannt ist
+     */
+    public Session getSession(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Aktuelle Session-IDs (schwach konsistente Sicht, ohne Kopie).
+     */
+    public Set<String> sessionIds() {
+        return sessions.keySet();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.get();
     }
 
     public Address getAddress() {
-        return address;
+        return getAddress(DEFAULT_SESSION);
+    }
+
+    public Address getAddress(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.address() : null;
     }
 
     public List<DepartureStation> getDepartures() {
-        return departures;
+        return getDepartures(DEFAULT_SESSION);
+    }
+
+    public List<DepartureStation> getDepartures(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.departures() : null;
+    }
+
+    public Timestamp getDataFetchedAt() {
+        return getDataFetchedAt(DEFAULT_SESSION);
+    }
+
+    public Timestamp getDataFetchedAt(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.dataFetchedAt() : null;
+    }
+
+    private void update(String sessionId, UnaryOperator<Session> change) {
+        sessions.compute(sessionId, (id, current) -> {
+            Session changed = change.apply(current);
+            Session next = new Session(changed.address(), changed.departures(), changed.dataFetchedAt(),
+                    changed.boardVersion(), changed.board(), changed.lastAccess(), changed.lastUserAccess(),
+                    estimateBytes(id, changed.address(), changed.departures(), changed.board()));
+            estimatedBytes.addAndGet(next.bytes() - (current != null ? current.bytes() : 0));
+            return next;
+        });
+        enforceBounds();
+    }
+
+    private boolean remove(String sessionId, Session session) {
+        // remove(key, value) vergleicht per equals; ein inzwischen geänderter Snapshot bleibt erhalten
+        if (sessions.remove(sessionId, session)) {
+            estimatedBytes.addAndGet(-session.bytes());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Verdrängt die am längsten inaktiven Sessions, bis wieder 90% von max-sessions bzw. max-bytes erreicht sind,
+     * damit nicht jeder weitere Schreibzugriff erneut sortieren muss. Sessions mit Subscribern werden nie verdrängt.
+     */
+    private void enforceBounds() {
+        if (sessions.size() <= maxSessions && estimatedBytes.get() <= maxBytes) {
+            return;
+        }
+        int targetSessions = maxSessions - maxSessions / 10;
+        long targetBytes = maxBytes - maxBytes / 10;
+
+        List<Map.Entry<String, Session>> oldestFirst = new ArrayList<>(sessions.entrySet());
+        oldestFirst.sort(Comparator.comparing(entry -> entry.getValue().lastAccess()));
+
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : oldestFirst) {
+            if (sessions.size() <= targetSessions && estimatedBytes.get() <= targetBytes) {
+                break;
+            }
+            if (!isSubscribed(entry.getKey()) && remove(entry.getKey(), entry.getValue())) {
+                evicted.incrementAndGet();
+                removed++;
+            }
+        }
+        log.info("Evicted {} least recently active session(s): {} sessions, ~{} bytes",
+                removed, sessions.size(), estimatedBytes.get());
+    }
+
+    private boolean isSubscribed(String sessionId) {
+        return subscriptions != null && subscriptions.hasSubscribers(sessionId);
+    }
+
+    private static long estimateBytes(String sessionId, Address address, List<DepartureStation> departures,
+                                      List<DepartureStation> board) {
+        long bytes = SESSION_OVERHEAD_BYTES + 2L * sessionId.length();
+        if (address != null) {
+            bytes += address.getSerializedSize();
+        }
+        bytes += estimateBytes(departures);
+        // unveränderte Stationen teilen sich board und departures, dann nur einmal zählen
+        if (board != null && board != departures) {
+            for (int i = 0; i < board.size(); i++) {
+                DepartureStation station = board.get(i);
+                if (departures == null || i >= departures.size() || departures.get(i) != station) {
+                    bytes += station.getSerializedSize();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(List<DepartureStation> departures) {
+        long bytes = 0;
+        if (departures != null) {
+            for (DepartureStation station : departures) {
+                bytes += station.getSerializedSize();
+            }
+        }
+        return bytes;
+    }
+
+    private static List<DepartureStation> prune(List<DepartureStation> departures, long cutoffSeconds) {
+        List<DepartureStation> pruned = new ArrayList<>(departures.size());
+        boolean changed = false;
+
+        for (DepartureStation station : departures) {
+            int keep = 0;
+            for (Departure departure : station.getDeparturesList()) {
+                if (departure.getDepartureTime().getSeconds() >= cutoffSeconds) {
+                    keep++;
+                }
+            }
+            if (keep == station.getDeparturesCount()) {
+                pruned.add(station);
+                continue;
+            }
+            changed = true;
+            DepartureStation.Builder builder = station.toBuilder().clearDepartures();
+            for (Departure departure : station.getDeparturesList()) {
+                if (departure.getDepartureTime().getSeconds() >= cutoffSeconds) {
+                    builder.addDepartures(departure);
+                }
+            }
+            pruned.add(builder.build());
+        }
+        return changed ? List.copyOf(pruned) : departures;
     }
 }
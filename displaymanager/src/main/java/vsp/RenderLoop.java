@@ -0,0 +1,181 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import vsp.app.DisplaymanagerApplicationConfig;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Einziger Schreiber auf den Monitor.
+ *
+ * Jedes Display (eine Session des DisplayModels) hat einen Slot mit dem zuletzt eingetroffenen Board. Ein
+ * einzelner Render-Thread leert die Slots; pro Display wird höchstens einmal pro Frame-Intervall gerendert,
+ * Boards, die vor dem Rendern durch ein neueres ersetzt werden, werden verworfen (latest wins). Damit kostet eine
+ * Burst von Updates nur einen Render pro Frame und Display, ohne dass Displays aufeinander warten.
+ *
+ * Die Konsole ist ein einzelner Monitor (ein DisplayView mit einem Diff-Zustand): gerendert wird nur das Display,
+ * an das sie gebunden ist: die Session der letzten Nutzeranfrage (bindConsole), bis dahin die Default-Session.
+ * Boards aller anderen Sessions erreichen ihre Displays über BoardSubscriptions.
+ */
+@Component
+public class RenderLoop {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderLoop.class);
+
+    public static final String DEFAULT_DISPLAY = "default";
+
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final DisplayView view;
+    private final long frameIntervalNanos;
+    private volatile String consoleDisplay = DEFAULT_DISPLAY;
+
+    // nur Displays mit noch nicht gerendertem Board; der Render-Thread entfernt den Slot beim Rendern
+    private final ConcurrentMap<String, BoardUpdate> slots = new ConcurrentHashMap<>();
+    // Displays mit ausstehendem Board (jedes höchstens einmal), fällig frühestens ein Frame nach dem letzten Render
+    private final DelayQueue<Due> pending = new DelayQueue<>();
+    // letzter Render pro Display; Einträge älter als ein Frame-Intervall werden regelmäßig entfernt
+    private final ConcurrentMap<String, Long> lastRendered = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final Counter submitted;
+    private final Counter coalesced;
+    private final Timer renderLatency;
+
+    @Autowired
+    public RenderLoop(DisplayView view, DisplaymanagerApplicationConfig config, MeterRegistry meterRegistry) {
+        this(view, config.getDisplay().getFrameIntervalMs(), meterRegistry);
+    }
+
+    public RenderLoop(DisplayView view, long frameIntervalMillis, MeterRegistry meterRegistry) {
+        this.view = view;
+        this.frameIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, frameIntervalMillis));
+
+        this.submitted = Counter.builder("vsp.display.updates.submitted")
+                .description("Eingetroffene Boards")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("vsp.display.updates.coalesced")
+                .description("Boards, die vor dem Rendern durch ein neueres ersetzt wurden")
+                .register(meterRegistry);
+        this.renderLatency = Timer.builder("vsp.display.render.latency")
+                .description("Zeit vom Eintreffen des Boards bis zum Ende des Renderns")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        this.thread = new Thread(this::run, "display-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Legt ein Board in den Slot des Displays; ein noch nicht gerendertes älteres Board wird ersetzt.
+     * Boards für Displays, die gerade nicht auf der Konsole sind, werden nicht gerendert.
+     */
+    public void submit(String displayId, List<DepartureStation> stations, Timestamp dataFetchedAt) {
+        submitted.increment();
+        if (!displayId.equals(consoleDisplay)) {
+            return;
+        }
+        long now = System.nanoTime();
+        BoardUpdate update = new BoardUpdate(stations, dataFetchedAt, now);
+        BoardUpdate previous = slots.put(displayId, update);
+        if (previous == null) {
+            Long last = lastRendered.get(displayId);
+            pending.add(new Due(displayId, last == null ? now : Math.max(now, last + frameIntervalNanos)));
+        } else {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Bindet die Konsole an die Session der letzten Nutzeranfrage.
+     */
+    public void bindConsole(String displayId) {
+        if (displayId.equals(consoleDisplay)) {
+            return;
+        }
+        log.debug("Console now shows display {}", displayId);
+        consoleDisplay = displayId;
+    }
+
+    public String consoleDisplay() {
+        return consoleDisplay;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long nextPrune = System.nanoTime() + PRUNE_INTERVAL_NANOS;
+        while (running) {
+            try {
+                // wartet, bis das nächste Display fällig ist; bis dahin eintreffende Boards ersetzen das im Slot
+                String displayId = pending.take().displayId();
+
+                // vor dem Entnehmen setzen: ein danach eintreffendes Board wird ein Frame später fällig
+                long now = System.nanoTime();
+                lastRendered.put(displayId, now);
+                BoardUpdate update = slots.remove(displayId);
+                // Konsole inzwischen umgebunden: altes Display nicht mehr zeichnen
+                if (update != null && displayId.equals(consoleDisplay)) {
+                    render(displayId, update);
+                }
+
+                if (now - nextPrune >= 0) {
+                    lastRendered.values().removeIf(rendered -> now - rendered >= frameIntervalNanos);
+                    nextPrune = now + PRUNE_INTERVAL_NANOS;
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void render(String displayId, BoardUpdate update) {
+        try {
+            view.showDeparturesToMonitor(update.stations(), update.dataFetchedAt());
+        } catch (RuntimeException e) {
+            log.error("Rendering board for display {} failed: {}", displayId, e.getMessage(), e);
+        } finally {
+            long latency = System.nanoTime() - update.submittedNanos();
+            renderLatency.record(latency, TimeUnit.NANOSECONDS);
+            log.debug("Rendered board for display {} after {} ms ({} coalesced so far)",
+                    displayId, TimeUnit.NANOSECONDS.toMillis(latency), (long) coalesced.count());
+        }
+    }
+
+    private record BoardUpdate(List<DepartureStation> stations, Timestamp dataFetchedAt, long submittedNanos) {
+    }
+
+    private record Due(String displayId, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Due) other).dueNanos);
+        }
+    }
+}
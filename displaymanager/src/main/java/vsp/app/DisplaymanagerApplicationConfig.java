@@ -0,0 +1,100 @@
+package vsp.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Konfiguration des DisplayManagers (vsp.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vsp")
+public class DisplaymanagerApplicationConfig {
+
+    private Display display = new Display();
+    private BoardStream boardStream = new BoardStream();
+    private Subscriptions subscriptions = new Subscriptions();
+
+    /**
+     * Ausgabe des Departure-Monitors (vsp.display.*).
+     */
+    public static class Display {
+        // Nur geänderte Zeilen per ANSI-Cursor-Adressierung zeichnen; aus, solange Logs auf derselben Konsole landen
+        private boolean ansi = false;
+        // Mindestabstand zwischen zwei Renders; dazwischen eintreffende Boards ersetzen sich (latest wins)
+        private int frameIntervalMs = 100;
+        // Countdown lokal zur Minutengrenze aktualisieren, abgefahrene Einträge entfernen
+        private boolean countdownEnabled = true;
+        // Refetch erst, wenn weniger Abfahrten sichtbar sind
+        private int refetchThreshold = 3;
+        private int refetchCooldownSeconds = 60;
+        // Abfahrten bleiben so lange nach der Abfahrtszeit sichtbar
+        private int pruneGraceSeconds = 0;
+        // Zustand pro Session: verfällt nach TTL ohne Nutzeranfrage, darüber hinaus werden die ältesten verdrängt
+        private int sessionTtlSeconds = 1800;
+        private int sessionMaxCount = 10_000;
+        private long sessionMaxBytes = 64L * 1024 * 1024;
+
+        public boolean isAnsi() { return ansi; }
+        public void setAnsi(boolean ansi) { this.ansi = ansi; }
+
+        public int getFrameIntervalMs() { return frameIntervalMs; }
+        public void setFrameIntervalMs(int frameIntervalMs) { this.frameIntervalMs = frameIntervalMs; }
+
+        public boolean isCountdownEnabled() { return countdownEnabled; }
+        public void setCountdownEnabled(boolean countdownEnabled) { this.countdownEnabled = countdownEnabled; }
+
+        public int getRefetchThreshold() { return refetchThreshold; }
+        public void setRefetchThreshold(int refetchThreshold) { this.refetchThreshold = refetchThreshold; }
+
+        public int getRefetchCooldownSeconds() { return refetchCooldownSeconds; }
+        public void setRefetchCooldownSeconds(int seconds) { this.refetchCooldownSeconds = seconds; }
+
+        public int getPruneGraceSeconds() { return pruneGraceSeconds; }
+        public void setPruneGraceSeconds(int seconds) { this.pruneGraceSeconds = seconds; }
+
+        public int getSessionTtlSeconds() { return sessionTtlSeconds; }
+        public void setSessionTtlSeconds(int seconds) { this.sessionTtlSeconds = seconds; }
+
+        public int getSessionMaxCount() { return sessionMaxCount; }
+        public void setSessionMaxCount(int sessionMaxCount) { this.sessionMaxCount = sessionMaxCount; }
+
+        public long getSessionMaxBytes() { return sessionMaxBytes; }
+        public void setSessionMaxBytes(long sessionMaxBytes) { this.sessionMaxBytes = sessionMaxBytes; }
+    }
+
+    /**
+     * Board-Stream vom Transportplan (vsp.board-stream.*).
+     */
+    public static class BoardStream {
+        // Credits pro Stream: maximal unbestätigte Tafeln eines Senders
+        private int window = 32;
+
+        public int getWindow() { return window; }
+        public void setWindow(int window) { this.window = window; }
+    }
+
+    /**
+     * Abonnierte Tafeln für weitere Displays (vsp.subscriptions.*).
+     */
+    public static class Subscriptions {
+        // Tafeln, die pro Subscriber auf Versand warten dürfen; läuft die Queue über, wird er getrennt
+        private int queueCapacity = 16;
+        private int maxSubscribers = 1000;
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+        public int getMaxSubscribers() { return maxSubscribers; }
+        public void setMaxSubscribers(int maxSubscribers) { this.maxSubscribers = maxSubscribers; }
+    }
+
+    // Getter
+    public Display getDisplay() { return display; }
+    public void setDisplay(Display display) { this.display = display; }
+
+    public BoardStream getBoardStream() { return boardStream; }
+    public void setBoardStream(BoardStream boardStream) { this.boardStream = boardStream; }
+
+    public Subscriptions getSubscriptions() { return subscriptions; }
+    public void setSubscriptions(Subscriptions subscriptions) { this.subscriptions = subscriptions; }
+}
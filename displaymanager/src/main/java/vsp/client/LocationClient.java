@@ -2,14 +2,22 @@ package vsp.client;
 
 import io.grpc.Context;
 import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
+import vsp.grpc.Outbox;
+import vsp.grpc.OutboxConfig;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class LocationClient {
@@ -23,6 +31,26 @@ public class LocationClient {
     @GrpcClient("locationhandler")
     private LocationhandlerIngressGrpc.LocationhandlerIngressStub asyncStub;
 
+    @Autowired(required = false)
+    private OutboxConfig outboxConfig;
+
+    // null = direkter Send ohne Zustellgarantie
+    private Outbox<UserPassLocationRequest> outbox;
+
+    @PostConstruct
+    void openOutbox() throws IOException {
+        if (outboxConfig != null && outboxConfig.isEnabled()) {
+            outbox = Outbox.open("locationhandler", outboxConfig, UserPassLocationRequest.parser(), this::deliver);
+        }
+    }
+
+    @PreDestroy
+    void closeOutbox() {
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
     /**
      * Sendet userPassLocation Request an Locationhandler (ASYNCHRON)
      *
@@ -44,6 +72,18 @@ public class LocationClient {
     public void sendUserPassLocation(Address address,
                                      String correlationId,
                                      String sessionId) {
+        sendUserPassLocation(address, correlationId, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Sendet userPassLocation Request an Locationhandler (ASYNCHRON) mit dem Latenzbudget des Requests
+     *
+     * @param budget Deadline, geht in RequestMeta an den Locationhandler mit
+     */
+    public void sendUserPassLocation(Address address,
+                                     String correlationId,
+                                     String sessionId,
+                                     DeadlineBudget budget) {
         // Generiere Correlation-ID falls nicht vorhanden
         if (correlationId == null || correlationId.isEmpty()) {
             correlationId = UUID.randomUUID().toString();
@@ -66,7 +106,7 @@ public class LocationClient {
                 metaBuilder.setSessionId(sessionId);
             }
 
-            vsp.RequestMeta meta = metaBuilder.build();
+            vsp.RequestMeta meta = budget.applyTo(metaBuilder).build();
 
             // Request erstellen
             vsp.UserPassLocationRequest request = vsp.UserPassLocationRequest.newBuilder()
@@ -74,45 +114,16 @@ public class LocationClient {
                     .setAddress(address)
                     .build();
 
+            if (outbox != null) {
+                // dauerhaft ablegen, Zustellung und Retries übernimmt die Outbox
+                outbox.enqueue(request);
+                log.debug("Request queued in outbox [correlationId={}]", finalCorrelationId);
+                return;
+            }
+
             log.debug("Sending async request to Locationhandler [correlationId={}]",
                     finalCorrelationId);
-
-            // Fork context to prevent cancellation when parent gRPC call completes!!
-            Context forkedContext = Context.current().fork();
-
-            // Asynchroner Call - Fire and Forget!
-            forkedContext.run(() ->{
-                asyncStub.userPassLocation(request, new StreamObserver<Ack>() {
-                    @Override
-                    public void onNext(vsp.Ack ack) {
-                        log.info("Received Ack from Locationhandler at: {} [correlationId={}]",
-                                ack.hasAcceptedAt() ? formatTimestamp(ack.getAcceptedAt()) : "N/A",
-                                finalCorrelationId);
-                    }
-    
-                    @Override
-                    public void onError(Throwable t) {
-                        log.error("Error from Locationhandler [correlationId={}]: {}",
-                                finalCorrelationId, t.getMessage());
-    
-                        // ErrorStatus aus Metadata extrahieren
-                        if (t instanceof io.grpc.StatusRuntimeException) {
-                            io.grpc.StatusRuntimeException sre = (io.grpc.StatusRuntimeException) t;
-                            io.grpc.Metadata metadata = sre.getTrailers();
-                            if (metadata != null) {
-                                extractErrorStatus(metadata, finalCorrelationId);
-                            }
-                        }
-                    }
-    
-                    @Override
-                    public void onCompleted() {
-                        log.debug("Locationhandler call completed [correlationId={}]",
-                                finalCorrelationId);
-                    }
-                });
-            });
-
+            deliver(request);
 
             // Methode kehrt SOFORT zurück - wartet NICHT auf Antwort!
             log.debug("Request sent, continuing without waiting for response [correlationId={}]",
@@ -123,6 +134,59 @@ public class LocationClient {
                     finalCorrelationId, e);
         }
     }
+    /**
+     * Asynchroner Call an den Locationhandler; die Future wird mit dem Ack abgeschlossen.
+     */
+    private CompletableFuture<Ack> deliver(UserPassLocationRequest request) {
+        final String finalCorrelationId = request.getMeta().getCorrelationId();
+        DeadlineBudget budget = DeadlineBudget.fromMeta(request.getMeta());
+        if (budget.isExpired()) {
+            // z.B. nach Retries aus der Outbox: das Ergebnis käme ohnehin zu spät
+            log.warn("Deadline exceeded, not sending to Locationhandler [correlationId={}]", finalCorrelationId);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Ack> result = new CompletableFuture<>();
+
+        // Fork context to prevent cancellation when parent gRPC call completes!!
+        Context forkedContext = Context.current().fork();
+
+        // Asynchroner Call - Fire and Forget!
+        forkedContext.run(() ->{
+            budget.applyTo(asyncStub).userPassLocation(request, new StreamObserver<Ack>() {
+                @Override
+                public void onNext(vsp.Ack ack) {
+                    log.info("Received Ack from Locationhandler at: {} [correlationId={}]",
+                            ack.hasAcceptedAt() ? formatTimestamp(ack.getAcceptedAt()) : "N/A",
+                            finalCorrelationId);
+                    result.complete(ack);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.error("Error from Locationhandler [correlationId={}]: {}",
+                            finalCorrelationId, t.getMessage());
+
+                    // ErrorStatus aus Metadata extrahieren
+                    if (t instanceof io.grpc.StatusRuntimeException) {
+                        io.grpc.StatusRuntimeException sre = (io.grpc.StatusRuntimeException) t;
+                        io.grpc.Metadata metadata = sre.getTrailers();
+                        if (metadata != null) {
+                            extractErrorStatus(metadata, finalCorrelationId);
+                        }
+                    }
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    log.debug("Locationhandler call completed [correlationId={}]",
+                            finalCorrelationId);
+                }
+            });
+        });
+        return result;
+    }
+
     /**
      * Extrahiert ErrorStatus aus gRPC Metadata
      */
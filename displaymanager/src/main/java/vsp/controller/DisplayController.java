@@ -4,14 +4,20 @@ package vsp.controller;
 import com.google.protobuf.Timestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import vsp.Address;
+import vsp.BoardDelta;
+import vsp.BoardSubscriptions;
 import vsp.DepartureStation;
 import vsp.Departure;
 import vsp.DisplayModel;
 import vsp.DisplayView;
 import vsp.client.LocationClient;
+import vsp.grpc.DeadlineBudget;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,14 +29,22 @@ public class DisplayController {
     private final DisplayView view;
     private final DisplayModel model;
     private final LocationClient locationClient;
+    private final BoardSubscriptions subscriptions; // null = keine weiteren Displays
     private static final Pattern ADDRESS_PATTERN = Pattern.compile(
             "^([\\p{L}\\s.-]+)\\s+(\\d+[a-zA-Z]?)$"
     );
 
     public DisplayController(DisplayView view, DisplayModel model, LocationClient locationClient) {
+        this(view, model, locationClient, null);
+    }
+
+    @Autowired
+    public DisplayController(DisplayView view, DisplayModel model, LocationClient locationClient,
+                             BoardSubscriptions subscriptions) {
         this.view = view;
         this.model = model;
         this.locationClient = locationClient;
+        this.subscriptions = subscriptions;
     }
 
     /**
@@ -39,12 +53,31 @@ public class DisplayController {
      * EXIT POINT: Leitet die Adresse weiter an den gRPC-Stub des DisplayManagers
      */
     public void userPassLocation(String input){
-        log.info("DisplayManager received Address: {}", input);
+        userPassLocation(input, DisplayModel.DEFAULT_SESSION);
+    }
+
+    /**
+     * ENTRY POINT: Empfängt Adresse von Externalrest (via gRPC) für eine Session
+     *
+     * @param sessionId wird bis zum Transportplan durchgereicht, damit die Abfahrten in derselben Session landen
+     */
+    public void userPassLocation(String input, String sessionId){
+        userPassLocation(input, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * ENTRY POINT: Empfängt Adresse einer Session mit dem Latenzbudget des externen Requests
+     *
+     * @param budget Deadline aus RequestMeta, wird an den Locationhandler weitergereicht
+     */
+    public void userPassLocation(String input, String sessionId, DeadlineBudget budget){
+        log.info("DisplayManager received Address: {} (session={})", input, sessionId);
         // Aus String Datentyp Adresse erstellen
         Address address = parseAddress(input);
-        model.saveAddress(address);
+        model.saveAddress(sessionId, address);
+        model.showOnConsole(sessionId);
         // Stub nutzen und Adresse an Locationhandler weitergeben
-        locationClient.sendUserPassLocation(address);
+        locationClient.sendUserPassLocation(address, null, sessionId, budget);
         view.showLoading(address);
     }
 
@@ -61,14 +94,111 @@ public class DisplayController {
      * Leitet die Departures an die View weiter damit sie auf dem Monitor angezeigt werden
      */
     public void displayDepartures(List<DepartureStation> departureStations, Timestamp dataFetchedAt){
+        displayDepartures(DisplayModel.DEFAULT_SESSION, departureStations, dataFetchedAt);
+    }
+
+    /**
+     * ENTRY POINT: Empfängt Departures einer Session mit Timestamp von Transportplan (via gRPC)
+     */
+    public void displayDepartures(String sessionId, List<DepartureStation> departureStations, Timestamp dataFetchedAt){
+        if (departureStations == null){
+            throw new IllegalArgumentException("departures cannot be null");
+        }
+        log.info("DisplayManager received departures: {} (session={})", departureStations.size(), sessionId);
+
+        model.saveDepartures(sessionId, departureStations);
+
+        model.displayDepartures(sessionId, departureStations, dataFetchedAt);
+    }
+
+    /**
+     * ENTRY POINT: Empfängt eine versionierte volle Tafel einer Session von Transportplan (via gRPC)
+     * Folgende Deltas des Transportplans setzen auf dieser Version auf.
+     */
+    public void displayBoard(String sessionId, List<DepartureStation> departureStations, Timestamp dataFetchedAt,
+                             long boardVersion){
         if (departureStations == null){
             throw new IllegalArgumentException("departures cannot be null");
         }
-        log.info("DisplayManager received departures: {}",departureStations.size());
+        log.info("DisplayManager received board v{}: {} (session={})", boardVersion, departureStations.size(),
+                sessionId);
+
+        model.saveBoard(sessionId, departureStations, boardVersion);
+
+        model.displayDepartures(sessionId, departureStations, dataFetchedAt);
+    }
+
+    /**
+     * ENTRY POINT: Empfängt ein Delta gegenüber der zuletzt empfangenen Tafel einer Session (via gRPC)
+     * Passt es nicht zur gespeicherten Version (z.B. weil eine andere Tafel dazwischen kam), bleibt die Anzeige
+     * unverändert; das Ack fordert dann die volle Tafel an.
+     *
+     * @return false, wenn das Delta nicht angewendet wurde
+     */
+    public boolean applyBoardDelta(String sessionId, BoardDelta delta, Timestamp dataFetchedAt){
+        List<DepartureStation> departureStations;
+        try {
+            departureStations = model.applyDelta(sessionId, delta);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid board delta v{} -> v{} (session={}): {}", delta.getBaseVersion(), delta.getVersion(),
+                    sessionId, e.getMessage());
+            return false;
+        }
+        if (departureStations == null){
+            log.warn("Board delta v{} -> v{} no longer matches (session={})", delta.getBaseVersion(),
+                    delta.getVersion(), sessionId);
+            return false;
+        }
+        log.info("DisplayManager applied board delta v{} -> v{}: {} station change(s) (session={})",
+                delta.getBaseVersion(), delta.getVersion(), delta.getStationsCount(), sessionId);
+
+        model.displayDepartures(sessionId, departureStations, dataFetchedAt);
+        return true;
+    }
+
+    /**
+     * ENTRY POINT: Ein weiteres Display abonniert die Tafeln einer Adresse (via gRPC)
+     *
+     * Alle Abonnenten derselben Adresse teilen sich eine Session und damit eine Pipeline: nur der erste löst die
+     * Abfrage aus, spätere bekommen sofort die aktuelle Tafel. Geht der letzte, wird die Session entfernt.
+     */
+    public BoardSubscriptions.Subscription subscribeAddress(String input, BoardSubscriptions.Sink sink){
+        requireSubscriptions();
+        Address address = parseAddress(input);
+        String sessionId = "subscription:" + (address.getStreet() + " " + address.getHouseNumber())
+                .toLowerCase(Locale.ROOT);
+
+        BoardSubscriptions.Subscription subscription = subscriptions.subscribeSession(sessionId, sink);
+        subscription.whenCancelled(() -> {
+            if (!subscriptions.hasSubscribers(sessionId)) {
+                log.info("Last subscriber left, removing session {}", sessionId);
+                model.removeSession(sessionId);
+            }
+        });
+        List<DepartureStation> current = model.getDepartures(sessionId);
+        if (current != null) {
+            subscriptions.replay(subscription, sessionId, current, model.getDataFetchedAt(sessionId));
+        } else if (model.claimAddress(sessionId, address)) {
+            // atomar: von gleichzeitigen ersten Abonnenten startet nur einer die Pipeline
+            log.info("First subscriber for {} {}, fetching departures (session={})", address.getStreet(),
+                    address.getHouseNumber(), sessionId);
+            locationClient.sendUserPassLocation(address, null, sessionId);
+        }
+        return subscription;
+    }
 
-        model.saveDepartures(departureStations);
+    /**
+     * ENTRY POINT: Ein weiteres Display abonniert alle Tafeln mit diesen Stationen (via gRPC); löst keine Abfrage aus
+     */
+    public BoardSubscriptions.Subscription subscribeStations(Set<String> stationIds, BoardSubscriptions.Sink sink){
+        requireSubscriptions();
+        return subscriptions.subscribeStations(stationIds, sink);
+    }
 
-        model.displayDepartures(departureStations, dataFetchedAt);
+    private void requireSubscriptions(){
+        if (subscriptions == null) {
+            throw new IllegalStateException("Subscriptions are not available");
+        }
     }
 
     private Address parseAddress(String input){
@@ -1,17 +1,33 @@
 package vsp.service;
 
 import com.google.protobuf.Timestamp;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import vsp.*;
+import vsp.app.DisplaymanagerApplicationConfig;
 import vsp.controller.DisplayController;
+import vsp.grpc.BoardCodec;
+import vsp.grpc.DeadlineBudget;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 /**
  * gRPC Service Implementation für DisplayManager
@@ -24,10 +40,56 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
     private static final Logger log = LoggerFactory.getLogger(DisplaymanagerIngressService.class);
 
     private final DisplayController displayController;
+    // Executor für die Weiterleitung nach dem Ack (Default wie bisher: CompletableFuture.runAsync)
+    private final Executor executor;
+    private final Counter deadlineExceeded;
+    private final Counter resyncRequested;
+    // Queues der unären showDepartures-Requests pro Session, solange dort Arbeit ansteht
+    private final ConcurrentMap<String, SessionTasks> sessionTasks = new ConcurrentHashMap<>();
+    // Credits pro Board-Stream: so viele Tafeln darf ein Transportplan unbestätigt ausstehend haben
+    private final int streamWindow;
 
-    @Autowired
     public DisplaymanagerIngressService(DisplayController displayController) {
+        this(displayController, new SimpleMeterRegistry());
+    }
+
+    public DisplaymanagerIngressService(DisplayController displayController, MeterRegistry registry) {
+        this(displayController, ForkJoinPool.commonPool(), registry);
+    }
+
+    @Autowired
+    public DisplaymanagerIngressService(DisplayController displayController, MeterRegistry registry,
+                                        DisplaymanagerApplicationConfig config) {
+        this(displayController, ForkJoinPool.commonPool(), registry, config.getBoardStream().getWindow());
+    }
+
+    /**
+     * @param executor führt die Weiterleitung an den Controller aus (z.B. Runnable::run für Benchmarks)
+     */
+    public DisplaymanagerIngressService(DisplayController displayController, Executor executor) {
+        this(displayController, executor, new SimpleMeterRegistry());
+    }
+
+    public DisplaymanagerIngressService(DisplayController displayController, Executor executor,
+                                        MeterRegistry registry) {
+        this(displayController, executor, registry, new DisplaymanagerApplicationConfig.BoardStream().getWindow());
+    }
+
+    public DisplaymanagerIngressService(DisplayController displayController, Executor executor,
+                                        MeterRegistry registry, int streamWindow) {
+        if (streamWindow < 1) {
+            throw new IllegalArgumentException("streamWindow must be positive");
+        }
         this.displayController = displayController;
+        this.executor = executor;
+        this.streamWindow = streamWindow;
+        this.deadlineExceeded = Counter.builder("vsp.deadline.exceeded")
+                .description("Requests, deren Deadline in dieser Stufe abgelaufen ist")
+                .tag("stage", "displaymanager")
+                .register(registry);
+        this.resyncRequested = Counter.builder("vsp.board.resync")
+                .description("Deltas, die nicht zur gespeicherten Tafel passten (volle Tafel angefordert)")
+                .register(registry);
         log.info("DisplaymanagerIngressService initialized");
     }
 
@@ -44,7 +106,9 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
         try {
             // Addresse extrahieren
             String address = request.getAddress();
-            log.info("Request contains address: {}", address);
+            String sessionId = sessionIdOf(request.hasMeta() ? request.getMeta() : null);
+            DeadlineBudget budget = DeadlineBudget.fromMeta(request.hasMeta() ? request.getMeta() : null);
+            log.info("Request contains address: {} (session={})", address, sessionId);
  
             // Ack mit Timestamp erstellen
             Instant now = Instant.now();
@@ -66,11 +130,17 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
             // so ist die Weiterleitung unabhängig vom schon existierendem gRPC-Kontext
             CompletableFuture.runAsync(() -> {
                 try {
-                    displayController.userPassLocation(address);
+                    // Budget schon verbraucht: Ergebnis käme zu spät, Anfrage nicht mehr weiterleiten
+                    if (budget.isExpired()) {
+                        log.warn("Deadline exceeded before forwarding address (session={})", sessionId);
+                        deadlineExceeded.increment();
+                        return;
+                    }
+                    displayController.userPassLocation(address, sessionId, budget);
                 } catch (Exception e) {
                     log.error("Error in async processing (ACK already sent)", e);
                 }
-            });
+            }, executor);
 
             log.info("Successfully processed userPassLocation request");
         } catch (IllegalArgumentException e) {
@@ -101,8 +171,32 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
                                StreamObserver<Ack> responseObserver) {
         log.info("=== Received gRPC call: showDepartures ===");
         try {
-            // Stationen extrahieren
-            List<DepartureStation> stations = request.getStationsList();
+            // Delta statt voller Tafel: angewendet wird vor dem Ack, passt es nicht, fordert das Ack die volle Tafel an
+            if (request.hasDelta()) {
+                BoardDelta delta = request.getDelta();
+                String sessionId = sessionIdOf(request.hasMeta() ? request.getMeta() : null);
+                Timestamp dataFetchedAt = request.hasDataFetchedAt() ? request.getDataFetchedAt() : null;
+                // in der Queue der Session: die Basistafel kann noch in einem vorherigen Request unterwegs sein
+                submitInOrder(sessionId, () -> {
+                    boolean applied = false;
+                    try {
+                        applied = displayController.applyBoardDelta(sessionId, delta, dataFetchedAt);
+                    } catch (Exception e) {
+                        log.error("Error applying board delta (session={})", sessionId, e);
+                    }
+                    if (!applied) {
+                        requestResync(sessionId, delta);
+                    }
+                    responseObserver.onNext(Ack.newBuilder()
+                            .setAcceptedAt(acceptedNow())
+                            .setResyncRequired(!applied)
+                            .build());
+                    responseObserver.onCompleted();
+                });
+                return;
+            }
+
+            List<DepartureStation> stations = stationsOf(request);
             log.info("Request contains {} station(s)", stations.size());
 
             // Validierung
@@ -132,11 +226,14 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
 
             // Timestamp extrahieren (wann die Daten von Geofox geholt wurden)
             Timestamp dataFetchedAt = request.hasDataFetchedAt() ? request.getDataFetchedAt() : null;
+            String sessionId = sessionIdOf(request.hasMeta() ? request.getMeta() : null);
 
-            // An Controller weiterleiten
-            CompletableFuture.runAsync(() -> {
+            // An Controller weiterleiten; gerendert wird nur im Render-Thread (RenderLoop, latest wins)
+            // in der Queue der Session, damit nachfolgende Deltas erst nach dieser Tafel geprüft werden
+            long boardVersion = request.getBoardVersion();
+            submitInOrder(sessionId, () -> {
                 try {
-                    displayController.displayDepartures(stations, dataFetchedAt);
+                    forward(sessionId, stations, dataFetchedAt, boardVersion);
                 } catch (Exception e) {
                     log.error("Error in async processing (ACK already sent)", e);
                 }
@@ -160,6 +257,376 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
                     e.getMessage());
         }
     }
+
+    /**
+     * gRPC Endpoint: streamBoards
+     * Dauerhafter Stream vom Transportplan, jeder Frame wird wie showDepartures verarbeitet.
+     * Beim Öffnen bekommt der Sender streamWindow Credits; jedes Ack (erst nach der Übergabe an den Controller)
+     * gibt einen Credit zurück. Ein langsamer DisplayManager bremst den Sender so aus, statt Tafeln zu puffern.
+     * @param responseObserver StreamObserver für die Acks
+     * @return StreamObserver für die eingehenden Frames
+     */
+    @Override
+    public StreamObserver<BoardStreamFrame> streamBoards(StreamObserver<BoardStreamAck> responseObserver) {
+        log.info("=== Board stream opened (window={}) ===", streamWindow);
+        BoardStreamHandler handler = new BoardStreamHandler(responseObserver);
+        handler.send(BoardStreamAck.newBuilder().setCredits(streamWindow).build());
+        return handler;
+    }
+
+    /**
+     * Ein weiteres Display abonniert die Tafeln einer Adresse oder Stationsmenge (Server-Stream).
+     * Der Stream bleibt offen, bis der Client ihn schließt oder zu langsam liest (dann RESOURCE_EXHAUSTED).
+     * @param request Adresse oder Stationen
+     * @param responseObserver StreamObserver für die Tafeln
+     */
+    @Override
+    public void subscribeBoards(BoardSubscription request, StreamObserver<SubscribedBoard> responseObserver) {
+        log.info("=== Received gRPC call: subscribeBoards (subscriber={}) ===", request.getSubscriber());
+        ServerCallStreamObserver<SubscribedBoard> observer =
+                (ServerCallStreamObserver<SubscribedBoard>) responseObserver;
+        try {
+            boolean byAddress = !request.getAddress().isBlank();
+            if (byAddress == (request.getStationIdsCount() > 0)) {
+                throw new IllegalArgumentException("Exactly one of address or station_ids must be set");
+            }
+
+            // Handler vor dem ersten onNext setzen; das Abo entsteht erst danach
+            AtomicReference<BoardSubscriptions.Subscription> subscription = new AtomicReference<>();
+            observer.setOnCancelHandler(() -> {
+                BoardSubscriptions.Subscription current = subscription.get();
+                if (current != null) {
+                    current.cancel();
+                }
+            });
+            observer.setOnReadyHandler(() -> {
+                BoardSubscriptions.Subscription current = subscription.get();
+                if (current != null) {
+                    current.drain();
+                }
+            });
+
+            SubscriptionSink sink = new SubscriptionSink(observer);
+            subscription.set(byAddress
+                    ? displayController.subscribeAddress(request.getAddress(), sink)
+                    : displayController.subscribeStations(Set.copyOf(request.getStationIdsList()), sink));
+            if (observer.isCancelled()) {
+                subscription.get().cancel();
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request in subscribeBoards: {}", e.getMessage());
+            sendErrorResponse(responseObserver, vsp.ErrorStatus.Code.INVALID_ARGUMENT, "Invalid request",
+                    e.getMessage());
+        } catch (IllegalStateException e) {
+            sendErrorResponse(responseObserver, vsp.ErrorStatus.Code.RATE_LIMITED, "Subscription rejected",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Server-Stream eines Subscribers; BoardSubscriptions ruft ihn nie gleichzeitig auf.
+     */
+    private static final class SubscriptionSink implements BoardSubscriptions.Sink {
+
+        private final ServerCallStreamObserver<SubscribedBoard> observer;
+
+        SubscriptionSink(ServerCallStreamObserver<SubscribedBoard> observer) {
+            this.observer = observer;
+        }
+
+        @Override
+        public boolean isReady() {
+            return observer.isReady();
+        }
+
+        @Override
+        public void send(SubscribedBoard board) {
+            observer.onNext(board);
+        }
+
+        @Override
+        public void drop(String reason) {
+            observer.onError(io.grpc.Status.RESOURCE_EXHAUSTED.withDescription(reason).asRuntimeException());
+        }
+    }
+
+    /**
+     * Stellt unäre Tafeln und Deltas einer Session in deren Queue; sie laufen nacheinander in Empfangsreihenfolge.
+     */
+    private void submitInOrder(String sessionId, Runnable task) {
+        while (true) {
+            // eine geschlossene Queue ist bereits entfernt, dann legt computeIfAbsent eine neue an
+            if (sessionTasks.computeIfAbsent(sessionId, SessionTasks::new).offer(task)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue der unären Requests einer Session, wie beim Board-Stream immer höchstens ein Task im Executor.
+     * Ist sie abgearbeitet, wird sie geschlossen und aus sessionTasks entfernt.
+     */
+    private final class SessionTasks {
+
+        private final String sessionId;
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        SessionTasks(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        /**
+         * @return false, wenn die Queue schon geschlossen ist
+         */
+        boolean offer(Runnable task) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                tasks.addLast(task);
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            executor.execute(this::drainTasks);
+            return true;
+        }
+
+        private void drainTasks() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.pollFirst();
+                    if (task == null) {
+                        closed = true;
+                        sessionTasks.remove(sessionId, this);
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Error in async processing of session {}", sessionId, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verarbeitet die Frames eines Board-Streams. Die Frames eines Streams laufen nacheinander in Empfangsreihenfolge
+     * (eigene Queue, immer höchstens ein Task im Executor), damit ein Delta nie vor seiner Basistafel und eine ältere
+     * Tafel nie nach einer neueren angewendet wird. Acks werden unter dem Lock gesendet, da der responseObserver
+     * nicht threadsicher ist.
+     */
+    private final class BoardStreamHandler implements StreamObserver<BoardStreamFrame> {
+
+        private final StreamObserver<BoardStreamAck> acks;
+        // angenommene, noch nicht verarbeitete Frames dieses Streams
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        // true, solange ein Task dieses Streams im Executor läuft bzw. eingeplant ist
+        private boolean draining;
+        // übergebene, noch nicht bestätigte Frames; nach onCompleted wird erst geschlossen, wenn alle bestätigt sind
+        private int pending;
+        private boolean inputClosed;
+        private boolean done;
+
+        BoardStreamHandler(StreamObserver<BoardStreamAck> acks) {
+            this.acks = acks;
+        }
+
+        @Override
+        public void onNext(BoardStreamFrame frame) {
+            long sequence = frame.getSequence();
+            ShowDeparturesRequest request = frame.getRequest();
+            Timestamp dataFetchedAt = request.hasDataFetchedAt() ? request.getDataFetchedAt() : null;
+            String sessionId = sessionIdOf(request.hasMeta() ? request.getMeta() : null);
+
+            if (request.hasDelta()) {
+                // geprüft wird erst im Executor: die Basistafel kann noch in einem vorherigen Frame unterwegs sein
+                BoardDelta delta = request.getDelta();
+                submit(sequence, () -> {
+                    if (displayController.applyBoardDelta(sessionId, delta, dataFetchedAt)) {
+                        return true;
+                    }
+                    requestResync(sessionId, delta);
+                    return false;
+                });
+                return;
+            }
+
+            List<DepartureStation> stations;
+            try {
+                stations = stationsOf(request);
+            } catch (RuntimeException e) {
+                reject(sequence, vsp.ErrorStatus.Code.INVALID_ARGUMENT, "Invalid request", e.getMessage());
+                return;
+            }
+            if (stations.isEmpty()) {
+                reject(sequence, vsp.ErrorStatus.Code.INVALID_ARGUMENT,
+                        "Stations list is empty", "At least one station is required");
+                return;
+            }
+
+            log.debug("Board stream frame {}: {} station(s) for session {}", sequence, stations.size(), sessionId);
+            long boardVersion = request.getBoardVersion();
+            submit(sequence, () -> {
+                forward(sessionId, stations, dataFetchedAt, boardVersion);
+                return true;
+            });
+        }
+
+        @Override
+        public synchronized void onError(Throwable t) {
+            log.info("Board stream closed by Transportplan: {}", io.grpc.Status.fromThrowable(t));
+            done = true;
+        }
+
+        @Override
+        public synchronized void onCompleted() {
+            log.info("Board stream half-closed by Transportplan ({} frame(s) pending)", pending);
+            inputClosed = true;
+            finishIfDrained();
+        }
+
+        /**
+         * Stellt den Frame in die Queue des Streams; bestätigt wird nach der Verarbeitung.
+         * Liefert forward false (Delta passte nicht), fordert das Ack die volle Tafel an.
+         */
+        private void submit(long sequence, BooleanSupplier forward) {
+            Runnable task = () -> {
+                boolean applied = true;
+                try {
+                    applied = forward.getAsBoolean();
+                } catch (Exception e) {
+                    log.error("Error in async processing of board stream frame {}", sequence, e);
+                } finally {
+                    acknowledge(BoardStreamAck.newBuilder()
+                            .setSequence(sequence)
+                            .setAcceptedAt(acceptedNow())
+                            .setResyncRequired(!applied));
+                }
+            };
+            synchronized (this) {
+                pending++;
+                tasks.addLast(task);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drainTasks);
+        }
+
+        /**
+         * Arbeitet die Queue des Streams der Reihe nach ab; endet, sobald sie leer ist.
+         */
+        private void drainTasks() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.pollFirst();
+                    if (task == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+
+        private void reject(long sequence, vsp.ErrorStatus.Code code, String message, String details) {
+            log.warn("Rejecting board stream frame {}: {} - {}", sequence, message, details);
+            send(BoardStreamAck.newBuilder()
+                    .setSequence(sequence)
+                    .setCredits(1)
+                    .setError(vsp.ErrorStatus.newBuilder()
+                            .setCode(code)
+                            .setMessage(message)
+                            .setDetails(details != null ? details : ""))
+                    .build());
+        }
+
+        private synchronized void acknowledge(BoardStreamAck.Builder ack) {
+            pending--;
+            send(ack.setCredits(1).build());
+            finishIfDrained();
+        }
+
+        private synchronized void send(BoardStreamAck ack) {
+            if (done) {
+                return;
+            }
+            try {
+                acks.onNext(ack);
+            } catch (RuntimeException e) {
+                // Stream zwischenzeitlich abgebrochen (CANCELLED)
+                log.debug("Board stream already closed: {}", e.getMessage());
+                done = true;
+            }
+        }
+
+        private void finishIfDrained() {
+            if (inputClosed && pending == 0 && !done) {
+                done = true;
+                acks.onCompleted();
+            }
+        }
+    }
+
+    /**
+     * Volle Tafel an den Controller; unversionierte Tafeln wie bisher, versionierte als Basis für Deltas.
+     */
+    private void forward(String sessionId, List<DepartureStation> stations, Timestamp dataFetchedAt,
+                         long boardVersion) {
+        if (boardVersion == 0) {
+            displayController.displayDepartures(sessionId, stations, dataFetchedAt);
+        } else {
+            displayController.displayBoard(sessionId, stations, dataFetchedAt, boardVersion);
+        }
+    }
+
+    private void requestResync(String sessionId, BoardDelta delta) {
+        log.info("Board delta v{} -> v{} does not match session {}, requesting full board",
+                delta.getBaseVersion(), delta.getVersion(), sessionId);
+        resyncRequested.increment();
+    }
+
+    /**
+     * Stationen eines Requests (kompakte Tafel bevorzugt, sonst volle Stations-Liste)
+     */
+    private static List<DepartureStation> stationsOf(ShowDeparturesRequest request) {
+        return request.hasBoard()
+                ? BoardCodec.decode(request.getBoard())
+                : request.getStationsList();
+    }
+
+    private static Timestamp acceptedNow() {
+        Instant now = Instant.now();
+        return Timestamp.newBuilder()
+                .setSeconds(now.getEpochSecond())
+                .setNanos(now.getNano())
+                .build();
+    }
+
+    /**
+     * Session eines Requests: session_id, sonst correlation_id, sonst die Default-Session
+     */
+    private static String sessionIdOf(RequestMeta meta) {
+        if (meta == null) {
+            return DisplayModel.DEFAULT_SESSION;
+        }
+        if (!meta.getSessionId().isEmpty()) {
+            return meta.getSessionId();
+        }
+        if (!meta.getCorrelationId().isEmpty()) {
+            return meta.getCorrelationId();
+        }
+        return DisplayModel.DEFAULT_SESSION;
+    }
+
     /**
      * Helper-Methode: Sendet strukturierte Fehler-Antwort mit ErrorStatus
      *
@@ -168,7 +635,7 @@ public class DisplaymanagerIngressService extends DisplaymanagerIngressGrpc.Disp
      * @param message Kurze Fehlerbeschreibung
      * @param details Detaillierte Fehlerinformation
      */
-    private void sendErrorResponse(StreamObserver<vsp.Ack> responseObserver,
+    private void sendErrorResponse(StreamObserver<?> responseObserver,
                                    vsp.ErrorStatus.Code errorCode,
                                    String message,
                                    String details) {
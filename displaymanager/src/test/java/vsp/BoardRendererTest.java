@@ -0,0 +1,123 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardRendererTest {
+
+    // 19.10.2026 10:00:00 UTC
+    private static final Instant NOW = Instant.ofEpochSecond(1_792_404_000L);
+
+    @Test
+    void render_WithoutAnsi_MatchesPrintfLayout() {
+        BoardRenderer renderer = new BoardRenderer(false, ZoneOffset.UTC);
+
+        String frame = renderer.render(board(NOW), null, NOW).toString();
+
+        assertTrue(frame.startsWith("\n" + BoardRenderer.SEPARATOR + "\n"));
+        assertTrue(frame.contains(BoardRenderer.HEADER + "\n"));
+        assertTrue(frame.contains(String.format("  %-27s %-10s %-10s %30s\n", "U2 Niendorf Nord", "3 min", "10:03", "Jungfernstieg")));
+        assertTrue(frame.contains(String.format("  %-27s %-10s %-10s %30s\n", "S1 Wedel", "1h 30m", "11:30", "Jungfernstieg")));
+        assertTrue(frame.contains(String.format("  %-27s %-10s %-10s %30s\n", "-", "-", "-", "Rathausmarkt")));
+        assertTrue(frame.contains("  Total: 2 departures from 2 stations\n"));
+        assertTrue(frame.contains("  Last data update: 19.10.2026 10:00:00\n"));
+        assertTrue(frame.endsWith(BoardRenderer.SEPARATOR + "\n\n"));
+    }
+
+    @Test
+    void render_WithoutAnsi_AlwaysWritesFullFrame() {
+        BoardRenderer renderer = new BoardRenderer(false, ZoneOffset.UTC);
+
+        renderer.render(board(NOW), null, NOW);
+        int first = renderer.lastChangedRows();
+        renderer.render(board(NOW), null, NOW);
+
+        assertEquals(first, renderer.lastChangedRows());
+    }
+
+    @Test
+    void render_WithAnsi_UnchangedBoardWritesNothing() {
+        BoardRenderer renderer = new BoardRenderer(true, ZoneOffset.UTC);
+
+        String first = renderer.render(board(NOW), null, NOW).toString();
+        CharSequence second = renderer.render(board(NOW), null, NOW);
+
+        assertTrue(first.startsWith("\u001B[H\u001B[2J"));
+        assertEquals(0, second.length());
+        assertEquals(0, renderer.lastChangedRows());
+    }
+
+    @Test
+    void render_WithAnsi_RewritesOnlyChangedRows() {
+        BoardRenderer renderer = new BoardRenderer(true, ZoneOffset.UTC);
+        Timestamp fetchedAt = Timestamp.newBuilder().setSeconds(NOW.getEpochSecond()).build();
+        renderer.render(board(NOW), fetchedAt, NOW);
+
+        // eine Minute später ändern sich nur die beiden "IN"-Werte
+        String diff = renderer.render(board(NOW), fetchedAt, NOW.plusSeconds(60)).toString();
+
+        assertEquals(2, renderer.lastChangedRows());
+        assertTrue(diff.startsWith("\u001B[8;1H"));
+        assertTrue(diff.contains("2 min"));
+        assertTrue(diff.contains("1h 29m"));
+        assertFalse(diff.contains("DEPARTURE MONITOR"));
+    }
+
+    @Test
+    void render_WithAnsi_ClearsRowsOfLongerPreviousFrame() {
+        BoardRenderer renderer = new BoardRenderer(true, ZoneOffset.UTC);
+        renderer.render(board(NOW), null, NOW);
+
+        DepartureStation single = DepartureStation.newBuilder().setStationName("Rathausmarkt").build();
+        String diff = renderer.render(List.of(single), null, NOW).toString();
+
+        // altes Board: 15 Zeilen, neues: 13 -> Zeilen 14 und 15 werden gelöscht
+        assertTrue(diff.contains("\u001B[14;1H\u001B[K"));
+        assertTrue(diff.contains("\u001B[15;1H\u001B[K"));
+    }
+
+    @Test
+    void invalidate_ForcesFullRedraw() {
+        BoardRenderer renderer = new BoardRenderer(true, ZoneOffset.UTC);
+        renderer.render(board(NOW), null, NOW);
+
+        renderer.invalidate();
+        renderer.render(board(NOW), null, NOW);
+
+        assertEquals(15, renderer.lastChangedRows());
+    }
+
+    @Test
+    void formatMinutesUntil_FormatsAllRanges() {
+        assertEquals("departed", BoardRenderer.formatMinutesUntil(-1));
+        assertEquals("now", BoardRenderer.formatMinutesUntil(0));
+        assertEquals("1 min", BoardRenderer.formatMinutesUntil(1));
+        assertEquals("59 min", BoardRenderer.formatMinutesUntil(59));
+        assertEquals("25h 05m", BoardRenderer.formatMinutesUntil(25 * 60 + 5));
+    }
+
+    private static List<DepartureStation> board(Instant now) {
+        DepartureStation jungfernstieg = DepartureStation.newBuilder()
+                .setStationName("Jungfernstieg")
+                .addDepartures(departure("U2 Niendorf Nord", now.plusSeconds(180)))
+                .addDepartures(departure("S1 Wedel", now.plusSeconds(5400)))
+                .build();
+        DepartureStation rathausmarkt = DepartureStation.newBuilder()
+                .setStationName("Rathausmarkt")
+                .build();
+        return List.of(jungfernstieg, rathausmarkt);
+    }
+
+    private static Departure departure(String lineName, Instant time) {
+        return Departure.newBuilder()
+                .setLineName(lineName)
+                .setDepartureTime(Timestamp.newBuilder().setSeconds(time.getEpochSecond()).setNanos(time.getNano()))
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import vsp.grpc.BoardCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSubscriptionsTest {
+
+    private static final long NOW = 1_792_404_000L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BoardSubscriptions subscriptions = new BoardSubscriptions(2, 10, registry);
+
+    @Test
+    void publish_FansOutOneEncodedBoardToAllSessionSubscribers() {
+        List<RecordingSink> screens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            RecordingSink screen = new RecordingSink();
+            subscriptions.subscribeSession("halle-3", screen);
+            screens.add(screen);
+        }
+        RecordingSink other = new RecordingSink();
+        subscriptions.subscribeSession("session-2", other);
+
+        subscriptions.publish("halle-3", List.of(station("Master:10950", "Jungfernstieg", 2)), null);
+
+        SubscribedBoard first = screens.get(0).received.get(0);
+        assertEquals("halle-3", first.getSessionId());
+        assertEquals("Jungfernstieg", BoardCodec.decode(first.getBoard()).get(0).getStationName());
+        for (RecordingSink screen : screens) {
+            assertSame(first, screen.received.get(0));
+        }
+        assertTrue(other.received.isEmpty());
+        assertEquals(20, registry.get("vsp.display.subscribers.boards").counter().count());
+    }
+
+    @Test
+    void publish_ToStationSubscribers_OnlyBoardsWithAllStationsAndOnlyThoseStations() {
+        RecordingSink screen = new RecordingSink();
+        subscriptions.subscribeStations(Set.of("Master:10950"), screen);
+
+        subscriptions.publish("session-1", List.of(station("Master:1", "Rathaus", 3)), null);
+        subscriptions.publish("session-2", List.of(
+                station("Master:1", "Rathaus", 3),
+                station("Master:10950", "Jungfernstieg", 2)), Timestamp.newBuilder().setSeconds(NOW).build());
+
+        assertEquals(1, screen.received.size());
+        List<DepartureStation> board = BoardCodec.decode(screen.received.get(0).getBoard());
+        assertEquals(List.of("Jungfernstieg"), board.stream().map(DepartureStation::getStationName).toList());
+        assertEquals(NOW, screen.received.get(0).getDataFetchedAt().getSeconds());
+    }
+
+    @Test
+    void publish_WhileSinkNotReady_QueuesAndDrainsLater() {
+        RecordingSink screen = new RecordingSink();
+        screen.ready = false;
+        BoardSubscriptions.Subscription subscription = subscriptions.subscribeSession("halle-3", screen);
+
+        subscriptions.publish("halle-3", List.of(station("Master:10950", "Jungfernstieg", 2)), null);
+        subscriptions.publish("halle-3", List.of(station("Master:10950", "Jungfernstieg", 3)), null);
+
+        assertTrue(screen.received.isEmpty());
+        assertEquals(2, subscription.queued());
+
+        screen.ready = true;
+        subscription.drain();
+
+        assertEquals(2, screen.received.size());
+        assertEquals(0, subscription.queued());
+    }
+
+    @Test
+    void publish_WhenQueueOverflows_DropsOnlyTheSlowSubscriber() {
+        RecordingSink slow = new RecordingSink();
+        slow.ready = false;
+        RecordingSink fast = new RecordingSink();
+        BoardSubscriptions.Subscription slowSubscription = subscriptions.subscribeSession("halle-3", slow);
+        subscriptions.subscribeSession("halle-3", fast);
+
+        for (int i = 0; i < 3; i++) {
+            subscriptions.publish("halle-3", List.of(station("Master:10950", "Jungfernstieg", i)), null);
+        }
+
+        assertTrue(slowSubscription.isCancelled());
+        assertNotNull(slow.dropReason);
+        assertEquals(3, fast.received.size());
+        assertEquals(1, subscriptions.subscriberCount());
+        assertEquals(1, registry.get("vsp.display.subscribers.dropped").counter().count());
+
+        subscriptions.publish("halle-3", List.of(station("Master:10950", "Jungfernstieg", 4)), null);
+        assertEquals(4, fast.received.size());
+    }
+
+    @Test
+    void cancel_RemovesSubscriberAndRunsCancelActions() {
+        List<String> cancelled = new ArrayList<>();
+        BoardSubscriptions.Subscription subscription = subscriptions.subscribeSession("halle-3", new RecordingSink());
+        subscription.whenCancelled(() -> cancelled.add("halle-3"));
+
+        subscription.cancel();
+        subscription.cancel();
+
+        assertFalse(subscriptions.hasSubscribers("halle-3"));
+        assertEquals(0, subscriptions.subscriberCount());
+        assertEquals(List.of("halle-3"), cancelled);
+    }
+
+    @Test
+    void subscribe_BeyondMaxSubscribers_Throws() {
+        BoardSubscriptions limited = new BoardSubscriptions(2, 1, new SimpleMeterRegistry());
+        limited.subscribeSession("halle-3", new RecordingSink());
+
+        assertThrows(IllegalStateException.class, () -> limited.subscribeSession("halle-3", new RecordingSink()));
+        assertThrows(IllegalArgumentException.class, () -> subscriptions.subscribeStations(Set.of(),
+                new RecordingSink()));
+    }
+
+    private static DepartureStation station(String stationId, String name, int minutes) {
+        return DepartureStation.newBuilder()
+                .setStationId(stationId)
+                .setStationName(name)
+                .addDepartures(Departure.newBuilder()
+                        .setLineName("U1 Norderstedt Mitte")
+                        .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + minutes * 60L)))
+                .build();
+    }
+
+    private static final class RecordingSink implements BoardSubscriptions.Sink {
+
+        private final List<SubscribedBoard> received = new ArrayList<>();
+        private volatile boolean ready = true;
+        private String dropReason;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void send(SubscribedBoard board) {
+            received.add(board);
+        }
+
+        @Override
+        public void drop(String reason) {
+            dropReason = reason;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vsp.app.DisplaymanagerApplicationConfig;
+import vsp.client.LocationClient;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountdownTickerTest {
+
+    private static final Instant START = Instant.ofEpochSecond(1_792_404_000L);
+
+    @Mock
+    private DisplayView view;
+
+    @Mock
+    private LocationClient locationClient;
+
+    private final MutableClock clock = new MutableClock(START);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DisplaymanagerApplicationConfig.Display display = new DisplaymanagerApplicationConfig.Display();
+    private DisplayModel model;
+    private CountdownTicker ticker;
+
+    @BeforeEach
+    void setUp() {
+        model = new DisplayModel(view);
+        ticker = new CountdownTicker(model, locationClient, clock, display, registry, false);
+    }
+
+    @Test
+    void tick_WithoutBoard_DoesNothing() {
+        ticker.tick();
+
+        verifyNoInteractions(view, locationClient);
+    }
+
+    @Test
+    void tick_RerendersLastBoardWithSameFetchTime() {
+        Timestamp fetchedAt = Timestamp.newBuilder().setSeconds(START.getEpochSecond()).build();
+        List<DepartureStation> board = board(2, 5, 9, 14);
+        model.saveDepartures(board);
+        model.displayDepartures(board, fetchedAt);
+
+        clock.advanceSeconds(60);
+        ticker.tick();
+
+        verify(view, times(2)).showDeparturesToMonitor(board, fetchedAt);
+        verifyNoInteractions(locationClient);
+        assertEquals(1.0, registry.get("vsp.display.countdown.ticks").counter().count());
+    }
+
+    @Test
+    void tick_PrunesDepartedEntries() {
+        model.saveDepartures(board(2, 5, 9, 14));
+
+        clock.advanceSeconds(6 * 60);
+        ticker.tick();
+
+        ArgumentCaptor<List<DepartureStation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(view).showDeparturesToMonitor(captor.capture(), isNull());
+        DepartureStation station = captor.getValue().get(0);
+        assertEquals(2, station.getDeparturesCount());
+        assertEquals("Jungfernstieg", station.getStationName());
+        assertEquals(2, model.getDepartures().get(0).getDeparturesCount());
+    }
+
+    @Test
+    void tick_BelowThreshold_RefetchesSavedAddressOncePerCooldown() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        model.saveAddress(address);
+        model.saveDepartures(board(2, 5, 9, 14));
+
+        // 10 Minuten später ist nur noch eine Abfahrt übrig (< 3)
+        clock.advanceSeconds(10 * 60);
+        ticker.tick();
+        clock.advanceSeconds(30);
+        ticker.tick();
+
+        verify(locationClient, times(1)).sendUserPassLocation(address, null, DisplayModel.DEFAULT_SESSION);
+
+        clock.advanceSeconds(60);
+        ticker.tick();
+
+        verify(locationClient, times(2)).sendUserPassLocation(address, null, DisplayModel.DEFAULT_SESSION);
+        assertEquals(2.0, registry.get("vsp.display.countdown.refetches").counter().count());
+    }
+
+    @Test
+    void tick_BelowThresholdWithoutAddress_DoesNotRefetch() {
+        model.saveDepartures(board(1));
+
+        clock.advanceSeconds(5 * 60);
+        ticker.tick();
+
+        verify(locationClient, never()).sendUserPassLocation(any(), any(), any());
+    }
+
+    @Test
+    void tick_RefetchesEachSessionSeparately() {
+        Address first = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        Address second = Address.newBuilder().setStreet("Hauptstraße").setHouseNumber("2").build();
+        model.saveAddress("session-1", first);
+        model.saveDepartures("session-1", board(2, 5, 9, 14));
+        model.saveAddress("session-2", second);
+        model.saveDepartures("session-2", board(12, 15, 19, 24));
+
+        clock.advanceSeconds(10 * 60);
+        ticker.tick();
+
+        // nur session-1 hat weniger als 3 Abfahrten übrig
+        verify(locationClient).sendUserPassLocation(first, null, "session-1");
+        verify(locationClient, never()).sendUserPassLocation(eq(second), any(), any());
+        verify(view, times(2)).showDeparturesToMonitor(anyList(), isNull());
+        assertEquals(4, model.getDepartures("session-2").get(0).getDeparturesCount());
+    }
+
+    @Test
+    void millisUntilNextMinute_AlignsToMinuteBoundary() {
+        assertEquals(60_050, CountdownTicker.millisUntilNextMinute(120_000));
+        assertEquals(51, CountdownTicker.millisUntilNextMinute(119_999));
+        assertEquals(30_050, CountdownTicker.millisUntilNextMinute(90_000));
+    }
+
+    private static List<DepartureStation> board(int... minutes) {
+        DepartureStation.Builder station = DepartureStation.newBuilder().setStationName("Jungfernstieg");
+        for (int minute : minutes) {
+            station.addDepartures(Departure.newBuilder()
+                    .setLineName("U1 Norderstedt Mitte")
+                    .setDepartureTime(Timestamp.newBuilder().setSeconds(START.getEpochSecond() + minute * 60L)));
+        }
+        return List.of(station.build());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
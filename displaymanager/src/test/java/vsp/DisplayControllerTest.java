@@ -1,6 +1,7 @@
 package vsp;
 
 import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +11,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.client.LocationClient;
 import vsp.controller.DisplayController;
+import vsp.grpc.DeadlineBudget;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -49,8 +51,8 @@ class DisplayControllerTest {
 
         displayController.userPassLocation("Jungfernstieg 1");
 
-        verify(model, times(1)).saveAddress(address);
-        verify(locationClient, times(1)).sendUserPassLocation(address);
+        verify(model, times(1)).saveAddress(DisplayModel.DEFAULT_SESSION, address);
+        verify(locationClient, times(1)).sendUserPassLocation(address, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
         verify(view, times(1)).showLoading(address);
     }
 
@@ -61,8 +63,8 @@ class DisplayControllerTest {
 
         displayController.userPassLocation(input);
 
-        verify(model).saveAddress(expected);
-        verify(locationClient).sendUserPassLocation(expected);
+        verify(model).saveAddress(DisplayModel.DEFAULT_SESSION, expected);
+        verify(locationClient).sendUserPassLocation(expected, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
         verify(view).showLoading(expected);
     }
 
@@ -73,7 +75,7 @@ class DisplayControllerTest {
 
         displayController.userPassLocation(input);
 
-        verify(model).saveAddress(addressCaptor.capture());
+        verify(model).saveAddress(eq(DisplayModel.DEFAULT_SESSION), addressCaptor.capture());
         Address captured = addressCaptor.getValue();
         assertEquals("Mönckebergstraße 5", captured.getStreet() + " " + captured.getHouseNumber());
     }
@@ -86,8 +88,8 @@ class DisplayControllerTest {
         displayController.userPassLocation(input);
 
         var inOrder = inOrder(model, locationClient, view);
-        inOrder.verify(model).saveAddress(address);
-        inOrder.verify(locationClient).sendUserPassLocation(address);
+        inOrder.verify(model).saveAddress(DisplayModel.DEFAULT_SESSION, address);
+        inOrder.verify(locationClient).sendUserPassLocation(address, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
         inOrder.verify(view).showLoading(address);
     }
 
@@ -118,8 +120,8 @@ class DisplayControllerTest {
 
         displayController.userPassLocation(input);
 
-        verify(model).saveAddress(expected);
-        verify(locationClient).sendUserPassLocation(expected);
+        verify(model).saveAddress(DisplayModel.DEFAULT_SESSION, expected);
+        verify(locationClient).sendUserPassLocation(expected, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
         verify(view).showLoading(expected);
     }
 
@@ -133,8 +135,8 @@ class DisplayControllerTest {
 
         displayController.userPassLocation(input);
 
-        verify(model).saveAddress(expected);
-        verify(locationClient).sendUserPassLocation(expected);
+        verify(model).saveAddress(DisplayModel.DEFAULT_SESSION, expected);
+        verify(locationClient).sendUserPassLocation(expected, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
         verify(view).showLoading(expected);
     }
 
@@ -144,7 +146,7 @@ class DisplayControllerTest {
 
         displayController.userPassLocation("Jungfernstieg 1");
 
-        verify(locationClient).sendUserPassLocation(addressCaptor.capture());
+        verify(locationClient).sendUserPassLocation(addressCaptor.capture(), isNull(), eq(DisplayModel.DEFAULT_SESSION), eq(DeadlineBudget.NONE));
         assertEquals("Jungfernstieg", addressCaptor.getValue().getStreet());
         assertEquals("1", addressCaptor.getValue().getHouseNumber());
     }
@@ -155,18 +157,18 @@ class DisplayControllerTest {
     void displayDepartures_ValidList_CallsModelMethodsWithNullTimestamp() {
         displayController.displayDepartures(sampleDepartureStations);
 
-        verify(model, times(1)).saveDepartures(sampleDepartureStations);
-        verify(model, times(1)).displayDepartures(sampleDepartureStations, null);
+        verify(model, times(1)).saveDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations);
+        verify(model, times(1)).displayDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations, null);
     }
 
     @Test
     void displayDepartures_WithTimestamp_ForwardsTimestampToModel() {
         Timestamp fetchedAt = createTimestamp(Instant.now());
 
-        displayController.displayDepartures(sampleDepartureStations, fetchedAt);
+        displayController.displayDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations, fetchedAt);
 
-        verify(model).saveDepartures(sampleDepartureStations);
-        verify(model).displayDepartures(sampleDepartureStations, fetchedAt);
+        verify(model).saveDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations);
+        verify(model).displayDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations, fetchedAt);
     }
 
     @Test
@@ -174,8 +176,8 @@ class DisplayControllerTest {
         displayController.displayDepartures(sampleDepartureStations);
 
         var inOrder = inOrder(model);
-        inOrder.verify(model).saveDepartures(sampleDepartureStations);
-        inOrder.verify(model).displayDepartures(sampleDepartureStations, null);
+        inOrder.verify(model).saveDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations);
+        inOrder.verify(model).displayDepartures(DisplayModel.DEFAULT_SESSION, sampleDepartureStations, null);
     }
 
     @Test
@@ -184,8 +186,8 @@ class DisplayControllerTest {
 
         displayController.displayDepartures(emptyList);
 
-        verify(model).saveDepartures(emptyList);
-        verify(model).displayDepartures(emptyList, null);
+        verify(model).saveDepartures(DisplayModel.DEFAULT_SESSION, emptyList);
+        verify(model).displayDepartures(DisplayModel.DEFAULT_SESSION, emptyList, null);
     }
 
     @Test
@@ -208,8 +210,82 @@ class DisplayControllerTest {
         verifyNoInteractions(locationClient);
     }
 
+    @Test
+    void userPassLocation_WithSession_UsesSessionForModelAndLocationhandler() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+
+        displayController.userPassLocation("Jungfernstieg 1", "session-1");
+
+        verify(model).saveAddress("session-1", address);
+        verify(locationClient).sendUserPassLocation(address, null, "session-1", DeadlineBudget.NONE);
+    }
+
+    @Test
+    void displayDepartures_WithSession_SavesAndDisplaysInSession() {
+        displayController.displayDepartures("session-1", sampleDepartureStations, null);
+
+        verify(model).saveDepartures("session-1", sampleDepartureStations);
+        verify(model).displayDepartures("session-1", sampleDepartureStations, null);
+    }
+
+    // ========== subscribeAddress Tests ==========
+
+    @Test
+    void subscribeAddress_SharesOnePipelineAndRemovesSessionAfterLastSubscriber() {
+        BoardSubscriptions subscriptions = new BoardSubscriptions(4, 10, new SimpleMeterRegistry());
+        displayController = new DisplayController(view, model, locationClient, subscriptions);
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        String sessionId = "subscription:jungfernstieg 1";
+
+        when(model.claimAddress(sessionId, address)).thenReturn(true, false);
+
+        BoardSubscriptions.Subscription first = displayController.subscribeAddress("Jungfernstieg 1", sink());
+        BoardSubscriptions.Subscription second = displayController.subscribeAddress("jungfernstieg 1", sink());
+
+        verify(model, times(2)).claimAddress(sessionId, address);
+        verify(model, never()).saveAddress(anyString(), any());
+        verify(locationClient, times(1)).sendUserPassLocation(address, null, sessionId);
+        verify(view, never()).showLoading(any());
+
+        first.cancel();
+        verify(model, never()).removeSession(sessionId);
+        second.cancel();
+        verify(model).removeSession(sessionId);
+    }
+
+    @Test
+    void subscribeAddress_WithBoardAlreadyThere_ReplaysItToNewSubscriber() {
+        BoardSubscriptions subscriptions = new BoardSubscriptions(4, 10, new SimpleMeterRegistry());
+        displayController = new DisplayController(view, model, locationClient, subscriptions);
+        when(model.getDepartures("subscription:jungfernstieg 1")).thenReturn(sampleDepartureStations);
+        List<SubscribedBoard> received = new ArrayList<>();
+
+        displayController.subscribeAddress("Jungfernstieg 1", new BoardSubscriptions.Sink() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void send(SubscribedBoard board) {
+                received.add(board);
+            }
+
+            @Override
+            public void drop(String reason) {
+            }
+        });
+
+        assertEquals(1, received.size());
+        verifyNoInteractions(locationClient);
+    }
+
     // ========== Helper Methods ==========
 
+    private static BoardSubscriptions.Sink sink() {
+        return mock(BoardSubscriptions.Sink.class);
+    }
+
     private List<DepartureStation> createSampleDepartureStations() {
         Instant now = Instant.now();
 
@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.client.LocationClient;
 import vsp.controller.DisplayController;
+import vsp.grpc.DeadlineBudget;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -55,7 +56,7 @@ class DisplayIntegrationTestWithoutGRPC {
         assertEquals(address, displayModel.getAddress());
         verify(displayView, times(1)).notifyAddressSaved();
         verify(displayView, times(1)).showLoading(address);
-        verify(locationClient, times(1)).sendUserPassLocation(address);
+        verify(locationClient, times(1)).sendUserPassLocation(address, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
 
         displayController.displayDepartures(sampleDepartureStations);
 
@@ -72,7 +73,7 @@ class DisplayIntegrationTestWithoutGRPC {
         displayController.userPassLocation(addressString);
 
         assertEquals(expected, displayModel.getAddress());
-        verify(locationClient).sendUserPassLocation(expected);
+        verify(locationClient).sendUserPassLocation(expected, null, DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
     }
 
     @Test
@@ -88,7 +89,7 @@ class DisplayIntegrationTestWithoutGRPC {
         verify(displayView, times(3)).showLoading(any(Address.class));
 
         ArgumentCaptor<Address> addressCaptor = ArgumentCaptor.forClass(Address.class);
-        verify(locationClient, times(3)).sendUserPassLocation(addressCaptor.capture());
+        verify(locationClient, times(3)).sendUserPassLocation(addressCaptor.capture(), isNull(), eq(DisplayModel.DEFAULT_SESSION), eq(DeadlineBudget.NONE));
         assertEquals(expectedLast, addressCaptor.getValue());
     }
 
@@ -106,6 +107,20 @@ class DisplayIntegrationTestWithoutGRPC {
         assertThrows(IllegalArgumentException.class, () -> displayController.displayDepartures(null));
     }
 
+    @Test
+    void concurrentSessions_KeepSeparateState() {
+        displayController.userPassLocation("Jungfernstieg 1", "session-1");
+        displayController.userPassLocation("Hauptstraße 2", "session-2");
+        displayController.displayDepartures("session-1", sampleDepartureStations, null);
+
+        assertEquals("Jungfernstieg", displayModel.getAddress("session-1").getStreet());
+        assertEquals("Hauptstraße", displayModel.getAddress("session-2").getStreet());
+        assertEquals(sampleDepartureStations, displayModel.getDepartures("session-1"));
+        assertNull(displayModel.getDepartures("session-2"));
+        assertNull(displayModel.getAddress());
+        assertEquals(2, displayModel.sessionCount());
+    }
+
     // ========== Helper Methods ==========
 
     private List<DepartureStation> createSampleDepartureStations() {
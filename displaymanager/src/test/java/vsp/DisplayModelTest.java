@@ -0,0 +1,325 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vsp.app.DisplaymanagerApplicationConfig;
+import vsp.grpc.BoardDeltas;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DisplayModelTest {
+
+    private static final Instant START = Instant.ofEpochSecond(1_792_404_000L);
+
+    @Mock
+    private DisplayView view;
+
+    private final MutableClock clock = new MutableClock(START);
+    private final DisplaymanagerApplicationConfig.Display display = new DisplaymanagerApplicationConfig.Display();
+    private DisplayModel model;
+
+    @BeforeEach
+    void setUp() {
+        display.setSessionTtlSeconds(600);
+        display.setSessionMaxCount(10);
+        model = new DisplayModel(view, null, display, clock);
+    }
+
+    @Test
+    void sessions_KeepSeparateAddressAndDepartures() {
+        Address first = address("Jungfernstieg", "1");
+        Address second = address("Hauptstraße", "2");
+
+        model.saveAddress("session-1", first);
+        model.saveAddress("session-2", second);
+        model.saveDepartures("session-1", board("Jungfernstieg", 5));
+
+        assertEquals(first, model.getAddress("session-1"));
+        assertEquals(second, model.getAddress("session-2"));
+        assertEquals("Jungfernstieg", model.getDepartures("session-1").get(0).getStationName());
+        assertNull(model.getDepartures("session-2"));
+        assertNull(model.getSession("unbekannt"));
+    }
+
+    @Test
+    void displayDepartures_StoresFetchTimeWithoutTouchingSession() {
+        Timestamp fetchedAt = Timestamp.newBuilder().setSeconds(START.getEpochSecond()).build();
+        List<DepartureStation> board = board("Jungfernstieg", 5);
+        model.saveDepartures("session-1", board);
+        Instant lastAccess = model.getSession("session-1").lastAccess();
+
+        clock.advanceSeconds(30);
+        model.displayDepartures("session-1", board, fetchedAt);
+
+        assertEquals(fetchedAt, model.getDataFetchedAt("session-1"));
+        assertEquals(lastAccess, model.getSession("session-1").lastAccess());
+        verify(view).showDeparturesToMonitor(board, fetchedAt);
+    }
+
+    @Test
+    void evictExpired_RemovesOnlyIdleSessions() {
+        model.saveAddress("alt", address("Jungfernstieg", "1"));
+        clock.advanceSeconds(400);
+        model.saveAddress("neu", address("Hauptstraße", "2"));
+        clock.advanceSeconds(300);
+
+        assertEquals(1, model.evictExpired());
+
+        assertNull(model.getSession("alt"));
+        assertNotNull(model.getSession("neu"));
+    }
+
+    @Test
+    void evictExpired_RefetchedBoardsDoNotKeepSessionAlive() {
+        model.saveAddress("session-1", address("Jungfernstieg", "1"));
+        // Countdown-Ticker holt regelmäßig neue Abfahrten, ohne dass der Nutzer erneut anfragt
+        for (int i = 0; i < 7; i++) {
+            clock.advanceSeconds(100);
+            model.saveDepartures("session-1", board("Jungfernstieg", 5));
+        }
+
+        assertEquals(1, model.evictExpired());
+        assertNull(model.getSession("session-1"));
+    }
+
+    @Test
+    void save_AboveMaxCount_EvictsLeastRecentlyActiveSessions() {
+        for (int i = 0; i < 10; i++) {
+            model.saveAddress("session-" + i, address("Jungfernstieg", String.valueOf(i + 1)));
+            clock.advanceSeconds(1);
+        }
+        // session-0 ist wieder aktiv und darf nicht verdrängt werden
+        model.saveDepartures("session-0", board("Jungfernstieg", 5));
+
+        model.saveAddress("session-10", address("Hauptstraße", "1"));
+
+        // auf 90% von max-sessions verdrängt: die zwei ältesten inaktiven Sessions
+        assertEquals(9, model.sessionCount());
+        assertNotNull(model.getSession("session-0"));
+        assertNull(model.getSession("session-1"));
+        assertNull(model.getSession("session-2"));
+        assertNotNull(model.getSession("session-10"));
+    }
+
+    @Test
+    void evictExpired_And_Bounds_KeepSessionsWithSubscribers() {
+        BoardSubscriptions subscriptions = new BoardSubscriptions(4, 10, new SimpleMeterRegistry());
+        model = new DisplayModel(view, null, subscriptions, display, clock);
+        subscriptions.subscribeSession("subscription:Jungfernstieg 1", mock(BoardSubscriptions.Sink.class));
+
+        model.saveAddress("subscription:Jungfernstieg 1", address("Jungfernstieg", "1"));
+        clock.advanceSeconds(1);
+        for (int i = 0; i < 10; i++) {
+            model.saveAddress("session-" + i, address("Hauptstraße", String.valueOf(i + 1)));
+            clock.advanceSeconds(1);
+        }
+        // über max-sessions verdrängt, aber nie die abonnierte Session
+        assertNotNull(model.getSession("subscription:Jungfernstieg 1"));
+        assertNull(model.getSession("session-0"));
+
+        clock.advanceSeconds(601);
+        model.evictExpired();
+
+        assertEquals(1, model.sessionCount());
+        assertNotNull(model.getSession("subscription:Jungfernstieg 1"));
+    }
+
+    @Test
+    void save_AboveMaxBytes_EvictsUntilBelowLimit() {
+        display.setSessionMaxBytes(2_000);
+        model = new DisplayModel(view, null, display, clock);
+
+        for (int i = 0; i < 10; i++) {
+            model.saveDepartures("session-" + i, board("Station " + i, 5, 6, 7, 8, 9));
+            clock.advanceSeconds(1);
+        }
+
+        assertTrue(model.estimatedBytes() <= 2_000);
+        assertTrue(model.sessionCount() < 10);
+        assertNotNull(model.getSession("session-9"));
+    }
+
+    @Test
+    void estimatedBytes_FollowsUpdatesAndEvictions() {
+        model.saveAddress("session-1", address("Jungfernstieg", "1"));
+        long addressOnly = model.estimatedBytes();
+        assertTrue(addressOnly > 0);
+
+        model.saveDepartures("session-1", board("Jungfernstieg", 5, 6, 7));
+        long withBoard = model.estimatedBytes();
+        assertTrue(withBoard > addressOnly);
+        assertEquals(withBoard, model.getSession("session-1").bytes());
+
+        model.pruneDeparted("session-1", START.plusSeconds(6 * 60));
+        assertTrue(model.estimatedBytes() < withBoard);
+
+        clock.advanceSeconds(601);
+        model.evictExpired();
+        assertEquals(0, model.estimatedBytes());
+    }
+
+    @Test
+    void concurrentWrites_KeepOneConsistentSnapshotPerSession() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                String sessionId = "session-" + t;
+                Address address = address("Jungfernstieg", String.valueOf(t + 1));
+                List<DepartureStation> board = board("Station " + t, 5);
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        model.saveAddress(sessionId, address);
+                        model.saveDepartures(sessionId, board);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long sum = 0;
+        for (int t = 0; t < threads; t++) {
+            DisplayModel.Session session = model.getSession("session-" + t);
+            assertEquals(String.valueOf(t + 1), session.address().getHouseNumber());
+            assertEquals("Station " + t, session.departures().get(0).getStationName());
+            sum += session.bytes();
+        }
+        assertEquals(sum, model.estimatedBytes());
+    }
+
+    @Test
+    void defaultSession_BackwardsCompatibleAccessors() {
+        Address address = address("Jungfernstieg", "1");
+
+        model.saveAddress(address);
+        model.saveDepartures(board("Jungfernstieg", 5));
+
+        assertEquals(address, model.getAddress());
+        assertEquals(address, model.getAddress(DisplayModel.DEFAULT_SESSION));
+        assertEquals(1, model.getDepartures().size());
+    }
+
+    @Test
+    void applyDelta_OnMatchingVersion_UpdatesBoardAndVersion() {
+        List<DepartureStation> base = board("Jungfernstieg", 2, 5, 9);
+        List<DepartureStation> next = board("Jungfernstieg", 5, 9, 14);
+        model.saveBoard("session-1", base, 41);
+
+        List<DepartureStation> applied = model.applyDelta("session-1", BoardDeltas.diff(base, next, 41, 42));
+
+        assertEquals(next, applied);
+        assertEquals(next, model.getDepartures("session-1"));
+        assertEquals(42, model.getBoardVersion("session-1"));
+    }
+
+    @Test
+    void applyDelta_OnOtherVersion_LeavesSessionUnchanged() {
+        List<DepartureStation> base = board("Jungfernstieg", 2, 5, 9);
+        model.saveBoard("session-1", base, 41);
+        model.saveDepartures("session-2", base);
+
+        BoardDelta stale = BoardDeltas.diff(base, board("Jungfernstieg", 5, 9), 40, 41);
+
+        assertNull(model.applyDelta("session-1", stale));
+        assertNull(model.applyDelta("session-2", stale));
+        assertNull(model.applyDelta("unbekannt", stale));
+        assertEquals(base, model.getDepartures("session-1"));
+        assertEquals(41, model.getBoardVersion("session-1"));
+        assertEquals(0, model.getBoardVersion("session-2"));
+    }
+
+    @Test
+    void claimAddress_ConcurrentCallers_OnlyFirstWins() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger claimed = new AtomicInteger();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Address address = address("Jungfernstieg", String.valueOf(t + 1));
+                executor.submit(() -> {
+                    start.await();
+                    if (model.claimAddress("subscription:jungfernstieg 1", address)) {
+                        claimed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, claimed.get());
+        assertNotNull(model.getAddress("subscription:jungfernstieg 1"));
+        assertFalse(model.claimAddress("subscription:jungfernstieg 1", address("Hauptstraße", "2")));
+    }
+
+    private static Address address(String street, String houseNumber) {
+        return Address.newBuilder().setStreet(street).setHouseNumber(houseNumber).build();
+    }
+
+    private static List<DepartureStation> board(String stationName, int... minutes) {
+        DepartureStation.Builder station = DepartureStation.newBuilder().setStationName(stationName);
+        for (int minute : minutes) {
+            station.addDepartures(Departure.newBuilder()
+                    .setLineName("U1 Norderstedt Mitte")
+                    .setDepartureTime(Timestamp.newBuilder().setSeconds(START.getEpochSecond() + minute * 60L)));
+        }
+        return List.of(station.build());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
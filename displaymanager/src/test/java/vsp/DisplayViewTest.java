@@ -268,6 +268,21 @@ class DisplayViewTest {
                 () -> displayView.showLoading(null));
     }
 
+    @Test
+    void showDeparturesToMonitor_WithInjectedStreams_WritesOnlyToThem() {
+        ByteArrayOutputStream ownOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream ownErr = new ByteArrayOutputStream();
+        DisplayView view = new DisplayView(new PrintStream(ownOut), new PrintStream(ownErr));
+
+        view.showDeparturesToMonitor(createSampleDepartureStations());
+        view.showDeparturesToMonitor(List.of());
+
+        assertTrue(ownOut.toString().contains("U2 Niendorf Nord"));
+        assertTrue(ownErr.toString().contains("No departures found"));
+        assertEquals("", outContent.toString());
+        assertEquals("", errContent.toString());
+    }
+
     @Test
     void truncate_WithShortText_ReturnsOriginal() {
         // Note: truncate is private, but we can test it indirectly
@@ -3,18 +3,24 @@ package vsp;
 import com.google.protobuf.Timestamp;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.controller.DisplayController;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.DisplaymanagerIngressService;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -55,7 +61,23 @@ class DisplaymanagerIngressServiceTest {
         assertTrue(ack.getAcceptedAt().getSeconds() > 0);
 
         // Forwarding happens in a separate thread
-        verify(displayController, timeout(1000)).userPassLocation("Jungfernstieg 1");
+        verify(displayController, timeout(1000)).userPassLocation("Jungfernstieg 1", DisplayModel.DEFAULT_SESSION, DeadlineBudget.NONE);
+    }
+
+    @Test
+    void userPassLocation_WithExpiredDeadline_AcksButDoesNotForward() {
+        ExternalInput request = ExternalInput.newBuilder()
+                .setAddress("Jungfernstieg 1")
+                .setMeta(RequestMeta.newBuilder()
+                        .setDeadlineUnixMillis(System.currentTimeMillis() - 1_000))
+                .build();
+
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, Runnable::run);
+        displaymanagerIngressService.userPassLocation(request, responseObserver);
+
+        verify(responseObserver).onNext(any(Ack.class));
+        verify(responseObserver).onCompleted();
+        verify(displayController, never()).userPassLocation(anyString(), anyString(), any(DeadlineBudget.class));
     }
 
     @Test
@@ -84,7 +106,7 @@ class DisplaymanagerIngressServiceTest {
         assertTrue(ack.hasAcceptedAt());
 
         // Forwarding happens in a separate thread
-        verify(displayController, timeout(1000)).displayDepartures(stationsCaptor.capture(), eq(dataFetchedAt));
+        verify(displayController, timeout(1000)).displayDepartures(eq(DisplayModel.DEFAULT_SESSION), stationsCaptor.capture(), eq(dataFetchedAt));
         assertEquals(1, stationsCaptor.getValue().size());
         assertEquals("Jungfernstieg", stationsCaptor.getValue().get(0).getStationName());
     }
@@ -103,7 +125,7 @@ class DisplaymanagerIngressServiceTest {
 
         displaymanagerIngressService.showDepartures(request, responseObserver);
 
-        verify(displayController, timeout(1000)).displayDepartures(stationsCaptor.capture(), isNull());
+        verify(displayController, timeout(1000)).displayDepartures(eq(DisplayModel.DEFAULT_SESSION), stationsCaptor.capture(), isNull());
         List<DepartureStation> captured = stationsCaptor.getValue();
         assertEquals(2, captured.size());
         assertEquals("Jungfernstieg", captured.get(0).getStationName());
@@ -118,7 +140,7 @@ class DisplaymanagerIngressServiceTest {
 
         displaymanagerIngressService.showDepartures(request, responseObserver);
 
-        verify(displayController, never()).displayDepartures(anyList(), any());
+        verify(displayController, never()).displayDepartures(anyString(), anyList(), any());
         verify(responseObserver, never()).onNext(any());
         verify(responseObserver, never()).onCompleted();
         verify(responseObserver).onError(errorCaptor.capture());
@@ -141,7 +163,7 @@ class DisplaymanagerIngressServiceTest {
 
         doThrow(new RuntimeException("boom"))
                 .when(displayController)
-                .displayDepartures(anyList(), any());
+                .displayDepartures(anyString(), anyList(), any());
 
         displaymanagerIngressService.showDepartures(request, responseObserver);
 
@@ -149,7 +171,238 @@ class DisplaymanagerIngressServiceTest {
         verify(responseObserver).onCompleted();
         verify(responseObserver, never()).onError(any());
 
-        verify(displayController, timeout(1000)).displayDepartures(anyList(), isNull());
+        verify(displayController, timeout(1000)).displayDepartures(anyString(), anyList(), isNull());
+    }
+
+    @Test
+    void userPassLocation_WithMeta_UsesSessionIdOrFallsBackToCorrelationId() {
+        displaymanagerIngressService.userPassLocation(ExternalInput.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId("cid-1").setSessionId("session-1"))
+                .setAddress("Jungfernstieg 1")
+                .build(), responseObserver);
+        displaymanagerIngressService.userPassLocation(ExternalInput.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId("cid-2"))
+                .setAddress("Jungfernstieg 2")
+                .build(), responseObserver);
+
+        verify(displayController, timeout(1000)).userPassLocation("Jungfernstieg 1", "session-1", DeadlineBudget.NONE);
+        verify(displayController, timeout(1000)).userPassLocation("Jungfernstieg 2", "cid-2", DeadlineBudget.NONE);
+    }
+
+    @Test
+    void showDepartures_WithSessionInMeta_ForwardsToSession() {
+        ShowDeparturesRequest request = ShowDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId("cid-3").setSessionId("session-1"))
+                .addStations(DepartureStation.newBuilder().setStationName("Jungfernstieg"))
+                .build();
+
+        displaymanagerIngressService.showDepartures(request, responseObserver);
+
+        verify(displayController, timeout(1000)).displayDepartures(eq("session-1"), anyList(), isNull());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBoards_GrantsWindowAndAcksEachFrameWithOneCredit() {
+        StreamObserver<BoardStreamAck> acks = mock(StreamObserver.class);
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, Runnable::run,
+                new SimpleMeterRegistry(), 8);
+
+        StreamObserver<BoardStreamFrame> frames = displaymanagerIngressService.streamBoards(acks);
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(1)
+                .setRequest(ShowDeparturesRequest.newBuilder()
+                        .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                        .addStations(DepartureStation.newBuilder().setStationName("Jungfernstieg")))
+                .build());
+        frames.onCompleted();
+
+        ArgumentCaptor<BoardStreamAck> ackCaptor = ArgumentCaptor.forClass(BoardStreamAck.class);
+        verify(acks, times(2)).onNext(ackCaptor.capture());
+        assertEquals(0, ackCaptor.getAllValues().get(0).getSequence());
+        assertEquals(8, ackCaptor.getAllValues().get(0).getCredits());
+        assertEquals(1, ackCaptor.getAllValues().get(1).getSequence());
+        assertEquals(1, ackCaptor.getAllValues().get(1).getCredits());
+        assertTrue(ackCaptor.getAllValues().get(1).hasAcceptedAt());
+        verify(acks).onCompleted();
+        verify(displayController).displayDepartures(eq("session-1"), anyList(), isNull());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBoards_WithEmptyFrame_AcksWithErrorAndKeepsStreamOpen() {
+        StreamObserver<BoardStreamAck> acks = mock(StreamObserver.class);
+
+        StreamObserver<BoardStreamFrame> frames = displaymanagerIngressService.streamBoards(acks);
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(7)
+                .setRequest(ShowDeparturesRequest.getDefaultInstance())
+                .build());
+
+        ArgumentCaptor<BoardStreamAck> ackCaptor = ArgumentCaptor.forClass(BoardStreamAck.class);
+        verify(acks, times(2)).onNext(ackCaptor.capture());
+        BoardStreamAck rejected = ackCaptor.getAllValues().get(1);
+        assertEquals(7, rejected.getSequence());
+        assertEquals(1, rejected.getCredits());
+        assertEquals(ErrorStatus.Code.INVALID_ARGUMENT, rejected.getError().getCode());
+        verify(acks, never()).onError(any());
+        verify(acks, never()).onCompleted();
+        verify(displayController, never()).displayDepartures(anyString(), anyList(), any());
+    }
+
+    @Test
+    void showDepartures_WithStaleDelta_AcksWithResyncAndDoesNotForward() {
+        BoardDelta delta = BoardDelta.newBuilder().setBaseVersion(41).setVersion(42).build();
+        when(displayController.applyBoardDelta("session-1", delta, null)).thenReturn(false);
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, Runnable::run);
+
+        ArgumentCaptor<Ack> ackCaptor = ArgumentCaptor.forClass(Ack.class);
+        displaymanagerIngressService.showDepartures(ShowDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                .setDelta(delta)
+                .build(), responseObserver);
+
+        verify(responseObserver).onNext(ackCaptor.capture());
+        assertTrue(ackCaptor.getValue().getResyncRequired());
+        verify(displayController, never()).displayDepartures(anyString(), anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void showDepartures_WithBoardThenDelta_AppliesDeltaAfterBoardBeforeAcking() {
+        List<Runnable> scheduled = new ArrayList<>();
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, scheduled::add);
+        BoardDelta delta = BoardDelta.newBuilder().setBaseVersion(1).setVersion(2).build();
+        when(displayController.applyBoardDelta("session-1", delta, null)).thenReturn(true);
+        StreamObserver<Ack> deltaObserver = mock(StreamObserver.class);
+
+        displaymanagerIngressService.showDepartures(ShowDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                .addStations(DepartureStation.newBuilder().setStationName("A"))
+                .setBoardVersion(1)
+                .build(), responseObserver);
+        displaymanagerIngressService.showDepartures(ShowDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                .setDelta(delta)
+                .build(), deltaObserver);
+
+        // beide Requests teilen sich einen Task im Executor; das Delta-Ack kommt erst nach der Anwendung
+        assertEquals(1, scheduled.size());
+        verify(deltaObserver, never()).onNext(any());
+        scheduled.get(0).run();
+
+        InOrder inOrder = inOrder(displayController, deltaObserver);
+        inOrder.verify(displayController).displayBoard(eq("session-1"), anyList(), isNull(), eq(1L));
+        inOrder.verify(displayController).applyBoardDelta("session-1", delta, null);
+        ArgumentCaptor<Ack> ackCaptor = ArgumentCaptor.forClass(Ack.class);
+        inOrder.verify(deltaObserver).onNext(ackCaptor.capture());
+        assertFalse(ackCaptor.getValue().getResyncRequired());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBoards_WithVersionedBoardAndDelta_ForwardsBothAndRequestsResyncOnMismatch() {
+        StreamObserver<BoardStreamAck> acks = mock(StreamObserver.class);
+        BoardDelta delta = BoardDelta.newBuilder().setBaseVersion(41).setVersion(42).build();
+        when(displayController.applyBoardDelta("session-1", delta, null)).thenReturn(false);
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, Runnable::run,
+                new SimpleMeterRegistry(), 8);
+
+        StreamObserver<BoardStreamFrame> frames = displaymanagerIngressService.streamBoards(acks);
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(1)
+                .setRequest(ShowDeparturesRequest.newBuilder()
+                        .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                        .setBoardVersion(41)
+                        .addStations(DepartureStation.newBuilder().setStationName("Jungfernstieg")))
+                .build());
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(2)
+                .setRequest(ShowDeparturesRequest.newBuilder()
+                        .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                        .setDelta(delta))
+                .build());
+
+        ArgumentCaptor<BoardStreamAck> ackCaptor = ArgumentCaptor.forClass(BoardStreamAck.class);
+        verify(acks, times(3)).onNext(ackCaptor.capture());
+        assertFalse(ackCaptor.getAllValues().get(1).getResyncRequired());
+        assertEquals(2, ackCaptor.getAllValues().get(2).getSequence());
+        assertTrue(ackCaptor.getAllValues().get(2).getResyncRequired());
+        verify(displayController).displayBoard(eq("session-1"), anyList(), isNull(), eq(41L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBoards_ProcessesFramesOfOneStreamInOrder() {
+        StreamObserver<BoardStreamAck> acks = mock(StreamObserver.class);
+        List<Runnable> scheduled = new ArrayList<>();
+        BoardDelta delta = BoardDelta.newBuilder().setBaseVersion(41).setVersion(42).build();
+        when(displayController.applyBoardDelta("session-1", delta, null)).thenReturn(true);
+        displaymanagerIngressService = new DisplaymanagerIngressService(displayController, scheduled::add,
+                new SimpleMeterRegistry(), 8);
+
+        StreamObserver<BoardStreamFrame> frames = displaymanagerIngressService.streamBoards(acks);
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(1)
+                .setRequest(ShowDeparturesRequest.newBuilder()
+                        .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                        .setBoardVersion(41)
+                        .addStations(DepartureStation.newBuilder().setStationName("Jungfernstieg")))
+                .build());
+        frames.onNext(BoardStreamFrame.newBuilder()
+                .setSequence(2)
+                .setRequest(ShowDeparturesRequest.newBuilder()
+                        .setMeta(RequestMeta.newBuilder().setSessionId("session-1"))
+                        .setDelta(delta))
+                .build());
+
+        // ein Task für den ganzen Stream, der die Frames der Reihe nach abarbeitet
+        assertEquals(1, scheduled.size());
+        scheduled.get(0).run();
+
+        InOrder inOrder = inOrder(displayController);
+        inOrder.verify(displayController).displayBoard(eq("session-1"), anyList(), isNull(), eq(41L));
+        inOrder.verify(displayController).applyBoardDelta("session-1", delta, null);
+        ArgumentCaptor<BoardStreamAck> ackCaptor = ArgumentCaptor.forClass(BoardStreamAck.class);
+        verify(acks, times(3)).onNext(ackCaptor.capture());
+        assertEquals(List.of(0L, 1L, 2L), ackCaptor.getAllValues().stream().map(BoardStreamAck::getSequence).toList());
+        assertFalse(ackCaptor.getAllValues().get(2).getResyncRequired());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void subscribeBoards_WithStations_SubscribesAndDrainsOnReady() {
+        ServerCallStreamObserver<SubscribedBoard> observer = mock(ServerCallStreamObserver.class);
+        BoardSubscriptions.Subscription subscription = mock(BoardSubscriptions.Subscription.class);
+        when(displayController.subscribeStations(eq(Set.of("Master:10950")), any())).thenReturn(subscription);
+
+        displaymanagerIngressService.subscribeBoards(BoardSubscription.newBuilder()
+                .addStationIds("Master:10950")
+                .setSubscriber("halle-3-monitor-1")
+                .build(), observer);
+
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+        verify(observer).setOnReadyHandler(onReady.capture());
+        verify(observer).setOnCancelHandler(onCancel.capture());
+        onReady.getValue().run();
+        onCancel.getValue().run();
+        verify(subscription).drain();
+        verify(subscription).cancel();
+        verify(observer, never()).onError(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void subscribeBoards_WithoutAddressOrStations_FailsWithInvalidArgument() {
+        ServerCallStreamObserver<SubscribedBoard> observer = mock(ServerCallStreamObserver.class);
+
+        displaymanagerIngressService.subscribeBoards(BoardSubscription.getDefaultInstance(), observer);
+
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(observer).onError(error.capture());
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(error.getValue()).getCode());
+        verifyNoInteractions(displayController);
     }
 
     private Timestamp createTimestamp(Instant instant) {
@@ -0,0 +1,137 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RenderLoopTest {
+
+    @Mock
+    private DisplayView view;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RenderLoop renderLoop;
+
+    @AfterEach
+    void tearDown() {
+        if (renderLoop != null) {
+            renderLoop.close();
+        }
+    }
+
+    @Test
+    void submit_RendersBoardOnRenderThread() {
+        renderLoop = new RenderLoop(view, 0, registry);
+        List<DepartureStation> board = board("Jungfernstieg");
+        Timestamp fetchedAt = Timestamp.newBuilder().setSeconds(42).build();
+
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board, fetchedAt);
+
+        verify(view, timeout(1000)).showDeparturesToMonitor(board, fetchedAt);
+        assertEquals(1.0, registry.get("vsp.display.updates.submitted").counter().count());
+    }
+
+    @Test
+    void submit_WhileRendering_OnlyLatestBoardIsRendered() throws Exception {
+        renderLoop = new RenderLoop(view, 0, registry);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<DepartureStation> first = board("A");
+        lenient().doAnswer(invocation -> {
+            rendering.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return null;
+        }).when(view).showDeparturesToMonitor(same(first), any());
+
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, first, null);
+        assertTrue(rendering.await(1, TimeUnit.SECONDS));
+
+        // drei Boards, während der Render-Thread noch beschäftigt ist
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board("B"), null);
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board("C"), null);
+        List<DepartureStation> latest = board("D");
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, latest, null);
+        release.countDown();
+
+        verify(view, timeout(1000)).showDeparturesToMonitor(same(latest), isNull());
+        verify(view, times(2)).showDeparturesToMonitor(anyList(), any());
+        assertEquals(2.0, registry.get("vsp.display.updates.coalesced").counter().count());
+    }
+
+    @Test
+    void submit_BurstWithinFrameInterval_RendersOncePerFrame() {
+        renderLoop = new RenderLoop(view, 200, registry);
+
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board("A"), null);
+        verify(view, timeout(1000)).showDeparturesToMonitor(anyList(), any());
+
+        for (int i = 0; i < 20; i++) {
+            renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board("Burst " + i), null);
+        }
+
+        verify(view, timeout(1000)).showDeparturesToMonitor(eq(board("Burst 19")), isNull());
+        verify(view, times(2)).showDeparturesToMonitor(anyList(), any());
+        assertEquals(19.0, registry.get("vsp.display.updates.coalesced").counter().count());
+        assertEquals(2, registry.get("vsp.display.render.latency").timer().count());
+    }
+
+    @Test
+    void submit_WhenViewThrows_KeepsRendering() {
+        renderLoop = new RenderLoop(view, 0, registry);
+        List<DepartureStation> broken = board("kaputt");
+        lenient().doThrow(new RuntimeException("boom")).when(view).showDeparturesToMonitor(same(broken), any());
+
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, broken, null);
+        verify(view, timeout(1000)).showDeparturesToMonitor(same(broken), any());
+
+        List<DepartureStation> next = board("Hauptbahnhof");
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, next, null);
+        verify(view, timeout(1000)).showDeparturesToMonitor(same(next), any());
+    }
+
+    @Test
+    void submit_DisplayNotOnConsole_IsNotRendered() {
+        renderLoop = new RenderLoop(view, 0, registry);
+
+        renderLoop.submit("andere-session", board("A"), null);
+        List<DepartureStation> console = board("B");
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, console, null);
+
+        verify(view, timeout(1000)).showDeparturesToMonitor(same(console), any());
+        verify(view, times(1)).showDeparturesToMonitor(anyList(), any());
+        assertEquals(2.0, registry.get("vsp.display.updates.submitted").counter().count());
+    }
+
+    @Test
+    void bindConsole_OtherDisplay_RendersWithoutWaitingForFrame() {
+        renderLoop = new RenderLoop(view, 10_000, registry);
+
+        renderLoop.submit(RenderLoop.DEFAULT_DISPLAY, board("A"), null);
+        verify(view, timeout(1000)).showDeparturesToMonitor(anyList(), any());
+
+        // das Frame-Intervall gilt pro Display, die neue Session wartet nicht auf die Default-Session
+        renderLoop.bindConsole("session-2");
+        List<DepartureStation> next = board("B");
+        renderLoop.submit("session-2", next, null);
+
+        verify(view, timeout(1000)).showDeparturesToMonitor(same(next), any());
+        assertEquals("session-2", renderLoop.consoleDisplay());
+    }
+
+    private static List<DepartureStation> board(String stationName) {
+        return List.of(DepartureStation.newBuilder().setStationName(stationName).build());
+    }
+}
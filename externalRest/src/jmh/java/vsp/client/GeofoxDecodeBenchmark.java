@@ -0,0 +1,70 @@
+package vsp.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import vsp.DepartureStation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten von JSON-Decoding und Gruppierung nach stationId im GeofoxClient.
+ * Payload-Größen: "Stationen:Abfahrten".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeofoxDecodeBenchmark {
+
+    @Param({"3:30", "10:100", "50:300"})
+    public String size;
+
+    private GeofoxClient client;
+    private byte[] checkNameJson;
+    private byte[] departureListJson;
+    private List<DepartureStation> stations;
+    private GeofoxClient.DepartureListResponse parsedDepartures;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] parts = size.split(":");
+        int stationCount = Integer.parseInt(parts[0]);
+        int departureCount = Integer.parseInt(parts[1]);
+
+        client = GeofoxFixtures.client();
+        checkNameJson = GeofoxFixtures.checkNameResponse(stationCount);
+        departureListJson = GeofoxFixtures.departureListResponse(stationCount, departureCount);
+        stations = GeofoxFixtures.stations(stationCount);
+        parsedDepartures = client.parseDepartureList(departureListJson);
+    }
+
+    /** /checkName: JSON -> DepartureStations (findNearbyStations) */
+    @Benchmark
+    public List<DepartureStation> decodeNearbyStations() throws Exception {
+        return client.decodeNearbyStations(checkNameJson);
+    }
+
+    /** /departureList: nur JSON-Decoding (Object, da die DTOs package-private sind) */
+    @Benchmark
+    public Object parseDepartureList() throws Exception {
+        return client.parseDepartureList(departureListJson);
+    }
+
+    /** /departureList: nur Gruppierung nach stationId inkl. Protobuf-Aufbau */
+    @Benchmark
+    public List<DepartureStation> groupByStation() {
+        return client.groupByStation(parsedDepartures, stations);
+    }
+
+    /** /departureList: komplett (getDeparturesForStations ohne HTTP) */
+    @Benchmark
+    public List<DepartureStation> decodeDepartures() throws Exception {
+        return client.decodeDepartures(departureListJson, stations);
+    }
+}
@@ -0,0 +1,143 @@
+package vsp.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Timestamp;
+import vsp.Departure;
+import vsp.DepartureStation;
+import vsp.app.ExternalRestApplicationConfig;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministische Geofox-Payloads im Format von /checkName und /departureList (Version 63),
+ * inkl. der Felder, die der Client ignoriert (type, serviceTypes, delay, platform ...).
+ */
+public final class GeofoxFixtures {
+
+    private static final String[][] LINES = {
+            {"U1", "Norderstedt Mitte"}, {"U1", "Großhansdorf"}, {"U2", "Niendorf Nord"}, {"U2", "Mümmelmannsberg"},
+            {"U3", "Barmbek"}, {"U3", "Wandsbek-Gartenstadt"}, {"S1", "Wedel"}, {"S1", "Poppenbüttel"},
+            {"S3", "Stade"}, {"S3", "Pinneberg"}, {"5", "Burgwedel"}, {"5", "Nedderfeld"},
+            {"6", "Borgweg"}, {"6", "Auf dem Sande"}, {"25", "Altona"}, {"M4", "Klein Borstel"},
+            {"M5", "Hauptbahnhof"}, {"X35", "Rathausmarkt"}, {"600", "Ahrensburg"}, {"688", "Osdorfer Born"}
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private GeofoxFixtures() {
+    }
+
+    /**
+     * GeofoxClient ohne Netzwerkzugriff; die Benchmarks nutzen nur die Decode-Methoden.
+     */
+    public static GeofoxClient client() {
+        ExternalRestApplicationConfig config = new ExternalRestApplicationConfig();
+        config.getExternalApis().setGeofoxBaseUrl("http://localhost");
+        config.getExternalApis().setGeofoxApiUser("bench");
+        config.getExternalApis().setGeofoxApiPassword("bench");
+        config.getExternalApis().setGeofoxTimeout(1000);
+        return new GeofoxClient(config);
+    }
+
+    public static byte[] checkNameResponse(int stations) throws Exception {
+        Random random = new Random(42);
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < stations; i++) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("name", stationName(i));
+            result.put("city", "Hamburg");
+            result.put("combinedName", stationName(i));
+            result.put("id", stationId(i));
+            result.put("globalId", "de:02000:" + (10000 + i));
+            result.put("type", "STATION");
+            result.put("coordinate", Map.of("x", 9.99 + random.nextDouble() / 50, "y", 53.55 + random.nextDouble() / 50));
+            result.put("distance", 20.0 + i * 35 + random.nextInt(30));
+            result.put("time", 1 + i);
+            result.put("serviceTypes", List.of("bus", "u", "s"));
+            result.put("hasStationInformation", true);
+            results.add(result);
+        }
+        return MAPPER.writeValueAsBytes(Map.of("returnCode", "OK", "results", results));
+    }
+
+    public static byte[] departureListResponse(int stations, int departures) throws Exception {
+        Random random = new Random(42);
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < departures; i++) {
+            String[] line = LINES[random.nextInt(LINES.length)];
+            int station = random.nextInt(stations);
+
+            Map<String, Object> departure = new LinkedHashMap<>();
+            departure.put("line", Map.of(
+                    "name", line[0],
+                    "direction", line[1],
+                    "origin", "Hauptbahnhof",
+                    "type", Map.of("simpleType", line[0].startsWith("U") || line[0].startsWith("S") ? "TRAIN" : "BUS",
+                            "shortInfo", "Bus", "longInfo", "Metrobus", "model", "Gelenkbus"),
+                    "id", "HHA-B:" + line[0] + "_HHA-B"));
+            departure.put("timeOffset", i * 200 / Math.max(1, departures));
+            departure.put("delay", random.nextInt(4) * 60);
+            departure.put("serviceId", 1000 + i);
+            departure.put("station", Map.of("combinedName", stationName(station), "id", stationId(station)));
+            departure.put("platform", "Gleis " + (1 + random.nextInt(4)));
+            list.add(departure);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("returnCode", "OK");
+        response.put("time", Map.of("date", "19.10.2026", "time", "12:00"));
+        response.put("departures", list);
+        return MAPPER.writeValueAsBytes(response);
+    }
+
+    /**
+     * Stationen so, wie sie aus /checkName kommen (id, name, distance; ohne Abfahrten).
+     */
+    public static List<DepartureStation> stations(int stations) {
+        List<DepartureStation> result = new ArrayList<>(stations);
+        for (int i = 0; i < stations; i++) {
+            result.add(DepartureStation.newBuilder()
+                    .setStationId(stationId(i))
+                    .setStationName(stationName(i))
+                    .setDistance(20.0 + i * 35)
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Stationen inkl. Abfahrten, wie sie GeofoxClient nach dem Gruppieren liefert.
+     */
+    public static List<DepartureStation> stationsWithDepartures(int stations, int departures) {
+        Random random = new Random(42);
+        long now = Instant.now().getEpochSecond();
+        List<DepartureStation.Builder> builders = new ArrayList<>(stations);
+        for (DepartureStation station : stations(stations)) {
+            builders.add(station.toBuilder());
+        }
+        for (int i = 0; i < departures; i++) {
+            String[] line = LINES[random.nextInt(LINES.length)];
+            builders.get(i % stations).addDepartures(Departure.newBuilder()
+                    .setLineName(line[0] + " " + line[1])
+                    .setDepartureTime(Timestamp.newBuilder().setSeconds(now + i * 12_000L / departures).build()));
+        }
+        List<DepartureStation> result = new ArrayList<>(stations);
+        for (DepartureStation.Builder builder : builders) {
+            result.add(builder.build());
+        }
+        return result;
+    }
+
+    private static String stationId(int i) {
+        return "Master:" + (10950 + i * 7);
+    }
+
+    private static String stationName(int i) {
+        return "Haltestelle " + (char) ('A' + i % 26) + (i / 26 == 0 ? "" : String.valueOf(i / 26));
+    }
+}
@@ -0,0 +1,57 @@
+package vsp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import vsp.DepartureStation;
+import vsp.GetNearbyDeparturesResponse;
+import vsp.client.GeofoxFixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten des Protobuf-Mappings im DeparturesIngressService:
+ * Aufbau der DepartureStationList-Antwort und deren Serialisierung.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeparturesMappingBenchmark {
+
+    @Param({"3:30", "10:100", "50:300"})
+    public String size;
+
+    private List<DepartureStation> stations;
+    private GetNearbyDeparturesResponse response;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split(":");
+        stations = GeofoxFixtures.stationsWithDepartures(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        response = buildResponse();
+    }
+
+    @Benchmark
+    public GetNearbyDeparturesResponse buildResponse() {
+        return GetNearbyDeparturesResponse.newBuilder()
+                .setStations(DeparturesIngressService.toStationList(stations))
+                .setResultMeta(DeparturesIngressService.geofoxResultMeta())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() {
+        return response.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeResponse() {
+        return buildResponse().toByteArray();
+    }
+}
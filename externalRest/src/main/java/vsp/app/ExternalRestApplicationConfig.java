@@ -20,6 +20,21 @@ public class ExternalRestApplicationConfig {
         private String geofoxApiPassword;
         private int geofoxTimeout;
 
+        // Geofox Hedging (Backup-Request nach p-Perzentil der Latenz)
+        private boolean geofoxHedgingEnabled = false;
+        private double geofoxHedgePercentile = 0.9;
+        private double geofoxHedgeBudgetPercent = 5.0;
+        private int geofoxHedgeMinDelay = 50;
+
+        // Obergrenze des String-Dictionaries für Linien/Richtungen/Stationen
+        private int geofoxDictionaryMaxEntries = 20000;
+
+        // Bulkheads: eigener Pool (Threads = max. parallele Aufrufe) und begrenzte Queue pro Supplier
+        private int nominatimMaxConcurrent = 4;
+        private int nominatimQueueCapacity = 32;
+        private int geofoxMaxConcurrent = 16;
+        private int geofoxQueueCapacity = 64;
+
         // Nominatim Getter & Setter
         public String getNominatimBaseUrl() { return nominatimBaseUrl; }
         public void setNominatimBaseUrl(String url) { this.nominatimBaseUrl = url; }
@@ -39,13 +54,47 @@ public class ExternalRestApplicationConfig {
 
         public int getGeofoxTimeout() { return geofoxTimeout; }
         public void setGeofoxTimeout(int timeout) { this.geofoxTimeout = timeout; }
+
+        // Geofox Hedging Getter & Setter
+        public boolean isGeofoxHedgingEnabled() { return geofoxHedgingEnabled; }
+        public void setGeofoxHedgingEnabled(boolean enabled) { this.geofoxHedgingEnabled = enabled; }
+
+        public double getGeofoxHedgePercentile() { return geofoxHedgePercentile; }
+        public void setGeofoxHedgePercentile(double percentile) { this.geofoxHedgePercentile = percentile; }
+
+        public double getGeofoxHedgeBudgetPercent() { return geofoxHedgeBudgetPercent; }
+        public void setGeofoxHedgeBudgetPercent(double percent) { this.geofoxHedgeBudgetPercent = percent; }
+
+        public int getGeofoxHedgeMinDelay() { return geofoxHedgeMinDelay; }
+        public void setGeofoxHedgeMinDelay(int delay) { this.geofoxHedgeMinDelay = delay; }
+
+        public int getGeofoxDictionaryMaxEntries() { return geofoxDictionaryMaxEntries; }
+        public void setGeofoxDictionaryMaxEntries(int maxEntries) { this.geofoxDictionaryMaxEntries = maxEntries; }
+
+        // Bulkhead Getter & Setter
+        public int getNominatimMaxConcurrent() { return nominatimMaxConcurrent; }
+        public void setNominatimMaxConcurrent(int maxConcurrent) { this.nominatimMaxConcurrent = maxConcurrent; }
+
+        public int getNominatimQueueCapacity() { return nominatimQueueCapacity; }
+        public void setNominatimQueueCapacity(int capacity) { this.nominatimQueueCapacity = capacity; }
+
+        public int getGeofoxMaxConcurrent() { return geofoxMaxConcurrent; }
+        public void setGeofoxMaxConcurrent(int maxConcurrent) { this.geofoxMaxConcurrent = maxConcurrent; }
+
+        public int getGeofoxQueueCapacity() { return geofoxQueueCapacity; }
+        public void setGeofoxQueueCapacity(int capacity) { this.geofoxQueueCapacity = capacity; }
     }
 
     public static class Rest {
         private int timeout = 5000;
+        // Gesamtbudget eines /api/location-Requests über alle internen Hops, 0 = ohne Deadline
+        private long requestBudgetMs = 10_000;
 
         public int getTimeout() { return timeout; }
         public void setTimeout(int timeout) { this.timeout = timeout; }
+
+        public long getRequestBudgetMs() { return requestBudgetMs; }
+        public void setRequestBudgetMs(long requestBudgetMs) { this.requestBudgetMs = requestBudgetMs; }
     }
 
     // Getter
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -41,6 +42,18 @@ public class DisplaymanagerClient {
     public void sendUserPassLocation(String input,
                                      String correlationId,
                                      String sessionId) {
+        sendUserPassLocation(input, correlationId, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Sendet ExternalInput Request an Displaymanager (ASYNCHRON)
+     *
+     * @param budget Latenzbudget; die Deadline geht in RequestMeta mit und begrenzt auch den Call selbst
+     */
+    public void sendUserPassLocation(String input,
+                                     String correlationId,
+                                     String sessionId,
+                                     DeadlineBudget budget) {
         // Generiere Correlation-ID falls nicht vorhanden
         if (correlationId == null || correlationId.isEmpty()) {
             correlationId = UUID.randomUUID().toString();
@@ -63,10 +76,11 @@ public class DisplaymanagerClient {
                 metaBuilder.setSessionId(sessionId);
             }
 
-            vsp.RequestMeta meta = metaBuilder.build();
+            vsp.RequestMeta meta = budget.applyTo(metaBuilder).build();
 
             // Request erstellen
             vsp.ExternalInput request = vsp.ExternalInput.newBuilder()
+                    .setMeta(meta)
                     .setAddress(input)
                     .build();
 
@@ -74,7 +88,7 @@ public class DisplaymanagerClient {
                     finalCorrelationId);
 
             // Asynchroner Call - Fire and Forget!
-            asyncStub.userPassLocation(request, new StreamObserver<Ack>() {
+            budget.applyTo(asyncStub).userPassLocation(request, new StreamObserver<Ack>() {
                 @Override
                 public void onNext(vsp.Ack ack) {
                     log.info("Received Ack from Displaymanager at: {} [correlationId={}]",
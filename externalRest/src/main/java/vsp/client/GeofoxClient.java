@@ -4,8 +4,12 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import vsp.Coordinates;
 import vsp.Departure;
@@ -14,7 +18,6 @@ import vsp.app.ExternalRestApplicationConfig;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -39,6 +42,8 @@ public class GeofoxClient {
 
     // Konfiguration
     private static final int MAX_DISTANCE_METERS = 1000;  // Nicht weiter als
+    private static final int MAX_DEPARTURES = 30;         // Default für maxList bei /departureList
+    private static final int HEDGE_MIN_SAMPLES = 20;      // Erst hedgen, wenn genug Latenzen gemessen sind
 
 
     private final String baseUrl;
@@ -47,9 +52,17 @@ public class GeofoxClient {
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final int timeout;
+    private final HedgedRequests hedging; // null = Hedging aus
+    private final SupplierDeadline deadline;
+    private final StringDictionary dictionary;
     private Timestamp lastInteraction;
 
     public GeofoxClient(ExternalRestApplicationConfig config) {
+        this(config, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public GeofoxClient(ExternalRestApplicationConfig config, MeterRegistry meterRegistry) {
         this.baseUrl = config.getExternalApis().getGeofoxBaseUrl();
         this.apiUser = config.getExternalApis().getGeofoxApiUser();
         this.apiPassword = config.getExternalApis().getGeofoxApiPassword();
@@ -59,15 +72,38 @@ public class GeofoxClient {
                 .connectTimeout(Duration.ofMillis(timeout))
                 .build();
         this.objectMapper = new ObjectMapper();
+        this.deadline = new SupplierDeadline(timeout, meterRegistry);
 
         this.lastInteraction = null;
 
-        log.info("GeofoxClient initialized with baseUrl={}, user={}, timeout={}ms",
-                baseUrl, apiUser, timeout);
+        ExternalRestApplicationConfig.ExternalApis apis = config.getExternalApis();
+        this.hedging = apis.isGeofoxHedgingEnabled()
+                ? new HedgedRequests("geofox", apis.getGeofoxHedgePercentile(), apis.getGeofoxHedgeBudgetPercent(),
+                        apis.getGeofoxHedgeMinDelay(), timeout, HEDGE_MIN_SAMPLES, meterRegistry)
+                : null;
+
+        this.dictionary = new StringDictionary(apis.getGeofoxDictionaryMaxEntries());
+        meterRegistry.gauge("vsp.supplier.dictionary.size", Tags.of("supplier", "geofox"),
+                dictionary, StringDictionary::size);
+
+        log.info("GeofoxClient initialized with baseUrl={}, user={}, timeout={}ms, hedging={}",
+                baseUrl, apiUser, timeout, hedging != null);
     }
 
 
     public List<DepartureStation> findNearbyStations(Coordinates coordinates, int maxStations) throws Exception {
+        return findNearbyStations(coordinates, maxStations, MAX_DISTANCE_METERS);
+    }
+
+    /**
+     * Sucht Stationen im Umkreis der Coordinates via /checkName.
+     *
+     * @param maxStations Maximale Anzahl der Stationen, die Geofox liefern soll
+     * @param maxDistanceMeters Suchradius in Metern (<= 0: Default von {@value #MAX_DISTANCE_METERS}m)
+     */
+    public List<DepartureStation> findNearbyStations(Coordinates coordinates, int maxStations,
+                                                     int maxDistanceMeters) throws Exception {
+        int radius = maxDistanceMeters > 0 ? maxDistanceMeters : MAX_DISTANCE_METERS;
 
         Map<String, Object> request = Map.of(
                 "version", 63,
@@ -78,25 +114,32 @@ public class GeofoxClient {
                                 "y", coordinates.getLatitude()
                         )
                 ),
-                "maxDistance", MAX_DISTANCE_METERS,
+                "maxDistance", radius,
                 "maxList", maxStations,
                 "coordinateType", "EPSG_4326",
                 "allowTypeSwitch", false
         );
 
-        CheckNameResponse response = sendRequest("/checkName", request, CheckNameResponse.class);
+        return decodeNearbyStations(sendRaw("/checkName", request));
+    }
+
+    /**
+     * Dekodiert eine /checkName-Antwort in DepartureStations (id, name, distance).
+     */
+    List<DepartureStation> decodeNearbyStations(byte[] json) throws Exception {
+        CheckNameResponse response = objectMapper.readValue(json, CheckNameResponse.class);
 
         if (response.results == null || response.results.isEmpty()) {
             return List.of();
         }
 
-        List<DepartureStation> stations = new ArrayList<>();
+        List<DepartureStation> stations = new ArrayList<>(response.results.size());
 
         for (RegionalSDName r : response.results) {
             stations.add(
                     DepartureStation.newBuilder()
-                            .setStationId(r.id)
-                            .setStationName(r.name)
+                            .setStationId(dictionary.canonical(r.id))
+                            .setStationName(dictionary.canonical(r.name))
                             .setDistance(r.distance) // direkt aus API!
                             .build()
             );
@@ -107,21 +150,19 @@ public class GeofoxClient {
 
 
     public List<DepartureStation> getDeparturesForStations(List<DepartureStation> originalStations) throws Exception {
+        return getDeparturesForStations(originalStations, MAX_DEPARTURES);
+    }
 
-        LocalDateTime queryTime = LocalDateTime.now().plusMinutes(1);
-
-        // --- Meta aus originalStations: stationId -> (name, distance) + Reihenfolge merken
-        Map<String, String> idToName = new HashMap<>();
-        Map<String, Double> idToDistance = new HashMap<>();
-        List<String> requestedOrder = new ArrayList<>();
-
-        for (DepartureStation s : originalStations) {
-            String id = s.getStationId();
-            requestedOrder.add(id);
+    /**
+     * Holt Abfahrten für die Stationen via /departureList, gruppiert nach stationId.
+     *
+     * @param originalStations Stationen (id, name, distance) in gewünschter Reihenfolge
+     * @param maxDepartures Maximale Anzahl Abfahrten insgesamt (<= 0: Default von {@value #MAX_DEPARTURES})
+     */
+    public List<DepartureStation> getDeparturesForStations(List<DepartureStation> originalStations,
+                                                           int maxDepartures) throws Exception {
 
-            idToName.putIfAbsent(id, s.getStationName());
-            idToDistance.putIfAbsent(id, s.getDistance());
-        }
+        LocalDateTime queryTime = LocalDateTime.now().plusMinutes(1);
 
         // --- Request bauen
         List<Map<String, Object>> stationList = new ArrayList<>();
@@ -140,21 +181,40 @@ public class GeofoxClient {
                         "date", queryTime.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
                         "time", queryTime.format(DateTimeFormatter.ofPattern("HH:mm"))
                 ),
-                "maxList", 30,
+                "maxList", maxDepartures > 0 ? maxDepartures : MAX_DEPARTURES,
                 "maxTimeOffset", 200,
                 "useRealtime", true
         );
 
-        DepartureListResponse response =
-                sendRequest("/departureList", request, DepartureListResponse.class);
+        return decodeDepartures(sendRaw("/departureList", request), originalStations);
+    }
+
+    /**
+     * Dekodiert eine /departureList-Antwort und gruppiert die Abfahrten nach stationId.
+     */
+    List<DepartureStation> decodeDepartures(byte[] json, List<DepartureStation> originalStations) throws Exception {
+        return groupByStation(parseDepartureList(json), originalStations);
+    }
+
+    DepartureListResponse parseDepartureList(byte[] json) throws Exception {
+        return objectMapper.readValue(json, DepartureListResponse.class);
+    }
 
+    /**
+     * Gruppiert die Abfahrten nach stationId, in der Reihenfolge von originalStations.
+     * Stationen ohne Abfahrten werden ausgelassen.
+     */
+    List<DepartureStation> groupByStation(DepartureListResponse response, List<DepartureStation> originalStations) {
         if (response.departures == null || response.departures.isEmpty()) {
             log.info("No departures found for given stations");
             return List.of();
         }
 
-        // --- Gruppierung nach stationId (statt stationName)
+        // --- Gruppierung nach stationId (statt stationName); Keys sind die angefragten Stationen
         Map<String, List<Departure>> departuresByStationId = new HashMap<>();
+        for (DepartureStation s : originalStations) {
+            departuresByStationId.putIfAbsent(s.getStationId(), new ArrayList<>());
+        }
 
         for (DepartureInfo dep : response.departures) {
 
@@ -162,12 +222,19 @@ public class GeofoxClient {
                 continue;
             }
 
-            String stationId = dep.station.id;
+            List<Departure> stationDepartures = departuresByStationId.get(dep.station.id);
+            if (stationDepartures == null) {
+                continue; // nicht angefragt
+            }
 
+            // Kanonische Instanzen aus dem Dictionary, die geparsten Strings bleiben kurzlebig
             String lineName = "Unbekannt";
+            String line = lineName;
+            String dir = "";
             if (dep.line != null && dep.line.name != null) {
-                String dir = dep.line.direction != null ? dep.line.direction : "";
-                lineName = dir.isBlank() ? dep.line.name : dep.line.name + " " + dir;
+                line = dictionary.canonical(dep.line.name);
+                dir = dep.line.direction != null ? dictionary.canonical(dep.line.direction) : "";
+                lineName = dictionary.join(line, dir);
             }
 
             int offset = (dep.timeOffset != null) ? dep.timeOffset : 0;
@@ -175,32 +242,28 @@ public class GeofoxClient {
 
             Departure departure = Departure.newBuilder()
                     .setLineName(lineName)
+                    .setLine(line)
+                    .setDirection(dir)
                     .setDepartureTime(departureTime)
                     .build();
 
-            departuresByStationId
-                    .computeIfAbsent(stationId, k -> new ArrayList<>())
-                    .add(departure);
+            stationDepartures.add(departure);
         }
 
-        // --- Ergebnisliste in der Reihenfolge von originalStations bauen
+        // --- Ergebnisliste in der Reihenfolge von originalStations bauen (Name/Distanz direkt aus der Station)
         List<DepartureStation> resultList = new ArrayList<>();
 
-        for (String stationId : requestedOrder) {
-            List<Departure> deps = departuresByStationId.get(stationId);
+        for (DepartureStation s : originalStations) {
+            List<Departure> deps = departuresByStationId.get(s.getStationId());
             if (deps == null || deps.isEmpty()) {
                 continue;
             }
 
-            String name = idToName.getOrDefault(stationId, "Unbekannt");
-
-            double distance = idToDistance.getOrDefault(stationId, 0.0d);
-
             resultList.add(
                     DepartureStation.newBuilder()
-                            .setStationId(stationId)
-                            .setStationName(name)
-                            .setDistance(distance)
+                            .setStationId(dictionary.canonical(s.getStationId()))
+                            .setStationName(dictionary.canonical(s.getStationName()))
+                            .setDistance(s.getDistance())
                             .addAllDepartures(deps)
                             .build()
             );
@@ -213,6 +276,18 @@ public class GeofoxClient {
 
 
     public <T> T sendRequest(String endpoint, Map<String, Object> body, Class<T> responseType) throws Exception {
+        return objectMapper.readValue(sendRaw(endpoint, body), responseType);
+    }
+
+    /**
+     * Sendet den signierten Request und liefert den rohen JSON-Body der Antwort.
+     * Das Timeout ist auf die Restzeit der gRPC-Deadline des Aufrufers gekappt.
+     */
+    private byte[] sendRaw(String endpoint, Map<String, Object> body) throws Exception {
+        long callTimeout = deadline.timeoutMillis();
+        if (callTimeout <= 0) {
+            throw new GeofoxApiException("Deadline exceeded before calling " + endpoint, null);
+        }
         String jsonBody = objectMapper.writeValueAsString(body);
         String signature = generateSignature(jsonBody);
 
@@ -223,24 +298,28 @@ public class GeofoxClient {
                 .header("geofox-auth-user", apiUser)
                 .header("geofox-auth-signature", signature)
                 .header("X-Platform", "web")
-                .timeout(Duration.ofMillis(timeout))
+                .timeout(Duration.ofMillis(callTimeout))
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
                 .build();
 
         log.debug("Sending request to {}: {}", endpoint, jsonBody);
 
 
-        HttpResponse<InputStream> response =
-                httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-
-        if (response.statusCode() != 200) {
-            log.error("Geofox API error: status={}, body={}", response.statusCode(), response);
-            throw new RuntimeException("Geofox API returned status " + response.statusCode());
+        // Geofox-Requests sind reine Abfragen, ein identischer Backup-Request ist daher unkritisch.
+        // Der Status wird pro Attempt geprüft, damit ein schneller 5xx/429 nicht als erste Antwort gewinnt;
+        // sendAsync wird ungeprüft übergeben, damit der Verlierer den HTTP-Austausch wirklich abbricht
+        HttpResponse<byte[]> response;
+        try {
+            response = hedging != null
+                    ? hedging.execute(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()),
+                            GeofoxClient::requireSuccess, callTimeout)
+                    : requireSuccess(httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (Exception e) {
+            deadline.onFailure(e);
+            throw e;
         }
 
-        byte[] raw = response.body().readAllBytes();
-
-        String json = new String(raw, StandardCharsets.UTF_8);
+        byte[] raw = response.body();
 
         // Always update the Timestamp 'lastInteraction' when data is received
         Instant instant = Instant.now();
@@ -249,7 +328,15 @@ public class GeofoxClient {
                 setNanos(instant.getNano()).
                 build();
 
-        return objectMapper.readValue(json, responseType);
+        return raw;
+    }
+
+    private static HttpResponse<byte[]> requireSuccess(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            log.error("Geofox API error: status={}, body={}", response.statusCode(), response);
+            throw new RuntimeException("Geofox API returned status " + response.statusCode());
+        }
+        return response;
     }
 
     private String generateSignature(String body) throws Exception {
@@ -276,35 +363,35 @@ public class GeofoxClient {
         return this.lastInteraction;
     }
 
-    // --- Inner classes ---
+    // --- Inner classes (package-private für die JMH-Benchmarks) ---
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class CheckNameResponse {
+    static class CheckNameResponse {
         @JsonProperty("results")
         public List<RegionalSDName> results;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class RegionalSDName {
+    static class RegionalSDName {
         public String id;
         public String name;
         public Double distance; // Meter
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class StationResult {
+    static class StationResult {
         @JsonProperty("id")
         public String id;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class DepartureListResponse {
+    static class DepartureListResponse {
         @JsonProperty("departures")
         public List<DepartureInfo> departures;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class DepartureInfo {
+    static class DepartureInfo {
         @JsonProperty("line")
         public LineInfo line;
         @JsonProperty("timeOffset")
@@ -315,7 +402,7 @@ public class GeofoxClient {
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class LineInfo {
+    static class LineInfo {
         @JsonProperty("name")
         public String name;
         @JsonProperty("direction")
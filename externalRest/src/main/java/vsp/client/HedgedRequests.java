@@ -0,0 +1,284 @@
+package vsp.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hedging für idempotente Supplier-Requests ("The Tail at Scale").
+ *
+ * Antwortet ein Request nicht innerhalb des aktuell gemessenen Perzentils (z.B. p90),
+ * wird ein identischer Backup-Request gestartet; die erste erfolgreiche Antwort gewinnt.
+ * Ein Token-Bucket begrenzt die Backups auf einen kleinen Anteil des Gesamtverkehrs.
+ */
+public class HedgedRequests {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgedRequests.class);
+
+    private static final int LATENCY_WINDOW = 256;
+    private static final double MAX_BUDGET_TOKENS = 10.0;
+
+    private final String supplier;
+    private final double percentile;
+    private final double tokensPerRequest;
+    private final long minDelayMillis;
+    private final long timeoutMillis;
+    private final int minSamples;
+
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+    private double budgetTokens;
+
+    private final Counter requests;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    /**
+     * @param supplier Name des Suppliers (Tag für Metriken, z.B. "geofox")
+     * @param percentile Perzentil der Latenz, nach dem gehedged wird (z.B. 0.9)
+     * @param budgetPercent Maximaler Anteil der Backups am Verkehr in Prozent (z.B. 5)
+     * @param minDelayMillis Untergrenze für die Wartezeit bis zum Backup
+     * @param timeoutMillis Gesamt-Timeout für den Aufruf (Default, pro Aufruf überschreibbar)
+     * @param minSamples Anzahl Messwerte, bevor überhaupt gehedged wird
+     */
+    public HedgedRequests(String supplier, double percentile, double budgetPercent, long minDelayMillis,
+                          long timeoutMillis, int minSamples, MeterRegistry meterRegistry) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1: " + percentile);
+        }
+        this.supplier = supplier;
+        this.percentile = percentile;
+        this.tokensPerRequest = Math.max(0, budgetPercent) / 100.0;
+        this.minDelayMillis = minDelayMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.minSamples = minSamples;
+
+        this.requests = Counter.builder("vsp.supplier.requests")
+                .tag("supplier", supplier)
+                .description("Requests an den Supplier (ohne Backups)")
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("vsp.supplier.hedges.sent")
+                .tag("supplier", supplier)
+                .description("Gestartete Backup-Requests")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("vsp.supplier.hedges.won")
+                .tag("supplier", supplier)
+                .description("Backup-Requests, die vor dem ursprünglichen Request geantwortet haben")
+                .register(meterRegistry);
+        Gauge.builder("vsp.supplier.hedge.delay", this, HedgedRequests::currentDelayMillis)
+                .tag("supplier", supplier)
+                .baseUnit("milliseconds")
+                .description("Aktuelle Wartezeit bis zum Backup-Request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Führt den Request aus und startet ggf. einen Backup.
+     *
+     * @param attempt startet einen (weiteren) identischen Request; Fehlantworten (z.B. HTTP 5xx/429) muss er als
+     *                Fehler abschließen, sonst gewinnt eine schnelle Fehlantwort gegen den anderen Request
+     * @return die erste erfolgreiche Antwort
+     * @throws TimeoutException wenn innerhalb von timeoutMillis keine Antwort kam
+     */
+    public <T> T execute(Supplier<CompletableFuture<T>> attempt) throws Exception {
+        return execute(attempt, timeoutMillis);
+    }
+
+    /**
+     * Wie {@link #execute(Supplier)} mit eigenem Timeout, z.B. auf die Restzeit der gRPC-Deadline gekappt.
+     */
+    public <T> T execute(Supplier<CompletableFuture<T>> attempt, long timeoutMillis) throws Exception {
+        return execute(attempt, Function.identity(), timeoutMillis);
+    }
+
+    /**
+     * Wie {@link #execute(Supplier, long)}, der Attempt liefert aber das rohe Future (z.B. von sendAsync).
+     * Nur dessen cancel bricht den Request wirklich ab; ein abgeleitetes Future (thenApply) würde beim Abbruch
+     * des Verlierers nur sich selbst abschließen, der HTTP-Austausch liefe weiter.
+     *
+     * @param check prüft bzw. wandelt die Antwort; Fehlantworten (z.B. HTTP 5xx/429) muss er als Exception werfen
+     */
+    public <R, T> T execute(Supplier<CompletableFuture<R>> attempt, Function<R, T> check, long timeoutMillis)
+            throws Exception {
+        requests.increment();
+        addBudget();
+
+        long start = System.nanoTime();
+        Attempt<T> primary = Attempt.start(attempt, check);
+
+        long hedgeDelay = currentDelayMillis();
+        if (hedgeDelay <= 0) {
+            // Noch zu wenige Messwerte: normal warten
+            return await(primary.result(), timeoutMillis, start, primary);
+        }
+
+        try {
+            T result = primary.result().get(Math.min(hedgeDelay, timeoutMillis), TimeUnit.MILLISECONDS);
+            latencies.record(elapsedMillis(start));
+            return result;
+        } catch (TimeoutException e) {
+            // weiter unten: Backup starten
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+
+        long remaining = timeoutMillis - elapsedMillis(start);
+        if (remaining <= 0 || !tryAcquireBudget()) {
+            return await(primary.result(), remaining, start, primary);
+        }
+
+        hedgesSent.increment();
+        log.debug("{} request exceeded p{} ({}ms), sending hedge", supplier, (int) (percentile * 100), hedgeDelay);
+
+        Attempt<T> backup = Attempt.start(attempt, check);
+        CompletableFuture<T> winner = firstSuccessful(primary.result(), backup.result());
+
+        T result = await(winner, remaining, start, primary, backup);
+        CompletableFuture<T> backupResult = backup.result();
+        if (backupResult.isDone() && !backupResult.isCompletedExceptionally() && backupResult.join() == result) {
+            hedgesWon.increment();
+            primary.cancel();
+        } else {
+            backup.cancel();
+        }
+        return result;
+    }
+
+    /**
+     * Wartezeit bis zum Backup in Millisekunden; 0 solange zu wenige Messwerte vorliegen.
+     */
+    public long currentDelayMillis() {
+        long p = latencies.percentile(percentile, minSamples);
+        return p < 0 ? 0 : Math.max(minDelayMillis, p);
+    }
+
+    /**
+     * @param attempts werden bei einem Timeout abgebrochen
+     */
+    private <T> T await(CompletableFuture<T> future, long waitMillis, long start, Attempt<?>... attempts)
+            throws Exception {
+        try {
+            T result = future.get(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+            latencies.record(elapsedMillis(start));
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            for (Attempt<?> attempt : attempts) {
+                attempt.cancel();
+            }
+            // Timeouts zählen als Messwert (bis dahin gewartete Zeit), damit das Perzentil langsame Phasen sieht
+            latencies.record(elapsedMillis(start));
+            throw e;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> candidate : List.of(first, second)) {
+            candidate.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(result);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private synchronized void addBudget() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + tokensPerRequest);
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (budgetTokens < 1.0) {
+            return false;
+        }
+        budgetTokens -= 1.0;
+        return true;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        return e;
+    }
+
+    /**
+     * Ein gestarteter Request: das rohe Future zum Abbrechen, result mit geprüfter Antwort zum Warten.
+     */
+    private record Attempt<T>(CompletableFuture<?> raw, CompletableFuture<T> result) {
+
+        static <R, T> Attempt<T> start(Supplier<CompletableFuture<R>> attempt, Function<R, T> check) {
+            CompletableFuture<R> raw = attempt.get();
+            return new Attempt<>(raw, raw.thenApply(check));
+        }
+
+        void cancel() {
+            raw.cancel(true);
+            result.cancel(true);
+        }
+    }
+
+    /**
+     * Ringpuffer der letzten Latenzen; das Perzentil wird nur alle paar Messwerte neu berechnet.
+     */
+    private static final class LatencyWindow {
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private double cachedFor = Double.NaN;
+        private long cachedValue = -1;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            sinceRecompute++;
+        }
+
+        synchronized long percentile(double p, int minSamples) {
+            if (count < minSamples || count == 0) {
+                return -1;
+            }
+            if (p != cachedFor || sinceRecompute >= RECOMPUTE_EVERY || cachedValue < 0) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(p * count) - 1;
+                cachedValue = sorted[Math.max(0, Math.min(count - 1, index))];
+                cachedFor = p;
+                sinceRecompute = 0;
+            }
+            return cachedValue;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package vsp.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import vsp.Address;
@@ -20,9 +23,14 @@ public class NominatimClient {
     private static final Logger log = LoggerFactory.getLogger(NominatimClient.class);
 
     private final WebClient webClient;
-    private final Duration timeout;
+    private final SupplierDeadline deadline;
 
     public NominatimClient(ExternalRestApplicationConfig config) {
+        this(config, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public NominatimClient(ExternalRestApplicationConfig config, MeterRegistry meterRegistry) {
         String baseUrl = config.getExternalApis().getNominatimBaseUrl();
         int timeoutMs = config.getExternalApis().getNominatimTimeout();
 
@@ -30,12 +38,13 @@ public class NominatimClient {
                 .baseUrl(baseUrl)
                 .defaultHeader("User-Agent", "VSP-Departure-System/1.0")
                 .build();
-        this.timeout = Duration.ofMillis(timeoutMs);
+        this.deadline = new SupplierDeadline(timeoutMs, meterRegistry);
         log.info("NominatimClient initialized with baseUrl={}, timeout={}ms", baseUrl, timeoutMs);
     }
 
     /**
      * Ermittelt Coordinates für eine Address via Nominatim API.
+     * Das Timeout ist auf die Restzeit der gRPC-Deadline des Aufrufers gekappt.
      *
      * @param address Die Address mit Straße, Hausnummer und optional Stadt
      * @return Die aufgelösten Coordinates
@@ -45,17 +54,27 @@ public class NominatimClient {
         String query = buildSearchQuery(address);
         log.debug("Geocoding address: {}", query);
 
-        NominatimResponse[] results = webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/search")
-                        .queryParam("q", query)
-                        .queryParam("format", "json")
-                        .queryParam("limit", 1)
-                        .build())
-                .retrieve()
-                .bodyToMono(NominatimResponse[].class)
-                .timeout(timeout)
-                .block();
+        long callTimeout = deadline.timeoutMillis();
+        if (callTimeout <= 0) {
+            throw new GeocodingException("Deadline exceeded before geocoding: " + query);
+        }
+        NominatimResponse[] results;
+        try {
+            results = webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/search")
+                            .queryParam("q", query)
+                            .queryParam("format", "json")
+                            .queryParam("limit", 1)
+                            .build())
+                    .retrieve()
+                    .bodyToMono(NominatimResponse[].class)
+                    .timeout(Duration.ofMillis(callTimeout))
+                    .block();
+        } catch (RuntimeException e) {
+            deadline.onFailure(e);
+            throw e;
+        }
 
         if (results == null || results.length == 0) {
             throw new GeocodingException("Address not found: " + query);
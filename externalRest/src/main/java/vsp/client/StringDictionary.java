@@ -0,0 +1,76 @@
+package vsp.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Begrenztes, thread-sicheres Dictionary für wiederkehrende Strings aus den Geofox-Antworten
+ * (Linien, Richtungen, Station-IDs und -Namen).
+ *
+ * HVV hat nur wenige tausend unterschiedliche Werte; über das Dictionary teilen sich alle gecachten
+ * Tafeln dieselben String-Instanzen. Ist die Obergrenze erreicht, werden neue Werte unverändert
+ * durchgereicht statt gespeichert, damit unerwartete Werte den Heap nicht wachsen lassen.
+ */
+public class StringDictionary {
+
+    private final int maxEntries;
+    private final ConcurrentMap<String, String> values = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Pair, String> joined = new ConcurrentHashMap<>();
+
+    public StringDictionary(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Liefert die kanonische Instanz für value (null bleibt null).
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = values.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (size() >= maxEntries) {
+            return value;
+        }
+        existing = values.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Kanonisches "first second" (z.B. "U1 Norderstedt Mitte"), ohne bei einem Treffer neu zu konkatenieren.
+     * Ist second leer, wird first geliefert.
+     */
+    public String join(String first, String second) {
+        if (second == null || second.isBlank()) {
+            return canonical(first);
+        }
+        Pair key = new Pair(first, second);
+        String existing = joined.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        String value = first + " " + second;
+        if (size() >= maxEntries) {
+            return value;
+        }
+        existing = joined.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+
+    public int size() {
+        return values.size() + joined.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    private record Pair(String first, String second) {
+    }
+}
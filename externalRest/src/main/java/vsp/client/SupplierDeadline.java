@@ -0,0 +1,69 @@
+package vsp.client;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Timeout eines Supplier-Calls (Geofox, Nominatim), gekappt auf die Restzeit des gRPC-Calls.
+ *
+ * Die Clients laufen im Bulkhead mit dem gRPC-Context des Aufrufers, dessen Deadline liefert Context.current().
+ * Ist sie schon abgelaufen, wird der Supplier gar nicht erst gefragt; läuft ein gekappter Call in den Timeout,
+ * hat die Deadline zugeschlagen. Beides zählt vsp.deadline.exceeded{stage="externalRest"}.
+ */
+final class SupplierDeadline {
+
+    private final long timeoutMillis;
+    private final Counter exceeded;
+
+    /**
+     * @param timeoutMillis eigenes Timeout des Suppliers
+     */
+    SupplierDeadline(long timeoutMillis, MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.exceeded = Counter.builder("vsp.deadline.exceeded")
+                .description("Requests, deren Deadline in dieser Stufe abgelaufen ist")
+                .tag("stage", "externalRest")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Timeout für den nächsten Call in ms; 0, wenn die Deadline bereits abgelaufen ist (dann gezählt)
+     */
+    long timeoutMillis() {
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline == null) {
+            return timeoutMillis;
+        }
+        long remaining = deadline.timeRemaining(TimeUnit.MILLISECONDS);
+        if (remaining <= 0) {
+            exceeded.increment();
+            return 0;
+        }
+        return Math.min(timeoutMillis, remaining);
+    }
+
+    /**
+     * Nach einem fehlgeschlagenen Call: zählt Timeouts, die die Deadline statt des eigenen Timeouts ausgelöst hat.
+     */
+    void onFailure(Throwable error) {
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null && deadline.isExpired() && isTimeout(error)) {
+            exceeded.increment();
+        }
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
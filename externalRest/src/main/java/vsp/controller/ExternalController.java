@@ -2,6 +2,8 @@ package vsp.controller;
 
 
 import com.google.protobuf.Timestamp;
+import vsp.app.ExternalRestApplicationConfig;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.OrchestrationService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,14 +21,17 @@ public class ExternalController {
 
     private static final Logger log = LoggerFactory.getLogger(ExternalController.class);
     private final OrchestrationService orchestrationService;
+    private final ExternalRestApplicationConfig config;
 
-    public ExternalController(OrchestrationService orchestrationService) {
+    public ExternalController(OrchestrationService orchestrationService, ExternalRestApplicationConfig config) {
         this.orchestrationService = orchestrationService;
+        this.config = config;
         log.info("ExternalController initialized");
     }
 
     @GetMapping("/location")
-    public ResponseEntity<String> userPassLocation(@RequestParam String address) {
+    public ResponseEntity<String> userPassLocation(@RequestParam String address,
+                                                   @RequestParam(required = false) String session) {
         log.debug("Received request for user pass location");
         if (address == null || address.trim().isEmpty()) {
             log.debug("Received request with no address");
@@ -35,8 +40,11 @@ public class ExternalController {
                     .body("No input detected.");
         }
         try {
+            // Latenzbudget startet hier und gilt für alle internen Hops bis zum Transportplan
+            DeadlineBudget budget = DeadlineBudget.after(config.getRest().getRequestBudgetMs());
+
             // Aufruf des OrchestrationServices, der an den Displaymanager weitergibt
-            if (orchestrationService.addRequest(address)){
+            if (orchestrationService.addRequest(address, session, budget)){
                 log.info("Handing location request over to OrchestrationService");
                 return ResponseEntity.status(HttpStatus.OK).body(String.format("Address received. Searching for nearest departures at %s now...",address));
             } else {
@@ -2,11 +2,17 @@ package vsp.service;
 
 import com.google.protobuf.Timestamp;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import vsp.*;
+import vsp.app.ExternalRestApplicationConfig;
 import vsp.client.GeofoxClient;
+import vsp.grpc.BoardCodec;
 
 import java.time.Instant;
 import java.util.List;
@@ -20,38 +26,85 @@ public class DeparturesIngressService extends DeparturesServiceGrpc.DeparturesSe
 
     private static final Logger log = LoggerFactory.getLogger(DeparturesIngressService.class);
 
+    // Kandidaten, die bei Ranking nach Distanz von Geofox geholt werden (bleibt innerhalb von externalRest)
+    private static final int RANKING_CANDIDATES = 50;
+
     private final GeofoxClient geofoxClient;
+    // Geofox läuft im eigenen Pool, damit es Nominatim-Aufrufe nicht aushungert (und umgekehrt)
+    private final SupplierBulkhead bulkhead;
 
     public DeparturesIngressService(GeofoxClient geofoxClient) {
+        this(geofoxClient, new ExternalRestApplicationConfig(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public DeparturesIngressService(GeofoxClient geofoxClient, ExternalRestApplicationConfig config,
+                                    MeterRegistry meterRegistry) {
         this.geofoxClient = geofoxClient;
+        ExternalRestApplicationConfig.ExternalApis apis = config.getExternalApis();
+        this.bulkhead = new SupplierBulkhead("geofox", apis.getGeofoxMaxConcurrent(),
+                apis.getGeofoxQueueCapacity(), meterRegistry);
         log.info("DeparturesServiceImpl initialized");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        bulkhead.close();
+    }
+
     @Override
     public void getNearbyStations(GetNearbyStationsRequest request,
                                   StreamObserver<GetNearbyStationsResponse> responseObserver) {
+        if (!bulkhead.submit(() -> doGetNearbyStations(request, responseObserver))) {
+            responseObserver.onNext(GetNearbyStationsResponse.newBuilder().setError(overloaded()).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getDeparturesForStations(GetDeparturesForStationsRequest request,
+                                         StreamObserver<GetDeparturesForStationsResponse> responseObserver) {
+        if (!bulkhead.submit(() -> doGetDeparturesForStations(request, responseObserver))) {
+            responseObserver.onNext(GetDeparturesForStationsResponse.newBuilder().setError(overloaded()).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getNearbyDepartures(GetNearbyDeparturesRequest request,
+                                    StreamObserver<GetNearbyDeparturesResponse> responseObserver) {
+        if (!bulkhead.submit(() -> doGetNearbyDepartures(request, responseObserver))) {
+            responseObserver.onNext(GetNearbyDeparturesResponse.newBuilder().setError(overloaded()).build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    private void doGetNearbyStations(GetNearbyStationsRequest request,
+                                     StreamObserver<GetNearbyStationsResponse> responseObserver) {
         String correlationId = request.hasMeta() ? request.getMeta().getCorrelationId() : "unknown";
         int maxStations = request.getMaxStations() > 0 ? request.getMaxStations() : 10;
 
-        log.info("[{}] GetNearbyStations request for coordinates: lat={}, lon={}",
+        boolean rankByDistance = request.getRanking() == GetNearbyStationsRequest.Ranking.DISTANCE;
+
+        log.info("[{}] GetNearbyStations request for coordinates: lat={}, lon={}, maxStations={}, ranking={}",
                 correlationId,
                 request.getCoordinates().getLatitude(),
-                request.getCoordinates().getLongitude());
+                request.getCoordinates().getLongitude(),
+                maxStations,
+                request.getRanking());
 
         try {
-            List<DepartureStation> stations = geofoxClient.findNearbyStations(
-                    request.getCoordinates(), maxStations);
+            List<DepartureStation> stations;
+            if (rankByDistance) {
+                stations = findNearestStations(request.getCoordinates(), maxStations, request.getMaxDistanceMeters());
+            } else {
+                stations = geofoxClient.findNearbyStations(
+                        request.getCoordinates(), maxStations, request.getMaxDistanceMeters());
+            }
 
             GetNearbyStationsResponse response = GetNearbyStationsResponse.newBuilder()
-                    .setStations(DepartureStationList.newBuilder()
-                            .addAllStations(stations)
-                            .build())
-                    .setResultMeta(ResultMeta.newBuilder()
-                            .setGeneratedAt(Timestamp.newBuilder()
-                                    .setSeconds(Instant.now().getEpochSecond())
-                                    .build())
-                            .setSource("Geofox/HVV")
-                            .build())
+                    .setStations(toStationList(stations))
+                    .setResultMeta(geofoxResultMeta())
                     .build();
 
             log.info("[{}] GetNearbyStations success: {} stations found",
@@ -90,8 +143,8 @@ public class DeparturesIngressService extends DeparturesServiceGrpc.DeparturesSe
         }
     }
 
-    @Override
-    public void getDeparturesForStations(GetDeparturesForStationsRequest request, StreamObserver<GetDeparturesForStationsResponse> responseObserver) {
+    private void doGetDeparturesForStations(GetDeparturesForStationsRequest request,
+                                            StreamObserver<GetDeparturesForStationsResponse> responseObserver) {
         String correlationId = request.hasMeta() ? request.getMeta().getCorrelationId() : "unknown";
 
 
@@ -100,18 +153,11 @@ public class DeparturesIngressService extends DeparturesServiceGrpc.DeparturesSe
 
         try {
             List<DepartureStation> stations = geofoxClient.getDeparturesForStations(
-                    request.getStationsList());
+                    request.getStationsList(), request.getMaxDepartures());
 
             GetDeparturesForStationsResponse response = GetDeparturesForStationsResponse.newBuilder()
-                    .setStations(DepartureStationList.newBuilder()
-                            .addAllStations(stations)
-                            .build())
-                    .setResultMeta(ResultMeta.newBuilder()
-                            .setGeneratedAt(Timestamp.newBuilder()
-                                    .setSeconds(Instant.now().getEpochSecond())
-                                    .build())
-                            .setSource("Geofox/HVV")
-                            .build())
+                    .setStations(toStationList(stations, request.getCompact()))
+                    .setResultMeta(geofoxResultMeta())
                     .build();
 
             log.info("[{}] GetDeparturesForStations success: {} stations found",
@@ -149,4 +195,115 @@ public class DeparturesIngressService extends DeparturesServiceGrpc.DeparturesSe
             responseObserver.onCompleted();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fusionierter Aufruf: ermittelt die k nächsten Stationen (/checkName) und deren
+     * Abfahrten (/departureList) in einem internen Round-Trip.
+     */
+    private void doGetNearbyDepartures(GetNearbyDeparturesRequest request,
+                                       StreamObserver<GetNearbyDeparturesResponse> responseObserver) {
+        String correlationId = request.hasMeta() ? request.getMeta().getCorrelationId() : "unknown";
+        int maxStations = request.getMaxStations() > 0 ? request.getMaxStations() : 3;
+
+        log.info("[{}] GetNearbyDepartures request for coordinates: lat={}, lon={}, maxStations={}",
+                correlationId,
+                request.getCoordinates().getLatitude(),
+                request.getCoordinates().getLongitude(),
+                maxStations);
+
+        try {
+            List<DepartureStation> nearest = findNearestStations(
+                    request.getCoordinates(), maxStations, request.getMaxDistanceMeters());
+
+            // Ohne Stationen gibt es nichts für /departureList
+            List<DepartureStation> stations = nearest.isEmpty()
+                    ? List.of()
+                    : geofoxClient.getDeparturesForStations(nearest, request.getMaxDepartures());
+
+            // Stationen ohne aktuelle Abfahrten fehlen in stations; das Ranking geht deshalb separat mit
+            GetNearbyDeparturesResponse response = GetNearbyDeparturesResponse.newBuilder()
+                    .setStations(toStationList(stations, request.getCompact()))
+                    .addAllNearestStations(nearest)
+                    .setResultMeta(geofoxResultMeta())
+                    .build();
+
+            log.info("[{}] GetNearbyDepartures success: {} of {} stations with departures",
+                    correlationId, stations.size(), nearest.size());
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+
+        } catch (GeofoxClient.GeofoxApiException e) {
+            log.warn("[{}] Geofox API error: {}", correlationId, e.getMessage());
+
+            GetNearbyDeparturesResponse errorResponse = GetNearbyDeparturesResponse.newBuilder()
+                    .setError(ErrorStatus.newBuilder()
+                            .setCode(ErrorStatus.Code.UNAVAILABLE)
+                            .setMessage("Geofox API unavailable")
+                            .setDetails(e.getMessage())
+                            .build())
+                    .build();
+
+            responseObserver.onNext(errorResponse);
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("[{}] Nearby departures error: {}", correlationId, e.getMessage(), e);
+
+            GetNearbyDeparturesResponse errorResponse = GetNearbyDeparturesResponse.newBuilder()
+                    .setError(ErrorStatus.newBuilder()
+                            .setCode(ErrorStatus.Code.INTERNAL)
+                            .setMessage("Internal nearby departures error")
+                            .setDetails(e.getMessage())
+                            .build())
+                    .build();
+
+            responseObserver.onNext(errorResponse);
+            responseObserver.onCompleted();
+        }
+    }
+
+    /**
+     * Mapping der Geofox-Ergebnisse in die Protobuf-Antwort (auch von den JMH-Benchmarks genutzt).
+     */
+    static DepartureStationList toStationList(List<DepartureStation> stations) {
+        return DepartureStationList.newBuilder()
+                .addAllStations(stations)
+                .build();
+    }
+
+    /**
+     * Wie {@link #toStationList(List)}, auf Wunsch des Aufrufers kompakt kodiert (BoardCodec).
+     */
+    static DepartureStationList toStationList(List<DepartureStation> stations, boolean compact) {
+        return compact ? BoardCodec.encode(stations) : toStationList(stations);
+    }
+
+    private static ErrorStatus overloaded() {
+        return ErrorStatus.newBuilder()
+                .setCode(ErrorStatus.Code.RATE_LIMITED)
+                .setMessage("Geofox overloaded")
+                .setDetails("Geofox bulkhead queue is full")
+                .build();
+    }
+
+    static ResultMeta geofoxResultMeta() {
+        return ResultMeta.newBuilder()
+                .setGeneratedAt(Timestamp.newBuilder()
+                        .setSeconds(Instant.now().getEpochSecond())
+                        .build())
+                .setSource("Geofox/HVV")
+                .build();
+    }
+
+    /**
+     * Holt mehr Kandidaten von Geofox und wählt hier die k nächsten aus,
+     * damit nur das Ergebnis über den internen Hop geht.
+     */
+    private List<DepartureStation> findNearestStations(Coordinates coordinates, int k,
+                                                       int maxDistanceMeters) throws Exception {
+        List<DepartureStation> candidates = geofoxClient.findNearbyStations(
+                coordinates, Math.max(k, RANKING_CANDIDATES), maxDistanceMeters);
+        return StationRanking.nearest(candidates, k);
+    }
+}
@@ -2,10 +2,15 @@ package vsp.service;
 
 import com.google.protobuf.Timestamp;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import vsp.*;
+import vsp.app.ExternalRestApplicationConfig;
 import vsp.client.NominatimClient;
 import java.time.Instant;
 
@@ -19,14 +24,43 @@ public class GeocodingIngressService extends GeocodingServiceGrpc.GeocodingServi
     private static final Logger log = LoggerFactory.getLogger(GeocodingIngressService.class);
 
     private final NominatimClient nominatimClient;
+    // Nominatim läuft im eigenen Pool, damit es Geofox-Aufrufe nicht aushungert (und umgekehrt)
+    private final SupplierBulkhead bulkhead;
 
     public GeocodingIngressService(NominatimClient nominatimClient) {
+        this(nominatimClient, new ExternalRestApplicationConfig(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public GeocodingIngressService(NominatimClient nominatimClient, ExternalRestApplicationConfig config,
+                                   MeterRegistry meterRegistry) {
         this.nominatimClient = nominatimClient;
+        ExternalRestApplicationConfig.ExternalApis apis = config.getExternalApis();
+        this.bulkhead = new SupplierBulkhead("nominatim", apis.getNominatimMaxConcurrent(),
+                apis.getNominatimQueueCapacity(), meterRegistry);
         log.info("GeocodingServiceImpl initialized");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        bulkhead.close();
+    }
+
     @Override
     public void geocode(GeocodeRequest request, StreamObserver<GeocodeResponse> responseObserver) {
+        if (!bulkhead.submit(() -> doGeocode(request, responseObserver))) {
+            responseObserver.onNext(GeocodeResponse.newBuilder()
+                    .setError(ErrorStatus.newBuilder()
+                            .setCode(ErrorStatus.Code.RATE_LIMITED)
+                            .setMessage("Nominatim overloaded")
+                            .setDetails("Nominatim bulkhead queue is full")
+                            .build())
+                    .build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    private void doGeocode(GeocodeRequest request, StreamObserver<GeocodeResponse> responseObserver) {
         String correlationId = request.hasMeta() ? request.getMeta().getCorrelationId() : "unknown";
         log.info("[{}] Geocode request for address: {} {}",
                 correlationId,
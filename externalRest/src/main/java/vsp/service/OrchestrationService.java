@@ -3,6 +3,7 @@ package vsp.service;
 import com.google.protobuf.Timestamp;
 import vsp.client.DisplaymanagerClient;
 import vsp.client.GeofoxClient;
+import vsp.grpc.DeadlineBudget;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +25,22 @@ public class OrchestrationService {
     }
 
     public boolean addRequest(String input) {
-        displaymanagerClient.sendUserPassLocation(input);
-        log.info("Added request with address: {}", input);
+        return addRequest(input, null);
+    }
+
+    /**
+     * @param sessionId Session des Aufrufers (optional); ohne Session ist jede Anfrage eine eigene Session
+     */
+    public boolean addRequest(String input, String sessionId) {
+        return addRequest(input, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * @param budget Latenzbudget des Requests, wird als Deadline an den Displaymanager weitergegeben
+     */
+    public boolean addRequest(String input, String sessionId, DeadlineBudget budget) {
+        displaymanagerClient.sendUserPassLocation(input, null, sessionId, budget);
+        log.info("Added request with address: {} (session={})", input, sessionId);
         return true;
     }
 
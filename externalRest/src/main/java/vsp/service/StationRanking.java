@@ -0,0 +1,68 @@
+package vsp.service;
+
+import vsp.DepartureStation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Rangfolge für Stationen aus /checkName.
+ * Wählt die k nächsten Stationen mit einem begrenzten Max-Heap aus,
+ * statt die komplette Kandidatenliste zu sortieren.
+ */
+public final class StationRanking {
+
+    private static final Comparator<DepartureStation> BY_DISTANCE =
+            Comparator.comparingDouble(DepartureStation::getDistance);
+
+    private StationRanking() {
+    }
+
+    /**
+     * Liefert die k nächsten Stationen aufsteigend nach Distanz.
+     * Bei gleicher Distanz bleibt die Reihenfolge der Kandidaten erhalten.
+     *
+     * @param candidates Kandidaten in beliebiger Reihenfolge
+     * @param k Anzahl der gewünschten Stationen
+     * @return Neue Liste mit höchstens k Stationen
+     */
+    public static List<DepartureStation> nearest(List<DepartureStation> candidates, int k) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // Max-Heap der Größe k: die Wurzel ist immer die aktuell weiteste der besten k
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(Math.min(k, candidates.size()) + 1,
+                Collections.reverseOrder());
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Ranked ranked = new Ranked(candidates.get(i), i);
+            if (heap.size() < k) {
+                heap.add(ranked);
+            } else if (ranked.compareTo(heap.peek()) < 0) {
+                heap.poll();
+                heap.add(ranked);
+            }
+        }
+
+        List<Ranked> selected = new ArrayList<>(heap);
+        Collections.sort(selected);
+
+        List<DepartureStation> result = new ArrayList<>(selected.size());
+        for (Ranked ranked : selected) {
+            result.add(ranked.station());
+        }
+        return result;
+    }
+
+    private record Ranked(DepartureStation station, int position) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int byDistance = BY_DISTANCE.compare(station, other.station);
+            return byDistance != 0 ? byDistance : Integer.compare(position, other.position);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package vsp.service;
+
+import io.grpc.Context;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead pro Supplier (Nominatim, Geofox).
+ *
+ * Jeder Supplier bekommt einen eigenen Pool mit fester Threadzahl (= maximale Parallelität) und
+ * begrenzter Warteschlange. Die gRPC-Threads übergeben nur und sind sofort wieder frei; ein langsamer
+ * Supplier füllt also nur seine eigene Queue, statt den gemeinsamen Server-Executor zu blockieren.
+ * Ist die Queue voll, wird abgelehnt (Metrik vsp.supplier.bulkhead.rejected).
+ */
+public class SupplierBulkhead implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SupplierBulkhead.class);
+
+    private final String supplier;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    /**
+     * @param supplier Name des Suppliers (Tag für Metriken und Threadnamen)
+     * @param maxConcurrent maximale Anzahl gleichzeitiger Aufrufe des Suppliers
+     * @param queueCapacity wartende Aufrufe, darüber wird abgelehnt
+     */
+    public SupplierBulkhead(String supplier, int maxConcurrent, int queueCapacity, MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("maxConcurrent and queueCapacity must be positive");
+        }
+        this.supplier = supplier;
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(supplier), new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("vsp.supplier.bulkhead.rejected")
+                .tag("supplier", supplier)
+                .description("Abgelehnte Aufrufe, weil die Queue des Suppliers voll war")
+                .register(meterRegistry);
+        Gauge.builder("vsp.supplier.bulkhead.queued", executor, e -> e.getQueue().size())
+                .tag("supplier", supplier)
+                .description("Wartende Aufrufe in der Queue des Suppliers")
+                .register(meterRegistry);
+        Gauge.builder("vsp.supplier.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("supplier", supplier)
+                .description("Laufende Aufrufe des Suppliers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Führt den Aufruf im Pool des Suppliers aus. Der gRPC-Context (Deadline, Abbruch) wird mitgenommen;
+     * wurde der Call abgebrochen, während er wartete, entfällt der Aufruf.
+     *
+     * @return false, wenn die Queue voll ist; der Aufrufer muss dann selbst antworten
+     */
+    public boolean submit(Runnable task) {
+        Context context = Context.current();
+        try {
+            executor.execute(context.wrap(() -> {
+                if (context.isCancelled()) {
+                    log.debug("{} call cancelled while queued", supplier);
+                    return;
+                }
+                task.run();
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("{} bulkhead full ({} running, {} queued), rejecting call",
+                    supplier, executor.getActiveCount(), executor.getQueue().size());
+            return false;
+        }
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String supplier) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "bulkhead-" + supplier + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,17 +1,21 @@
 package vsp;
 
+import vsp.app.ExternalRestApplicationConfig;
 import vsp.controller.ExternalController;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.OrchestrationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +24,9 @@ class ExternalControllerTest {
     @Mock
     private OrchestrationService orchestrationService;
 
+    @Spy
+    private ExternalRestApplicationConfig config = new ExternalRestApplicationConfig();
+
     @InjectMocks
     private ExternalController externalController;
 
@@ -27,38 +34,63 @@ class ExternalControllerTest {
     void userPassLocation_ValidAddress_ReturnsOk() {
         // Arrange
         String address = "Hamburg 1";
-        when(orchestrationService.addRequest(address)).thenReturn(true);
+        when(orchestrationService.addRequest(eq(address), isNull(), any())).thenReturn(true);
 
         // Act
-        ResponseEntity<?> response = externalController.userPassLocation(address);
+        ResponseEntity<?> response = externalController.userPassLocation(address, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().toString().contains(address));
-        verify(orchestrationService, times(1)).addRequest(address);
+        verify(orchestrationService, times(1)).addRequest(eq(address), isNull(), any());
+    }
+
+    @Test
+    void userPassLocation_WithSession_ForwardsSession() {
+        String address = "Hamburg 1";
+        when(orchestrationService.addRequest(eq(address), eq("kiosk-7"), any())).thenReturn(true);
+
+        ResponseEntity<?> response = externalController.userPassLocation(address, "kiosk-7");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(orchestrationService).addRequest(eq(address), eq("kiosk-7"), any());
+    }
+
+    @Test
+    void userPassLocation_StartsRequestBudget() {
+        config.getRest().setRequestBudgetMs(2_000);
+        when(orchestrationService.addRequest(anyString(), any(), any())).thenReturn(true);
+
+        externalController.userPassLocation("Hamburg 1", null);
+
+        ArgumentCaptor<DeadlineBudget> captor = ArgumentCaptor.forClass(DeadlineBudget.class);
+        verify(orchestrationService).addRequest(eq("Hamburg 1"), isNull(), captor.capture());
+        assertTrue(captor.getValue().isBounded());
+        assertTrue(captor.getValue().remainingMillis() <= 2_000);
+        assertTrue(captor.getValue().remainingMillis() > 1_000);
     }
 
     @Test
     void userPassLocation_NullAddress_ReturnsBadRequest() {
         // Act
-        ResponseEntity<?> response = externalController.userPassLocation(null);
+        ResponseEntity<?> response = externalController.userPassLocation(null, null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("No input detected.", response.getBody());
-        verify(orchestrationService, never()).addRequest(anyString());
+        verify(orchestrationService, never()).addRequest(anyString(), any(), any());
     }
 
     @Test
     void userPassLocation_EmptyAddress_ReturnsBadRequest() {
         // Act
-        ResponseEntity<?> response = externalController.userPassLocation("");
+        ResponseEntity<?> response = externalController.userPassLocation("", null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("No input detected.", response.getBody());
-        verify(orchestrationService, never()).addRequest(anyString());
+        verify(orchestrationService, never()).addRequest(anyString(), any(), any());
     }
 
     @Test
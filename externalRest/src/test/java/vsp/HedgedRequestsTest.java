@@ -0,0 +1,138 @@
+package vsp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import vsp.client.HedgedRequests;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedRequestsTest {
+
+    private static final int MIN_SAMPLES = 5;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void execute_WithoutEnoughSamples_DoesNotHedge() throws Exception {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 100, 10, 2000, MIN_SAMPLES, registry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedging.execute(() -> {
+            attempts.incrementAndGet();
+            return completeAfter("slow", 50);
+        });
+
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedgesSent());
+        assertEquals(0, hedging.currentDelayMillis());
+    }
+
+    @Test
+    void execute_SlowPrimaryAfterWarmup_SendsHedgeAndBackupWins() throws Exception {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 100, 20, 2000, MIN_SAMPLES, registry);
+        warmUp(hedging);
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = hedging.execute(() -> attempts.incrementAndGet() == 1
+                ? new CompletableFuture<>()                        // Primary hängt
+                : CompletableFuture.completedFuture("backup"));
+
+        assertEquals("backup", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, hedgesSent());
+        assertEquals(1, registry.get("vsp.supplier.hedges.won").counter().count());
+        assertEquals(MIN_SAMPLES + 1, registry.get("vsp.supplier.requests").counter().count());
+    }
+
+    @Test
+    void execute_WhenBackupWins_CancelsRawFutureOfPrimary() throws Exception {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 100, 20, 2000, MIN_SAMPLES, registry);
+        warmUp(hedging);
+
+        // wie sendAsync: geprüft wird erst in check, abgebrochen werden muss das rohe Future
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        String result = hedging.execute(() -> attempts.incrementAndGet() == 1
+                        ? primary
+                        : CompletableFuture.completedFuture("backup"),
+                String::toUpperCase, 2000);
+
+        assertEquals("BACKUP", result);
+        assertTrue(primary.isCancelled());
+    }
+
+    @Test
+    void execute_FailingBackup_DoesNotWinOverSlowerPrimary() throws Exception {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 100, 20, 2000, MIN_SAMPLES, registry);
+        warmUp(hedging);
+
+        // z.B. ein schneller 5xx, den der Attempt als Fehler abschließt
+        AtomicInteger attempts = new AtomicInteger();
+        String result = hedging.execute(() -> attempts.incrementAndGet() == 1
+                ? completeAfter("primary", 100)
+                : CompletableFuture.failedFuture(new IllegalStateException("status 503")));
+
+        assertEquals("primary", result);
+        assertEquals(1, hedgesSent());
+        assertEquals(0, registry.get("vsp.supplier.hedges.won").counter().count());
+    }
+
+    @Test
+    void execute_WithExhaustedBudget_WaitsForPrimary() throws Exception {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 0, 20, 2000, MIN_SAMPLES, registry);
+        warmUp(hedging);
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = hedging.execute(() -> {
+            attempts.incrementAndGet();
+            return completeAfter("primary", 100);
+        });
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedgesSent());
+    }
+
+    @Test
+    void execute_WhenNothingAnswers_ThrowsTimeout() {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 0, 20, 100, MIN_SAMPLES, registry);
+
+        assertThrows(TimeoutException.class, () -> hedging.execute(CompletableFuture::new));
+    }
+
+    @Test
+    void execute_WhenPrimaryFails_PropagatesCause() {
+        HedgedRequests hedging = new HedgedRequests("test", 0.9, 0, 20, 2000, MIN_SAMPLES, registry);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> hedging.execute(() -> CompletableFuture.failedFuture(new IllegalStateException("boom"))));
+        assertEquals("boom", e.getMessage());
+    }
+
+    @Test
+    void constructor_WithInvalidPercentile_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HedgedRequests("test", 1.0, 5, 20, 2000, MIN_SAMPLES, registry));
+    }
+
+    private static void warmUp(HedgedRequests hedging) throws Exception {
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            hedging.execute(() -> CompletableFuture.completedFuture("fast"));
+        }
+    }
+
+    private static CompletableFuture<String> completeAfter(String value, long millis) {
+        return CompletableFuture.supplyAsync(() -> value,
+                CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+    }
+
+    private double hedgesSent() {
+        return registry.get("vsp.supplier.hedges.sent").counter().count();
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.client.DisplaymanagerClient;
 import vsp.client.GeofoxClient;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.OrchestrationService;
 
 import java.util.NoSuchElementException;
@@ -38,7 +39,14 @@ class OrchestrationServiceTest {
         boolean accepted = orchestrationService.addRequest(address);
 
         assertTrue(accepted);
-        verify(displaymanagerClient, times(1)).sendUserPassLocation(address);
+        verify(displaymanagerClient, times(1)).sendUserPassLocation(address, null, null, DeadlineBudget.NONE);
+    }
+
+    @Test
+    void addRequest_WithSession_ForwardsSessionId() {
+        orchestrationService.addRequest("Hauptstraße 12", "kiosk-7");
+
+        verify(displaymanagerClient).sendUserPassLocation("Hauptstraße 12", null, "kiosk-7", DeadlineBudget.NONE);
     }
 
     @Test
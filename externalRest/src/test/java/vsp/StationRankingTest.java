@@ -0,0 +1,65 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.service.StationRanking;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationRankingTest {
+
+    @Test
+    void nearest_ReturnsTopKSortedByDistance() {
+        List<DepartureStation> candidates = List.of(
+                station("A", 300),
+                station("B", 10),
+                station("C", 200),
+                station("D", 50),
+                station("E", 150));
+
+        List<DepartureStation> result = StationRanking.nearest(candidates, 3);
+
+        assertEquals(List.of("B", "D", "E"), names(result));
+    }
+
+    @Test
+    void nearest_WithFewerCandidatesThanK_ReturnsAllSorted() {
+        List<DepartureStation> candidates = List.of(station("A", 30), station("B", 20));
+
+        List<DepartureStation> result = StationRanking.nearest(candidates, 3);
+
+        assertEquals(List.of("B", "A"), names(result));
+    }
+
+    @Test
+    void nearest_WithEqualDistances_KeepsCandidateOrder() {
+        List<DepartureStation> candidates = List.of(
+                station("A", 100),
+                station("B", 100),
+                station("C", 5),
+                station("D", 100));
+
+        List<DepartureStation> result = StationRanking.nearest(candidates, 3);
+
+        assertEquals(List.of("C", "A", "B"), names(result));
+    }
+
+    @Test
+    void nearest_WithEmptyInputOrZeroK_ReturnsEmptyList() {
+        assertTrue(StationRanking.nearest(List.of(), 3).isEmpty());
+        assertTrue(StationRanking.nearest(List.of(station("A", 1)), 0).isEmpty());
+    }
+
+    private static DepartureStation station(String name, double distance) {
+        return DepartureStation.newBuilder()
+                .setStationId("id-" + name)
+                .setStationName(name)
+                .setDistance(distance)
+                .build();
+    }
+
+    private static List<String> names(List<DepartureStation> stations) {
+        return stations.stream().map(DepartureStation::getStationName).toList();
+    }
+}
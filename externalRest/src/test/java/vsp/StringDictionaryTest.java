@@ -0,0 +1,76 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.client.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void canonical_WithEqualStrings_ReturnsSameInstance() {
+        StringDictionary dictionary = new StringDictionary(100);
+
+        String first = dictionary.canonical(new String("Norderstedt Mitte"));
+        String second = dictionary.canonical(new String("Norderstedt Mitte"));
+
+        assertSame(first, second);
+        assertEquals(1, dictionary.size());
+        assertNull(dictionary.canonical(null));
+    }
+
+    @Test
+    void join_ReusesConcatenationAndSkipsEmptyDirection() {
+        StringDictionary dictionary = new StringDictionary(100);
+
+        String first = dictionary.join("U1", "Norderstedt Mitte");
+        String second = dictionary.join("U1", new String("Norderstedt Mitte"));
+
+        assertEquals("U1 Norderstedt Mitte", first);
+        assertSame(first, second);
+        assertSame(dictionary.canonical("M5"), dictionary.join("M5", ""));
+    }
+
+    @Test
+    void canonical_WhenFull_PassesNewValuesThrough() {
+        StringDictionary dictionary = new StringDictionary(2);
+        dictionary.canonical("U1");
+        dictionary.canonical("U2");
+
+        String overflow = new String("U3");
+
+        assertSame(overflow, dictionary.canonical(overflow));
+        assertEquals(2, dictionary.size());
+        // bereits bekannte Werte werden weiter kanonisiert
+        assertSame(dictionary.canonical("U1"), dictionary.canonical(new String("U1")));
+    }
+
+    @Test
+    void canonical_FromManyThreads_AgreesOnOneInstance() throws Exception {
+        StringDictionary dictionary = new StringDictionary(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> dictionary.canonical(new String("S1 Wedel")), executor));
+            }
+            String expected = results.get(0).get();
+            for (CompletableFuture<String> result : results) {
+                assertSame(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void constructor_WithNonPositiveLimit_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new StringDictionary(0));
+    }
+}
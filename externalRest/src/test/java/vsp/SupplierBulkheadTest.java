@@ -0,0 +1,66 @@
+package vsp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vsp.service.SupplierBulkhead;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SupplierBulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SupplierBulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (bulkhead != null) {
+            bulkhead.close();
+        }
+    }
+
+    @Test
+    void submit_WhenQueueFull_RejectsAndCounts() throws Exception {
+        bulkhead = new SupplierBulkhead("geofox", 1, 1, registry);
+        CountDownLatch running = new CountDownLatch(1);
+
+        assertTrue(bulkhead.submit(() -> {
+            running.countDown();
+            awaitRelease();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertTrue(bulkhead.submit(this::awaitRelease));
+
+        assertFalse(bulkhead.submit(this::awaitRelease));
+
+        assertEquals(1.0, registry.get("vsp.supplier.bulkhead.rejected").tag("supplier", "geofox").counter().count());
+        assertEquals(1.0, registry.get("vsp.supplier.bulkhead.queued").tag("supplier", "geofox").gauge().value());
+    }
+
+    @Test
+    void submit_SlowSupplierDoesNotBlockOtherSupplier() throws Exception {
+        bulkhead = new SupplierBulkhead("geofox", 1, 1, registry);
+        try (SupplierBulkhead nominatim = new SupplierBulkhead("nominatim", 1, 1, registry)) {
+            bulkhead.submit(this::awaitRelease);
+            bulkhead.submit(this::awaitRelease);
+
+            CountDownLatch geocoded = new CountDownLatch(1);
+            assertTrue(nominatim.submit(geocoded::countDown));
+
+            assertTrue(geocoded.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package vsp.grpc;
+
+/**
+ * Adaptives Concurrency-Limit nach dem Gradient-Verfahren (vgl. Netflix concurrency-limits, Gradient2).
+ *
+ * Verglichen werden eine langsame (longRtt, über ca. longWindow Samples) und eine schnelle Latenz-EMA
+ * (shortRtt). Steigt die aktuelle Latenz über longRtt * tolerance, sinkt das Limit proportional; solange die
+ * Latenz stabil ist, wächst es um eine Queue-Reserve von sqrt(limit). Verworfene bzw. überlastete Calls
+ * senken das Limit multiplikativ. Wächst ein Service nicht bis an sein Limit heran, bleibt das Limit stehen,
+ * damit es im Leerlauf nicht beliebig aufgebläht wird.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    // Gewicht eines neuen Samples in shortRtt
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("invalid limit range [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.longWindow = Math.max(1, longWindow);
+        this.limit = clamp(initialLimit);
+    }
+
+    public static AdaptiveConcurrencyLimit of(ConcurrencyLimitConfig config) {
+        return new AdaptiveConcurrencyLimit(config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getTolerance(), config.getSmoothing(), config.getLongWindow());
+    }
+
+    /**
+     * Reserviert einen Slot.
+     *
+     * @return false, wenn das Limit erreicht ist; der Call muss dann abgelehnt werden
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Call regulär beendet, die Latenz geht in die Schätzung ein.
+     *
+     * @param rttNanos Dauer des Calls
+     * @param inFlightAtStart belegte Slots beim Start (inkl. des eigenen)
+     */
+    public synchronized void onSuccess(long rttNanos, int inFlightAtStart) {
+        inFlight--;
+        if (rttNanos <= 0) {
+            return;
+        }
+        samples++;
+        if (samples == 1) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) / Math.min(samples, longWindow);
+
+        // Nach längerer Überlast hat sich longRtt nach oben verschoben: zügig zurückholen
+        if (longRttNanos / shortRttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // Nicht ausgelastet: kein Signal, ob mehr Parallelität vertragen würde
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    /**
+     * Call mit Überlast-Signal beendet (Timeout, RESOURCE_EXHAUSTED, UNAVAILABLE): Limit multiplikativ senken.
+     */
+    public synchronized void onDropped() {
+        inFlight--;
+        limit = clamp(limit * DROP_BACKOFF);
+    }
+
+    /**
+     * Call ohne Aussagekraft beendet (z.B. vom Client abgebrochen): nur Slot freigeben.
+     */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
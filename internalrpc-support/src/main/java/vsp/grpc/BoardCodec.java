@@ -0,0 +1,116 @@
+package vsp.grpc;
+
+import com.google.protobuf.Timestamp;
+import vsp.CompactDeparture;
+import vsp.Departure;
+import vsp.DepartureStation;
+import vsp.DepartureStationList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Kompakte Kodierung einer Abfahrtstafel für die internen gRPC-Hops.
+ *
+ * Linien und Richtungen stehen einmal pro Antwort in den Dictionaries der DepartureStationList,
+ * jede Abfahrt ist nur noch (line_ref, direction_ref, minute_offset) relativ zu base_time_seconds.
+ * Abfahrtszeiten werden dabei auf volle Minuten gerundet (Geofox liefert ohnehin Minuten-Offsets).
+ */
+public final class BoardCodec {
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Kodiert Stationen mit vollen Departures in eine kompakte DepartureStationList.
+     */
+    public static DepartureStationList encode(List<DepartureStation> stations) {
+        long baseSeconds = Long.MAX_VALUE;
+        for (DepartureStation station : stations) {
+            for (Departure departure : station.getDeparturesList()) {
+                baseSeconds = Math.min(baseSeconds, departure.getDepartureTime().getSeconds());
+            }
+        }
+        if (baseSeconds == Long.MAX_VALUE) {
+            baseSeconds = 0;
+        }
+
+        DepartureStationList.Builder list = DepartureStationList.newBuilder()
+                .setBaseTimeSeconds(baseSeconds);
+        Map<String, Integer> lines = new HashMap<>();
+        Map<String, Integer> directions = new HashMap<>();
+
+        for (DepartureStation station : stations) {
+            DepartureStation.Builder compact = station.toBuilder().clearDepartures();
+            for (Departure departure : station.getDeparturesList()) {
+                // Ältere Producer setzen nur lineName: dann komplett als Linie, ohne Richtung
+                boolean split = !departure.getLine().isEmpty();
+                String line = split ? departure.getLine() : departure.getLineName();
+                String direction = split ? departure.getDirection() : "";
+
+                compact.addCompactDepartures(CompactDeparture.newBuilder()
+                        .setLineRef(ref(lines, line, list::addLines))
+                        .setDirectionRef(ref(directions, direction, list::addDirections))
+                        .setMinuteOffset(minuteOffset(departure.getDepartureTime().getSeconds(), baseSeconds)));
+            }
+            list.addStations(compact);
+        }
+        return list.build();
+    }
+
+    /**
+     * Dekodiert eine (ggf. kompakte) DepartureStationList in Stationen mit vollen Departures.
+     * Nicht kompakt kodierte Listen werden unverändert zurückgegeben.
+     */
+    public static List<DepartureStation> decode(DepartureStationList list) {
+        if (!isCompact(list)) {
+            return list.getStationsList();
+        }
+
+        List<DepartureStation> stations = new ArrayList<>(list.getStationsCount());
+        for (DepartureStation station : list.getStationsList()) {
+            DepartureStation.Builder full = station.toBuilder().clearCompactDepartures();
+            for (CompactDeparture compact : station.getCompactDeparturesList()) {
+                String line = list.getLines(compact.getLineRef());
+                String direction = list.getDirections(compact.getDirectionRef());
+                full.addDepartures(Departure.newBuilder()
+                        .setLineName(direction.isBlank() ? line : line + " " + direction)
+                        .setLine(line)
+                        .setDirection(direction)
+                        .setDepartureTime(Timestamp.newBuilder()
+                                .setSeconds(list.getBaseTimeSeconds() + compact.getMinuteOffset() * 60L)));
+            }
+            stations.add(full.build());
+        }
+        return stations;
+    }
+
+    /**
+     * Kompakt ist eine Liste, sobald eine Station compact_departures trägt.
+     */
+    public static boolean isCompact(DepartureStationList list) {
+        for (DepartureStation station : list.getStationsList()) {
+            if (station.getCompactDeparturesCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int ref(Map<String, Integer> dictionary, String value, Consumer<String> append) {
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(value, index);
+            append.accept(value);
+        }
+        return index;
+    }
+
+    private static int minuteOffset(long seconds, long baseSeconds) {
+        return (int) Math.floorDiv(seconds - baseSeconds + 30, 60);
+    }
+}
@@ -0,0 +1,144 @@
+package vsp.grpc;
+
+import vsp.BoardDelta;
+import vsp.Departure;
+import vsp.DepartureStation;
+import vsp.StationDelta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta-Kodierung aufeinanderfolgender Tafeln derselben Session (Transportplan -> DisplayManager).
+ *
+ * Zwischen zwei Refreshes ändern sich meist nur wenige Abfahrten (abgefahrene fallen vorne weg, neue kommen
+ * hinten dazu); statt der vollen Tafel gehen dann nur entfernte Indizes und eingefügte Abfahrten über die Leitung.
+ * Unveränderte Abfahrten behalten ihre Reihenfolge, apply(previous, diff(previous, next)) ergibt also genau next.
+ */
+public final class BoardDeltas {
+
+    private BoardDeltas() {
+    }
+
+    /**
+     * Berechnet das Delta von previous nach next.
+     *
+     * @return null, wenn sich die Stationen selbst unterscheiden (Anzahl, Reihenfolge oder Stammdaten);
+     *         dann muss die volle Tafel gesendet werden
+     */
+    public static BoardDelta diff(List<DepartureStation> previous, List<DepartureStation> next,
+                                  long baseVersion, long version) {
+        if (previous.size() != next.size()) {
+            return null;
+        }
+        BoardDelta.Builder delta = BoardDelta.newBuilder()
+                .setBaseVersion(baseVersion)
+                .setVersion(version);
+
+        for (int i = 0; i < next.size(); i++) {
+            DepartureStation before = previous.get(i);
+            DepartureStation after = next.get(i);
+            if (before.equals(after)) {
+                continue;
+            }
+            StationDelta change = diffStation(i, before, after);
+            if (change == null) {
+                return null;
+            }
+            delta.addStations(change);
+        }
+        return delta.build();
+    }
+
+    /**
+     * Delta einer einzelnen Station an stationIndex, z.B. wenn nur die geänderten Stationen dekodiert wurden.
+     *
+     * @return null, wenn sich die Stammdaten der Station unterscheiden
+     */
+    public static StationDelta diffStation(int stationIndex, DepartureStation before, DepartureStation after) {
+        if (!withoutDepartures(before).equals(withoutDepartures(after))) {
+            return null;
+        }
+        return diffDepartures(stationIndex, before.getDeparturesList(), after.getDeparturesList());
+    }
+
+    /**
+     * Wendet ein Delta auf die Tafel der Basisversion an.
+     *
+     * @throws IllegalArgumentException wenn das Delta nicht zur Tafel passt (Indizes außerhalb)
+     */
+    public static List<DepartureStation> apply(List<DepartureStation> base, BoardDelta delta) {
+        List<DepartureStation> stations = new ArrayList<>(base);
+        for (StationDelta change : delta.getStationsList()) {
+            int index = change.getStationIndex();
+            if (index >= stations.size() || change.getInsertedAtCount() != change.getInsertedCount()) {
+                throw new IllegalArgumentException("Delta does not match board (station " + index + ")");
+            }
+            DepartureStation station = stations.get(index);
+            stations.set(index, station.toBuilder()
+                    .clearDepartures()
+                    .addAllDepartures(applyDepartures(station.getDeparturesList(), change))
+                    .build());
+        }
+        return List.copyOf(stations);
+    }
+
+    /**
+     * Zwei-Zeiger-Abgleich: eine Abfahrt bleibt, solange sie in der neuen Liste noch (weiter hinten) vorkommt.
+     * Nicht zwingend minimal, bei den typischen Änderungen (vorne weg, hinten dazu) aber exakt.
+     */
+    private static StationDelta diffDepartures(int stationIndex, List<Departure> before, List<Departure> after) {
+        StationDelta.Builder change = StationDelta.newBuilder().setStationIndex(stationIndex);
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            if (i < before.size() && j < after.size() && before.get(i).equals(after.get(j))) {
+                i++;
+                j++;
+            } else if (i >= before.size() || after.subList(j, after.size()).contains(before.get(i))) {
+                change.addInsertedAt(j).addInserted(after.get(j));
+                j++;
+            } else {
+                change.addRemoved(i);
+                i++;
+            }
+        }
+        return change.build();
+    }
+
+    private static List<Departure> applyDepartures(List<Departure> before, StationDelta change) {
+        List<Departure> kept = new ArrayList<>(before.size());
+        int removed = 0;
+        for (int i = 0; i < before.size(); i++) {
+            if (removed < change.getRemovedCount() && change.getRemoved(removed) == i) {
+                removed++;
+            } else {
+                kept.add(before.get(i));
+            }
+        }
+        if (removed != change.getRemovedCount()) {
+            throw new IllegalArgumentException("Delta removes departures that do not exist");
+        }
+
+        List<Departure> result = new ArrayList<>(kept.size() + change.getInsertedCount());
+        int next = 0;
+        for (int k = 0; k < change.getInsertedCount(); k++) {
+            int position = change.getInsertedAt(k);
+            while (result.size() < position && next < kept.size()) {
+                result.add(kept.get(next++));
+            }
+            if (result.size() != position) {
+                throw new IllegalArgumentException("Delta inserts departure at invalid index " + position);
+            }
+            result.add(change.getInserted(k));
+        }
+        while (next < kept.size()) {
+            result.add(kept.get(next++));
+        }
+        return result;
+    }
+
+    private static DepartureStation withoutDepartures(DepartureStation station) {
+        return station.toBuilder().clearDepartures().build();
+    }
+}
@@ -0,0 +1,46 @@
+package vsp.grpc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptives Concurrency-Limit für die gRPC-Ingress-Services (vsp.concurrency-limit.*).
+ * Jeder Service eines Servers bekommt ein eigenes Limit, siehe {@link ConcurrencyLimitInterceptor}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vsp.concurrency-limit")
+public class ConcurrencyLimitConfig {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // Latenzanstieg gegenüber longRtt, der noch ohne Absenkung toleriert wird
+    private double tolerance = 1.5;
+    // Anteil des neuen Limits pro Anpassung
+    private double smoothing = 0.2;
+    // Anzahl Samples der langsamen Latenz-EMA
+    private int longWindow = 600;
+
+    // Getter & Setter
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public double getTolerance() { return tolerance; }
+    public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public int getLongWindow() { return longWindow; }
+    public void setLongWindow(int longWindow) { this.longWindow = longWindow; }
+}
@@ -0,0 +1,172 @@
+package vsp.grpc;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vsp.ErrorStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lastabwehr für alle gRPC-Ingress-Services eines Servers.
+ *
+ * Pro Service ein {@link AdaptiveConcurrencyLimit}; Calls über dem Limit werden sofort mit RESOURCE_EXHAUSTED
+ * und ErrorStatus.Code.RATE_LIMITED im Trailer "error-details-bin" abgelehnt, statt sich hinter einem
+ * langsamen Upstream (z.B. Geofox) zu stauen. Gemessen wird die Dauer bis zum close() des Calls; bei den
+ * Fire-and-Forget-Hops ist das nur die Annahme, bei synchronen Services (Geofox-Wrapper) die volle Latenz.
+ * Streaming-Methoden (z.B. streamBoards) sind ausgenommen: ein dauerhafter Stream würde sonst einen Slot
+ * für seine gesamte Lebensdauer belegen und beim Schließen eine beliebig lange "Latenz" melden.
+ *
+ * Als Überlast (Limit senken) zählen neben den entsprechenden Status-Codes auch abgelaufene Deadlines (der Call
+ * endet dann meist mit onCancel) und OK-Antworten mit ErrorStatus RATE_LIMITED/TIMEOUT/UNAVAILABLE im Feld
+ * "error" (z.B. volle Bulkhead-Queue im Externalrest), damit sie nicht als schnelle Erfolge das Limit erhöhen.
+ */
+@GrpcGlobalServerInterceptor
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    static final Metadata.Key<byte[]> ERROR_DETAILS_KEY =
+            Metadata.Key.of("error-details-bin", Metadata.BINARY_BYTE_MARSHALLER);
+
+    private final ConcurrencyLimitConfig config;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimitConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!config.isEnabled() || call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.startCall(call, headers);
+        }
+        String service = call.getMethodDescriptor().getServiceName();
+        AdaptiveConcurrencyLimit limit = limitFor(service);
+
+        if (!limit.tryAcquire()) {
+            log.warn("Rejecting {}: concurrency limit {} reached", call.getMethodDescriptor().getFullMethodName(),
+                    limit.limit());
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit reached for " + service),
+                    rateLimitedTrailers(service, limit.limit()));
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        int inFlightAtStart = limit.inFlight();
+        long startNanos = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+
+        ServerCall<ReqT, RespT> limitedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            // nur vom Service-Thread des Calls geschrieben, close() folgt im selben Thread
+            private boolean overloadReply;
+
+            @Override
+            public void sendMessage(RespT message) {
+                overloadReply |= isOverloadReply(message);
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (released.compareAndSet(false, true)) {
+                    if (isOverload(status.getCode()) || overloadReply || deadlineExpired()) {
+                        limit.onDropped();
+                    } else {
+                        limit.onSuccess(System.nanoTime() - startNanos, inFlightAtStart);
+                    }
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> delegate;
+        try {
+            delegate = next.startCall(limitedCall, headers);
+        } catch (RuntimeException e) {
+            if (released.compareAndSet(false, true)) {
+                limit.onIgnored();
+            }
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onCancel() {
+                // Client hat abgebrochen oder die Deadline ist abgelaufen, close() kommt dann nicht mehr
+                if (released.compareAndSet(false, true)) {
+                    if (deadlineExpired()) {
+                        limit.onDropped();
+                    } else {
+                        limit.onIgnored();
+                    }
+                }
+                super.onCancel();
+            }
+        };
+    }
+
+    /**
+     * @return aktuelles Limit eines Services (für Tests und Diagnose)
+     */
+    public int currentLimit(String service) {
+        return limitFor(service).limit();
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(String service) {
+        return limits.computeIfAbsent(service, name -> AdaptiveConcurrencyLimit.of(config));
+    }
+
+    private static boolean isOverload(Status.Code code) {
+        return code == Status.Code.DEADLINE_EXCEEDED
+                || code == Status.Code.RESOURCE_EXHAUSTED
+                || code == Status.Code.UNAVAILABLE;
+    }
+
+    private static boolean isOverloadReply(Object message) {
+        if (!(message instanceof Message proto)) {
+            return false;
+        }
+        Descriptors.FieldDescriptor field = proto.getDescriptorForType().findFieldByName("error");
+        if (field == null || field.isRepeated() || !proto.hasField(field)) {
+            return false;
+        }
+        if (!(proto.getField(field) instanceof ErrorStatus error)) {
+            return false;
+        }
+        return error.getCode() == ErrorStatus.Code.RATE_LIMITED
+                || error.getCode() == ErrorStatus.Code.TIMEOUT
+                || error.getCode() == ErrorStatus.Code.UNAVAILABLE;
+    }
+
+    private static boolean deadlineExpired() {
+        Deadline deadline = Context.current().getDeadline();
+        return deadline != null && deadline.isExpired();
+    }
+
+    private static Metadata rateLimitedTrailers(String service, int limit) {
+        ErrorStatus errorStatus = ErrorStatus.newBuilder()
+                .setCode(ErrorStatus.Code.RATE_LIMITED)
+                .setMessage("Concurrency limit reached")
+                .setDetails(service + " accepts at most " + limit + " concurrent calls")
+                .build();
+        Metadata trailers = new Metadata();
+        trailers.put(ERROR_DETAILS_KEY, errorStatus.toByteArray());
+        return trailers;
+    }
+}
@@ -0,0 +1,114 @@
+package vsp.grpc;
+
+import io.grpc.stub.AbstractStub;
+import vsp.RequestMeta;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latenzbudget eines Requests über alle internen Hops.
+ *
+ * Die Hops sind Fire-and-Forget (Ack sofort, Weiterverarbeitung im geforkten Context), eine gRPC-Deadline
+ * endet also mit dem Ack. Deshalb reist die absolute Deadline in RequestMeta.deadline_unix_millis mit und
+ * wird auf jedem Hop wieder zur Call-Deadline der Stubs; jede Stufe kappt zusätzlich auf ihr eigenes Timeout.
+ * Absolute Wall-Clock-Zeit setzt synchronisierte Uhren voraus (NTP), Abweichungen gehen ins Budget ein.
+ */
+public final class DeadlineBudget {
+
+    public static final DeadlineBudget NONE = new DeadlineBudget(0, Clock.systemUTC());
+
+    // Epoch-Millisekunden, 0 = unbegrenzt
+    private final long deadlineMillis;
+    private final Clock clock;
+
+    private DeadlineBudget(long deadlineMillis, Clock clock) {
+        this.deadlineMillis = deadlineMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Neues Budget ab jetzt, z.B. am externen Einstiegspunkt.
+     */
+    public static DeadlineBudget after(long budgetMillis) {
+        return after(budgetMillis, Clock.systemUTC());
+    }
+
+    public static DeadlineBudget after(long budgetMillis, Clock clock) {
+        if (budgetMillis <= 0) {
+            return NONE;
+        }
+        return new DeadlineBudget(clock.millis() + budgetMillis, clock);
+    }
+
+    /**
+     * Budget aus den Metadaten eines eingehenden Requests; ohne Deadline unbegrenzt.
+     */
+    public static DeadlineBudget fromMeta(RequestMeta meta) {
+        return fromMeta(meta, Clock.systemUTC());
+    }
+
+    public static DeadlineBudget fromMeta(RequestMeta meta, Clock clock) {
+        if (meta == null || meta.getDeadlineUnixMillis() <= 0) {
+            return NONE;
+        }
+        return new DeadlineBudget(meta.getDeadlineUnixMillis(), clock);
+    }
+
+    public boolean isBounded() {
+        return deadlineMillis > 0;
+    }
+
+    public long deadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * @return verbleibende Zeit in ms (0 wenn abgelaufen), Long.MAX_VALUE ohne Deadline
+     */
+    public long remainingMillis() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineMillis - clock.millis());
+    }
+
+    public boolean isExpired() {
+        return isBounded() && clock.millis() >= deadlineMillis;
+    }
+
+    /**
+     * Kappt das Budget auf das Timeout einer Stufe: die frühere der beiden Deadlines gewinnt.
+     */
+    public DeadlineBudget cap(long stageTimeoutMillis) {
+        if (stageTimeoutMillis <= 0) {
+            return this;
+        }
+        long stageDeadline = clock.millis() + stageTimeoutMillis;
+        if (isBounded() && deadlineMillis <= stageDeadline) {
+            return this;
+        }
+        return new DeadlineBudget(stageDeadline, clock);
+    }
+
+    /**
+     * Schreibt die Deadline in die Metadaten des nächsten Hops.
+     */
+    public RequestMeta.Builder applyTo(RequestMeta.Builder meta) {
+        if (isBounded()) {
+            meta.setDeadlineUnixMillis(deadlineMillis);
+        }
+        return meta;
+    }
+
+    /**
+     * Stub mit der verbleibenden Zeit als Call-Deadline; ein abgelaufenes Budget schlägt sofort mit
+     * DEADLINE_EXCEEDED fehl.
+     */
+    public <S extends AbstractStub<S>> S applyTo(S stub) {
+        if (!isBounded()) {
+            return stub;
+        }
+        return stub.withDeadlineAfter(remainingMillis(), TimeUnit.MILLISECONDS);
+    }
+}
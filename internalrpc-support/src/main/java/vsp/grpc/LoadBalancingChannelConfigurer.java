@@ -0,0 +1,76 @@
+package vsp.grpc;
+
+import io.grpc.ManagedChannelBuilder;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Setzt für jeden @GrpcClient-Channel eine Default-Service-Config:
+ * Load-Balancing-Policy (round_robin), optional in outlier_detection_experimental eingebettet,
+ * und healthCheckConfig, damit nur SERVING-Backends Requests bekommen.
+ *
+ * Hinweis: Die Service-Config von grpc-java erwartet JSON-Typen, Zahlen also als Double.
+ */
+@Component
+public class LoadBalancingChannelConfigurer implements GrpcChannelConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingChannelConfigurer.class);
+
+    private final LoadBalancingConfig config;
+
+    public LoadBalancingChannelConfigurer(LoadBalancingConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void accept(ManagedChannelBuilder<?> builder, String name) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        builder.defaultServiceConfig(serviceConfig(config));
+        log.info("gRPC channel '{}' uses policy={}, healthCheck={}, outlierDetection={}",
+                name, config.getPolicy(), config.isHealthCheck(), config.getOutlierDetection().isEnabled());
+    }
+
+    /**
+     * Baut die Service-Config als JSON-Map.
+     */
+    public static Map<String, Object> serviceConfig(LoadBalancingConfig config) {
+        Map<String, Object> childPolicy = Map.of(config.getPolicy(), Map.of());
+
+        Map<String, Object> lbConfig;
+        LoadBalancingConfig.OutlierDetection od = config.getOutlierDetection();
+        if (od.isEnabled()) {
+            Map<String, Object> failurePercentage = Map.of(
+                    "threshold", (double) od.getFailurePercentageThreshold(),
+                    "enforcementPercentage", 100.0,
+                    "minimumHosts", (double) od.getMinimumHosts(),
+                    "requestVolume", (double) od.getRequestVolume());
+
+            Map<String, Object> outlierDetection = new LinkedHashMap<>();
+            outlierDetection.put("interval", od.getIntervalSeconds() + "s");
+            outlierDetection.put("baseEjectionTime", od.getBaseEjectionSeconds() + "s");
+            outlierDetection.put("maxEjectionPercent", (double) od.getMaxEjectionPercent());
+            outlierDetection.put("failurePercentageEjection", failurePercentage);
+            outlierDetection.put("childPolicy", List.of(childPolicy));
+
+            lbConfig = Map.of("outlier_detection_experimental", outlierDetection);
+        } else {
+            lbConfig = childPolicy;
+        }
+
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        serviceConfig.put("loadBalancingConfig", List.of(lbConfig));
+        if (config.isHealthCheck()) {
+            // "" = Gesamtstatus des Servers (HealthStatusManager)
+            serviceConfig.put("healthCheckConfig", Map.of("serviceName", ""));
+        }
+        return serviceConfig;
+    }
+}
@@ -0,0 +1,68 @@
+package vsp.grpc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Client-seitiges Load Balancing für alle @GrpcClient-Channels (vsp.grpc-balancing.*).
+ * Wirkt nur mit Adressen, die mehrere Backends liefern, z.B. "dns:///transportplan-headless:9093".
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vsp.grpc-balancing")
+public class LoadBalancingConfig {
+
+    private boolean enabled = true;
+    // round_robin (grpc-util) oder z.B. least_request_experimental (benötigt grpc-xds)
+    private String policy = "round_robin";
+    // Client-seitiges Health Checking über grpc.health.v1.Health/Watch
+    private boolean healthCheck = true;
+    private OutlierDetection outlierDetection = new OutlierDetection();
+
+    /**
+     * Outlier Detection: Backends mit hoher Fehlerquote werden zeitweise aus der Rotation genommen.
+     */
+    public static class OutlierDetection {
+        private boolean enabled = true;
+        private int intervalSeconds = 10;
+        private int baseEjectionSeconds = 30;
+        private int maxEjectionPercent = 50;
+        // Auswerfen ab failurePercentageThreshold % fehlgeschlagener RPCs im Intervall
+        private int failurePercentageThreshold = 50;
+        private int minimumHosts = 2;
+        private int requestVolume = 20;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getIntervalSeconds() { return intervalSeconds; }
+        public void setIntervalSeconds(int seconds) { this.intervalSeconds = seconds; }
+
+        public int getBaseEjectionSeconds() { return baseEjectionSeconds; }
+        public void setBaseEjectionSeconds(int seconds) { this.baseEjectionSeconds = seconds; }
+
+        public int getMaxEjectionPercent() { return maxEjectionPercent; }
+        public void setMaxEjectionPercent(int percent) { this.maxEjectionPercent = percent; }
+
+        public int getFailurePercentageThreshold() { return failurePercentageThreshold; }
+        public void setFailurePercentageThreshold(int threshold) { this.failurePercentageThreshold = threshold; }
+
+        public int getMinimumHosts() { return minimumHosts; }
+        public void setMinimumHosts(int minimumHosts) { this.minimumHosts = minimumHosts; }
+
+        public int getRequestVolume() { return requestVolume; }
+        public void setRequestVolume(int requestVolume) { this.requestVolume = requestVolume; }
+    }
+
+    // Getter & Setter
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getPolicy() { return policy; }
+    public void setPolicy(String policy) { this.policy = policy; }
+
+    public boolean isHealthCheck() { return healthCheck; }
+    public void setHealthCheck(boolean healthCheck) { this.healthCheck = healthCheck; }
+
+    public OutlierDetection getOutlierDetection() { return outlierDetection; }
+    public void setOutlierDetection(OutlierDetection outlierDetection) { this.outlierDetection = outlierDetection; }
+}
@@ -0,0 +1,77 @@
+package vsp.grpc;
+
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+
+/**
+ * Prozessweit gemeinsame epoll-Event-Loops für gRPC-Server und -Channels.
+ *
+ * Ohne Sharing legt jeder Unix-Domain-Socket-Channel eine eigene Event-Loop-Gruppe an; hier teilen sich
+ * alle Channels und der Server eine Worker-Gruppe, der Server nimmt Verbindungen über eine eigene
+ * Boss-Loop mit einem Thread an. Die Gruppen werden erst beim ersten Zugriff erzeugt.
+ */
+@Component
+public class NativeTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeTransport.class);
+
+    static final String DOMAIN_SOCKET_SCHEME = "unix";
+
+    private final NativeTransportConfig config;
+    private EventLoopGroup boss;
+    private EventLoopGroup worker;
+
+    public NativeTransport(NativeTransportConfig config) {
+        this.config = config;
+        if (config.isEpoll() && !Epoll.isAvailable()) {
+            log.warn("epoll transport requested but not available, using default transport",
+                    Epoll.unavailabilityCause());
+        }
+    }
+
+    /**
+     * @return true, wenn epoll konfiguriert und auf dieser Plattform verfügbar ist
+     */
+    public boolean isEnabled() {
+        return config.isEpoll() && Epoll.isAvailable();
+    }
+
+    public synchronized EventLoopGroup boss() {
+        if (boss == null) {
+            boss = new EpollEventLoopGroup(1);
+        }
+        return boss;
+    }
+
+    public synchronized EventLoopGroup worker() {
+        if (worker == null) {
+            worker = new EpollEventLoopGroup(Math.max(0, config.getEventLoopThreads()));
+        }
+        return worker;
+    }
+
+    static boolean isDomainSocket(URI address) {
+        return address != null && DOMAIN_SOCKET_SCHEME.equals(address.getScheme());
+    }
+
+    static boolean isDomainSocket(String address) {
+        return address != null && address.startsWith(DOMAIN_SOCKET_SCHEME + ":");
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (boss != null) {
+            boss.shutdownGracefully();
+        }
+        if (worker != null) {
+            worker.shutdownGracefully();
+        }
+    }
+}
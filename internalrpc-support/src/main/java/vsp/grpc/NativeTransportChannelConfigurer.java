@@ -0,0 +1,42 @@
+package vsp.grpc;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import net.devh.boot.grpc.client.config.GrpcChannelsProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stellt Netty-Channels auf epoll und die gemeinsame Event-Loop um.
+ * Der Channel-Typ folgt der Adresse: "unix:" = Unix Domain Socket, sonst TCP.
+ * In-Process-Channels (colocated) bleiben unverändert.
+ */
+@Component
+public class NativeTransportChannelConfigurer implements GrpcChannelConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeTransportChannelConfigurer.class);
+
+    private final NativeTransport transport;
+    private final GrpcChannelsProperties channels;
+
+    public NativeTransportChannelConfigurer(NativeTransport transport, GrpcChannelsProperties channels) {
+        this.transport = transport;
+        this.channels = channels;
+    }
+
+    @Override
+    public void accept(ManagedChannelBuilder<?> builder, String name) {
+        if (!transport.isEnabled() || !(builder instanceof NettyChannelBuilder netty)) {
+            return;
+        }
+        boolean domainSocket = NativeTransport.isDomainSocket(channels.getChannel(name).getAddress());
+        // EventLoopGroup und Channel-Typ müssen zusammen gesetzt werden
+        netty.eventLoopGroup(transport.worker())
+                .channelType(domainSocket ? EpollDomainSocketChannel.class : EpollSocketChannel.class);
+        log.info("gRPC channel '{}' uses epoll ({})", name, domainSocket ? "unix domain socket" : "tcp");
+    }
+}
@@ -0,0 +1,26 @@
+package vsp.grpc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Natives Netty-Transport (epoll) für alle gRPC-Server und @GrpcClient-Channels (vsp.transport.*).
+ * Unix Domain Sockets werden über die Adresse gewählt: grpc.server.address bzw.
+ * grpc.client.NAME.address = "unix:/pfad/zum/socket" (statt "static://host:port").
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vsp.transport")
+public class NativeTransportConfig {
+
+    // false = Default-Transport von grpc-netty-shaded
+    private boolean epoll = false;
+    // Threads der gemeinsamen Worker-Event-Loop, 0 = Netty-Default (2 * Kerne)
+    private int eventLoopThreads = 0;
+
+    // Getter & Setter
+    public boolean isEpoll() { return epoll; }
+    public void setEpoll(boolean epoll) { this.epoll = epoll; }
+
+    public int getEventLoopThreads() { return eventLoopThreads; }
+    public void setEventLoopThreads(int eventLoopThreads) { this.eventLoopThreads = eventLoopThreads; }
+}
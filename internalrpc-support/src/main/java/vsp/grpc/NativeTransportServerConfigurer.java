@@ -0,0 +1,42 @@
+package vsp.grpc;
+
+import io.grpc.ServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import net.devh.boot.grpc.server.config.GrpcServerProperties;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stellt den Netty-Server auf epoll und die gemeinsamen Event-Loops um.
+ * Mit grpc.server.address = "unix:/pfad" lauscht der Server auf einem Unix Domain Socket statt auf TCP.
+ */
+@Component
+public class NativeTransportServerConfigurer implements GrpcServerConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeTransportServerConfigurer.class);
+
+    private final NativeTransport transport;
+    private final GrpcServerProperties server;
+
+    public NativeTransportServerConfigurer(NativeTransport transport, GrpcServerProperties server) {
+        this.transport = transport;
+        this.server = server;
+    }
+
+    @Override
+    public void accept(ServerBuilder<?> builder) {
+        if (!transport.isEnabled() || !(builder instanceof NettyServerBuilder netty)) {
+            return;
+        }
+        boolean domainSocket = NativeTransport.isDomainSocket(server.getAddress());
+        // Boss-, Worker-Gruppe und Channel-Typ müssen zusammen gesetzt werden
+        netty.bossEventLoopGroup(transport.boss())
+                .workerEventLoopGroup(transport.worker())
+                .channelType(domainSocket ? EpollServerDomainSocketChannel.class : EpollServerSocketChannel.class);
+        log.info("gRPC server uses epoll ({})", domainSocket ? "unix domain socket " + server.getAddress() : "tcp");
+    }
+}
@@ -0,0 +1,250 @@
+package vsp.grpc;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable Outbox für Fire-and-Forget-Übergaben an einen nachgelagerten Service.
+ *
+ * enqueue() schreibt die serialisierte Nachricht in das {@link SegmentLog} und kehrt sofort zurück.
+ * Ein eigener Thread liefert in Batches asynchron aus; erst ein Ack des Empfängers gibt die Sequenz frei,
+ * Fehler werden mit exponentiellem Backoff plus Jitter wiederholt, bis max-attempts bzw. max-age erreicht ist;
+ * endgültige Ablehnungen des Empfängers (z.B. INVALID_ARGUMENT) werden nicht wiederholt. Die Ack-Marke (älteste offene Sequenz - 1)
+ * wird periodisch committed, danach werden bestätigte Segmente gelöscht. Nach einem Neustart wird alles
+ * oberhalb der Marke erneut zugestellt, Empfänger müssen Duplikate also vertragen (at-least-once).
+ */
+public final class Outbox<T extends MessageLite> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(Outbox.class);
+
+    // Ablehnungen, die sich durch Wiederholen nicht ändern; die Nachricht würde sonst die Ack-Marke festhalten
+    private static final Set<Status.Code> TERMINAL = Set.of(
+            Status.Code.INVALID_ARGUMENT, Status.Code.FAILED_PRECONDITION, Status.Code.OUT_OF_RANGE,
+            Status.Code.NOT_FOUND, Status.Code.ALREADY_EXISTS, Status.Code.PERMISSION_DENIED,
+            Status.Code.UNAUTHENTICATED, Status.Code.UNIMPLEMENTED);
+
+    /**
+     * Eigentlicher Send; die Future wird mit dem Ack des Empfängers abgeschlossen oder schlägt fehl.
+     */
+    @FunctionalInterface
+    public interface Sender<T> {
+        CompletableFuture<?> send(T message);
+    }
+
+    private final String name;
+    private final SegmentLog segmentLog;
+    private final Sender<T> sender;
+    private final OutboxConfig config;
+    private final DelayQueue<Delivery<T>> queue = new DelayQueue<>();
+    // zugestellt ist alles unterhalb der kleinsten offenen Sequenz
+    private final ConcurrentSkipListSet<Long> unacked = new ConcurrentSkipListSet<>();
+    private final Semaphore inFlight;
+    private final Thread deliveryThread;
+    private volatile boolean running = true;
+
+    Outbox(String name, SegmentLog segmentLog, Parser<T> parser, Sender<T> sender, OutboxConfig config) {
+        this.name = name;
+        this.segmentLog = segmentLog;
+        this.sender = sender;
+        this.config = config;
+        this.inFlight = new Semaphore(Math.max(1, config.getMaxInFlight()));
+
+        for (SegmentLog.Record record : segmentLog.recovered()) {
+            try {
+                unacked.add(record.sequence());
+                // Alter vor dem Neustart ist unbekannt, max-age zählt ab jetzt
+                long now = System.nanoTime();
+                queue.add(new Delivery<>(record.sequence(), parser.parseFrom(record.payload()), 0, now, now));
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Outbox {}: dropping unreadable record {}", name, record.sequence(), e);
+                unacked.remove(record.sequence());
+            }
+        }
+        if (!unacked.isEmpty()) {
+            log.info("Outbox {}: redelivering {} pending messages after restart", name, unacked.size());
+        }
+
+        this.deliveryThread = new Thread(this::deliveryLoop, "outbox-" + name);
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
+    }
+
+    /**
+     * Öffnet die Outbox unter config.directory/name.
+     */
+    public static <T extends MessageLite> Outbox<T> open(String name, OutboxConfig config,
+                                                         Parser<T> parser, Sender<T> sender) throws IOException {
+        SegmentLog segmentLog = SegmentLog.open(Path.of(config.getDirectory(), name),
+                config.getSegmentBytes(), config.isFsync());
+        return new Outbox<>(name, segmentLog, parser, sender, config);
+    }
+
+    /**
+     * Legt die Nachricht dauerhaft ab und stellt sie zur Auslieferung ein.
+     *
+     * @throws IOException wenn das Log nicht geschrieben werden kann; dann ist die Nachricht nicht angenommen
+     */
+    public void enqueue(T message) throws IOException {
+        byte[] payload = message.toByteArray();
+        long sequence;
+        // Append und Registrierung atomar, sonst könnte ein Commit die Sequenz als bestätigt überholen
+        synchronized (unacked) {
+            sequence = segmentLog.append(payload);
+            unacked.add(sequence);
+        }
+        long now = System.nanoTime();
+        queue.add(new Delivery<>(sequence, message, 0, now, now));
+    }
+
+    /**
+     * @return Anzahl der noch nicht bestätigten Nachrichten
+     */
+    public int pending() {
+        return unacked.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        deliveryThread.interrupt();
+        try {
+            deliveryThread.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+        // offene Nachrichten bleiben im Log und werden beim nächsten Start zugestellt
+        segmentLog.close();
+    }
+
+    private void deliveryLoop() {
+        List<Delivery<T>> batch = new ArrayList<>(config.getBatchSize());
+        long nextCommit = System.nanoTime();
+        while (running) {
+            try {
+                Delivery<T> first = queue.poll(config.getCommitIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, Math.max(0, config.getBatchSize() - 1));
+                    for (Delivery<T> delivery : batch) {
+                        inFlight.acquire();
+                        send(delivery);
+                    }
+                    batch.clear();
+                }
+                if (System.nanoTime() - nextCommit >= 0) {
+                    commit();
+                    nextCommit = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCommitIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                // close(): übrige Nachrichten im Batch bleiben unbestätigt im Log
+                return;
+            } catch (RuntimeException e) {
+                log.error("Outbox {}: delivery loop error", name, e);
+            }
+        }
+    }
+
+    private void send(Delivery<T> delivery) {
+        CompletableFuture<?> result;
+        try {
+            result = sender.send(delivery.message());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((ack, error) -> {
+            inFlight.release();
+            if (error == null) {
+                unacked.remove(delivery.sequence());
+            } else {
+                retry(delivery, error);
+            }
+        });
+    }
+
+    private void retry(Delivery<T> delivery, Throwable error) {
+        int attempt = delivery.attempt() + 1;
+        Status.Code code = Status.fromThrowable(error).getCode();
+        if (TERMINAL.contains(code)) {
+            log.error("Outbox {}: message {} rejected by receiver ({}), dropping: {}",
+                    name, delivery.sequence(), code, error.getMessage());
+            unacked.remove(delivery.sequence());
+            return;
+        }
+        if (config.getMaxAttempts() > 0 && attempt >= config.getMaxAttempts()) {
+            log.error("Outbox {}: giving up on message {} after {} attempts: {}",
+                    name, delivery.sequence(), attempt, error.getMessage());
+            unacked.remove(delivery.sequence());
+            return;
+        }
+        long ageMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - delivery.enqueuedAtNanos());
+        if (config.getMaxAgeMs() > 0 && ageMs >= config.getMaxAgeMs()) {
+            log.error("Outbox {}: giving up on message {} after {} ms ({} attempts): {}",
+                    name, delivery.sequence(), ageMs, attempt, error.getMessage());
+            unacked.remove(delivery.sequence());
+            return;
+        }
+        long delayMs = backoffMillis(attempt, config.getInitialBackoffMs(), config.getMaxBackoffMs());
+        log.warn("Outbox {}: delivery of message {} failed (attempt {}), retrying in {} ms: {}",
+                name, delivery.sequence(), attempt, delayMs, error.getMessage());
+        if (running) {
+            queue.add(new Delivery<>(delivery.sequence(), delivery.message(), attempt, delivery.enqueuedAtNanos(),
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs)));
+        }
+    }
+
+    /**
+     * Exponentieller Backoff mit Jitter: zufällig in [cap/2, cap], cap = min(max, initial * 2^(attempt-1)).
+     * Die untere Hälfte bleibt frei, damit nicht alle Wiederholungen sofort wieder anlaufen.
+     */
+    static long backoffMillis(int attempt, long initialMs, long maxMs) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long cap = Math.min(maxMs, initialMs << shift);
+        long half = cap / 2;
+        return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+    }
+
+    private void commit() {
+        long watermark;
+        synchronized (unacked) {
+            watermark = unacked.isEmpty() ? segmentLog.lastSequence() : unacked.first() - 1;
+        }
+        try {
+            segmentLog.commit(watermark);
+        } catch (IOException e) {
+            log.error("Outbox {}: could not commit ack watermark {}", name, watermark, e);
+        }
+    }
+
+    private record Delivery<T>(long sequence, T message, int attempt, long enqueuedAtNanos, long dueAtNanos)
+            implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((Delivery<?>) other).dueAtNanos);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package vsp.grpc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lokale Outbox für die Fire-and-Forget-Übergaben zwischen den Services (vsp.outbox.*).
+ * Jeder sendende Client legt darunter ein eigenes Unterverzeichnis an, z.B. "outbox/transportplan".
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vsp.outbox")
+public class OutboxConfig {
+
+    // false = direkter Send wie bisher, Fehler werden nur geloggt
+    private boolean enabled = false;
+    private String directory = "outbox";
+    private int segmentBytes = 4 * 1024 * 1024;
+    // force() nach jedem Append: übersteht auch Stromausfall, kostet aber Durchsatz
+    private boolean fsync = false;
+    private int batchSize = 64;
+    private int maxInFlight = 256;
+    private long initialBackoffMs = 200;
+    private long maxBackoffMs = 30_000;
+    // danach wird die Nachricht verworfen; 0 = unbegrenzt wiederholen
+    private int maxAttempts = 20;
+    // älter (ab enqueue) wird nicht mehr wiederholt; eine Tafel ist dann ohnehin überholt. 0 = unbegrenzt
+    private long maxAgeMs = 600_000;
+    private long commitIntervalMs = 100;
+
+    // Getter & Setter
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public int getSegmentBytes() { return segmentBytes; }
+    public void setSegmentBytes(int segmentBytes) { this.segmentBytes = segmentBytes; }
+
+    public boolean isFsync() { return fsync; }
+    public void setFsync(boolean fsync) { this.fsync = fsync; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+
+    public long getInitialBackoffMs() { return initialBackoffMs; }
+    public void setInitialBackoffMs(long initialBackoffMs) { this.initialBackoffMs = initialBackoffMs; }
+
+    public long getMaxBackoffMs() { return maxBackoffMs; }
+    public void setMaxBackoffMs(long maxBackoffMs) { this.maxBackoffMs = maxBackoffMs; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public long getMaxAgeMs() { return maxAgeMs; }
+    public void setMaxAgeMs(long maxAgeMs) { this.maxAgeMs = maxAgeMs; }
+
+    public long getCommitIntervalMs() { return commitIntervalMs; }
+    public void setCommitIntervalMs(long commitIntervalMs) { this.commitIntervalMs = commitIntervalMs; }
+}
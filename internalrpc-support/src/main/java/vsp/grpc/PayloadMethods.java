@@ -0,0 +1,29 @@
+package vsp.grpc;
+
+import com.google.protobuf.Message;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+
+/**
+ * Methoden-Deskriptoren für Pass-through von serialisierten Payloads.
+ *
+ * Gleicher Methodenname wie der generierte Deskriptor, aber mit wire-kompatiblen "Sicht"-Nachrichten,
+ * in denen eine eingebettete Nachricht als bytes-Feld deklariert ist (gleicher Wire-Typ). Der Client
+ * parst die Tafel dann nicht, sondern reicht die Bytes unverändert an den nächsten Hop weiter.
+ */
+public final class PayloadMethods {
+
+    private PayloadMethods() {
+    }
+
+    /**
+     * @param method generierter Deskriptor, z.B. DeparturesServiceGrpc.getGetNearbyDeparturesMethod()
+     * @param requestView Default-Instanz der Request-Nachricht (oder ihrer Sicht)
+     * @param responseView Default-Instanz der Response-Nachricht (oder ihrer Sicht)
+     */
+    public static <ReqT extends Message, RespT extends Message> MethodDescriptor<ReqT, RespT> view(
+            MethodDescriptor<?, ?> method, ReqT requestView, RespT responseView) {
+        return method.toBuilder(ProtoUtils.marshaller(requestView), ProtoUtils.marshaller(responseView))
+                .build();
+    }
+}
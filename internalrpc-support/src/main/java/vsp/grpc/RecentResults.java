@@ -0,0 +1,80 @@
+package vsp.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ringpuffer der zuletzt abgeschlossenen Requests eines Service, nur zur Diagnose.
+ *
+ * Feste Kapazität, ältere Einträge werden überschrieben; Schreiben ist ein getAndIncrement plus ein
+ * volatile set, es gibt also keinen gemeinsamen Lock im Request-Pfad. Kapazität 0 schaltet den Puffer ab.
+ * Die Suche nach Correlation-ID durchläuft den Puffer linear und ist für Inspektion gedacht, nicht für den Hot Path.
+ */
+public final class RecentResults<T> {
+
+    private final AtomicReferenceArray<Entry<T>> slots;
+    private final AtomicLong next = new AtomicLong();
+
+    public RecentResults(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Legt ein Ergebnis ab; der älteste Eintrag wird überschrieben, sobald der Puffer voll ist.
+     */
+    public void add(String correlationId, T result) {
+        int capacity = slots.length();
+        if (capacity == 0) {
+            return;
+        }
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence % capacity), new Entry<>(sequence, correlationId, result));
+    }
+
+    /**
+     * @return das neueste Ergebnis zur Correlation-ID, null wenn nicht (mehr) im Puffer
+     */
+    public T find(String correlationId) {
+        Entry<T> newest = null;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<T> entry = slots.get(i);
+            if (entry != null && entry.correlationId().equals(correlationId)
+                    && (newest == null || entry.sequence() > newest.sequence())) {
+                newest = entry;
+            }
+        }
+        return newest != null ? newest.result() : null;
+    }
+
+    /**
+     * @return alle Ergebnisse im Puffer, neuestes zuerst
+     */
+    public List<T> snapshot() {
+        List<Entry<T>> entries = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<T> entry = slots.get(i);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        entries.sort((a, b) -> Long.compare(b.sequence(), a.sequence()));
+
+        List<T> results = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) {
+            results.add(entry.result());
+        }
+        return results;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private record Entry<T>(long sequence, String correlationId, T result) {
+    }
+}
@@ -0,0 +1,237 @@
+package vsp.grpc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only Log aus memory-mapped Segmentdateien, Speicher der Outbox.
+ *
+ * Datensatz: [int Länge][long Sequenz][int CRC32][Payload]. Die Länge wird als Letztes geschrieben, ein
+ * halb geschriebener Datensatz hat also Länge 0 und beendet beim Wiederanlauf das Segment. Nach einem Append
+ * liegen die Daten im Page Cache und überleben einen Absturz des Prozesses; gegen Stromausfall hilft nur fsync.
+ *
+ * Bestätigte Sequenzen werden über eine Ack-Marke (Datei "acked") festgehalten; Segmente, deren letzter
+ * Datensatz unter der Marke liegt, werden gelöscht. Ein Mapping wird erst vom GC freigegeben, das Löschen
+ * der Datei ist unter Linux trotzdem sofort wirksam.
+ */
+public final class SegmentLog implements Closeable {
+
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ACK_FILE = "acked";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    // älteste zuerst, das letzte ist das aktive Segment
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final MappedByteBuffer ackMarker;
+    private final List<Record> recovered = new ArrayList<>();
+
+    private long nextSequence;
+    private long acked;
+
+    /**
+     * Unbestätigter Datensatz aus dem Log.
+     */
+    public record Record(long sequence, byte[] payload) {
+    }
+
+    private SegmentLog(Path directory, int segmentBytes, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.ackMarker = map(directory.resolve(ACK_FILE), Long.BYTES);
+        this.acked = ackMarker.getLong(0);
+        this.nextSequence = acked + 1;
+    }
+
+    /**
+     * Öffnet (oder legt an) das Log im Verzeichnis und liest alle noch nicht bestätigten Datensätze ein.
+     */
+    public static SegmentLog open(Path directory, int segmentBytes, boolean fsync) throws IOException {
+        if (segmentBytes <= HEADER_BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        SegmentLog log = new SegmentLog(directory, segmentBytes, fsync);
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Hängt einen Datensatz an und liefert dessen Sequenz (streng aufsteigend, beginnt bei 1).
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        Segment active = segments.peekLast();
+        if (active == null || active.buffer.capacity() - active.writePosition < recordBytes + Integer.BYTES) {
+            active = roll(recordBytes + Integer.BYTES);
+        }
+
+        long sequence = nextSequence++;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.writePosition;
+        buffer.putLong(position + Integer.BYTES, sequence);
+        buffer.putInt(position + Integer.BYTES + Long.BYTES, (int) crc.getValue());
+        buffer.put(position + HEADER_BYTES, payload);
+        // Ende markieren, falls dort Reste eines abgebrochenen Datensatzes liegen
+        buffer.putInt(position + recordBytes, 0);
+        buffer.putInt(position, payload.length);
+        if (fsync) {
+            buffer.force(position, recordBytes + Integer.BYTES);
+        }
+
+        active.writePosition = position + recordBytes;
+        active.lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Setzt die Ack-Marke: alle Sequenzen kleiner gleich ackedUpTo gelten als zugestellt.
+     * Vollständig bestätigte Segmente (außer dem aktiven) werden gelöscht.
+     */
+    public synchronized void commit(long ackedUpTo) throws IOException {
+        if (ackedUpTo <= acked) {
+            return;
+        }
+        acked = Math.min(ackedUpTo, nextSequence - 1);
+        ackMarker.putLong(0, acked);
+        if (fsync) {
+            ackMarker.force();
+        }
+
+        while (segments.size() > 1 && segments.peekFirst().lastSequence <= acked) {
+            Files.deleteIfExists(segments.pollFirst().path);
+        }
+    }
+
+    /**
+     * @return die beim Öffnen gefundenen, noch nicht bestätigten Datensätze in Sequenzreihenfolge
+     */
+    public synchronized List<Record> recovered() {
+        return List.copyOf(recovered);
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized long ackedSequence() {
+        return acked;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (fsync) {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+            ackMarker.force();
+        }
+        segments.clear();
+        recovered.clear();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path path : files) {
+            MappedByteBuffer buffer = map(path, (int) Files.size(path));
+            Segment segment = new Segment(path, buffer, firstSequenceOf(path) - 1);
+            scan(segment);
+            segments.addLast(segment);
+            nextSequence = Math.max(nextSequence, segment.lastSequence + 1);
+        }
+
+        // Segmente, die vor dem letzten Commit schon vollständig bestätigt waren
+        while (segments.size() > 1 && segments.peekFirst().lastSequence <= acked) {
+            Files.deleteIfExists(segments.pollFirst().path);
+        }
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (buffer.capacity() - position >= HEADER_BYTES) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || buffer.capacity() - position - HEADER_BYTES < length) {
+                break;
+            }
+            long sequence = buffer.getLong(position + Integer.BYTES);
+            int checksum = buffer.getInt(position + Integer.BYTES + Long.BYTES);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                // abgebrochener Schreibvorgang, ab hier wird überschrieben
+                break;
+            }
+            if (sequence > acked) {
+                recovered.add(new Record(sequence, payload));
+            }
+            segment.lastSequence = sequence;
+            position += HEADER_BYTES + length;
+        }
+        segment.writePosition = position;
+    }
+
+    private Segment roll(int minimumBytes) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, map(path, Math.max(segmentBytes, minimumBytes)), nextSequence - 1);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static MappedByteBuffer map(Path path, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // das Mapping bleibt nach dem Schließen des Channels gültig
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        int writePosition;
+        long lastSequence;
+
+        Segment(Path path, MappedByteBuffer buffer, long lastSequence) {
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSequence = lastSequence;
+        }
+    }
+}
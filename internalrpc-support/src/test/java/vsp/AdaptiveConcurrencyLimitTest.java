@@ -0,0 +1,85 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.grpc.AdaptiveConcurrencyLimit;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_RejectsAboveLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.2, 100);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.onIgnored();
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void onSuccess_WithStableLatencyUnderLoad_GrowsLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            saturatedCall(limit, 10 * MILLIS);
+        }
+
+        assertTrue(limit.limit() > 10, "limit=" + limit.limit());
+    }
+
+    @Test
+    void onSuccess_WhenLatencyRises_ShrinksLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 50, 1.5, 0.2, 600);
+        for (int i = 0; i < 200; i++) {
+            saturatedCall(limit, 10 * MILLIS);
+        }
+        assertEquals(50, limit.limit());
+
+        // Upstream wird 10x langsamer
+        for (int i = 0; i < 50; i++) {
+            saturatedCall(limit, 100 * MILLIS);
+        }
+
+        assertTrue(limit.limit() < 25, "limit=" + limit.limit());
+    }
+
+    @Test
+    void onSuccess_WhenNotSaturated_KeepsLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onSuccess(10 * MILLIS, 1);
+        }
+
+        assertEquals(20, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    @Test
+    void onDropped_BacksOffButRespectsMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onDropped();
+        }
+
+        assertEquals(5, limit.limit());
+    }
+
+    /**
+     * Ein Call bei voll ausgelastetem Limit.
+     */
+    private static void saturatedCall(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        assertTrue(limit.tryAcquire());
+        limit.onSuccess(rttNanos, limit.limit());
+    }
+}
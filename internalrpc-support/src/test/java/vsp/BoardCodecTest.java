@@ -0,0 +1,134 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.Test;
+import vsp.grpc.BoardCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCodecTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    @Test
+    void encode_SharesLinesAndDirectionsAcrossStations() {
+        List<DepartureStation> stations = List.of(
+                station("Jungfernstieg", departure("U1", "Norderstedt Mitte", 2), departure("S1", "Wedel", 5)),
+                station("Hauptbahnhof", departure("U1", "Norderstedt Mitte", 4), departure("U1", "Ohlstedt", 7)));
+
+        DepartureStationList board = BoardCodec.encode(stations);
+
+        assertEquals(List.of("U1", "S1"), board.getLinesList());
+        assertEquals(List.of("Norderstedt Mitte", "Wedel", "Ohlstedt"), board.getDirectionsList());
+        assertEquals(NOW + 120, board.getBaseTimeSeconds());
+        assertTrue(BoardCodec.isCompact(board));
+
+        DepartureStation second = board.getStations(1);
+        assertEquals(0, second.getDeparturesCount());
+        assertEquals(CompactDeparture.newBuilder().setLineRef(0).setDirectionRef(2).setMinuteOffset(5).build(),
+                second.getCompactDepartures(1));
+    }
+
+    @Test
+    void decode_RestoresLineNameAndMinuteTimes() {
+        List<DepartureStation> stations = List.of(
+                station("Jungfernstieg", departure("U1", "Norderstedt Mitte", 2), departure("M5", "", 9)));
+
+        List<DepartureStation> decoded = BoardCodec.decode(BoardCodec.encode(stations));
+
+        assertEquals(1, decoded.size());
+        assertEquals("Jungfernstieg", decoded.get(0).getStationName());
+        assertEquals("Master:Jungfernstieg", decoded.get(0).getStationId());
+        assertEquals(0, decoded.get(0).getCompactDeparturesCount());
+
+        Departure first = decoded.get(0).getDepartures(0);
+        assertEquals("U1 Norderstedt Mitte", first.getLineName());
+        assertEquals("U1", first.getLine());
+        assertEquals("Norderstedt Mitte", first.getDirection());
+        assertEquals(NOW + 120, first.getDepartureTime().getSeconds());
+
+        Departure second = decoded.get(0).getDepartures(1);
+        assertEquals("M5", second.getLineName());
+        assertEquals(NOW + 540, second.getDepartureTime().getSeconds());
+    }
+
+    @Test
+    void encode_WithOnlyLineName_KeepsLineNameOnDecode() {
+        Departure legacy = Departure.newBuilder()
+                .setLineName("U3 Barmbek")
+                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW).build())
+                .build();
+        DepartureStation station = DepartureStation.newBuilder().setStationName("Berliner Tor").addDepartures(legacy).build();
+
+        List<DepartureStation> decoded = BoardCodec.decode(BoardCodec.encode(List.of(station)));
+
+        assertEquals("U3 Barmbek", decoded.get(0).getDepartures(0).getLineName());
+        assertEquals(NOW, decoded.get(0).getDepartures(0).getDepartureTime().getSeconds());
+    }
+
+    @Test
+    void encode_RoundsSubMinuteJitterToFullMinutes() {
+        // Geofox-Zeiten entstehen aus Instant.now() pro Abfahrt und können um eine Sekunde auseinanderliegen
+        Departure early = departure("S3", "Pinneberg", 0);
+        Departure late = early.toBuilder()
+                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + 3 * 60 + 1).build())
+                .build();
+
+        DepartureStationList board = BoardCodec.encode(List.of(station("Altona", early, late)));
+
+        assertEquals(3, board.getStations(0).getCompactDepartures(1).getMinuteOffset());
+    }
+
+    @Test
+    void decode_WithFullList_ReturnsStationsUnchanged() {
+        DepartureStationList full = DepartureStationList.newBuilder()
+                .addStations(station("Jungfernstieg", departure("U1", "Ohlstedt", 1)))
+                .build();
+
+        assertFalse(BoardCodec.isCompact(full));
+        assertEquals(full.getStationsList(), BoardCodec.decode(full));
+    }
+
+    @Test
+    void encode_TypicalBoard_IsSeveralTimesSmaller() {
+        String[] lines = {"U1", "U3", "S1", "5", "M5"};
+        String[] directions = {"Norderstedt Mitte", "Ohlstedt", "Barmbek", "Wedel", "Nedderfeld"};
+        List<DepartureStation> stations = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            Departure[] departures = new Departure[30];
+            for (int i = 0; i < departures.length; i++) {
+                departures[i] = departure(lines[i % lines.length], directions[i % directions.length], i * 2)
+                        .toBuilder()
+                        .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + i * 120L).setNanos(123_456_789))
+                        .build();
+            }
+            stations.add(station("Station " + s, departures));
+        }
+
+        int fullSize = DepartureStationList.newBuilder().addAllStations(stations).build().getSerializedSize();
+        int compactSize = BoardCodec.encode(stations).getSerializedSize();
+
+        assertTrue(compactSize * 3 < fullSize, "compact " + compactSize + " vs full " + fullSize);
+    }
+
+    private static DepartureStation station(String name, Departure... departures) {
+        return DepartureStation.newBuilder()
+                .setStationName(name)
+                .setStationId("Master:" + name)
+                .setDistance(120)
+                .addAllDepartures(List.of(departures))
+                .build();
+    }
+
+    private static Departure departure(String line, String direction, int minutes) {
+        return Departure.newBuilder()
+                .setLineName(direction.isEmpty() ? line : line + " " + direction)
+                .setLine(line)
+                .setDirection(direction)
+                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + minutes * 60L).build())
+                .build();
+    }
+}
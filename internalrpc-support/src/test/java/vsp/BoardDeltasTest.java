@@ -0,0 +1,96 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.Test;
+import vsp.grpc.BoardDeltas;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDeltasTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    @Test
+    void diff_TypicalRefresh_OnlyCarriesDepartedAndNewEntries() {
+        List<DepartureStation> previous = List.of(
+                station("Jungfernstieg", departure("U1", 1), departure("S1", 3), departure("U2", 6)),
+                station("Rathaus", departure("U3", 2)));
+        // U1 ist abgefahren, M5 kommt hinten dazu; Rathaus unverändert
+        List<DepartureStation> next = List.of(
+                station("Jungfernstieg", departure("S1", 3), departure("U2", 6), departure("M5", 9)),
+                station("Rathaus", departure("U3", 2)));
+
+        BoardDelta delta = BoardDeltas.diff(previous, next, 41, 42);
+
+        assertNotNull(delta);
+        assertEquals(41, delta.getBaseVersion());
+        assertEquals(42, delta.getVersion());
+        assertEquals(1, delta.getStationsCount());
+        StationDelta change = delta.getStations(0);
+        assertEquals(0, change.getStationIndex());
+        assertEquals(List.of(0), change.getRemovedList());
+        assertEquals(List.of(2), change.getInsertedAtList());
+        assertEquals("M5", change.getInserted(0).getLine());
+        assertEquals(next, BoardDeltas.apply(previous, delta));
+    }
+
+    @Test
+    void diff_ChangedDeparture_RoundTripsAsRemoveAndInsert() {
+        List<DepartureStation> previous = List.of(
+                station("Altona", departure("S3", 2), departure("S31", 4), departure("S1", 7)));
+        List<DepartureStation> next = List.of(
+                station("Altona", departure("S3", 2), departure("S31", 5), departure("S1", 7), departure("S3", 12)));
+
+        BoardDelta delta = BoardDeltas.diff(previous, next, 1, 2);
+
+        assertEquals(next, BoardDeltas.apply(previous, delta));
+        assertEquals(List.of(1), delta.getStations(0).getRemovedList());
+    }
+
+    @Test
+    void diff_UnchangedBoard_IsEmptyDelta() {
+        List<DepartureStation> board = List.of(station("Rathaus", departure("U3", 2)));
+
+        BoardDelta delta = BoardDeltas.diff(board, board, 7, 8);
+
+        assertEquals(0, delta.getStationsCount());
+        assertEquals(board, BoardDeltas.apply(board, delta));
+    }
+
+    @Test
+    void diff_DifferentStations_ReturnsNull() {
+        List<DepartureStation> previous = List.of(station("Rathaus", departure("U3", 2)));
+
+        assertNull(BoardDeltas.diff(previous, List.of(station("Rathausmarkt", departure("U3", 2))), 1, 2));
+        assertNull(BoardDeltas.diff(previous, List.of(), 1, 2));
+    }
+
+    @Test
+    void apply_DeltaForOtherBoard_Throws() {
+        BoardDelta delta = BoardDelta.newBuilder()
+                .addStations(StationDelta.newBuilder().setStationIndex(0).addRemoved(5))
+                .build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardDeltas.apply(List.of(station("Rathaus", departure("U3", 2))), delta));
+        assertThrows(IllegalArgumentException.class, () -> BoardDeltas.apply(List.of(), delta));
+    }
+
+    private static DepartureStation station(String name, Departure... departures) {
+        return DepartureStation.newBuilder()
+                .setStationId("Master:" + name)
+                .setStationName(name)
+                .addAllDepartures(List.of(departures))
+                .build();
+    }
+
+    private static Departure departure(String line, int minutes) {
+        return Departure.newBuilder()
+                .setLine(line)
+                .setLineName(line)
+                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + minutes * 60L).build())
+                .build();
+    }
+}
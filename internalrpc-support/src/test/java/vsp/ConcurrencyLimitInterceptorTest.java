@@ -0,0 +1,184 @@
+package vsp;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vsp.grpc.ConcurrencyLimitConfig;
+import vsp.grpc.ConcurrencyLimitInterceptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void interceptCall_AboveLimit_RejectsWithRateLimited() throws Exception {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        config.setMaxLimit(1);
+        DisplaymanagerIngressGrpc.DisplaymanagerIngressFutureStub stub = start(config);
+
+        Future<Ack> first = stub.userPassLocation(ExternalInput.getDefaultInstance());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        StatusRuntimeException rejected = assertThrows(StatusRuntimeException.class,
+                () -> DisplaymanagerIngressGrpc.newBlockingStub(channel)
+                        .withDeadlineAfter(5, TimeUnit.SECONDS)
+                        .userPassLocation(ExternalInput.getDefaultInstance()));
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, rejected.getStatus().getCode());
+        byte[] details = rejected.getTrailers().get(
+                Metadata.Key.of("error-details-bin", Metadata.BINARY_BYTE_MARSHALLER));
+        assertNotNull(details);
+        assertEquals(ErrorStatus.Code.RATE_LIMITED, ErrorStatus.parseFrom(details).getCode());
+
+        // nach Abschluss des ersten Calls ist der Slot wieder frei
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(DisplaymanagerIngressGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .userPassLocation(ExternalInput.getDefaultInstance()));
+    }
+
+    @Test
+    void interceptCall_WhenDisabled_PassesThrough() throws Exception {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setEnabled(false);
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        config.setMaxLimit(1);
+        DisplaymanagerIngressGrpc.DisplaymanagerIngressFutureStub stub = start(config);
+
+        Future<Ack> first = stub.userPassLocation(ExternalInput.getDefaultInstance());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        Future<Ack> second = stub.userPassLocation(ExternalInput.getDefaultInstance());
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void interceptCall_DeadlineExpired_LowersLimit() throws Exception {
+        ConcurrencyLimitConfig config = limitedTo(10);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(config);
+        start(config, interceptor);
+
+        StatusRuntimeException expired = assertThrows(StatusRuntimeException.class,
+                () -> DisplaymanagerIngressGrpc.newBlockingStub(channel)
+                        .withDeadlineAfter(200, TimeUnit.MILLISECONDS)
+                        .userPassLocation(ExternalInput.getDefaultInstance()));
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, expired.getStatus().getCode());
+        release.countDown();
+
+        assertTrue(awaitLimitBelow(interceptor, DisplaymanagerIngressGrpc.SERVICE_NAME, 10));
+    }
+
+    @Test
+    void interceptCall_RateLimitedReply_LowersLimit() throws Exception {
+        ConcurrencyLimitConfig config = limitedTo(10);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(config);
+        String name = InProcessServerBuilder.generateName();
+        GeocodingServiceGrpc.GeocodingServiceImplBase service = new GeocodingServiceGrpc.GeocodingServiceImplBase() {
+            @Override
+            public void geocode(GeocodeRequest request, StreamObserver<GeocodeResponse> responseObserver) {
+                // wie eine volle Bulkhead-Queue: Status OK, Überlast nur im ErrorStatus
+                responseObserver.onNext(GeocodeResponse.newBuilder()
+                        .setError(ErrorStatus.newBuilder().setCode(ErrorStatus.Code.RATE_LIMITED))
+                        .build());
+                responseObserver.onCompleted();
+            }
+        };
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, interceptor))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+
+        GeocodeResponse response = GeocodingServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .geocode(GeocodeRequest.getDefaultInstance());
+
+        assertEquals(ErrorStatus.Code.RATE_LIMITED, response.getError().getCode());
+        assertTrue(awaitLimitBelow(interceptor, GeocodingServiceGrpc.SERVICE_NAME, 10));
+    }
+
+    private static ConcurrencyLimitConfig limitedTo(int initialLimit) {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setInitialLimit(initialLimit);
+        config.setMinLimit(1);
+        config.setMaxLimit(2 * initialLimit);
+        return config;
+    }
+
+    private static boolean awaitLimitBelow(ConcurrencyLimitInterceptor interceptor, String service, int limit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (interceptor.currentLimit(service) < limit) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private DisplaymanagerIngressGrpc.DisplaymanagerIngressFutureStub start(ConcurrencyLimitConfig config)
+            throws Exception {
+        return start(config, new ConcurrencyLimitInterceptor(config));
+    }
+
+    private DisplaymanagerIngressGrpc.DisplaymanagerIngressFutureStub start(ConcurrencyLimitConfig config,
+                                                                           ConcurrencyLimitInterceptor interceptor)
+            throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        DisplaymanagerIngressGrpc.DisplaymanagerIngressImplBase service =
+                new DisplaymanagerIngressGrpc.DisplaymanagerIngressImplBase() {
+                    @Override
+                    public void userPassLocation(ExternalInput request, StreamObserver<Ack> responseObserver) {
+                        entered.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        responseObserver.onNext(Ack.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                };
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, interceptor))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        return DisplaymanagerIngressGrpc.newFutureStub(channel).withDeadlineAfter(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,66 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.grpc.DeadlineBudget;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineBudgetTest {
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(1_000_000), ZoneOffset.UTC);
+
+    @Test
+    void after_SetsAbsoluteDeadline() {
+        DeadlineBudget budget = DeadlineBudget.after(500, clock);
+
+        assertTrue(budget.isBounded());
+        assertEquals(1_000_500, budget.deadlineMillis());
+        assertEquals(500, budget.remainingMillis());
+        assertFalse(budget.isExpired());
+    }
+
+    @Test
+    void none_IsUnbounded() {
+        assertFalse(DeadlineBudget.NONE.isBounded());
+        assertFalse(DeadlineBudget.NONE.isExpired());
+        assertEquals(Long.MAX_VALUE, DeadlineBudget.NONE.remainingMillis());
+        assertSame(DeadlineBudget.NONE, DeadlineBudget.after(0, clock));
+    }
+
+    @Test
+    void fromMeta_RoundTripsThroughRequestMeta() {
+        RequestMeta meta = DeadlineBudget.after(250, clock).applyTo(RequestMeta.newBuilder()).build();
+
+        DeadlineBudget received = DeadlineBudget.fromMeta(meta, clock);
+
+        assertEquals(1_000_250, meta.getDeadlineUnixMillis());
+        assertEquals(250, received.remainingMillis());
+        assertSame(DeadlineBudget.NONE, DeadlineBudget.fromMeta(RequestMeta.getDefaultInstance(), clock));
+        assertSame(DeadlineBudget.NONE, DeadlineBudget.fromMeta(null, clock));
+    }
+
+    @Test
+    void fromMeta_PastDeadlineIsExpired() {
+        RequestMeta meta = RequestMeta.newBuilder().setDeadlineUnixMillis(999_000).build();
+
+        DeadlineBudget budget = DeadlineBudget.fromMeta(meta, clock);
+
+        assertTrue(budget.isExpired());
+        assertEquals(0, budget.remainingMillis());
+    }
+
+    @Test
+    void cap_EarlierDeadlineWins() {
+        DeadlineBudget budget = DeadlineBudget.after(1_000, clock);
+
+        assertEquals(1_000_200, budget.cap(200).deadlineMillis());
+        assertSame(budget, budget.cap(5_000));
+        assertSame(budget, budget.cap(0));
+        assertTrue(DeadlineBudget.NONE.cap(300).isBounded());
+        assertTrue(DeadlineBudget.NONE.cap(300).remainingMillis() <= 300);
+    }
+}
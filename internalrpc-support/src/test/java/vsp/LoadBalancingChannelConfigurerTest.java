@@ -0,0 +1,87 @@
+package vsp;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.services.HealthStatusManager;
+import org.junit.jupiter.api.Test;
+import vsp.grpc.LoadBalancingChannelConfigurer;
+import vsp.grpc.LoadBalancingConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LoadBalancingChannelConfigurerTest {
+
+    @Test
+    void serviceConfig_WithDefaults_WrapsRoundRobinInOutlierDetection() {
+        Map<String, Object> serviceConfig = LoadBalancingChannelConfigurer.serviceConfig(new LoadBalancingConfig());
+
+        Map<?, ?> lbConfig = (Map<?, ?>) ((List<?>) serviceConfig.get("loadBalancingConfig")).get(0);
+        Map<?, ?> outlierDetection = (Map<?, ?>) lbConfig.get("outlier_detection_experimental");
+        assertNotNull(outlierDetection);
+        assertEquals("10s", outlierDetection.get("interval"));
+        assertEquals(50.0, outlierDetection.get("maxEjectionPercent"));
+        assertEquals(List.of(Map.of("round_robin", Map.of())), outlierDetection.get("childPolicy"));
+        assertEquals(Map.of("serviceName", ""), serviceConfig.get("healthCheckConfig"));
+    }
+
+    @Test
+    void serviceConfig_WithoutOutlierDetectionAndHealthCheck_UsesPlainPolicy() {
+        LoadBalancingConfig config = new LoadBalancingConfig();
+        config.setPolicy("pick_first");
+        config.setHealthCheck(false);
+        config.getOutlierDetection().setEnabled(false);
+
+        Map<String, Object> serviceConfig = LoadBalancingChannelConfigurer.serviceConfig(config);
+
+        assertEquals(List.of(Map.of("pick_first", Map.of())), serviceConfig.get("loadBalancingConfig"));
+        assertFalse(serviceConfig.containsKey("healthCheckConfig"));
+    }
+
+    @Test
+    void accept_WhenDisabled_LeavesBuilderUntouched() {
+        LoadBalancingConfig config = new LoadBalancingConfig();
+        config.setEnabled(false);
+        ManagedChannelBuilder<?> builder = mock(ManagedChannelBuilder.class);
+
+        new LoadBalancingChannelConfigurer(config).accept(builder, "transportplan");
+
+        verify(builder, never()).defaultServiceConfig(any());
+    }
+
+    @Test
+    void accept_ProducesServiceConfigAcceptedByGrpc() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        HealthStatusManager health = new HealthStatusManager();
+        Server server = InProcessServerBuilder.forName(name)
+                .addService(health.getHealthService())
+                .directExecutor()
+                .build()
+                .start();
+
+        InProcessChannelBuilder builder = InProcessChannelBuilder.forName(name).directExecutor();
+        new LoadBalancingChannelConfigurer(new LoadBalancingConfig()).accept(builder, "test");
+        ManagedChannel channel = builder.build();
+        try {
+            HealthCheckResponse response = HealthGrpc.newBlockingStub(channel)
+                    .withDeadlineAfter(5, TimeUnit.SECONDS)
+                    .check(HealthCheckRequest.getDefaultInstance());
+
+            assertEquals(HealthCheckResponse.ServingStatus.SERVING, response.getStatus());
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package vsp;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.protobuf.services.HealthStatusManager;
+import net.devh.boot.grpc.client.config.GrpcChannelProperties;
+import net.devh.boot.grpc.client.config.GrpcChannelsProperties;
+import net.devh.boot.grpc.server.config.GrpcServerProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vsp.grpc.NativeTransport;
+import vsp.grpc.NativeTransportChannelConfigurer;
+import vsp.grpc.NativeTransportConfig;
+import vsp.grpc.NativeTransportServerConfigurer;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class NativeTransportConfigurerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void accept_WhenDisabled_LeavesBuildersUntouched() {
+        NativeTransport transport = new NativeTransport(new NativeTransportConfig());
+        ManagedChannelBuilder<?> channelBuilder = mock(ManagedChannelBuilder.class);
+        ServerBuilder<?> serverBuilder = mock(ServerBuilder.class);
+
+        new NativeTransportChannelConfigurer(transport, new GrpcChannelsProperties()).accept(channelBuilder, "test");
+        new NativeTransportServerConfigurer(transport, new GrpcServerProperties()).accept(serverBuilder);
+
+        assertFalse(transport.isEnabled());
+        verifyNoInteractions(channelBuilder, serverBuilder);
+        transport.shutdown();
+    }
+
+    @Test
+    void accept_WithDomainSocketAddress_ServesOverUnixSocket() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "epoll not available on this platform");
+
+        String address = "unix:" + directory.resolve("grpc.sock");
+        NativeTransportConfig config = new NativeTransportConfig();
+        config.setEpoll(true);
+        NativeTransport transport = new NativeTransport(config);
+
+        GrpcServerProperties serverProperties = new GrpcServerProperties();
+        serverProperties.setAddress(address);
+        GrpcChannelsProperties channelsProperties = new GrpcChannelsProperties();
+        GrpcChannelProperties channelProperties = new GrpcChannelProperties();
+        channelProperties.setAddress(address);
+        channelsProperties.getClient().put("test", channelProperties);
+
+        DomainSocketAddress socket = new DomainSocketAddress(directory.resolve("grpc.sock").toFile());
+        NettyServerBuilder serverBuilder = NettyServerBuilder.forAddress(socket)
+                .addService(new HealthStatusManager().getHealthService());
+        new NativeTransportServerConfigurer(transport, serverProperties).accept(serverBuilder);
+        Server server = serverBuilder.build().start();
+
+        NettyChannelBuilder channelBuilder = NettyChannelBuilder.forAddress(socket).usePlaintext();
+        new NativeTransportChannelConfigurer(transport, channelsProperties).accept(channelBuilder, "test");
+        ManagedChannel channel = channelBuilder.build();
+        try {
+            HealthCheckResponse response = HealthGrpc.newBlockingStub(channel)
+                    .withDeadlineAfter(5, TimeUnit.SECONDS)
+                    .check(HealthCheckRequest.getDefaultInstance());
+
+            assertEquals(HealthCheckResponse.ServingStatus.SERVING, response.getStatus());
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            transport.shutdown();
+        }
+    }
+}
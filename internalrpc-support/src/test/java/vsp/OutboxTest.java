@@ -0,0 +1,137 @@
+package vsp;
+
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vsp.grpc.Outbox;
+import vsp.grpc.OutboxConfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void enqueue_RetriesUntilAcked() throws Exception {
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Integer> attempts = new ConcurrentHashMap<>();
+
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config(), RequestMeta.parser(), meta -> {
+            // die ersten zwei Versuche pro Nachricht schlagen fehl
+            if (attempts.merge(meta.getCorrelationId(), 1, Integer::sum) <= 2) {
+                return CompletableFuture.failedFuture(new IllegalStateException("unavailable"));
+            }
+            delivered.add(meta.getCorrelationId());
+            return CompletableFuture.completedFuture(null);
+        })) {
+            for (int i = 0; i < 20; i++) {
+                outbox.enqueue(meta("cid-" + i));
+            }
+
+            awaitDrained(outbox);
+            assertEquals(20, delivered.size());
+            assertEquals(3, attempts.get("cid-0"));
+        }
+    }
+
+    @Test
+    void open_RedeliversUnackedMessagesAfterRestart() throws Exception {
+        OutboxConfig config = config();
+        // Empfänger antwortet nie: beide Nachrichten bleiben offen
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config, RequestMeta.parser(),
+                meta -> new CompletableFuture<>())) {
+            outbox.enqueue(meta("cid-1"));
+            outbox.enqueue(meta("cid-2"));
+            assertEquals(2, outbox.pending());
+        }
+
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config, RequestMeta.parser(), meta -> {
+            delivered.add(meta.getCorrelationId());
+            return CompletableFuture.completedFuture(null);
+        })) {
+            awaitDrained(outbox);
+        }
+
+        assertEquals(List.of("cid-1", "cid-2"), delivered);
+    }
+
+    @Test
+    void maxAttempts_DropsMessage() throws Exception {
+        OutboxConfig config = config();
+        config.setMaxAttempts(2);
+
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config, RequestMeta.parser(),
+                meta -> CompletableFuture.failedFuture(new IllegalStateException("unavailable")))) {
+            outbox.enqueue(meta("cid-1"));
+
+            awaitDrained(outbox);
+            assertEquals(0, outbox.pending());
+        }
+    }
+
+    @Test
+    void invalidArgument_DropsMessageWithoutRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config(), RequestMeta.parser(), meta -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(Status.INVALID_ARGUMENT
+                    .withDescription("Stations list is empty").asRuntimeException());
+        })) {
+            outbox.enqueue(meta("cid-1"));
+
+            awaitDrained(outbox);
+            assertEquals(0, outbox.pending());
+        }
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void maxAge_DropsMessage() throws Exception {
+        OutboxConfig config = config();
+        config.setMaxAttempts(0);
+        config.setMaxAgeMs(50);
+
+        try (Outbox<RequestMeta> outbox = Outbox.open("test", config, RequestMeta.parser(),
+                meta -> CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()))) {
+            outbox.enqueue(meta("cid-1"));
+
+            awaitDrained(outbox);
+            assertEquals(0, outbox.pending());
+        }
+    }
+
+    private OutboxConfig config() {
+        OutboxConfig config = new OutboxConfig();
+        config.setDirectory(directory.toString());
+        config.setSegmentBytes(1024);
+        config.setInitialBackoffMs(5);
+        config.setMaxBackoffMs(20);
+        config.setCommitIntervalMs(10);
+        return config;
+    }
+
+    private static RequestMeta meta(String correlationId) {
+        return RequestMeta.newBuilder().setCorrelationId(correlationId).setCaller("test").build();
+    }
+
+    private static void awaitDrained(Outbox<?> outbox) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (outbox.pending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, outbox.pending());
+    }
+}
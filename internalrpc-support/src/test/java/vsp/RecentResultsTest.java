@@ -0,0 +1,60 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.grpc.RecentResults;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentResultsTest {
+
+    @Test
+    void find_ReturnsResultByCorrelationId() {
+        RecentResults<String> recent = new RecentResults<>(4);
+
+        recent.add("cid-1", "Jungfernstieg");
+        recent.add("cid-2", "Hauptbahnhof");
+
+        assertEquals("Jungfernstieg", recent.find("cid-1"));
+        assertEquals("Hauptbahnhof", recent.find("cid-2"));
+        assertNull(recent.find("cid-3"));
+    }
+
+    @Test
+    void add_WhenFull_OverwritesOldestEntry() {
+        RecentResults<String> recent = new RecentResults<>(2);
+
+        recent.add("cid-1", "a");
+        recent.add("cid-2", "b");
+        recent.add("cid-3", "c");
+
+        assertNull(recent.find("cid-1"));
+        assertEquals(List.of("c", "b"), recent.snapshot());
+    }
+
+    @Test
+    void find_WithRepeatedCorrelationId_ReturnsNewest() {
+        RecentResults<String> recent = new RecentResults<>(4);
+
+        recent.add("cid-1", "erster Versuch");
+        recent.add("cid-1", "zweiter Versuch");
+
+        assertEquals("zweiter Versuch", recent.find("cid-1"));
+    }
+
+    @Test
+    void zeroCapacity_DisablesBuffer() {
+        RecentResults<String> recent = new RecentResults<>(0);
+
+        recent.add("cid-1", "a");
+
+        assertNull(recent.find("cid-1"));
+        assertTrue(recent.snapshot().isEmpty());
+    }
+
+    @Test
+    void negativeCapacity_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentResults<>(-1));
+    }
+}
@@ -0,0 +1,82 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vsp.grpc.SegmentLog;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_AssignsAscendingSequencesAndRollsSegments() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, 128, false)) {
+            for (int i = 1; i <= 20; i++) {
+                assertEquals(i, log.append(bytes("msg-" + i)));
+            }
+            assertEquals(20, log.lastSequence());
+            assertTrue(log.segmentCount() > 1);
+        }
+    }
+
+    @Test
+    void open_RecoversOnlyUnackedRecords() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, 128, false)) {
+            for (int i = 1; i <= 20; i++) {
+                log.append(bytes("msg-" + i));
+            }
+            log.commit(10);
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, 128, false)) {
+            List<SegmentLog.Record> recovered = log.recovered();
+            assertEquals(10, recovered.size());
+            assertEquals(11, recovered.get(0).sequence());
+            assertEquals("msg-20", new String(recovered.get(9).payload(), StandardCharsets.UTF_8));
+            // Sequenzen laufen nach dem Neustart weiter
+            assertEquals(21, log.append(bytes("msg-21")));
+        }
+    }
+
+    @Test
+    void commit_DeletesFullyAckedSegments() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, 128, false)) {
+            for (int i = 1; i <= 20; i++) {
+                log.append(bytes("msg-" + i));
+            }
+            int before = log.segmentCount();
+
+            log.commit(20);
+
+            assertEquals(1, log.segmentCount());
+            assertTrue(before > 1);
+            assertEquals(20, log.ackedSequence());
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, 128, false)) {
+            assertTrue(log.recovered().isEmpty());
+        }
+    }
+
+    @Test
+    void append_LargerThanSegment_GetsOwnSegment() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, 64, false)) {
+            log.append(new byte[500]);
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, 64, false)) {
+            assertEquals(500, log.recovered().get(0).payload().length);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package vsp.loadgen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gewichtete Adress-Mischung für den Lastgenerator.
+ *
+ * Format (Datei oder --mix): eine Adresse pro Zeile bzw. pro Komma, optional mit Gewicht nach ';',
+ * z.B. "Jungfernstieg 1;5". Zeilen mit '#' sind Kommentare.
+ */
+public final class AddressMix {
+
+    /** Default: typische Hamburger Adressen, wenige "heiße" und ein langer Rest */
+    private static final String DEFAULT_MIX = String.join("\n",
+            "Jungfernstieg 1;10",
+            "Mönckebergstraße 7;8",
+            "Reeperbahn 1;5",
+            "Schanzenstraße 12;3",
+            "Ottenser Hauptstraße 10;3",
+            "Osterstraße 100;2",
+            "Bramfelder Chaussee 200;1",
+            "Rahlstedter Straße 50;1",
+            "Bergedorfer Straße 100;1",
+            "Harburger Ring 20;1",
+            "Fuhlsbüttler Straße 300;1",
+            "Elbchaussee 40;1");
+
+    private final String[] addresses;
+    private final long[] cumulativeWeights;
+    private final long totalWeight;
+
+    private AddressMix(List<String> addresses, List<Long> weights) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("Address mix is empty");
+        }
+        this.addresses = addresses.toArray(String[]::new);
+        this.cumulativeWeights = new long[weights.size()];
+        long sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            cumulativeWeights[i] = sum;
+        }
+        this.totalWeight = sum;
+    }
+
+    public static AddressMix defaultMix() {
+        return parse(DEFAULT_MIX);
+    }
+
+    public static AddressMix fromFile(Path file) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parst Einträge getrennt durch Zeilenumbruch oder Komma.
+     */
+    public static AddressMix parse(String spec) {
+        List<String> addresses = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+
+        for (String entry : spec.split("[\\n,]")) {
+            String line = entry.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            long weight = 1;
+            int separator = line.lastIndexOf(';');
+            if (separator >= 0) {
+                try {
+                    weight = Long.parseLong(line.substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight in address mix entry: " + line, e);
+                }
+                line = line.substring(0, separator).trim();
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight must be positive: " + entry.trim());
+            }
+            addresses.add(line);
+            weights.add(weight);
+        }
+        return new AddressMix(addresses, weights);
+    }
+
+    /**
+     * Wählt eine Adresse entsprechend der Gewichte.
+     */
+    public String next(Random random) {
+        long pick = (long) (random.nextDouble() * totalWeight);
+        int index = Arrays.binarySearch(cumulativeWeights, pick + 1);
+        return addresses[index >= 0 ? index : -index - 1];
+    }
+
+    public int size() {
+        return addresses.length;
+    }
+}
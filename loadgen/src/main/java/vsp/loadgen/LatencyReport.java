@@ -0,0 +1,187 @@
+package vsp.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Latenzen in zwei HdrHistogram-Recordern (Mikrosekunden):
+ * <ul>
+ *   <li>corrected: ab dem geplanten Sendezeitpunkt (frei von Coordinated Omission)</li>
+ *   <li>service: ab dem tatsächlichen Senden (nur zum Vergleich)</li>
+ * </ul>
+ * Staut sich der Server oder der Generator, wächst nur corrected, weil die Wartezeit
+ * bis zum tatsächlichen Senden mitgezählt wird. Verworfene Requests (dropped) zählen dort mit dem Timeout.
+ */
+public class LatencyReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder corrected = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder service = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram correctedTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram serviceTotal = new Histogram(SIGNIFICANT_DIGITS);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final PrintStream out;
+    private final HistogramLogWriter logWriter;
+
+    private Histogram correctedInterval;
+    private Histogram serviceInterval;
+    private long intervalCompleted;
+    private long intervalStartNanos;
+
+    public LatencyReport(PrintStream out, Path histogramLog) throws FileNotFoundException {
+        this.out = out;
+        if (histogramLog != null) {
+            this.logWriter = new HistogramLogWriter(histogramLog.toFile());
+            logWriter.outputLogFormatVersion();
+            logWriter.outputLegend();
+        } else {
+            this.logWriter = null;
+        }
+    }
+
+    /**
+     * Start der Messphase: alles vor diesem Zeitpunkt (Warmup) wird verworfen.
+     */
+    public synchronized void start(long nowNanos) {
+        correctedInterval = corrected.getIntervalHistogram(correctedInterval);
+        serviceInterval = service.getIntervalHistogram(serviceInterval);
+        correctedTotal.reset();
+        serviceTotal.reset();
+        completed.reset();
+        failed.reset();
+        dropped.reset();
+        intervalCompleted = 0;
+        intervalStartNanos = nowNanos;
+        if (logWriter != null) {
+            logWriter.outputStartTime(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Thread-sicher (Recorder ist wait-free), wird aus den Response-Callbacks aufgerufen.
+     */
+    public void recordSuccess(long intendedNanos, long sentNanos, long completedNanos) {
+        corrected.recordValue(toMicros(completedNanos - intendedNanos));
+        service.recordValue(toMicros(completedNanos - sentNanos));
+        completed.increment();
+    }
+
+    /**
+     * Fehler (Status >= 400, Timeout, Verbindungsfehler) zählen mit ihrer Latenz ebenfalls in die Verteilung.
+     */
+    public void recordFailure(long intendedNanos, long sentNanos, long completedNanos) {
+        corrected.recordValue(toMicros(completedNanos - intendedNanos));
+        service.recordValue(toMicros(completedNanos - sentNanos));
+        failed.increment();
+    }
+
+    /**
+     * Wegen max-in-flight nie gesendete Requests zählen als Fehler mit dem Timeout (ab geplantem Zeitpunkt)
+     * in corrected, sonst sähen die Perzentile gerade dann gesund aus, wenn der Server nicht mehr antwortet.
+     * In service fehlen sie, weil nichts gesendet wurde.
+     */
+    public void recordDropped(long intendedNanos, long droppedNanos, long timeoutNanos) {
+        corrected.recordValue(toMicros(droppedNanos + timeoutNanos - intendedNanos));
+        dropped.increment();
+    }
+
+    /**
+     * Gibt einen Zwischenbericht über das letzte Intervall aus.
+     */
+    public synchronized void printInterval(long nowNanos, long elapsedSeconds) {
+        correctedInterval = corrected.getIntervalHistogram(correctedInterval);
+        serviceInterval = service.getIntervalHistogram(serviceInterval);
+        correctedTotal.add(correctedInterval);
+        serviceTotal.add(serviceInterval);
+
+        long done = completed.sum() + failed.sum();
+        double seconds = (nowNanos - intervalStartNanos) / 1e9;
+        double throughput = seconds > 0 ? (done - intervalCompleted) / seconds : 0;
+        intervalCompleted = done;
+        intervalStartNanos = nowNanos;
+
+        out.printf("[%4ds] %8.1f req/s | p50 %8.2f ms | p99 %8.2f ms | p99.9 %8.2f ms | max %8.2f ms | errors %d, dropped %d%n",
+                elapsedSeconds, throughput,
+                millis(correctedInterval, 50), millis(correctedInterval, 99), millis(correctedInterval, 99.9),
+                correctedInterval.getMaxValue() / 1000.0,
+                failed.sum(), dropped.sum());
+
+        if (logWriter != null) {
+            logWriter.outputIntervalHistogram(correctedInterval);
+        }
+    }
+
+    /**
+     * Schlussbericht über die gesamte Messphase.
+     */
+    public synchronized void printSummary(long nowNanos, long elapsedSeconds, double targetRate, long measuredNanos) {
+        printInterval(nowNanos, elapsedSeconds);
+
+        long done = completed.sum();
+        double seconds = measuredNanos / 1e9;
+
+        out.println();
+        out.println("=".repeat(80));
+        out.printf("  Target rate:      %.1f req/s%n", targetRate);
+        out.printf("  Achieved:         %.1f req/s (%d ok, %d errors, %d dropped in %.1fs)%n",
+                seconds > 0 ? done / seconds : 0, done, failed.sum(), dropped.sum(), seconds);
+        out.println("-".repeat(80));
+        out.println("  Latency (ms)        p50        p90        p99      p99.9        max");
+        printRow("corrected", correctedTotal);
+        printRow("service", serviceTotal);
+        out.println("=".repeat(80));
+        out.println("  corrected = ab geplantem Sendezeitpunkt (maßgeblich), service = ab tatsächlichem Senden");
+        if (dropped.sum() > 0) {
+            out.printf("  WARNUNG: %d Requests wegen max-in-flight verworfen (in corrected mit Timeout gezählt),"
+                    + " Ergebnis nicht belastbar%n", dropped.sum());
+        }
+    }
+
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public synchronized Histogram correctedHistogram() {
+        return correctedTotal.copy();
+    }
+
+    public synchronized void close() {
+        if (logWriter != null) {
+            logWriter.close();
+        }
+    }
+
+    private void printRow(String label, Histogram histogram) {
+        out.printf("  %-12s %10.2f %10.2f %10.2f %10.2f %10.2f%n", label,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
@@ -0,0 +1,178 @@
+package vsp.loadgen;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-Loop-Lastgenerator für externalRest.
+ *
+ * Requests werden zu festen Zeitpunkten (start + i / rate) gesendet, unabhängig davon,
+ * ob vorherige Antworten schon da sind. Die Latenz wird ab dem geplanten Zeitpunkt gemessen,
+ * damit ein langsamer Server nicht die eigene Messung "verlangsamt" (Coordinated Omission).
+ */
+public class LoadGenerator {
+
+    private final LoadOptions options;
+    private final HttpClient httpClient;
+    private final ExecutorService callbackExecutor;
+    private final LatencyReport report;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Random random = new Random(42);
+
+    public LoadGenerator(LoadOptions options, LatencyReport report) {
+        this.options = options;
+        this.report = report;
+        this.callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(options.timeout())
+                .executor(callbackExecutor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.print(LoadOptions.USAGE);
+            return;
+        }
+
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LatencyReport report = new LatencyReport(System.out, options.histogramLog());
+        try {
+            new LoadGenerator(options, report).run();
+        } finally {
+            report.close();
+        }
+        // verworfene Requests machen den Lauf ungültig, auch wenn die Perzentile gut aussehen
+        if (report.droppedCount() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Führt Warmup und Messphase aus und gibt danach den Schlussbericht aus.
+     */
+    public void run() throws InterruptedException {
+        double intervalNanos = 1_000_000_000.0 / options.rate();
+        long warmupNanos = options.warmup().toNanos();
+        long measureNanos = options.duration().toNanos();
+
+        System.out.printf("Load: %.1f req/s against %s%s for %ds (+%ds warmup), %d addresses in mix%n",
+                options.rate(), options.target(), options.path(),
+                options.duration().toSeconds(), options.warmup().toSeconds(), options.mix().size());
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStart = start + warmupNanos;
+        long end = measureStart + measureNanos;
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long reportNanos = options.reportInterval().toNanos();
+        reporter.scheduleAtFixedRate(
+                () -> report.printInterval(System.nanoTime(),
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - measureStart)),
+                measureStart - System.nanoTime() + reportNanos, reportNanos, TimeUnit.NANOSECONDS);
+
+        boolean measuring = false;
+        try {
+            for (long i = 0; ; i++) {
+                // aus i berechnet statt aufsummiert, damit sich Rundungsfehler nicht aufaddieren
+                long intended = start + (long) (i * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                if (!measuring && intended >= measureStart) {
+                    report.start(System.nanoTime());
+                    measuring = true;
+                }
+                sleepUntil(intended);
+                send(intended);
+            }
+        } finally {
+            reporter.shutdownNow();
+        }
+
+        awaitInFlight(options.timeout().plusSeconds(1));
+        long now = System.nanoTime();
+        report.printSummary(now, TimeUnit.NANOSECONDS.toSeconds(now - measureStart), options.rate(), measureNanos);
+        callbackExecutor.shutdownNow();
+    }
+
+    private void send(long intendedNanos) {
+        if (inFlight.incrementAndGet() > options.maxInFlight()) {
+            // Schutz vor unbegrenztem Speicherverbrauch, wenn der Server gar nicht mehr antwortet
+            inFlight.decrementAndGet();
+            report.recordDropped(intendedNanos, System.nanoTime(), options.timeout().toNanos());
+            return;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(options.target() + resolvePath()))
+                .timeout(options.timeout())
+                .GET()
+                .build();
+
+        long sentNanos = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long completedNanos = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (error == null && response.statusCode() < 400) {
+                        report.recordSuccess(intendedNanos, sentNanos, completedNanos);
+                    } else {
+                        report.recordFailure(intendedNanos, sentNanos, completedNanos);
+                    }
+                });
+    }
+
+    private String resolvePath() {
+        String path = options.path();
+        if (!path.contains("{address}")) {
+            return path;
+        }
+        String address = options.mix().next(random);
+        return path.replace("{address}", URLEncoder.encode(address, StandardCharsets.UTF_8));
+    }
+
+    private void awaitInFlight(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Wartet bis zum geplanten Zeitpunkt. Liegt er schon in der Vergangenheit (Generator hinkt hinterher),
+     * wird sofort gesendet; die Verspätung steckt dann in der korrigierten Latenz.
+     */
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
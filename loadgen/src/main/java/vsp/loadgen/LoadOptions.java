@@ -0,0 +1,112 @@
+package vsp.loadgen;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Kommandozeilen-Optionen des Lastgenerators.
+ *
+ * @param target Basis-URL von externalRest
+ * @param path Pfad inkl. Query; "{address}" wird durch eine (URL-kodierte) Adresse aus dem Mix ersetzt
+ * @param rate Ankunftsrate in Requests pro Sekunde (unabhängig von den Antwortzeiten)
+ * @param duration Messdauer (ohne Warmup)
+ * @param warmup Vorlauf, der nicht in die Auswertung eingeht
+ * @param timeout Timeout pro Request
+ * @param reportInterval Intervall der Zwischenberichte
+ * @param maxInFlight Obergrenze offener Requests; darüber wird ein Request als "dropped" gezählt
+ *                    (mit dem Timeout als Latenz, der Lauf endet dann mit Exit-Code 1)
+ * @param mix Adress-Mischung
+ * @param histogramLog optionale Datei für das HdrHistogram-Log (.hlog), null = aus
+ */
+public record LoadOptions(
+        String target,
+        String path,
+        double rate,
+        Duration duration,
+        Duration warmup,
+        Duration timeout,
+        Duration reportInterval,
+        int maxInFlight,
+        AddressMix mix,
+        Path histogramLog
+) {
+
+    public static final String USAGE = """
+            Usage: loadgen [options]
+              --target <url>          Basis-URL von externalRest (default http://localhost:8081)
+              --path <path>           Pfad, {address} = Adresse aus dem Mix (default /api/location?address={address})
+              --rate <n>              Requests pro Sekunde, open loop (default 100)
+              --duration <d>          Messdauer, z.B. 60s, 2m (default 60s)
+              --warmup <d>            Warmup ohne Auswertung (default 10s)
+              --timeout <d>           Timeout pro Request (default 10s)
+              --report-interval <d>   Zwischenberichte (default 5s)
+              --max-in-flight <n>     Obergrenze offener Requests (default 10000)
+              --mix <entries>         Adressen "Straße Nr;Gewicht", getrennt durch Komma
+              --mix-file <file>       Adressen aus Datei, eine pro Zeile
+              --hlog <file>           Intervall-Histogramme als HdrHistogram-Log schreiben
+            """;
+
+    public static LoadOptions parse(String[] args) throws Exception {
+        String target = "http://localhost:8081";
+        String path = "/api/location?address={address}";
+        double rate = 100;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration timeout = Duration.ofSeconds(10);
+        Duration reportInterval = Duration.ofSeconds(5);
+        int maxInFlight = 10_000;
+        AddressMix mix = AddressMix.defaultMix();
+        Path histogramLog = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--target" -> target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--path" -> path = value.startsWith("/") ? value : "/" + value;
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--duration" -> duration = parseDuration(value);
+                case "--warmup" -> warmup = parseDuration(value);
+                case "--timeout" -> timeout = parseDuration(value);
+                case "--report-interval" -> reportInterval = parseDuration(value);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "--mix" -> mix = AddressMix.parse(value);
+                case "--mix-file" -> mix = AddressMix.fromFile(Path.of(value));
+                case "--hlog" -> histogramLog = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("max-in-flight must be positive: " + maxInFlight);
+        }
+        return new LoadOptions(target, path, rate, duration, warmup, timeout, reportInterval,
+                maxInFlight, mix, histogramLog);
+    }
+
+    /**
+     * Parst Dauern wie "500ms", "30s", "2m" oder ISO-8601 ("PT30S").
+     */
+    public static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.startsWith("pt")) {
+            return Duration.parse(v.toUpperCase());
+        }
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
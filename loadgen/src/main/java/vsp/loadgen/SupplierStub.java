@@ -0,0 +1,184 @@
+package vsp.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stub für die externen Supplier (Nominatim /search, Geofox /checkName und /departureList),
+ * damit Lasttests weder die echten APIs belasten noch von deren Rate-Limits abhängen.
+ *
+ * Latenz: Basislatenz mit Jitter, mit kleiner Wahrscheinlichkeit ein "Tail"-Ausreißer.
+ * Optionen: --port, --nominatim-latency-ms, --geofox-latency-ms, --tail-probability, --tail-latency-ms
+ */
+public class SupplierStub {
+
+    private static final Pattern STATION_ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int STATIONS = 20;
+    private static final String[] LINES = {
+            "U1", "U2", "U3", "S1", "S3", "5", "6", "25", "M5", "X35"
+    };
+
+    private final int nominatimLatencyMs;
+    private final int geofoxLatencyMs;
+    private final double tailProbability;
+    private final int tailLatencyMs;
+    private final String checkNameResponse;
+
+    public SupplierStub(int nominatimLatencyMs, int geofoxLatencyMs, double tailProbability, int tailLatencyMs) {
+        this.nominatimLatencyMs = nominatimLatencyMs;
+        this.geofoxLatencyMs = geofoxLatencyMs;
+        this.tailProbability = tailProbability;
+        this.tailLatencyMs = tailLatencyMs;
+        this.checkNameResponse = buildCheckNameResponse();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8089;
+        int nominatimLatency = 80;
+        int geofoxLatency = 120;
+        double tailProbability = 0.02;
+        int tailLatency = 1500;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--nominatim-latency-ms" -> nominatimLatency = Integer.parseInt(args[i + 1]);
+                case "--geofox-latency-ms" -> geofoxLatency = Integer.parseInt(args[i + 1]);
+                case "--tail-probability" -> tailProbability = Double.parseDouble(args[i + 1]);
+                case "--tail-latency-ms" -> tailLatency = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        new SupplierStub(nominatimLatency, geofoxLatency, tailProbability, tailLatency).start(port);
+        System.out.printf("SupplierStub listening on :%d (nominatim %dms, geofox %dms, tail %.1f%% @ %dms)%n",
+                port, nominatimLatency, geofoxLatency, tailProbability * 100, tailLatency);
+    }
+
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/search", this::handleSearch);
+        server.createContext("/gti/public/checkName", this::handleCheckName);
+        server.createContext("/gti/public/departureList", this::handleDepartureList);
+        server.createContext("/health", exchange -> respond(exchange, "OK"));
+        // Virtuelle Threads: simulierte Latenz blockiert keine Plattform-Threads
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+
+    /**
+     * Nominatim: Koordinaten deterministisch aus der Query, verteilt über das Hamburger Stadtgebiet.
+     */
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        String query = queryParam(exchange, "q");
+        int hash = query.hashCode();
+        double lat = 53.45 + Math.floorMod(hash, 2000) / 10000.0;
+        double lon = 9.85 + Math.floorMod(hash >>> 11, 3000) / 10000.0;
+
+        simulateLatency(nominatimLatencyMs);
+        respond(exchange, String.format(Locale.ROOT,
+                "[{\"lat\":\"%.6f\",\"lon\":\"%.6f\",\"display_name\":\"%s, Hamburg\"}]",
+                lat, lon, escape(query)));
+    }
+
+    private void handleCheckName(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        simulateLatency(geofoxLatencyMs);
+        respond(exchange, checkNameResponse);
+    }
+
+    /**
+     * Geofox /departureList: Abfahrten für genau die angefragten Station-IDs.
+     */
+    private void handleDepartureList(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        List<String> stationIds = new ArrayList<>();
+        Matcher matcher = STATION_ID.matcher(body);
+        while (matcher.find()) {
+            stationIds.add(matcher.group(1));
+        }
+
+        StringBuilder json = new StringBuilder("{\"returnCode\":\"OK\",\"departures\":[");
+        int departures = stationIds.isEmpty() ? 0 : 30;
+        for (int i = 0; i < departures; i++) {
+            String line = LINES[i % LINES.length];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"line\":{\"name\":\"").append(line)
+                    .append("\",\"direction\":\"Richtung ").append((char) ('A' + i % 7)).append("\"},")
+                    .append("\"timeOffset\":").append(i * 3 % 60).append(',')
+                    .append("\"station\":{\"id\":\"").append(stationIds.get(i % stationIds.size())).append("\"}}");
+        }
+        json.append("]}");
+
+        simulateLatency(geofoxLatencyMs);
+        respond(exchange, json.toString());
+    }
+
+    private static String buildCheckNameResponse() {
+        StringBuilder json = new StringBuilder("{\"returnCode\":\"OK\",\"results\":[");
+        for (int i = 0; i < STATIONS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"Master:").append(10950 + i)
+                    .append("\",\"name\":\"Stub-Haltestelle ").append(i + 1)
+                    .append("\",\"type\":\"STATION\",\"distance\":").append(40 + i * 45).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private void simulateLatency(int baseMs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long millis = random.nextDouble() < tailProbability
+                ? tailLatencyMs
+                : (long) (baseMs * (0.5 + random.nextDouble()));
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return "";
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.loadgen.AddressMix;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressMixTest {
+
+    @Test
+    void parse_WithWeights_DistributesAccordingly() {
+        AddressMix mix = AddressMix.parse("Jungfernstieg 1;3, Reeperbahn 1;1");
+        Random random = new Random(1);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertEquals(2, mix.size());
+        double share = counts.get("Jungfernstieg 1") / 40_000.0;
+        assertEquals(0.75, share, 0.02);
+    }
+
+    @Test
+    void parse_WithoutWeight_DefaultsToOne() {
+        AddressMix mix = AddressMix.parse("# Kommentar\nJungfernstieg 1\n\nReeperbahn 1;1");
+
+        assertEquals(2, mix.size());
+    }
+
+    @Test
+    void parse_WithInvalidWeight_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> AddressMix.parse("Jungfernstieg 1;0"));
+        assertThrows(IllegalArgumentException.class, () -> AddressMix.parse("Jungfernstieg 1;x"));
+    }
+
+    @Test
+    void parse_WithEmptySpec_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> AddressMix.parse(" \n# nur Kommentar"));
+    }
+
+    @Test
+    void defaultMix_IsNotEmpty() {
+        assertTrue(AddressMix.defaultMix().size() > 0);
+    }
+}
@@ -0,0 +1,34 @@
+package vsp;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import vsp.loadgen.LatencyReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyReportTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void recordDropped_CountsTimeoutInCorrectedHistogramAndWarns() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LatencyReport report = new LatencyReport(new PrintStream(out, true, StandardCharsets.UTF_8), null);
+        report.start(0);
+
+        report.recordSuccess(0, 0, 5 * MS);
+        report.recordDropped(10 * MS, 12 * MS, 2_000 * MS);
+        report.printSummary(3_000 * MS, 3, 1, 3_000 * MS);
+
+        Histogram corrected = report.correctedHistogram();
+        assertEquals(2, corrected.getTotalCount());
+        assertTrue(corrected.getMaxValue() >= 2_000_000);
+        assertEquals(1, report.droppedCount());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("WARNUNG: 1 Requests"));
+    }
+}
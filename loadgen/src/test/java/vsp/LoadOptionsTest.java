@@ -0,0 +1,57 @@
+package vsp;
+
+import org.junit.jupiter.api.Test;
+import vsp.loadgen.LoadOptions;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadOptionsTest {
+
+    @Test
+    void parse_WithoutArgs_UsesDefaults() throws Exception {
+        LoadOptions options = LoadOptions.parse(new String[0]);
+
+        assertEquals("http://localhost:8081", options.target());
+        assertEquals("/api/location?address={address}", options.path());
+        assertEquals(100, options.rate());
+        assertEquals(Duration.ofSeconds(60), options.duration());
+        assertNull(options.histogramLog());
+    }
+
+    @Test
+    void parse_WithArgs_OverridesDefaults() throws Exception {
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--target", "http://externalrest:8081/",
+                "--path", "api/status",
+                "--rate", "250",
+                "--duration", "2m",
+                "--warmup", "500ms",
+                "--mix", "Jungfernstieg 1;2,Reeperbahn 1"
+        });
+
+        assertEquals("http://externalrest:8081", options.target());
+        assertEquals("/api/status", options.path());
+        assertEquals(250, options.rate());
+        assertEquals(Duration.ofMinutes(2), options.duration());
+        assertEquals(Duration.ofMillis(500), options.warmup());
+        assertEquals(2, options.mix().size());
+    }
+
+    @Test
+    void parse_WithUnknownOrIncompleteOption_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--foo", "1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--rate"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--rate", "0"}));
+    }
+
+    @Test
+    void parseDuration_SupportsUnitsAndIso() {
+        assertEquals(Duration.ofMillis(250), LoadOptions.parseDuration("250ms"));
+        assertEquals(Duration.ofSeconds(30), LoadOptions.parseDuration("30s"));
+        assertEquals(Duration.ofMinutes(5), LoadOptions.parseDuration("5m"));
+        assertEquals(Duration.ofSeconds(45), LoadOptions.parseDuration("PT45S"));
+        assertEquals(Duration.ofSeconds(10), LoadOptions.parseDuration("10"));
+    }
+}
@@ -1,10 +1,18 @@
 package vsp;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import vsp.app.LocationhandlerApplicationConfig;
 import vsp.client.GeocodingClient;
 import vsp.client.TransportplanClient;
+import vsp.grpc.DeadlineBudget;
+
+import java.util.UUID;
 
 /**
  * Controller für den Locationhandler (MC-Pattern).
@@ -19,14 +27,32 @@ public class LocationController {
     private final LocationModel model;
     private final GeocodingClient geocodingClient;
     private final TransportplanClient transportplanClient;
+    private final long geocodingTimeoutMs;
+    private final Counter deadlineExceeded;
 
     public LocationController(
             LocationModel model,
             GeocodingClient geocodingClient,
             TransportplanClient transportplanClient) {
+        this(model, geocodingClient, transportplanClient,
+                new LocationhandlerApplicationConfig(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public LocationController(
+            LocationModel model,
+            GeocodingClient geocodingClient,
+            TransportplanClient transportplanClient,
+            LocationhandlerApplicationConfig config,
+            MeterRegistry registry) {
         this.model = model;
         this.geocodingClient = geocodingClient;
         this.transportplanClient = transportplanClient;
+        this.geocodingTimeoutMs = config.getDeadline().getGeocodingTimeoutMs();
+        this.deadlineExceeded = Counter.builder("vsp.deadline.exceeded")
+                .description("Requests, deren Deadline in dieser Stufe abgelaufen ist")
+                .tag("stage", "locationhandler")
+                .register(registry);
     }
 
     /**
@@ -36,29 +62,76 @@ public class LocationController {
      * @param address Die Address mit Straße, Hausnummer und Stadt
      */
     public void onResolveLocationRequest(Address address) {
+        onResolveLocationRequest(address, null, null);
+    }
 
-        log.info("Locationhandler received address: {} {}, {}",
+    /**
+     * ENTRY POINT mit RequestMeta-Feldern des DisplayManagers.
+     *
+     * @param correlationId Correlation-ID für Tracing (optional, wird generiert falls null)
+     * @param sessionId Session-ID des DisplayManagers (optional), wird an den Transportplan weitergereicht
+     */
+    public void onResolveLocationRequest(Address address, String correlationId, String sessionId) {
+        onResolveLocationRequest(address, correlationId, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * ENTRY POINT mit Latenzbudget: ist es abgelaufen, wird weder geocodiert noch weitergeleitet.
+     *
+     * @param budget Deadline aus RequestMeta, wird unverändert an den Transportplan weitergegeben
+     */
+    public void onResolveLocationRequest(Address address, String correlationId, String sessionId,
+                                         DeadlineBudget budget) {
+        if (correlationId == null || correlationId.isEmpty()) {
+            correlationId = UUID.randomUUID().toString();
+        }
+
+        log.info("[{}] Locationhandler received address: {} {}, {}", correlationId,
                 address.getStreet(), address.getHouseNumber(), address.getCity());
 
-        // 1. Address im Model speichern
-        model.saveAddress(address);
+        // 1. Request-Kontext anlegen (statt Adresse in einem gemeinsamen Bean zu speichern)
+        LocationRequest request = LocationRequest.received(correlationId, sessionId, address);
+
+        if (budget.isExpired()) {
+            log.warn("[{}] Deadline exceeded before geocoding, dropping request", correlationId);
+            deadlineExceeded.increment();
+            model.record(request.withError("deadline exceeded"));
+            return;
+        }
 
-        // 2. Geocoding via GeocodingClient (calls externalRest -> Nominatim)
+        // 2. Geocoding via GeocodingClient (calls externalRest -> Nominatim), höchstens bis zur Deadline
         try {
-            Coordinates coordinates = geocodingClient.getCoordinatesForAddress(address);
-            log.info("Geocoding successful: {} {} -> (lat={}, lon={})",
+            Coordinates coordinates = geocodingClient.getCoordinatesForAddress(address,
+                    budget.cap(geocodingTimeoutMs));
+            log.info("[{}] Geocoding successful: {} {} -> (lat={}, lon={})", correlationId,
                     address.getStreet(), address.getHouseNumber(),
                     coordinates.getLatitude(), coordinates.getLongitude());
 
-            // 3. Coordinates im Model speichern
-            model.saveCoordinates(coordinates);
+            // 3. Coordinates am Request-Kontext ablegen
+            request = request.withCoordinates(coordinates);
 
-            // 4. Weiterleitung an Transportplan via gRPC
-            sendCoordinatesToTransportplan(coordinates);
+            // 4. Weiterleitung an Transportplan via gRPC, nur solange das Ergebnis noch rechtzeitig ankommen kann
+            if (budget.isExpired()) {
+                log.warn("[{}] Deadline exceeded after geocoding, not forwarding", correlationId);
+                deadlineExceeded.increment();
+                model.record(request.withError("deadline exceeded"));
+                return;
+            }
+            sendCoordinatesToTransportplan(request, budget);
+            model.record(request);
 
+        } catch (GeocodingClient.GeocodingException e) {
+            if (e.isDeadlineExceeded()) {
+                deadlineExceeded.increment();
+            }
+            log.error("[{}] Geocoding failed for address: {} {}", correlationId,
+                    address.getStreet(), address.getHouseNumber(), e);
+            model.record(request.withError(e.getMessage()));
+            throw new RuntimeException("Geocoding failed: " + e.getMessage(), e);
         } catch (Exception e) {
-            log.error("Geocoding failed for address: {} {}",
+            log.error("[{}] Geocoding failed for address: {} {}", correlationId,
                     address.getStreet(), address.getHouseNumber(), e);
+            model.record(request.withError(e.getMessage()));
             throw new RuntimeException("Geocoding failed: " + e.getMessage(), e);
         }
     }
@@ -66,7 +139,8 @@ public class LocationController {
     /**
      * Sendet Coordinates an den Transportplan via gRPC (asynchron).
      */
-    private void sendCoordinatesToTransportplan(Coordinates coordinates) {
-        transportplanClient.sendCoordinates(coordinates);
+    private void sendCoordinatesToTransportplan(LocationRequest request, DeadlineBudget budget) {
+        transportplanClient.sendCoordinates(request.coordinates(), request.correlationId(), request.sessionId(),
+                budget);
     }
 }
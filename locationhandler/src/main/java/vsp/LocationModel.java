@@ -2,64 +2,58 @@ package vsp;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import vsp.app.LocationhandlerApplicationConfig;
+import vsp.grpc.RecentResults;
+
+import java.util.List;
 
 /**
  * Model für den Locationhandler (MC-Pattern).
- * Speichert Address und Coordinates Daten.
+ * Hält keinen Zustand pro Request mehr (siehe LocationRequest), sondern nur die zuletzt
+ * abgeschlossenen Requests in einem begrenzten Ringpuffer zur Diagnose.
  */
 @Component
 public class LocationModel {
 
     private static final Logger log = LoggerFactory.getLogger(LocationModel.class);
 
-    private Address address;
-    private Coordinates coordinates;
+    private final RecentResults<LocationRequest> recent;
 
-    /**
-     * Speichert die Adresse.
-     */
-    public void saveAddress(Address address) {
-        this.address = address;
-        log.debug("Address saved: {} {}", address.getStreet(), address.getHouseNumber());
+    public LocationModel() {
+        this(new LocationhandlerApplicationConfig.Diagnostics().getRecentResults());
     }
 
-    /**
-     * Speichert die aufgelösten Koordinaten.
-     */
-    public void saveCoordinates(Coordinates coordinates) {
-        this.coordinates = coordinates;
-        log.debug("Coordinates saved: lat={}, lon={}",
-                coordinates.getLatitude(), coordinates.getLongitude());
+    @Autowired
+    public LocationModel(LocationhandlerApplicationConfig config) {
+        this(config.getDiagnostics().getRecentResults());
     }
 
-    /**
-     * Gibt die gespeicherte Adresse zurück.
-     */
-    public Address getAddress() {
-        return address;
+    public LocationModel(int capacity) {
+        this.recent = new RecentResults<>(capacity);
     }
 
     /**
-     * Gibt die gespeicherten Koordinaten zurück.
+     * Legt einen abgeschlossenen (oder fehlgeschlagenen) Request im Ringpuffer ab.
      */
-    public Coordinates getCoordinates() {
-        return coordinates;
+    public void record(LocationRequest request) {
+        recent.add(request.correlationId(), request);
+        log.debug("[{}] LocationRequest recorded: coordinates={}, error={}",
+                request.correlationId(), request.hasCoordinates(), request.error());
     }
 
     /**
-     * Prüft, ob Koordinaten vorhanden sind.
+     * Gibt den zuletzt abgelegten Request zur Correlation-ID zurück, null wenn nicht (mehr) im Puffer.
      */
-    public boolean hasCoordinates() {
-        return coordinates != null;
+    public LocationRequest find(String correlationId) {
+        return recent.find(correlationId);
     }
 
     /**
-     * Setzt den Model-Zustand zurück.
+     * Gibt die Requests im Puffer zurück, neuester zuerst.
      */
-    public void reset() {
-        this.address = null;
-        this.coordinates = null;
-        log.debug("LocationModel reset");
+    public List<LocationRequest> recent() {
+        return recent.snapshot();
     }
 }
@@ -0,0 +1,33 @@
+package vsp;
+
+import java.time.Instant;
+
+/**
+ * Zustand eines einzelnen Requests durch den Locationhandler.
+ *
+ * Wird pro Aufruf erzeugt und durch die Pipeline gereicht, statt Adresse und Koordinaten in einem
+ * gemeinsamen Bean abzulegen; unveränderlich, jeder Schritt liefert eine neue Instanz.
+ */
+public record LocationRequest(String correlationId,
+                              String sessionId,
+                              Address address,
+                              Coordinates coordinates,
+                              String error,
+                              Instant receivedAt) {
+
+    public static LocationRequest received(String correlationId, String sessionId, Address address) {
+        return new LocationRequest(correlationId, sessionId, address, null, null, Instant.now());
+    }
+
+    public LocationRequest withCoordinates(Coordinates coordinates) {
+        return new LocationRequest(correlationId, sessionId, address, coordinates, error, receivedAt);
+    }
+
+    public LocationRequest withError(String error) {
+        return new LocationRequest(correlationId, sessionId, address, coordinates, error, receivedAt);
+    }
+
+    public boolean hasCoordinates() {
+        return coordinates != null;
+    }
+}
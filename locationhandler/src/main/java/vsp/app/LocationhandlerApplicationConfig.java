@@ -14,4 +14,35 @@ public class LocationhandlerApplicationConfig {
     // gRPC client configuration is handled by grpc-client-spring-boot-starter
     // via application.properties (grpc.client.externalrest.* and grpc.client.transportplan.*)
 
+    private Diagnostics diagnostics = new Diagnostics();
+    private Deadline deadline = new Deadline();
+
+    /**
+     * Diagnose (vsp.diagnostics.*).
+     */
+    public static class Diagnostics {
+        // Anzahl zuletzt abgeschlossener Requests im Ringpuffer des LocationModels (0 = aus)
+        private int recentResults = 256;
+
+        public int getRecentResults() { return recentResults; }
+        public void setRecentResults(int recentResults) { this.recentResults = recentResults; }
+    }
+
+    /**
+     * Deadlines (vsp.deadline.*): Obergrenze pro Stufe, zusätzlich zum Budget aus RequestMeta.
+     */
+    public static class Deadline {
+        // Timeout des Geocoding-Calls an externalRest, auch ohne Budget im Request
+        private long geocodingTimeoutMs = 3000;
+
+        public long getGeocodingTimeoutMs() { return geocodingTimeoutMs; }
+        public void setGeocodingTimeoutMs(long timeoutMs) { this.geocodingTimeoutMs = timeoutMs; }
+    }
+
+    // Getter
+    public Diagnostics getDiagnostics() { return diagnostics; }
+    public void setDiagnostics(Diagnostics diagnostics) { this.diagnostics = diagnostics; }
+
+    public Deadline getDeadline() { return deadline; }
+    public void setDeadline(Deadline deadline) { this.deadline = deadline; }
 }
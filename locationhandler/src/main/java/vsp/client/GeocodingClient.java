@@ -1,11 +1,13 @@
 package vsp.client;
 
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
 
 import java.util.UUID;
 
@@ -29,6 +31,16 @@ public class GeocodingClient {
      * @throws GeocodingException wenn die Adresse nicht gefunden wird
      */
     public Coordinates getCoordinatesForAddress(Address address) {
+        return getCoordinatesForAddress(address, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Ermittelt Coordinates mit dem (Rest-)Budget des Requests als Call-Deadline.
+     *
+     * @param budget Deadline des Calls, bereits auf das Timeout dieser Stufe gekappt
+     * @throws GeocodingException wenn die Adresse nicht gefunden wird oder die Deadline abläuft
+     */
+    public Coordinates getCoordinatesForAddress(Address address, DeadlineBudget budget) {
         String correlationId = UUID.randomUUID().toString();
 
         log.debug("[{}] Geocoding address via externalRest: {} {}",
@@ -43,7 +55,7 @@ public class GeocodingClient {
                 .build();
 
         try {
-            GeocodeResponse response = geocodingStub.geocode(request);
+            GeocodeResponse response = budget.applyTo(geocodingStub).geocode(request);
 
             if (response.hasError()) {
                 ErrorStatus error = response.getError();
@@ -60,13 +72,25 @@ public class GeocodingClient {
 
         } catch (StatusRuntimeException e) {
             log.error("[{}] gRPC error calling GeocodingService: {}", correlationId, e.getStatus());
+            if (e.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                throw new GeocodingException("Geocoding deadline exceeded", true);
+            }
             throw new GeocodingException("Geocoding service unavailable: " + e.getStatus().getDescription());
         }
     }
 
     public static class GeocodingException extends RuntimeException {
+        private final boolean deadlineExceeded;
+
         public GeocodingException(String message) {
+            this(message, false);
+        }
+
+        public GeocodingException(String message, boolean deadlineExceeded) {
             super(message);
+            this.deadlineExceeded = deadlineExceeded;
         }
+
+        public boolean isDeadlineExceeded() { return deadlineExceeded; }
     }
 }
@@ -2,13 +2,21 @@ package vsp.client;
 
 import io.grpc.Context;
 import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
+import vsp.grpc.Outbox;
+import vsp.grpc.OutboxConfig;
 
+import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * gRPC Client für den TransportplanIngress Service.
@@ -22,6 +30,26 @@ public class TransportplanClient {
     @GrpcClient("transportplan")
     private TransportplanIngressGrpc.TransportplanIngressStub asyncStub;
 
+    @Autowired(required = false)
+    private OutboxConfig outboxConfig;
+
+    // null = direkter Send ohne Zustellgarantie
+    private Outbox<GetDeparturesRequest> outbox;
+
+    @PostConstruct
+    void openOutbox() throws IOException {
+        if (outboxConfig != null && outboxConfig.isEnabled()) {
+            outbox = Outbox.open("transportplan", outboxConfig, GetDeparturesRequest.parser(), this::deliver);
+        }
+    }
+
+    @PreDestroy
+    void closeOutbox() {
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
     /**
      * Sendet Coordinates an Transportplan (ASYNCHRON).
      * Fire-and-Forget: Wartet NICHT auf Antwort, kehrt sofort zurück.
@@ -39,6 +67,27 @@ public class TransportplanClient {
      * @param correlationId Correlation-ID für Tracing (optional, wird generiert falls null)
      */
     public void sendCoordinates(Coordinates coordinates, String correlationId) {
+        sendCoordinates(coordinates, correlationId, null);
+    }
+
+    /**
+     * Sendet Coordinates an Transportplan (ASYNCHRON).
+     *
+     * @param coordinates Die Koordinaten für die Abfahrtssuche
+     * @param correlationId Correlation-ID für Tracing (optional, wird generiert falls null)
+     * @param sessionId Session-ID des DisplayManagers (optional), wird mit den Abfahrten zurückgegeben
+     */
+    public void sendCoordinates(Coordinates coordinates, String correlationId, String sessionId) {
+        sendCoordinates(coordinates, correlationId, sessionId, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Sendet Coordinates an Transportplan (ASYNCHRON) mit dem Latenzbudget des ursprünglichen Requests.
+     *
+     * @param budget Deadline, geht in RequestMeta an den Transportplan mit
+     */
+    public void sendCoordinates(Coordinates coordinates, String correlationId, String sessionId,
+                                DeadlineBudget budget) {
         if (correlationId == null || correlationId.isEmpty()) {
             correlationId = UUID.randomUUID().toString();
         }
@@ -49,38 +98,26 @@ public class TransportplanClient {
                 finalCorrelationId, coordinates.getLatitude(), coordinates.getLongitude());
 
         try {
+            RequestMeta.Builder meta = RequestMeta.newBuilder()
+                    .setCorrelationId(finalCorrelationId)
+                    .setCaller("locationhandler");
+            if (sessionId != null && !sessionId.isEmpty()) {
+                meta.setSessionId(sessionId);
+            }
+
             GetDeparturesRequest request = GetDeparturesRequest.newBuilder()
-                    .setMeta(RequestMeta.newBuilder()
-                            .setCorrelationId(finalCorrelationId)
-                            .setCaller("locationhandler")
-                            .build())
+                    .setMeta(budget.applyTo(meta).build())
                     .setCoordinates(coordinates)
                     .build();
 
-            // Fork context to prevent cancellation when parent gRPC call completes
-            Context forkedContext = Context.current().fork();
-
-            // Run async call in forked context
-            forkedContext.run(() -> {
-                asyncStub.getDepartures(request, new StreamObserver<Ack>() {
-                    @Override
-                    public void onNext(Ack ack) {
-                        log.info("[{}] Transportplan acknowledged request at: {}",
-                                finalCorrelationId,
-                                ack.hasAcceptedAt() ? ack.getAcceptedAt().getSeconds() : "N/A");
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        log.error("[{}] Error calling Transportplan: {}", finalCorrelationId, t.getMessage());
-                    }
-
-                    @Override
-                    public void onCompleted() {
-                        log.debug("[{}] Transportplan call completed", finalCorrelationId);
-                    }
-                });
-            });
+            if (outbox != null) {
+                // dauerhaft ablegen, Zustellung und Retries übernimmt die Outbox
+                outbox.enqueue(request);
+                log.debug("[{}] Request queued in outbox", finalCorrelationId);
+                return;
+            }
+
+            deliver(request);
 
             log.debug("[{}] Request sent to Transportplan, continuing without waiting",
                     finalCorrelationId);
@@ -89,4 +126,46 @@ public class TransportplanClient {
             log.error("[{}] Error sending coordinates to Transportplan", finalCorrelationId, e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Asynchroner Call an Transportplan; die Future wird mit dem Ack abgeschlossen.
+     */
+    private CompletableFuture<Ack> deliver(GetDeparturesRequest request) {
+        final String finalCorrelationId = request.getMeta().getCorrelationId();
+        DeadlineBudget budget = DeadlineBudget.fromMeta(request.getMeta());
+        if (budget.isExpired()) {
+            // z.B. nach Retries aus der Outbox: das Ergebnis käme ohnehin zu spät
+            log.warn("[{}] Deadline exceeded, not sending to Transportplan", finalCorrelationId);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Ack> result = new CompletableFuture<>();
+
+        // Fork context to prevent cancellation when parent gRPC call completes
+        Context forkedContext = Context.current().fork();
+
+        // Run async call in forked context
+        forkedContext.run(() -> {
+            budget.applyTo(asyncStub).getDepartures(request, new StreamObserver<Ack>() {
+                @Override
+                public void onNext(Ack ack) {
+                    log.info("[{}] Transportplan acknowledged request at: {}",
+                            finalCorrelationId,
+                            ack.hasAcceptedAt() ? ack.getAcceptedAt().getSeconds() : "N/A");
+                    result.complete(ack);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.error("[{}] Error calling Transportplan: {}", finalCorrelationId, t.getMessage());
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    log.debug("[{}] Transportplan call completed", finalCorrelationId);
+                }
+            });
+        });
+        return result;
+    }
+}
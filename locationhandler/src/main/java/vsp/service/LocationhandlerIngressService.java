@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
 
 import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
@@ -36,6 +37,7 @@ public class LocationhandlerIngressService extends LocationhandlerIngressGrpc.Lo
         try {
             String correlationId = request.hasMeta() ? request.getMeta().getCorrelationId() : "unknown";
             Address address = request.getAddress();
+            String sessionId = request.hasMeta() ? request.getMeta().getSessionId() : null;
 
             log.info("[{}] gRPC userPassLocation called: street={}, houseNumber={}, city={}",
                     correlationId,
@@ -61,7 +63,9 @@ public class LocationhandlerIngressService extends LocationhandlerIngressGrpc.Lo
             // Delegiere an Controller, aber in neuem Thread
             CompletableFuture.runAsync(() -> {
                 try {
-                    locationController.onResolveLocationRequest(address);
+                    locationController.onResolveLocationRequest(address,
+                            request.hasMeta() ? request.getMeta().getCorrelationId() : null, sessionId,
+                            DeadlineBudget.fromMeta(request.hasMeta() ? request.getMeta() : null));
                 } catch (Exception e) {
                     log.error("Error in async processing (ACK already sent)", e);
                 }
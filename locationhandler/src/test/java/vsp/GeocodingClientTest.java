@@ -9,6 +9,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.client.GeocodingClient;
+import vsp.grpc.DeadlineBudget;
+
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -86,4 +89,32 @@ class GeocodingClientTest {
         assertTrue(ex.getMessage().toLowerCase().contains("unavailable")
                 || ex.getMessage().toLowerCase().contains("service"));
     }
+
+    @Test
+    void getCoordinatesForAddress_WithBudget_SetsCallDeadline() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        when(geocodingStub.withDeadlineAfter(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(geocodingStub);
+        when(geocodingStub.geocode(any(GeocodeRequest.class))).thenReturn(GeocodeResponse.newBuilder()
+                .setCoordinates(Coordinates.newBuilder().setLatitude(53.5511).setLongitude(9.9937))
+                .build());
+
+        geocodingClient.getCoordinatesForAddress(address, DeadlineBudget.after(2_000));
+
+        ArgumentCaptor<Long> timeout = ArgumentCaptor.forClass(Long.class);
+        verify(geocodingStub).withDeadlineAfter(timeout.capture(), eq(TimeUnit.MILLISECONDS));
+        assertTrue(timeout.getValue() > 0 && timeout.getValue() <= 2_000);
+    }
+
+    @Test
+    void getCoordinatesForAddress_WhenDeadlineExceeded_MarksException() {
+        Address address = Address.newBuilder().setStreet("X").setHouseNumber("1").build();
+
+        when(geocodingStub.geocode(any(GeocodeRequest.class)))
+                .thenThrow(new StatusRuntimeException(Status.DEADLINE_EXCEEDED));
+
+        GeocodingClient.GeocodingException ex = assertThrows(GeocodingClient.GeocodingException.class,
+                () -> geocodingClient.getCoordinatesForAddress(address));
+
+        assertTrue(ex.isDeadlineExceeded());
+    }
 }
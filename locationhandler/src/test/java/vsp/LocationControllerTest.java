@@ -3,10 +3,18 @@ package vsp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vsp.app.LocationhandlerApplicationConfig;
 import vsp.client.GeocodingClient;
 import vsp.client.TransportplanClient;
+import vsp.grpc.DeadlineBudget;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,7 +38,7 @@ class LocationControllerTest {
     }
 
     @Test
-    void onResolveLocationRequest_WithValidAddress_SavesAndForwards() {
+    void onResolveLocationRequest_WithValidAddress_RecordsAndForwards() {
         Address address = Address.newBuilder()
                 .setStreet("Jungfernstieg")
                 .setHouseNumber("1")
@@ -42,16 +50,63 @@ class LocationControllerTest {
                 .setLongitude(9.9937)
                 .build();
 
-        when(geocodingClient.getCoordinatesForAddress(address)).thenReturn(coords);
+        when(geocodingClient.getCoordinatesForAddress(eq(address), any())).thenReturn(coords);
+
+        controller.onResolveLocationRequest(address, "cid-1", null);
+
+        LocationRequest recorded = model.find("cid-1");
+        assertNotNull(recorded);
+        assertEquals(address, recorded.address());
+        assertEquals(coords, recorded.coordinates());
+        assertTrue(recorded.hasCoordinates());
+        assertNull(recorded.error());
+
+        verify(geocodingClient, times(1)).getCoordinatesForAddress(eq(address), any());
+        verify(transportplanClient, times(1)).sendCoordinates(coords, "cid-1", null, DeadlineBudget.NONE);
+    }
+
+    @Test
+    void onResolveLocationRequest_WithoutCorrelationId_GeneratesOneForTransportplan() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.5511).setLongitude(9.9937).build();
+        when(geocodingClient.getCoordinatesForAddress(eq(address), any())).thenReturn(coords);
 
         controller.onResolveLocationRequest(address);
 
-        assertEquals(address, model.getAddress());
-        assertEquals(coords, model.getCoordinates());
-        assertTrue(model.hasCoordinates());
+        ArgumentCaptor<String> correlationId = ArgumentCaptor.forClass(String.class);
+        verify(transportplanClient).sendCoordinates(eq(coords), correlationId.capture(), isNull(), eq(DeadlineBudget.NONE));
+        assertFalse(correlationId.getValue().isEmpty());
+        assertEquals(coords, model.find(correlationId.getValue()).coordinates());
+    }
+
+    @Test
+    void onResolveLocationRequest_WithSession_ForwardsSessionToTransportplan() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.5511).setLongitude(9.9937).build();
+        when(geocodingClient.getCoordinatesForAddress(eq(address), any())).thenReturn(coords);
+
+        controller.onResolveLocationRequest(address, "cid-1", "session-1");
 
-        verify(geocodingClient, times(1)).getCoordinatesForAddress(address);
-        verify(transportplanClient, times(1)).sendCoordinates(coords);
+        verify(transportplanClient).sendCoordinates(coords, "cid-1", "session-1", DeadlineBudget.NONE);
+        assertEquals("session-1", model.find("cid-1").sessionId());
+    }
+
+    @Test
+    void onResolveLocationRequest_ConcurrentRequests_DoNotOverwriteEachOther() {
+        Address first = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        Address second = Address.newBuilder().setStreet("Hauptstraße").setHouseNumber("2").build();
+        Coordinates firstCoords = Coordinates.newBuilder().setLatitude(53.55).setLongitude(9.99).build();
+        Coordinates secondCoords = Coordinates.newBuilder().setLatitude(53.60).setLongitude(10.01).build();
+        when(geocodingClient.getCoordinatesForAddress(eq(first), any())).thenReturn(firstCoords);
+        when(geocodingClient.getCoordinatesForAddress(eq(second), any())).thenReturn(secondCoords);
+
+        controller.onResolveLocationRequest(first, "cid-1", null);
+        controller.onResolveLocationRequest(second, "cid-2", null);
+
+        assertEquals(firstCoords, model.find("cid-1").coordinates());
+        assertEquals(secondCoords, model.find("cid-2").coordinates());
+        assertEquals(2, model.recent().size());
+        assertEquals("cid-2", model.recent().get(0).correlationId());
     }
 
     @Test
@@ -62,15 +117,70 @@ class LocationControllerTest {
                 .setCity("Hamburg")
                 .build();
 
-        when(geocodingClient.getCoordinatesForAddress(address))
+        when(geocodingClient.getCoordinatesForAddress(eq(address), any()))
                 .thenThrow(new GeocodingClient.GeocodingException("not found"));
 
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> controller.onResolveLocationRequest(address));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> controller.onResolveLocationRequest(address, "cid-err", null));
         assertTrue(ex.getMessage().contains("Geocoding failed"));
 
-        assertEquals(address, model.getAddress());
-        assertNull(model.getCoordinates());
+        LocationRequest recorded = model.find("cid-err");
+        assertEquals(address, recorded.address());
+        assertNull(recorded.coordinates());
+        assertEquals("not found", recorded.error());
+
+        verify(transportplanClient, never()).sendCoordinates(any(), any(), any(), any());
+    }
 
-        verify(transportplanClient, never()).sendCoordinates(any());
+    @Test
+    void onResolveLocationRequest_WithExpiredBudget_SkipsGeocodingAndCounts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        controller = new LocationController(model, geocodingClient, transportplanClient,
+                new LocationhandlerApplicationConfig(), registry);
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        DeadlineBudget expired = DeadlineBudget.fromMeta(
+                RequestMeta.newBuilder().setDeadlineUnixMillis(1_000).build(),
+                Clock.fixed(Instant.ofEpochMilli(2_000), ZoneOffset.UTC));
+
+        controller.onResolveLocationRequest(address, "cid-late", null, expired);
+
+        verifyNoInteractions(geocodingClient, transportplanClient);
+        assertEquals("deadline exceeded", model.find("cid-late").error());
+        assertEquals(1.0, registry.get("vsp.deadline.exceeded").tag("stage", "locationhandler").counter().count());
+    }
+
+    @Test
+    void onResolveLocationRequest_WithBudget_CapsGeocodingAndForwardsBudget() {
+        LocationhandlerApplicationConfig config = new LocationhandlerApplicationConfig();
+        config.getDeadline().setGeocodingTimeoutMs(500);
+        controller = new LocationController(model, geocodingClient, transportplanClient, config,
+                new SimpleMeterRegistry());
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.5511).setLongitude(9.9937).build();
+        DeadlineBudget budget = DeadlineBudget.after(5_000);
+        ArgumentCaptor<DeadlineBudget> callBudget = ArgumentCaptor.forClass(DeadlineBudget.class);
+        when(geocodingClient.getCoordinatesForAddress(eq(address), callBudget.capture())).thenReturn(coords);
+
+        controller.onResolveLocationRequest(address, "cid-1", null, budget);
+
+        // Call-Deadline auf das Stufen-Timeout gekappt, weitergereicht wird das volle Budget
+        assertTrue(callBudget.getValue().remainingMillis() <= 500);
+        verify(transportplanClient).sendCoordinates(coords, "cid-1", null, budget);
+    }
+
+    @Test
+    void onResolveLocationRequest_WhenGeocodingDeadlineExceeded_Counts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        controller = new LocationController(model, geocodingClient, transportplanClient,
+                new LocationhandlerApplicationConfig(), registry);
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        when(geocodingClient.getCoordinatesForAddress(eq(address), any()))
+                .thenThrow(new GeocodingClient.GeocodingException("Geocoding deadline exceeded", true));
+
+        assertThrows(RuntimeException.class,
+                () -> controller.onResolveLocationRequest(address, "cid-1", null, DeadlineBudget.after(1_000)));
+
+        assertEquals(1.0, registry.get("vsp.deadline.exceeded").tag("stage", "locationhandler").counter().count());
+        verify(transportplanClient, never()).sendCoordinates(any(), any(), any(), any());
     }
 }
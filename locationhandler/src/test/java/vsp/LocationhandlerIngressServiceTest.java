@@ -9,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.LocationhandlerIngressService;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +43,7 @@ class LocationhandlerIngressServiceTest {
                 .setMeta(RequestMeta.newBuilder()
                         .setCorrelationId("cid-1")
                         .setCaller("displaymanager")
+                        .setSessionId("session-1")
                         .build())
                 .setAddress(address)
                 .build();
@@ -58,7 +60,24 @@ class LocationhandlerIngressServiceTest {
         assertTrue(ack.hasAcceptedAt());
         assertTrue(ack.getAcceptedAt().getSeconds() > 0);
 
-        verify(locationController, timeout(1000)).onResolveLocationRequest(address);
+        verify(locationController, timeout(1000)).onResolveLocationRequest(address, "cid-1", "session-1", DeadlineBudget.NONE);
+    }
+
+    @Test
+    void userPassLocation_WithDeadlineInMeta_PassesBudgetToController() {
+        Address address = Address.newBuilder().setStreet("Jungfernstieg").setHouseNumber("1").build();
+        long deadline = System.currentTimeMillis() + 5_000;
+        UserPassLocationRequest request = UserPassLocationRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId("cid-1").setDeadlineUnixMillis(deadline))
+                .setAddress(address)
+                .build();
+
+        ingressService.userPassLocation(request, responseObserver);
+
+        ArgumentCaptor<DeadlineBudget> budget = ArgumentCaptor.forClass(DeadlineBudget.class);
+        verify(locationController, timeout(1000)).onResolveLocationRequest(eq(address), eq("cid-1"), any(),
+                budget.capture());
+        assertEquals(deadline, budget.getValue().deadlineMillis());
     }
 
     @Test
@@ -74,7 +93,7 @@ class LocationhandlerIngressServiceTest {
 
         doThrow(new RuntimeException("boom"))
                 .when(locationController)
-                .onResolveLocationRequest(any(Address.class));
+                .onResolveLocationRequest(any(Address.class), any(), any(), any());
 
         ingressService.userPassLocation(request, responseObserver);
 
@@ -82,7 +101,7 @@ class LocationhandlerIngressServiceTest {
         verify(responseObserver).onCompleted();
         verify(responseObserver, never()).onError(any());
 
-        verify(locationController, timeout(1000)).onResolveLocationRequest(address);
+        verify(locationController, timeout(1000)).onResolveLocationRequest(address, null, null, DeadlineBudget.NONE);
     }
 
     @Test
@@ -8,9 +8,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import vsp.client.TransportplanClient;
+import vsp.grpc.DeadlineBudget;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,11 +46,23 @@ class TransportplanClientTest {
         assertTrue(sent.hasMeta());
         assertEquals("cid-123", sent.getMeta().getCorrelationId());
         assertEquals("locationhandler", sent.getMeta().getCaller());
+        assertEquals("", sent.getMeta().getSessionId());
         assertEquals(coords, sent.getCoordinates());
 
         assertNotNull(observerCaptor.getValue());
     }
 
+    @Test
+    void sendCoordinates_WithSessionId_SetsSessionInMeta() {
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.0).setLongitude(10.0).build();
+
+        transportplanClient.sendCoordinates(coords, "cid-123", "session-1");
+
+        ArgumentCaptor<GetDeparturesRequest> requestCaptor = ArgumentCaptor.forClass(GetDeparturesRequest.class);
+        verify(asyncStub).getDepartures(requestCaptor.capture(), any());
+        assertEquals("session-1", requestCaptor.getValue().getMeta().getSessionId());
+    }
+
     @Test
     void sendCoordinates_WhenAsyncStubThrows_DoesNotThrow() {
         Coordinates coords = Coordinates.newBuilder()
@@ -58,4 +76,28 @@ class TransportplanClientTest {
 
         assertDoesNotThrow(() -> transportplanClient.sendCoordinates(coords, "cid-err"));
     }
+
+    @Test
+    void sendCoordinates_WithBudget_PropagatesDeadlineInMetaAndCall() {
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.0).setLongitude(10.0).build();
+        DeadlineBudget budget = DeadlineBudget.after(3_000);
+        when(asyncStub.withDeadlineAfter(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(asyncStub);
+
+        transportplanClient.sendCoordinates(coords, "cid-123", null, budget);
+
+        ArgumentCaptor<GetDeparturesRequest> requestCaptor = ArgumentCaptor.forClass(GetDeparturesRequest.class);
+        verify(asyncStub).getDepartures(requestCaptor.capture(), any());
+        assertEquals(budget.deadlineMillis(), requestCaptor.getValue().getMeta().getDeadlineUnixMillis());
+        verify(asyncStub).withDeadlineAfter(longThat(ms -> ms > 0 && ms <= 3_000), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void sendCoordinates_WithExpiredBudget_DoesNotCallTransportplan() {
+        Coordinates coords = Coordinates.newBuilder().setLatitude(53.0).setLongitude(10.0).build();
+        DeadlineBudget expired = DeadlineBudget.after(1, Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+
+        transportplanClient.sendCoordinates(coords, "cid-late", null, expired);
+
+        verifyNoInteractions(asyncStub);
+    }
 }
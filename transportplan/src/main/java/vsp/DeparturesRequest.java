@@ -0,0 +1,43 @@
+package vsp;
+
+import vsp.client.DeparturesBoard;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Zustand eines einzelnen Requests durch den Transportplan.
+ *
+ * Wird pro Aufruf erzeugt und durch die Pipeline gereicht, statt Koordinaten und Abfahrten in einem
+ * gemeinsamen Bean abzulegen; unveränderlich, jeder Schritt liefert eine neue Instanz.
+ */
+public record DeparturesRequest(String correlationId,
+                                String sessionId,
+                                Coordinates coordinates,
+                                DeparturesBoard board,
+                                String error,
+                                Instant receivedAt) {
+
+    public static DeparturesRequest received(String correlationId, String sessionId, Coordinates coordinates) {
+        return new DeparturesRequest(correlationId, sessionId, coordinates, null, null, Instant.now());
+    }
+
+    public DeparturesRequest withBoard(DeparturesBoard board) {
+        return new DeparturesRequest(correlationId, sessionId, coordinates, board, error, receivedAt);
+    }
+
+    public DeparturesRequest withDepartureStations(List<DepartureStation> departureStations) {
+        return withBoard(DeparturesBoard.of(departureStations));
+    }
+
+    public DeparturesRequest withError(String error) {
+        return new DeparturesRequest(correlationId, sessionId, coordinates, board, error, receivedAt);
+    }
+
+    /**
+     * Dekodiert die Tafel bei Bedarf (Diagnose); null, solange noch keine Tafel vorliegt.
+     */
+    public List<DepartureStation> departureStations() {
+        return board == null ? null : board.stations();
+    }
+}
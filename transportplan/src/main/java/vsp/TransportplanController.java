@@ -1,18 +1,24 @@
 package vsp;
 
 import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import vsp.app.TransportplanApplicationConfig;
+import vsp.cache.Geohash;
+import vsp.cache.StationCellCache;
+import vsp.client.DeparturesBoard;
 import vsp.client.DeparturesClient;
 import vsp.client.DisplayClient;
+import vsp.grpc.DeadlineBudget;
 
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 /**
  * Controller für den Transportplan (MC-Pattern).
@@ -25,16 +31,40 @@ public class TransportplanController {
 
     private static final Logger log = LoggerFactory.getLogger(TransportplanController.class);
 
+    // Anzahl der Stationen, die auf dem Display angezeigt werden
+    private static final int MAX_STATIONS = 3;
+
     private final TransportplanModel model;
     private final DeparturesClient departuresClient;
     private final DisplayClient displayClient;
+    private final StationCellCache stationCache;
+    private final long departuresTimeoutMs;
+    private final Counter deadlineExceeded;
 
     public TransportplanController(
             TransportplanModel model,
-            DeparturesClient departuresClient,DisplayClient displayClient) {
+            DeparturesClient departuresClient,DisplayClient displayClient,
+            StationCellCache stationCache) {
+        this(model, departuresClient, displayClient, stationCache,
+                new TransportplanApplicationConfig(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public TransportplanController(
+            TransportplanModel model,
+            DeparturesClient departuresClient, DisplayClient displayClient,
+            StationCellCache stationCache,
+            TransportplanApplicationConfig config,
+            MeterRegistry registry) {
         this.model = model;
         this.departuresClient = departuresClient;
         this.displayClient = displayClient;
+        this.stationCache = stationCache;
+        this.departuresTimeoutMs = config.getDeadline().getDeparturesTimeoutMs();
+        this.deadlineExceeded = Counter.builder("vsp.deadline.exceeded")
+                .description("Requests, deren Deadline in dieser Stufe abgelaufen ist")
+                .tag("stage", "transportplan")
+                .register(registry);
         log.info("TransportplanController initialized");
     }
 
@@ -46,50 +76,100 @@ public class TransportplanController {
      * @param correlationId Die Correlation-ID für Tracing
      */
     public void onGetDeparturesRequest(Coordinates coordinates, String correlationId) {
-        log.info("Transportplan received coordinates: lat={}, lon={}, correlationId={}",
-                coordinates.getLatitude(), coordinates.getLongitude(), correlationId);
-
-        // 1. Coordinates im Model speichern
-        model.saveCoordinates(coordinates);
+        onGetDeparturesRequest(coordinates, correlationId, null);
+    }
 
-        try {
-            // 2. Stationen via DeparturesClient abrufen (calls externalRest -> Geofox)
-            List<DepartureStation> responseStations = departuresClient.getNearbyStations(coordinates,50);
+    /**
+     * ENTRY POINT mit Session-ID: die Abfahrten gehen an dieselbe Session im DisplayManager zurück.
+     *
+     * @param sessionId Session-ID des DisplayManagers (optional)
+     */
+    public void onGetDeparturesRequest(Coordinates coordinates, String correlationId, String sessionId) {
+        onGetDeparturesRequest(coordinates, correlationId, sessionId, DeadlineBudget.NONE);
+    }
 
-            log.info("ExternalRest returned {} stations with departures, correlationId={}",
-                    responseStations.size(), correlationId);
+    /**
+     * ENTRY POINT mit Latenzbudget: ist es abgelaufen, werden keine Abfahrten mehr abgefragt.
+     * Die Rückgabe an den DisplayManager ist nicht budgetiert, eine bereits geholte Tafel wird immer angezeigt.
+     *
+     * @param budget Deadline aus RequestMeta des Locationhandlers
+     */
+    public void onGetDeparturesRequest(Coordinates coordinates, String correlationId, String sessionId,
+                                       DeadlineBudget budget) {
+        log.info("Transportplan received coordinates: lat={}, lon={}, correlationId={}",
+                coordinates.getLatitude(), coordinates.getLongitude(), correlationId);
 
-            // 2.1 Nach Distanz sortieren und nur die ersten drei extrahieren
-            responseStations = responseStations.stream()
-                    .sorted(Comparator.comparingDouble(DepartureStation::getDistance))
-                    .limit(3)
-                    .collect(Collectors.toCollection(ArrayList::new));
+        // 1. Request-Kontext anlegen (statt Coordinates in einem gemeinsamen Bean zu speichern)
+        DeparturesRequest request = DeparturesRequest.received(correlationId, sessionId, coordinates);
 
+        if (budget.isExpired()) {
+            log.warn("Deadline exceeded before fetching departures, dropping request, correlationId={}",
+                    correlationId);
+            deadlineExceeded.increment();
+            model.record(request.withError("deadline exceeded"));
+            return;
+        }
 
-            // 2,5. Abfahrten für Stationen via DeparturesClient abrufen
-            List<DepartureStation> departureStations = departuresClient.getDepartures(responseStations);
+        try {
+            // 2. Die nächsten Stationen inkl. Abfahrten abrufen (calls externalRest -> Geofox), höchstens bis zur Deadline;
+            //    die Tafel bleibt serialisiert und wird ungeparst weitergereicht
+            DeparturesBoard board = fetchDepartures(coordinates, correlationId, budget.cap(departuresTimeoutMs));
 
+            log.info("ExternalRest returned departures board ({} bytes), correlationId={}",
+                    board.sizeInBytes(), correlationId);
 
-            // 3. DepartureStations im Model speichern
-            model.saveDeparturesMap(departureStations);
+            // 3. Tafel am Request-Kontext ablegen, abgeschlossenen Request für die Diagnose merken
+            request = request.withBoard(board);
+            model.record(request);
 
-            // 4. DepartureStations an DisplayClient weiterleiten (an dieser Stelle ist der async-Call im Controller, da vorher noch ein blockierender Call ausgeführt wird um die Departures zu bekommen von HVV)
+            // 4. Tafel an DisplayClient weiterleiten (an dieser Stelle ist der async-Call im Controller, da vorher noch ein blockierender Call ausgeführt wird um die Departures zu bekommen von HVV)
 
             CompletableFuture.runAsync(()-> {
                 try {
-                    displayClient.sendDeparturesToDisplayManager(departureStations, correlationId);
+                    displayClient.sendBoardToDisplayManager(board, correlationId, sessionId);
                 } catch (Exception e) {
                     log.error("Error in async processing (ACK already sent)", e);
                 }
             });
 
         } catch (Exception e) {
+            if (e instanceof DeparturesClient.DeparturesException de && de.isDeadlineExceeded()) {
+                deadlineExceeded.increment();
+            }
             log.error("Failed to fetch departures, correlationId={}", correlationId, e);
+            model.record(request.withError(e.getMessage()));
             // Leere Liste senden im Fehlerfall mit aktuellem Timestamp
-            displayClient.sendDeparturesToDisplayManager(List.of(), correlationId);
+            displayClient.sendDeparturesToDisplayManager(List.of(), correlationId, sessionId);
         }
     }
 
+    /**
+     * Holt die Abfahrten der MAX_STATIONS nächsten Stationen als serialisierte Tafel.
+     * Sind die Stationen der Geohash-Zelle bereits bekannt, werden nur noch deren Abfahrten geholt
+     * und die Tafel wird gar nicht geparst; sonst liefert der fusionierte Call Stationen und Abfahrten
+     * (Misses pro Zelle werden zusammengefasst). Gecacht wird das Ranking aus /checkName, nicht die Stationen
+     * der Tafel: dort fehlen Stationen, die gerade keine Abfahrten haben.
+     */
+    private DeparturesBoard fetchDepartures(Coordinates coordinates, String correlationId,
+                                            DeadlineBudget budget) {
+        long cell = stationCache.cellOf(coordinates);
+
+        List<DepartureStation> cachedStations = stationCache.lookup(cell);
+        if (cachedStations != null) {
+            log.debug("Station cache hit for cell {}, correlationId={}", Geohash.toString(cell), correlationId);
+            return departuresClient.getDeparturesBoard(cachedStations, budget);
+        }
+
+        log.debug("Station cache miss for cell {}, correlationId={}", Geohash.toString(cell), correlationId);
+        //    externalRest sortiert nach Distanz und liefert genau MAX_STATIONS zurück.
+        //    Der Call wird mit allen wartenden Requests geteilt: er läuft mit dem Timeout der Stufe statt mit dem
+        //    (evtl. fast abgelaufenen) Budget des ersten Aufrufers, sonst scheitern alle an dessen Deadline
+        return stationCache.loadCoalesced(cell,
+                () -> departuresClient.getNearbyDeparturesBoard(coordinates, MAX_STATIONS,
+                        DeadlineBudget.after(departuresTimeoutMs)),
+                DeparturesBoard::nearestStations);
+    }
+
 
 
 }
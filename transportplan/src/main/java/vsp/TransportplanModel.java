@@ -2,60 +2,58 @@ package vsp;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import vsp.app.TransportplanApplicationConfig;
+import vsp.grpc.RecentResults;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Model für den Transportplan (MC-Pattern).
- * Speichert die aktuellen Coordinates und DepartureStations.
+ * Hält keinen Zustand pro Request mehr (siehe DeparturesRequest), sondern nur die zuletzt
+ * abgeschlossenen Requests in einem begrenzten Ringpuffer zur Diagnose.
  */
 @Component
 public class TransportplanModel {
 
     private static final Logger log = LoggerFactory.getLogger(TransportplanModel.class);
 
-    private Coordinates coordinates;
-    private List<DepartureStation> departureStations;
+    private final RecentResults<DeparturesRequest> recent;
 
-    /**
-     * Speichert die Coordinates vom Locationhandler.
-     */
-    public void saveCoordinates(Coordinates coordinates) {
-        this.coordinates = coordinates;
-        log.debug("Coordinates saved: lat={}, lon={}",
-                coordinates.getLatitude(), coordinates.getLongitude());
+    public TransportplanModel() {
+        this(new TransportplanApplicationConfig.Diagnostics().getRecentResults());
     }
 
-    /**
-     * Gibt die gespeicherten Coordinates zurück.
-     */
-    public Coordinates getCoordinates() {
-        return coordinates;
+    @Autowired
+    public TransportplanModel(TransportplanApplicationConfig config) {
+        this(config.getDiagnostics().getRecentResults());
+    }
+
+    public TransportplanModel(int capacity) {
+        this.recent = new RecentResults<>(capacity);
     }
 
     /**
-     * Speichert die DepartureStations von der Geofox API.
+     * Legt einen abgeschlossenen (oder fehlgeschlagenen) Request im Ringpuffer ab.
      */
-    public void saveDeparturesMap(List<DepartureStation> departureStations) {
-        this.departureStations = departureStations;
-        log.debug("DepartureStations saved: {} stations", departureStations.size());
+    public void record(DeparturesRequest request) {
+        recent.add(request.correlationId(), request);
+        log.debug("[{}] DeparturesRequest recorded: board {} bytes, error={}", request.correlationId(),
+                request.board() != null ? request.board().sizeInBytes() : 0, request.error());
     }
 
     /**
-     * Gibt die gespeicherten DepartureStations zurück.
+     * Gibt den zuletzt abgelegten Request zur Correlation-ID zurück, null wenn nicht (mehr) im Puffer.
      */
-    public List<DepartureStation> getDepartureStations() {
-        return departureStations;
+    public DeparturesRequest find(String correlationId) {
+        return recent.find(correlationId);
     }
 
     /**
-     * Löscht alle gespeicherten Daten.
+     * Gibt die Requests im Puffer zurück, neuester zuerst.
      */
-    public void clear() {
-        this.coordinates = null;
-        this.departureStations = new ArrayList<>();
-        log.debug("TransportModel cleared");
+    public List<DeparturesRequest> recent() {
+        return recent.snapshot();
     }
 }
@@ -13,7 +13,110 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "vsp")
 public class TransportplanApplicationConfig {
 
-    // gRPC connections are configured in application.properties
-    // No additional config needed at this time
+    private StationCache stationCache = new StationCache();
+    private Diagnostics diagnostics = new Diagnostics();
+    private Deadline deadline = new Deadline();
+    private BoardStream boardStream = new BoardStream();
+    private BoardDelta boardDelta = new BoardDelta();
 
+    /**
+     * Cache der nächsten Stationen pro Geohash-Zelle (vsp.station-cache.*).
+     */
+    public static class StationCache {
+        private boolean enabled = true;
+        // Precision 8 entspricht einer Zelle von ca. 38m x 19m
+        private int geohashPrecision = 8;
+        private int ttlSeconds = 21600;
+        private int maxEntries = 10000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getGeohashPrecision() { return geohashPrecision; }
+        public void setGeohashPrecision(int precision) { this.geohashPrecision = precision; }
+
+        public int getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(int ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+
+        public int getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+    }
+
+    /**
+     * Diagnose (vsp.diagnostics.*).
+     */
+    public static class Diagnostics {
+        // Anzahl zuletzt abgeschlossener Requests im Ringpuffer des TransportplanModels (0 = aus)
+        private int recentResults = 256;
+
+        public int getRecentResults() { return recentResults; }
+        public void setRecentResults(int recentResults) { this.recentResults = recentResults; }
+    }
+
+    /**
+     * Deadlines (vsp.deadline.*): Obergrenze pro Stufe, zusätzlich zum Budget aus RequestMeta.
+     */
+    public static class Deadline {
+        // Timeout der Departures-Calls an externalRest, auch ohne Budget im Request
+        private long departuresTimeoutMs = 5000;
+
+        public long getDeparturesTimeoutMs() { return departuresTimeoutMs; }
+        public void setDeparturesTimeoutMs(long timeoutMs) { this.departuresTimeoutMs = timeoutMs; }
+    }
+
+    /**
+     * Board-Stream zum DisplayManager (vsp.board-stream.*).
+     */
+    public static class BoardStream {
+        // false = wie bisher ein Unary-Call pro Tafel
+        private boolean enabled = true;
+        // Tafeln, die ohne Credits bzw. Verbindung lokal warten; darüber wird die älteste verworfen
+        private int maxQueued = 256;
+        private long initialBackoffMs = 200;
+        private long maxBackoffMs = 10_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getMaxQueued() { return maxQueued; }
+        public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+
+        public long getInitialBackoffMs() { return initialBackoffMs; }
+        public void setInitialBackoffMs(long initialBackoffMs) { this.initialBackoffMs = initialBackoffMs; }
+
+        public long getMaxBackoffMs() { return maxBackoffMs; }
+        public void setMaxBackoffMs(long maxBackoffMs) { this.maxBackoffMs = maxBackoffMs; }
+    }
+
+    /**
+     * Delta-Updates an den DisplayManager (vsp.board-delta.*).
+     */
+    public static class BoardDelta {
+        // false = immer volle Tafeln
+        private boolean enabled = true;
+        // Sessions, deren letzte Tafel gehalten wird; darüber fallen die am längsten nicht genutzten heraus
+        private int maxSessions = 10000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getMaxSessions() { return maxSessions; }
+        public void setMaxSessions(int maxSessions) { this.maxSessions = maxSessions; }
+    }
+
+    // Getter
+    public StationCache getStationCache() { return stationCache; }
+    public void setStationCache(StationCache stationCache) { this.stationCache = stationCache; }
+
+    public Diagnostics getDiagnostics() { return diagnostics; }
+    public void setDiagnostics(Diagnostics diagnostics) { this.diagnostics = diagnostics; }
+
+    public Deadline getDeadline() { return deadline; }
+    public void setDeadline(Deadline deadline) { this.deadline = deadline; }
+
+    public BoardStream getBoardStream() { return boardStream; }
+    public void setBoardStream(BoardStream boardStream) { this.boardStream = boardStream; }
+
+    public BoardDelta getBoardDelta() { return boardDelta; }
+    public void setBoardDelta(BoardDelta boardDelta) { this.boardDelta = boardDelta; }
 }
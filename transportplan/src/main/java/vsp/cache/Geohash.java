@@ -0,0 +1,77 @@
+package vsp.cache;
+
+/**
+ * Geohash-Kodierung von WGS84-Koordinaten als primitiver long.
+ * Die unteren 5*precision Bits enthalten den Geohash, die oberen 4 Bits die Precision,
+ * damit Zellen unterschiedlicher Größe nie denselben Schlüssel haben.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int PRECISION_SHIFT = 60;
+    private static final long HASH_MASK = (1L << PRECISION_SHIFT) - 1;
+
+    private Geohash() {
+    }
+
+    /**
+     * Kodiert die Koordinaten in die Geohash-Zelle der gegebenen Precision.
+     *
+     * @param latitude Breitengrad in Grad (-90..90)
+     * @param longitude Längengrad in Grad (-180..180)
+     * @param precision Anzahl Geohash-Zeichen (1..12)
+     * @return Zellschlüssel, niemals 0
+     */
+    public static long encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+
+        double latMin = -90, latMax = 90;
+        double lonMin = -180, lonMax = 180;
+        long hash = 0;
+
+        // Bits abwechselnd aus Längen- und Breitengrad, beginnend mit dem Längengrad
+        int bits = precision * 5;
+        for (int i = 0; i < bits; i++) {
+            hash <<= 1;
+            if ((i & 1) == 0) {
+                double mid = (lonMin + lonMax) / 2;
+                if (longitude >= mid) {
+                    hash |= 1;
+                    lonMin = mid;
+                } else {
+                    lonMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (latitude >= mid) {
+                    hash |= 1;
+                    latMin = mid;
+                } else {
+                    latMax = mid;
+                }
+            }
+        }
+
+        return ((long) precision << PRECISION_SHIFT) | hash;
+    }
+
+    /**
+     * Liefert die übliche Base32-Darstellung einer Zelle (z.B. für Logs).
+     */
+    public static String toString(long cell) {
+        int precision = (int) (cell >>> PRECISION_SHIFT);
+        long hash = cell & HASH_MASK;
+
+        char[] chars = new char[precision];
+        for (int i = precision - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (hash & 31)];
+            hash >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,341 @@
+package vsp.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import vsp.Coordinates;
+import vsp.DepartureStation;
+import vsp.app.TransportplanApplicationConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache der nächsten Stationen pro Geohash-Zelle.
+ *
+ * Die Einträge liegen in einer Open-Addressing-Tabelle mit primitiven long-Schlüsseln
+ * (keine Boxing-Kosten pro Lookup) und sind durch TTL und maxEntries begrenzt. Ist der Cache voll,
+ * wird per Second-Chance-FIFO verdrängt: abgelaufene Einträge sofort, seit dem letzten Umlauf gelesene
+ * bekommen eine zweite Chance; so kostet ein Insert keinen Scan über die ganze Tabelle.
+ * Gleichzeitige Misses für dieselbe Zelle werden zu einem einzigen Upstream-Call zusammengefasst.
+ */
+@Component
+public class StationCellCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StationCellCache.class);
+
+    private static final long EMPTY = 0L; // Geohash.encode liefert nie 0
+    // abgelaufene Einträge, die ein Insert höchstens zusätzlich vom Kopf der FIFO entfernt
+    private static final int EXPIRED_BATCH = 16;
+
+    private final boolean enabled;
+    private final int precision;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final long[] keys;
+    private final Entry[] entries;
+    private final int mask;
+    private int size;
+
+    // Einfügereihenfolge der belegten Zellen (Ringpuffer, genau die size Schlüssel der Tabelle)
+    private final long[] fifo;
+    private int fifoHead;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ergebnistyp je nach Aufrufer (Stationsliste oder serialisierte Tafel), pro Zelle immer derselbe
+    private final ConcurrentHashMap<Long, CompletableFuture<?>> inFlight =
+            new ConcurrentHashMap<>();
+
+    @Autowired
+    public StationCellCache(TransportplanApplicationConfig config) {
+        this(config.getStationCache().isEnabled(),
+                config.getStationCache().getGeohashPrecision(),
+                Duration.ofSeconds(config.getStationCache().getTtlSeconds()),
+                config.getStationCache().getMaxEntries(),
+                System::nanoTime);
+    }
+
+    public StationCellCache(boolean enabled, int precision, Duration ttl, int maxEntries, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        // Precision sofort prüfen statt beim ersten Request
+        Geohash.encode(0, 0, precision);
+
+        this.enabled = enabled;
+        this.precision = precision;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+
+        // Load-Faktor <= 0.5, damit Probe-Ketten kurz bleiben
+        int capacity = Integer.highestOneBit(Math.max(2, maxEntries * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+        this.fifo = new long[maxEntries];
+
+        log.info("StationCellCache initialized: enabled={}, geohashPrecision={}, ttl={}s, maxEntries={}",
+                enabled, precision, ttl.toSeconds(), maxEntries);
+    }
+
+    /**
+     * Quantisiert Coordinates auf die konfigurierte Geohash-Zelle.
+     */
+    public long cellOf(Coordinates coordinates) {
+        return Geohash.encode(coordinates.getLatitude(), coordinates.getLongitude(), precision);
+    }
+
+    /**
+     * Liefert die gecachten Stationen (ohne Abfahrten) der Zelle oder null bei Miss/Ablauf.
+     */
+    public List<DepartureStation> lookup(long cell) {
+        if (!enabled) {
+            return null;
+        }
+        long now = clock.getAsLong();
+
+        lock.readLock().lock();
+        try {
+            int slot = find(cell);
+            if (slot < 0) {
+                return null;
+            }
+            Entry entry = entries[slot];
+            if (entry.isExpired(now)) {
+                return null;
+            }
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.stations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lädt die Stationen einer Zelle über den loader. Gleichzeitige Aufrufe für dieselbe Zelle
+     * warten auf denselben Upstream-Call und bekommen dasselbe Ergebnis.
+     * Gecacht werden nur die Stationen ohne Abfahrten und ohne Distanz (die gilt nur für die Koordinaten
+     * des ersten Aufrufers); leere Ergebnisse werden nicht gecacht.
+     *
+     * @param cell Zellschlüssel aus {@link #cellOf(Coordinates)}
+     * @param loader Upstream-Call, liefert Stationen (ggf. mit Abfahrten)
+     * @return Ergebnis des loaders
+     */
+    public List<DepartureStation> loadCoalesced(long cell, Supplier<List<DepartureStation>> loader) {
+        return loadCoalesced(cell, loader, Function.identity());
+    }
+
+    /**
+     * Wie {@link #loadCoalesced(long, Supplier)} für Ergebnisse, die die Stationen nur enthalten
+     * (z.B. eine serialisierte Tafel). stationsOf wird nur beim Cachen aufgerufen, das Ergebnis
+     * selbst geht unverändert an alle wartenden Aufrufer.
+     *
+     * @param stationsOf liefert die Stationen des Ergebnisses für den Cache
+     */
+    public <T> T loadCoalesced(long cell, Supplier<T> loader, Function<T, List<DepartureStation>> stationsOf) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CompletableFuture<T> own = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(cell, own);
+        if (existing != null) {
+            log.debug("Joining in-flight nearby-station lookup for cell {}", Geohash.toString(cell));
+            return join(existing);
+        }
+
+        try {
+            T result = loader.get();
+            List<DepartureStation> stations = stationsOf.apply(result);
+            if (!stations.isEmpty()) {
+                put(cell, stationsOnly(stations));
+            }
+            own.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cell, own);
+        }
+    }
+
+    /**
+     * Anzahl der aktuell belegten Zellen (inkl. abgelaufener, noch nicht verdrängter Einträge).
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long cell, List<DepartureStation> stations) {
+        long now = clock.getAsLong();
+        Entry entry = new Entry(stations, now + ttlNanos);
+
+        lock.writeLock().lock();
+        try {
+            int slot = find(cell);
+            if (slot >= 0) {
+                entries[slot] = entry;
+                return;
+            }
+            if (size >= maxEntries) {
+                evict(now);
+            }
+            insert(cell, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Open Addressing (Linear Probing), Aufrufer hält den Lock ---
+
+    private int find(long cell) {
+        int slot = indexOf(cell);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == cell) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long cell, Entry entry) {
+        int slot = indexOf(cell);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = cell;
+        entries[slot] = entry;
+        fifo[(fifoHead + size) % maxEntries] = cell;
+        size++;
+    }
+
+    /**
+     * Macht Platz für einen Eintrag (Second-Chance-FIFO über die Einfügereihenfolge).
+     *
+     * Der älteste Eintrag wird verdrängt, sofern er abgelaufen oder seit seiner letzten Chance nicht gelesen
+     * worden ist; sonst wandert er ans Ende. Nach einem Umlauf sind alle Bits gelöscht, spätestens dann fällt ein
+     * Opfer. Abgelaufene Einträge dahinter werden in einem begrenzten Batch mit entfernt.
+     */
+    private void evict(long now) {
+        while (true) {
+            long cell = pollFifo();
+            int slot = find(cell);
+            Entry entry = entries[slot];
+            if (entry.isExpired(now) || !entry.referenced) {
+                remove(slot);
+                break;
+            }
+            entry.referenced = false;
+            fifo[(fifoHead + size - 1) % maxEntries] = cell;
+        }
+
+        for (int batch = 0; batch < EXPIRED_BATCH && size > 0; batch++) {
+            int slot = find(fifo[fifoHead]);
+            if (!entries[slot].isExpired(now)) {
+                break;
+            }
+            pollFifo();
+            remove(slot);
+        }
+    }
+
+    /**
+     * Nimmt den ältesten Schlüssel aus der FIFO; sein Platz am Ende bleibt frei, bis remove() size senkt
+     * oder der Schlüssel wieder angehängt wird.
+     */
+    private long pollFifo() {
+        long cell = fifo[fifoHead];
+        fifoHead = (fifoHead + 1) % maxEntries;
+        return cell;
+    }
+
+    /**
+     * Löscht einen Slot per Backward-Shift, damit Probe-Ketten ohne Tombstones intakt bleiben.
+     */
+    private void remove(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = indexOf(keys[next]);
+            // Eintrag darf nur nach vorne rücken, wenn das Loch zwischen Home-Slot und aktueller Position liegt
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                entries[hole] = entries[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        entries[hole] = null;
+        size--;
+    }
+
+    private int indexOf(long cell) {
+        // Fibonacci-Hashing verteilt benachbarte Geohash-Zellen über die Tabelle
+        long h = cell * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static List<DepartureStation> stationsOnly(List<DepartureStation> stations) {
+        List<DepartureStation> result = new ArrayList<>(stations.size());
+        for (DepartureStation station : stations) {
+            boolean stationOnly = station.getDeparturesCount() == 0 && station.getCompactDeparturesCount() == 0
+                    && station.getDistance() == 0;
+            result.add(stationOnly ? station : station.toBuilder()
+                    .clearDepartures()
+                    .clearCompactDepartures()
+                    .clearDistance()
+                    .build());
+        }
+        return List.copyOf(result);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final List<DepartureStation> stations;
+        private final long expiresAtNanos;
+        // Second-Chance-Bit: von lookup() unter dem Read-Lock gesetzt, von evict() gelöscht
+        private volatile boolean referenced;
+
+        Entry(List<DepartureStation> stations, long expiresAtNanos) {
+            this.stations = stations;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
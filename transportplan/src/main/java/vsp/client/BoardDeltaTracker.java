@@ -0,0 +1,132 @@
+package vsp.client;
+
+import com.google.protobuf.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vsp.BoardDelta;
+import vsp.ShowDeparturesPayloadRequest;
+import vsp.StationDelta;
+import vsp.grpc.BoardDeltas;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Merkt sich pro Session die zuletzt an den DisplayManager gesendete Tafel und ihre Version.
+ *
+ * Folgt eine Tafel mit denselben Stationen, geht nur das Delta (BoardDelta) raus. Volle Tafeln starten mit
+ * einer zufälligen Version, damit sich mehrere Transportplan-Instanzen (oder ein Neustart) nicht versehentlich
+ * auf dieselbe Version beziehen. Meldet der DisplayManager resync_required, wird die Session vergessen und die
+ * letzte Tafel voll gesendet. Begrenzt auf maxSessions, die am längsten nicht genutzten fallen heraus.
+ */
+public class BoardDeltaTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardDeltaTracker.class);
+
+    private record Sent(long version, DeparturesBoard board) {
+    }
+
+    private final Map<String, Sent> sent;
+
+    public BoardDeltaTracker(int maxSessions) {
+        int capacity = Math.max(1, maxSessions);
+        this.sent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sent> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Setzt am Request entweder das Delta zur letzten Tafel der Session oder die volle Tafel mit neuer Version.
+     * Ohne Session (bzw. für leere Tafeln) wird die Tafel wie bisher unversioniert gesendet.
+     */
+    public void encode(String sessionId, DeparturesBoard board, ShowDeparturesPayloadRequest.Builder request) {
+        if (sessionId == null || sessionId.isEmpty() || board.sizeInBytes() == 0) {
+            request.setBoardPayload(board.payload());
+            return;
+        }
+        Sent previous;
+        synchronized (this) {
+            previous = sent.get(sessionId);
+        }
+        // außerhalb des Locks vergleichen; dekodiert werden nur geänderte Stationen
+        BoardDelta delta = previous == null ? null : diff(previous, board);
+        synchronized (this) {
+            // lohnt nur, wenn das Delta kleiner als die (kompakt kodierte) volle Tafel ist
+            if (delta != null && sent.get(sessionId) == previous
+                    && delta.getSerializedSize() < board.sizeInBytes()) {
+                sent.put(sessionId, new Sent(delta.getVersion(), board));
+                request.setDelta(delta);
+                log.debug("Board delta v{} -> v{} for session {}: {} of {} bytes", delta.getBaseVersion(),
+                        delta.getVersion(), sessionId, delta.getSerializedSize(), board.sizeInBytes());
+                return;
+            }
+            full(sessionId, board, request);
+        }
+    }
+
+    /**
+     * Der DisplayManager kennt die Basisversion nicht (mehr): letzte Tafel der Session voll mit neuer Version.
+     *
+     * @return false, wenn für die Session keine Tafel bekannt ist
+     */
+    public synchronized boolean resync(String sessionId, ShowDeparturesPayloadRequest.Builder request) {
+        Sent previous = sent.get(sessionId);
+        if (previous == null) {
+            return false;
+        }
+        log.info("DisplayManager requested full board for session {}", sessionId);
+        full(sessionId, previous.board(), request);
+        return true;
+    }
+
+    public synchronized int sessions() {
+        return sent.size();
+    }
+
+    /**
+     * Delta von der zuletzt gesendeten Tafel zu board, null wenn nur die volle Tafel geht.
+     *
+     * Bei gleichem Header (Dictionaries, base_time) sind die Stationen byte-genau vergleichbar: unveränderte
+     * werden gar nicht dekodiert, eine unveränderte Tafel ergibt ohne Dekodieren ein leeres Delta. Nur wenn sich
+     * der Header geändert hat (z.B. weil die früheste Abfahrt weg ist), werden beide Tafeln voll dekodiert.
+     */
+    private static BoardDelta diff(Sent previous, DeparturesBoard board) {
+        DeparturesBoard before = previous.board();
+        long version = previous.version() + 1;
+        if (!before.header().equals(board.header())) {
+            return BoardDeltas.diff(before.stations(), board.stations(), previous.version(), version);
+        }
+        List<ByteString> beforeStations = before.stationPayloads();
+        List<ByteString> afterStations = board.stationPayloads();
+        if (beforeStations.size() != afterStations.size()) {
+            return null;
+        }
+        BoardDelta.Builder delta = BoardDelta.newBuilder()
+                .setBaseVersion(previous.version())
+                .setVersion(version);
+        for (int i = 0; i < afterStations.size(); i++) {
+            if (beforeStations.get(i).equals(afterStations.get(i))) {
+                continue;
+            }
+            StationDelta change = BoardDeltas.diffStation(i, before.station(i), board.station(i));
+            if (change == null) {
+                return null;
+            }
+            delta.addStations(change);
+        }
+        return delta.build();
+    }
+
+    private void full(String sessionId, DeparturesBoard board, ShowDeparturesPayloadRequest.Builder request) {
+        long version = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE / 2);
+        sent.put(sessionId, new Sent(version, board));
+        request.clearDelta()
+                .setBoardPayload(board.payload())
+                .setBoardVersion(version);
+    }
+}
@@ -0,0 +1,283 @@
+package vsp.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.Context;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vsp.Ack;
+import vsp.BoardStreamAck;
+import vsp.BoardStreamPayloadFrame;
+import vsp.DisplaymanagerIngressGrpc;
+import vsp.ShowDeparturesPayloadRequest;
+import vsp.grpc.PayloadMethods;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Dauerhafter Board-Stream (streamBoards) vom Transportplan zum DisplayManager.
+ *
+ * Statt eines Unary-Calls mit eigenen Headern und Ack pro Tafel läuft alles über einen Stream pro Instanz.
+ * Jeder Frame bekommt eine Sequenznummer; der DisplayManager bestätigt ihn auf demselben Stream und gibt dabei
+ * Credits zurück. Ohne Credits wird lokal gewartet (begrenzte Queue, bei Überlauf verdrängt die neueste Tafel
+ * die älteste). Bricht der Stream ab, wird mit Backoff neu verbunden und unbestätigte Frames werden erneut
+ * gesendet; doppelte Tafeln sind im DisplayManager harmlos (latest wins pro Session).
+ * Kennt der DisplayManager streamBoards nicht (UNIMPLEMENTED), gehen alle Tafeln über den Fallback (Unary).
+ */
+public class BoardStream implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardStream.class);
+
+    // streamBoards mit bereits serialisierter Tafel; kommt beim DisplayManager als BoardStreamFrame an
+    private static final MethodDescriptor<BoardStreamPayloadFrame, BoardStreamAck> STREAM_BOARDS_PAYLOAD =
+            PayloadMethods.view(DisplaymanagerIngressGrpc.getStreamBoardsMethod(),
+                    BoardStreamPayloadFrame.getDefaultInstance(), BoardStreamAck.getDefaultInstance());
+
+    private record Frame(long sequence, ShowDeparturesPayloadRequest request, CompletableFuture<Ack> result) {
+    }
+
+    private final Channel channel;
+    private final CallOptions callOptions;
+    private final Function<ShowDeparturesPayloadRequest, CompletableFuture<Ack>> fallback;
+    private final int maxQueued;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final ScheduledExecutorService scheduler;
+
+    // alle Felder ab hier unter dem Lock von this
+    private final Deque<Frame> queued = new ArrayDeque<>();
+    private final Map<Long, Frame> unacked = new LinkedHashMap<>();
+    private StreamObserver<BoardStreamPayloadFrame> requests;
+    // erhöht sich mit jedem neuen Stream, Events alter Streams werden ignoriert
+    private long generation;
+    private long nextSequence = 1;
+    private int credits;
+    private long backoffMs;
+    private boolean reconnectScheduled;
+    private boolean unsupported;
+    private boolean closed;
+
+    /**
+     * @param channel Kanal zum DisplayManager (vom Stub)
+     * @param fallback Unary-Send, falls der DisplayManager keinen Board-Stream anbietet
+     * @param maxQueued Tafeln, die ohne Credits bzw. Verbindung lokal warten
+     */
+    public BoardStream(Channel channel, CallOptions callOptions,
+                       Function<ShowDeparturesPayloadRequest, CompletableFuture<Ack>> fallback,
+                       int maxQueued, long initialBackoffMs, long maxBackoffMs) {
+        if (maxQueued < 1) {
+            throw new IllegalArgumentException("maxQueued must be positive");
+        }
+        this.channel = channel;
+        this.callOptions = callOptions;
+        this.fallback = fallback;
+        this.maxQueued = maxQueued;
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+        this.backoffMs = this.initialBackoffMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "board-stream-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stellt eine Tafel in den Stream; die Future wird mit dem Ack des DisplayManagers abgeschlossen.
+     */
+    public CompletableFuture<Ack> send(ShowDeparturesPayloadRequest request) {
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(
+                        Status.UNAVAILABLE.withDescription("Board stream closed").asRuntimeException());
+            }
+            if (!unsupported) {
+                Frame frame = new Frame(nextSequence++, request, new CompletableFuture<>());
+                if (queued.size() >= maxQueued) {
+                    Frame dropped = queued.pollFirst();
+                    log.warn("Board stream queue full ({}), dropping frame {}", maxQueued, dropped.sequence());
+                    dropped.result().completeExceptionally(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Board stream queue full").asRuntimeException());
+                }
+                queued.addLast(frame);
+                if (requests == null && !reconnectScheduled) {
+                    connect();
+                }
+                drain();
+                return frame.result();
+            }
+        }
+        return fallback.apply(request);
+    }
+
+    /**
+     * @return Tafeln, die noch auf Credits, Verbindung oder Ack warten
+     */
+    public synchronized int pending() {
+        return queued.size() + unacked.size();
+    }
+
+    @Override
+    public void close() {
+        List<Frame> abandoned;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            generation++;
+            if (requests != null) {
+                requests.onCompleted();
+                requests = null;
+            }
+            abandoned = new ArrayList<>(unacked.values());
+            abandoned.addAll(queued);
+            unacked.clear();
+            queued.clear();
+        }
+        scheduler.shutdownNow();
+        for (Frame frame : abandoned) {
+            frame.result().completeExceptionally(
+                    Status.UNAVAILABLE.withDescription("Board stream closed").asRuntimeException());
+        }
+    }
+
+    private void connect() {
+        long streamGeneration = ++generation;
+        credits = 0;
+        log.info("Opening board stream to DisplayManager (generation {})", streamGeneration);
+        // eigener Context: der Stream darf nicht mit dem gRPC-Call abbrechen, der ihn zufällig geöffnet hat
+        Context previous = Context.ROOT.attach();
+        try {
+            StreamObserver<BoardStreamPayloadFrame> observer = ClientCalls.asyncBidiStreamingCall(
+                    channel.newCall(STREAM_BOARDS_PAYLOAD, callOptions), new StreamObserver<>() {
+                        @Override
+                        public void onNext(BoardStreamAck ack) {
+                            onAck(streamGeneration, ack);
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            onBroken(streamGeneration, Status.fromThrowable(t));
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            onBroken(streamGeneration, Status.UNAVAILABLE.withDescription("closed by server"));
+                        }
+                    });
+            // schon während des Öffnens abgebrochen: onBroken hat die Generation weitergezählt
+            if (streamGeneration == generation) {
+                requests = observer;
+            }
+        } finally {
+            Context.ROOT.detach(previous);
+        }
+    }
+
+    /**
+     * Schickt wartende Frames, solange Credits vorhanden sind.
+     */
+    private void drain() {
+        while (requests != null && credits > 0 && !queued.isEmpty()) {
+            Frame frame = queued.pollFirst();
+            unacked.put(frame.sequence(), frame);
+            credits--;
+            requests.onNext(BoardStreamPayloadFrame.newBuilder()
+                    .setSequence(frame.sequence())
+                    .setRequest(frame.request())
+                    .build());
+        }
+    }
+
+    private void onAck(long streamGeneration, BoardStreamAck ack) {
+        Frame frame;
+        synchronized (this) {
+            if (streamGeneration != generation) {
+                return;
+            }
+            backoffMs = initialBackoffMs;
+            credits += ack.getCredits();
+            frame = ack.getSequence() == 0 ? null : unacked.remove(ack.getSequence());
+            drain();
+        }
+        if (frame == null) {
+            return;
+        }
+        if (ack.hasError()) {
+            frame.result().completeExceptionally(Status.INVALID_ARGUMENT
+                    .withDescription(ack.getError().getMessage() + ": " + ack.getError().getDetails())
+                    .asRuntimeException());
+        } else {
+            frame.result().complete(Ack.newBuilder()
+                    .setAcceptedAt(ack.getAcceptedAt())
+                    .setResyncRequired(ack.getResyncRequired())
+                    .build());
+        }
+    }
+
+    private void onBroken(long streamGeneration, Status status) {
+        List<Frame> rerouted = List.of();
+        synchronized (this) {
+            if (streamGeneration != generation || closed) {
+                return;
+            }
+            generation++;
+            requests = null;
+            credits = 0;
+            // unbestätigte Frames vor die wartenden, damit die Reihenfolge erhalten bleibt
+            List<Frame> resend = new ArrayList<>(unacked.values());
+            unacked.clear();
+            for (int i = resend.size() - 1; i >= 0; i--) {
+                queued.addFirst(resend.get(i));
+            }
+
+            if (status.getCode() == Status.Code.UNIMPLEMENTED) {
+                log.warn("DisplayManager does not support board streams, falling back to unary calls");
+                unsupported = true;
+                rerouted = new ArrayList<>(queued);
+                queued.clear();
+            } else {
+                log.warn("Board stream to DisplayManager broken ({}), reconnecting in {} ms ({} frame(s) pending)",
+                        status, backoffMs, queued.size());
+                reconnectScheduled = true;
+                scheduler.schedule(this::reconnect, backoffMs, TimeUnit.MILLISECONDS);
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+        for (Frame frame : rerouted) {
+            fallback.apply(frame.request()).whenComplete((ack, error) -> {
+                if (error != null) {
+                    frame.result().completeExceptionally(error);
+                } else {
+                    frame.result().complete(ack);
+                }
+            });
+        }
+    }
+
+    private synchronized void reconnect() {
+        reconnectScheduled = false;
+        if (closed || requests != null) {
+            return;
+        }
+        // ohne wartende Tafeln erst beim nächsten send() wieder verbinden
+        if (!queued.isEmpty()) {
+            connect();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package vsp.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import vsp.DepartureStation;
+import vsp.DepartureStationList;
+import vsp.grpc.BoardCodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abfahrtstafel in serialisierter Form (DepartureStationList, i.d.R. kompakt kodiert).
+ *
+ * Transportplan muss die Tafel auf dem Weg von externalRest zum DisplayManager nicht ansehen; die Bytes
+ * werden unverändert durchgereicht und können so auch gecacht werden. Geparst wird nur bei Bedarf
+ * (Diagnose), dann einmal pro Instanz. Für Deltas reicht meist die flache Zerlegung in Header und
+ * Stations-Bytes (stationPayloads), dekodiert werden dann nur einzelne Stationen (station).
+ *
+ * Beim fusionierten Nearby-Call kommen die k nächsten Stationen separat mit (nearestStations): die Tafel selbst
+ * enthält nur Stationen, die gerade Abfahrten haben, und taugt deshalb nicht als Grundlage für den Cache.
+ */
+public final class DeparturesBoard {
+
+    public static final DeparturesBoard EMPTY = new DeparturesBoard(ByteString.EMPTY);
+
+    private static final int STATIONS_TAG =
+            DepartureStationList.STATIONS_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    /**
+     * Flach zerlegte Tafel: alles außer den Stationen (Dictionaries, base_time) und die Stationen als Bytes
+     */
+    private record Parts(ByteString header, DepartureStationList dictionaries, List<ByteString> stations) {
+    }
+
+    private final ByteString payload;
+    private final List<DepartureStation> nearestStations;
+    private volatile List<DepartureStation> stations;
+    private volatile Parts parts;
+
+    private DeparturesBoard(ByteString payload) {
+        this(payload, List.of());
+    }
+
+    private DeparturesBoard(ByteString payload, List<DepartureStation> nearestStations) {
+        this.payload = payload;
+        this.nearestStations = List.copyOf(nearestStations);
+    }
+
+    public static DeparturesBoard of(ByteString payload) {
+        return payload.isEmpty() ? EMPTY : new DeparturesBoard(payload);
+    }
+
+    /**
+     * Tafel eines Nearby-Calls mit dem Stations-Ranking von externalRest.
+     *
+     * @param nearestStations die k nächsten Stationen (ohne Abfahrten), auch ohne aktuelle Abfahrten
+     */
+    public static DeparturesBoard of(ByteString payload, List<DepartureStation> nearestStations) {
+        if (nearestStations.isEmpty()) {
+            return of(payload);
+        }
+        return new DeparturesBoard(payload, nearestStations);
+    }
+
+    /**
+     * Kodiert bereits vorliegende Stationen (z.B. aus Tests oder älteren Pfaden) in eine Tafel.
+     */
+    public static DeparturesBoard of(List<DepartureStation> stations) {
+        ByteString payload = BoardCodec.encode(stations).toByteString();
+        if (payload.isEmpty()) {
+            return EMPTY;
+        }
+        DeparturesBoard board = new DeparturesBoard(payload);
+        board.stations = List.copyOf(stations);
+        return board;
+    }
+
+    public ByteString payload() {
+        return payload;
+    }
+
+    /**
+     * @return die k nächsten Stationen des Nearby-Calls, leer wenn die Tafel nicht aus einem stammt
+     */
+    public List<DepartureStation> nearestStations() {
+        return nearestStations;
+    }
+
+    /**
+     * Dekodiert die Tafel in Stationen mit vollen Departures.
+     *
+     * @throws IllegalStateException wenn die Bytes keine gültige DepartureStationList sind
+     */
+    public List<DepartureStation> stations() {
+        List<DepartureStation> decoded = stations;
+        if (decoded == null) {
+            try {
+                decoded = BoardCodec.decode(DepartureStationList.parseFrom(payload));
+            } catch (InvalidProtocolBufferException e) {
+                throw new IllegalStateException("Invalid departures board payload", e);
+            }
+            stations = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * Alles außer den Stationen (Dictionaries, base_time). Zwei Tafeln mit gleichem Header kodieren gleiche
+     * Stationen byte-gleich, ihre stationPayloads sind dann direkt vergleichbar.
+     *
+     * @throws IllegalStateException wenn die Bytes keine gültige DepartureStationList sind
+     */
+    public ByteString header() {
+        return parts().header();
+    }
+
+    /**
+     * Serialisierte Stationen der Tafel, ohne sie zu dekodieren.
+     *
+     * @throws IllegalStateException wenn die Bytes keine gültige DepartureStationList sind
+     */
+    public List<ByteString> stationPayloads() {
+        return parts().stations();
+    }
+
+    /**
+     * Dekodiert nur die Station an index (mit vollen Departures).
+     *
+     * @throws IllegalStateException wenn die Bytes keine gültige DepartureStationList sind
+     */
+    public DepartureStation station(int index) {
+        List<DepartureStation> decoded = stations;
+        if (decoded != null) {
+            return decoded.get(index);
+        }
+        Parts split = parts();
+        try {
+            DepartureStation station = DepartureStation.parseFrom(split.stations().get(index));
+            return BoardCodec.decode(split.dictionaries().toBuilder().addStations(station).build()).get(0);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Invalid departures board payload", e);
+        }
+    }
+
+    public int sizeInBytes() {
+        return payload.size();
+    }
+
+    private Parts parts() {
+        Parts split = parts;
+        if (split == null) {
+            try {
+                split = split(payload);
+            } catch (IOException e) {
+                throw new IllegalStateException("Invalid departures board payload", e);
+            }
+            parts = split;
+        }
+        return split;
+    }
+
+    /**
+     * Liest nur die Tags der DepartureStationList: Stationen (Feld 1) bleiben Bytes, alle übrigen Felder
+     * werden unverändert in den Header kopiert.
+     */
+    private static Parts split(ByteString payload) throws IOException {
+        CodedInputStream input = payload.newCodedInput();
+        input.enableAliasing(true);
+        ByteString.Output header = ByteString.newOutput();
+        CodedOutputStream headerOutput = CodedOutputStream.newInstance(header);
+        List<ByteString> stations = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == STATIONS_TAG) {
+                stations.add(input.readBytes());
+            } else {
+                input.skipField(tag, headerOutput);
+            }
+        }
+        headerOutput.flush();
+        ByteString headerBytes = header.toByteString();
+        return new Parts(headerBytes, DepartureStationList.parseFrom(headerBytes), List.copyOf(stations));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DeparturesBoard board && payload.equals(board.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return payload.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DeparturesBoard[" + payload.size() + " bytes]";
+    }
+}
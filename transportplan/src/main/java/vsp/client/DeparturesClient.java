@@ -1,12 +1,17 @@
 package vsp.client;
 
 import com.google.protobuf.Timestamp;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCalls;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
+import vsp.grpc.PayloadMethods;
 
 import java.time.Instant;
 import java.util.List;
@@ -22,6 +27,18 @@ public class DeparturesClient {
 
     private static final Logger log = LoggerFactory.getLogger(DeparturesClient.class);
 
+    // Gleiche Methoden wie der Stub, die Tafel in der Antwort bleibt aber serialisiert (Pass-through)
+    private static final MethodDescriptor<GetDeparturesForStationsRequest, DeparturesPayloadResponse>
+            DEPARTURES_FOR_STATIONS_PAYLOAD = PayloadMethods.view(
+                    DeparturesServiceGrpc.getGetDeparturesForStationsMethod(),
+                    GetDeparturesForStationsRequest.getDefaultInstance(),
+                    DeparturesPayloadResponse.getDefaultInstance());
+    private static final MethodDescriptor<GetNearbyDeparturesRequest, DeparturesPayloadResponse>
+            NEARBY_DEPARTURES_PAYLOAD = PayloadMethods.view(
+                    DeparturesServiceGrpc.getGetNearbyDeparturesMethod(),
+                    GetNearbyDeparturesRequest.getDefaultInstance(),
+                    DeparturesPayloadResponse.getDefaultInstance());
+
     @GrpcClient("externalrest")
     private DeparturesServiceGrpc.DeparturesServiceBlockingStub departuresStub;
 
@@ -38,18 +55,32 @@ public class DeparturesClient {
 
 
     /**
-     * Ermittelt Abfahrten für Coordinates via externalRest DeparturesService.
+     * Ermittelt die nächsten Stationen für Coordinates via externalRest DeparturesService.
+     * externalRest sortiert nach Distanz und liefert bereits die Top-k.
      *
      * @param coordinates Die Koordinaten für die Suche
      * @param maxStations Maximale Anzahl der Stationen
-     * @return DeparturesResult mit Stationen und Timestamp
+     * @return Stationen aufsteigend nach Distanz
      * @throws DeparturesException wenn die Abfrage fehlschlägt
      */
     public List<DepartureStation> getNearbyStations(Coordinates coordinates, int maxStations) {
+        return getNearbyStations(coordinates, maxStations, 0);
+    }
+
+    /**
+     * Ermittelt die nächsten Stationen für Coordinates via externalRest DeparturesService.
+     *
+     * @param coordinates Die Koordinaten für die Suche
+     * @param maxStations Maximale Anzahl der Stationen
+     * @param maxDistanceMeters Suchradius in Metern (0: Default von externalRest)
+     * @return Stationen aufsteigend nach Distanz
+     * @throws DeparturesException wenn die Abfrage fehlschlägt
+     */
+    public List<DepartureStation> getNearbyStations(Coordinates coordinates, int maxStations, int maxDistanceMeters) {
         String correlationId = UUID.randomUUID().toString();
 
-        log.debug("[{}] Getting stations via externalRest: lat={}, lon={}, maxStations={}",
-                correlationId, coordinates.getLatitude(), coordinates.getLongitude(), maxStations);
+        log.debug("[{}] Getting stations via externalRest: lat={}, lon={}, maxStations={}, maxDistance={}",
+                correlationId, coordinates.getLatitude(), coordinates.getLongitude(), maxStations, maxDistanceMeters);
 
         GetNearbyStationsRequest request = GetNearbyStationsRequest.newBuilder()
                 .setMeta(RequestMeta.newBuilder()
@@ -58,6 +89,8 @@ public class DeparturesClient {
                         .build())
                 .setCoordinates(coordinates)
                 .setMaxStations(maxStations)
+                .setRanking(GetNearbyStationsRequest.Ranking.DISTANCE)
+                .setMaxDistanceMeters(maxDistanceMeters)
                 .build();
 
         try {
@@ -79,12 +112,27 @@ public class DeparturesClient {
 
         } catch (StatusRuntimeException e) {
             log.error("[{}] gRPC error calling DeparturesService: {}", correlationId, e.getStatus());
-            throw new DeparturesException("Departures service unavailable: " + e.getStatus().getDescription());
+            throw DeparturesException.of(e);
         }
     }
 
 
     public List<DepartureStation> getDepartures(List<DepartureStation> stations) {
+        return getDepartures(stations, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Ermittelt Abfahrten für bekannte Stationen, höchstens bis zur Deadline des Budgets.
+     */
+    public List<DepartureStation> getDepartures(List<DepartureStation> stations, DeadlineBudget budget) {
+        return getDeparturesBoard(stations, budget).stations();
+    }
+
+    /**
+     * Wie {@link #getDepartures(List, DeadlineBudget)}, die Tafel bleibt aber serialisiert
+     * (zum unveränderten Weiterreichen an den DisplayManager).
+     */
+    public DeparturesBoard getDeparturesBoard(List<DepartureStation> stations, DeadlineBudget budget) {
         String correlationId = UUID.randomUUID().toString();
         log.debug("[{}] Getting departures via externalRest", correlationId);
 
@@ -94,32 +142,124 @@ public class DeparturesClient {
                         .setCaller("transportplan")
                         .build()).
                 addAllStations(stations).
+                setCompact(true).
                 build();
 
         try {
-            GetDeparturesForStationsResponse response = departuresStub.getDeparturesForStations(request);
+            DeparturesPayloadResponse response = callPayload(DEPARTURES_FOR_STATIONS_PAYLOAD, request, budget);
             if (response.hasError()) {
                 ErrorStatus error = response.getError();
                 log.warn("[{}] Departures request failed: {} - {}",
                         correlationId, error.getCode(), error.getMessage());
                 throw new DeparturesException(error.getMessage());
             }
-            List<DepartureStation> stationsList = response.getStations().getStationsList();
-            log.debug("[{}] Got {} stations",
-                    correlationId, stationsList.size());
+            DeparturesBoard board = DeparturesBoard.of(response.getStationsPayload());
+            log.debug("[{}] Got departures board ({} bytes)", correlationId, board.sizeInBytes());
+
+            return board;
+
+        } catch (StatusRuntimeException e) {
+            log.error("[{}] gRPC error calling DeparturesService: {}", correlationId, e.getStatus());
+            throw DeparturesException.of(e);
+        }
+
+    }
+
+    /**
+     * Ermittelt die k nächsten Stationen inklusive Abfahrten in einem Aufruf
+     * (fusionierter getNearbyDepartures-Call in externalRest).
+     *
+     * @param coordinates Die Koordinaten für die Suche
+     * @param maxStations Anzahl der nächsten Stationen (k)
+     * @return Stationen mit Abfahrten, aufsteigend nach Distanz
+     * @throws DeparturesException wenn die Abfrage fehlschlägt
+     */
+    public List<DepartureStation> getNearbyDepartures(Coordinates coordinates, int maxStations) {
+        return getNearbyDepartures(coordinates, maxStations, DeadlineBudget.NONE);
+    }
+
+    /**
+     * Wie {@link #getNearbyDepartures(Coordinates, int)}, höchstens bis zur Deadline des Budgets.
+     *
+     * @param budget Deadline des Calls, bereits auf das Timeout dieser Stufe gekappt
+     */
+    public List<DepartureStation> getNearbyDepartures(Coordinates coordinates, int maxStations,
+                                                      DeadlineBudget budget) {
+        return getNearbyDeparturesBoard(coordinates, maxStations, budget).stations();
+    }
+
+    /**
+     * Wie {@link #getNearbyDepartures(Coordinates, int, DeadlineBudget)}, die Tafel bleibt aber serialisiert
+     * (zum unveränderten Weiterreichen an den DisplayManager).
+     */
+    public DeparturesBoard getNearbyDeparturesBoard(Coordinates coordinates, int maxStations,
+                                                    DeadlineBudget budget) {
+        String correlationId = UUID.randomUUID().toString();
+
+        log.debug("[{}] Getting nearby departures via externalRest: lat={}, lon={}, maxStations={}",
+                correlationId, coordinates.getLatitude(), coordinates.getLongitude(), maxStations);
+
+        GetNearbyDeparturesRequest request = GetNearbyDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder()
+                        .setCorrelationId(correlationId)
+                        .setCaller("transportplan")
+                        .build())
+                .setCoordinates(coordinates)
+                .setMaxStations(maxStations)
+                .setCompact(true)
+                .build();
+
+        try {
+            DeparturesPayloadResponse response = callPayload(NEARBY_DEPARTURES_PAYLOAD, request, budget);
 
-            return stationsList;
+            if (response.hasError()) {
+                ErrorStatus error = response.getError();
+                log.warn("[{}] Nearby departures request failed: {} - {}",
+                        correlationId, error.getCode(), error.getMessage());
+                throw new DeparturesException(error.getMessage());
+            }
+
+            DeparturesBoard board = DeparturesBoard.of(response.getStationsPayload(),
+                    response.getNearestStationsList());
+            log.debug("[{}] Got nearby departures board ({} bytes, {} nearest stations)",
+                    correlationId, board.sizeInBytes(), board.nearestStations().size());
+
+            return board;
 
         } catch (StatusRuntimeException e) {
             log.error("[{}] gRPC error calling DeparturesService: {}", correlationId, e.getStatus());
-            throw new DeparturesException("Departures service unavailable: " + e.getStatus().getDescription());
+            throw DeparturesException.of(e);
         }
+    }
 
+    /**
+     * Unary-Call über den Kanal des Stubs, aber mit Pass-through-Deskriptor.
+     */
+    private <ReqT> DeparturesPayloadResponse callPayload(MethodDescriptor<ReqT, DeparturesPayloadResponse> method,
+                                                         ReqT request, DeadlineBudget budget) {
+        DeparturesServiceGrpc.DeparturesServiceBlockingStub stub = budget.applyTo(departuresStub);
+        return ClientCalls.blockingUnaryCall(stub.getChannel(), method, stub.getCallOptions(), request);
     }
 
     public static class DeparturesException extends RuntimeException {
+        private final boolean deadlineExceeded;
+
         public DeparturesException(String message) {
+            this(message, false);
+        }
+
+        public DeparturesException(String message, boolean deadlineExceeded) {
             super(message);
+            this.deadlineExceeded = deadlineExceeded;
         }
+
+        static DeparturesException of(StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                return new DeparturesException("Departures deadline exceeded", true);
+            }
+            return new DeparturesException("Departures service unavailable: " + e.getStatus().getDescription());
+        }
+
+        public boolean isDeadlineExceeded() { return deadlineExceeded; }
     }
 }
@@ -1,86 +1,133 @@
 package vsp.client;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.protobuf.Timestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import io.grpc.Context;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.ClientCalls;
 import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import vsp.Ack;
 import vsp.DepartureStation;
 import vsp.DisplaymanagerIngressGrpc;
 import vsp.RequestMeta;
-import vsp.ShowDeparturesRequest;
-import vsp.TransportplanController;
+import vsp.ShowDeparturesPayloadRequest;
+import vsp.app.TransportplanApplicationConfig;
+import vsp.grpc.Outbox;
+import vsp.grpc.OutboxConfig;
+import vsp.grpc.PayloadMethods;
 
 @Component
 public class DisplayClient {
     
     private static final Logger log = LoggerFactory.getLogger(DisplayClient.class);
 
+    // showDepartures mit bereits serialisierter Tafel; kommt beim DisplayManager als ShowDeparturesRequest.board an
+    private static final MethodDescriptor<ShowDeparturesPayloadRequest, Ack> SHOW_DEPARTURES_PAYLOAD =
+            PayloadMethods.view(DisplaymanagerIngressGrpc.getShowDeparturesMethod(),
+                    ShowDeparturesPayloadRequest.getDefaultInstance(), Ack.getDefaultInstance());
+
     @GrpcClient("displaymanager")
     private DisplaymanagerIngressGrpc.DisplaymanagerIngressStub asyncStub;
 
+    @Autowired(required = false)
+    private OutboxConfig outboxConfig;
+
+    @Autowired(required = false)
+    private TransportplanApplicationConfig config;
+
+    // null = direkter Send ohne Zustellgarantie
+    private Outbox<ShowDeparturesPayloadRequest> outbox;
+
+    // null = ein Unary-Call pro Tafel
+    private BoardStream boardStream;
+
+    // null = immer volle Tafeln
+    private BoardDeltaTracker deltaTracker;
+
+    @PostConstruct
+    void openDelivery() throws IOException {
+        if (config != null && config.getBoardDelta().isEnabled()) {
+            deltaTracker = new BoardDeltaTracker(config.getBoardDelta().getMaxSessions());
+        }
+        if (config != null && config.getBoardStream().isEnabled()) {
+            TransportplanApplicationConfig.BoardStream streamConfig = config.getBoardStream();
+            boardStream = new BoardStream(asyncStub.getChannel(), asyncStub.getCallOptions(), this::deliverUnary,
+                    streamConfig.getMaxQueued(), streamConfig.getInitialBackoffMs(), streamConfig.getMaxBackoffMs());
+        }
+        if (outboxConfig != null && outboxConfig.isEnabled()) {
+            outbox = Outbox.open("displaymanager", outboxConfig, ShowDeparturesPayloadRequest.parser(),
+                    this::deliver);
+        }
+    }
+
+    @PreDestroy
+    void closeDelivery() {
+        if (outbox != null) {
+            outbox.close();
+        }
+        if (boardStream != null) {
+            boardStream.close();
+        }
+    }
+
 
     /**
      * Sendet DepartureStations mit Timestamp an den DisplayManager via gRPC.
      */
     public void sendDeparturesToDisplayManager(List<DepartureStation> stations, String correlationId) {
+        sendDeparturesToDisplayManager(stations, correlationId, null);
+    }
+
+    /**
+     * Sendet DepartureStations an den DisplayManager via gRPC, in die Session des ursprünglichen Requests.
+     */
+    public void sendDeparturesToDisplayManager(List<DepartureStation> stations, String correlationId,
+                                               String sessionId) {
+        sendBoardToDisplayManager(DeparturesBoard.of(stations), correlationId, sessionId);
+    }
+
+    /**
+     * Reicht eine serialisierte Tafel (z.B. direkt aus der externalRest-Antwort) ungeparst an den DisplayManager
+     * weiter, in die Session des ursprünglichen Requests.
+     */
+    public void sendBoardToDisplayManager(DeparturesBoard board, String correlationId, String sessionId) {
         try {
-            RequestMeta meta = RequestMeta.newBuilder()
+            RequestMeta.Builder metaBuilder = RequestMeta.newBuilder()
                     .setCorrelationId(correlationId)
-                    .setCaller("Transportplan")
-                    .build();
-
-            ShowDeparturesRequest.Builder requestBuilder = ShowDeparturesRequest.newBuilder()
-                    .setMeta(meta)
-                    .addAllStations(stations);
-
-            ShowDeparturesRequest request = requestBuilder.build();
-
-            log.info("Sending {} stations to DisplayManager, correlationId={}",
-                    stations.size(), correlationId);
-
-            // Fork context to prevent cancellation when parent gRPC call completes!!
-            Context forkedContext = Context.current().fork();
-            forkedContext.run(() ->{
-                asyncStub.showDepartures(request, new StreamObserver<Ack>() {
-                    @Override
-                    public void onNext(vsp.Ack ack) {
-                        log.info("Received Ack from DisplayManager at: {} [correlationId={}]",
-                                ack.hasAcceptedAt() ? formatTimestamp(ack.getAcceptedAt()) : "N/A",
-                                correlationId);
-                    }
-    
-                    @Override
-                    public void onError(Throwable t) {
-                        log.error("Error from DisplayManager [correlationId={}]: {}",
-                                correlationId, t.getMessage());
-    
-                        // ErrorStatus aus Metadata extrahieren
-                        if (t instanceof io.grpc.StatusRuntimeException sre) {
-                            io.grpc.Metadata metadata = sre.getTrailers();
-                            if (metadata != null) {
-                                extractErrorStatus(metadata, correlationId);
-                            }
-                        }
-                    }
-    
-                    @Override
-                    public void onCompleted() {
-                        log.debug("DisplayManager call completed [correlationId={}]",
-                                correlationId);
-                    }
-                });
-            });
-            // Methode kehrt SOFORT zurück - wartet NICHT auf Antwort!
-            log.debug("Request sent, continuing without waiting for response [correlationId={}]",
-                    correlationId);
+                    .setCaller("Transportplan");
+            if (sessionId != null && !sessionId.isEmpty()) {
+                metaBuilder.setSessionId(sessionId);
+            }
+            RequestMeta meta = metaBuilder.build();
+
+            // Tafel kompakt kodiert (Linien-/Richtungs-Dictionary + Minuten-Offsets), Bytes ohne Re-Encoding;
+            // bei bekannter Vorgänger-Tafel der Session nur das Delta
+            ShowDeparturesPayloadRequest.Builder requestBuilder = ShowDeparturesPayloadRequest.newBuilder()
+                    .setMeta(meta);
+            if (deltaTracker != null) {
+                deltaTracker.encode(sessionId, board, requestBuilder);
+            } else {
+                requestBuilder.setBoardPayload(board.payload());
+            }
+            ShowDeparturesPayloadRequest request = requestBuilder.build();
+
+            log.info("Sending departures board ({} bytes{}) to DisplayManager, correlationId={}",
+                    board.sizeInBytes(), request.hasDelta() ? ", as " + request.getDelta().getSerializedSize()
+                            + " byte delta" : "", correlationId);
+
+            submit(request);
 
         } catch (Exception e) {
             log.error("Failed to send departures to DisplayManager, correlationId={}",
@@ -88,6 +135,99 @@ public class DisplayClient {
             throw new RuntimeException("Failed to send to DisplayManager: " + e.getMessage(), e);
         }
     }
+
+    private void submit(ShowDeparturesPayloadRequest request) {
+        String correlationId = request.getMeta().getCorrelationId();
+        if (outbox != null) {
+            // dauerhaft ablegen, Zustellung und Retries übernimmt die Outbox
+            try {
+                outbox.enqueue(request);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to queue request in outbox: " + e.getMessage(), e);
+            }
+            log.debug("Request queued in outbox [correlationId={}]", correlationId);
+            return;
+        }
+
+        deliver(request);
+        // Methode kehrt SOFORT zurück - wartet NICHT auf Antwort!
+        log.debug("Request sent, continuing without waiting for response [correlationId={}]",
+                correlationId);
+    }
+
+    /**
+     * Übergibt die Tafel an den Board-Stream bzw. per Unary-Call; die Future wird mit dem Ack abgeschlossen.
+     * Passte ein Delta nicht zur Version im DisplayManager, wird die volle Tafel nachgeschickt.
+     */
+    private CompletableFuture<Ack> deliver(ShowDeparturesPayloadRequest request) {
+        CompletableFuture<Ack> ack = boardStream != null ? boardStream.send(request) : deliverUnary(request);
+        return ack.thenApply(result -> {
+            if (result.getResyncRequired()) {
+                resync(request.getMeta());
+            }
+            return result;
+        });
+    }
+
+    private void resync(RequestMeta meta) {
+        ShowDeparturesPayloadRequest.Builder full = ShowDeparturesPayloadRequest.newBuilder().setMeta(meta);
+        if (deltaTracker == null || !deltaTracker.resync(meta.getSessionId(), full)) {
+            return;
+        }
+        try {
+            submit(full.build());
+        } catch (RuntimeException e) {
+            // das Ack des Deltas bleibt gültig; das nächste Delta der Session wird abgelehnt und fordert erneut an
+            log.error("Failed to resend full board to DisplayManager [correlationId={}]: {}",
+                    meta.getCorrelationId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Asynchroner Unary-Call an den DisplayManager; die Future wird mit dem Ack abgeschlossen.
+     */
+    private CompletableFuture<Ack> deliverUnary(ShowDeparturesPayloadRequest request) {
+        String correlationId = request.getMeta().getCorrelationId();
+        CompletableFuture<Ack> result = new CompletableFuture<>();
+
+        // Fork context to prevent cancellation when parent gRPC call completes!!
+        Context forkedContext = Context.current().fork();
+        forkedContext.run(() ->{
+            ClientCalls.asyncUnaryCall(asyncStub.getChannel().newCall(SHOW_DEPARTURES_PAYLOAD, asyncStub.getCallOptions()),
+                    request, new StreamObserver<Ack>() {
+                @Override
+                public void onNext(vsp.Ack ack) {
+                    log.info("Received Ack from DisplayManager at: {} [correlationId={}]",
+                            ack.hasAcceptedAt() ? formatTimestamp(ack.getAcceptedAt()) : "N/A",
+                            correlationId);
+                    result.complete(ack);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.error("Error from DisplayManager [correlationId={}]: {}",
+                            correlationId, t.getMessage());
+
+                    // ErrorStatus aus Metadata extrahieren
+                    if (t instanceof io.grpc.StatusRuntimeException sre) {
+                        io.grpc.Metadata metadata = sre.getTrailers();
+                        if (metadata != null) {
+                            extractErrorStatus(metadata, correlationId);
+                        }
+                    }
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    log.debug("DisplayManager call completed [correlationId={}]",
+                            correlationId);
+                }
+            });
+        });
+        return result;
+    }
+
     /**
      * Extrahiert ErrorStatus aus gRPC Metadata
      */
@@ -6,6 +6,7 @@ import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import vsp.*;
+import vsp.grpc.DeadlineBudget;
 
 import java.time.Instant;
 
@@ -27,6 +28,7 @@ public class TransportplanIngressService extends TransportplanIngressGrpc.Transp
     @Override
     public void getDepartures(GetDeparturesRequest request, StreamObserver<Ack> responseObserver) {
         String correlationId = request.getMeta().getCorrelationId();
+        String sessionId = request.getMeta().getSessionId();
         Coordinates coordinates = request.getCoordinates();
 
         log.info("gRPC getDepartures called: correlationId={}, lat={}, lon={}",
@@ -35,7 +37,9 @@ public class TransportplanIngressService extends TransportplanIngressGrpc.Transp
         try {
             // Delegiere an Controller (asynchron im Hintergrund verarbeiten)
             // Der Controller sendet das Ergebnis direkt an DisplayManager
-            transportplanController.onGetDeparturesRequest(coordinates, correlationId);
+            // Budget aus RequestMeta; der Call selbst trägt dieselbe Deadline im gRPC-Context
+            transportplanController.onGetDeparturesRequest(coordinates, correlationId, sessionId,
+                    DeadlineBudget.fromMeta(request.getMeta()));
 
             // Sofortiges ACK zurück an Locationhandler
             Ack ack = Ack.newBuilder()
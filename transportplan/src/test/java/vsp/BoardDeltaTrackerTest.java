@@ -0,0 +1,120 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.Test;
+import vsp.client.BoardDeltaTracker;
+import vsp.client.DeparturesBoard;
+import vsp.grpc.BoardCodec;
+import vsp.grpc.BoardDeltas;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDeltaTrackerTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    private final BoardDeltaTracker tracker = new BoardDeltaTracker(2);
+
+    @Test
+    void encode_FirstBoardFull_FollowingBoardAsDelta() {
+        DeparturesBoard first = board(2, 5, 9, 14, 18, 21, 25, 29, 32, 36, 40, 44);
+        DeparturesBoard second = board(5, 9, 14, 18, 21, 25, 29, 32, 36, 40, 44, 47);
+
+        ShowDeparturesPayloadRequest.Builder full = ShowDeparturesPayloadRequest.newBuilder();
+        tracker.encode("session-1", first, full);
+        ShowDeparturesPayloadRequest.Builder delta = ShowDeparturesPayloadRequest.newBuilder();
+        tracker.encode("session-1", second, delta);
+
+        assertFalse(full.hasDelta());
+        assertEquals(first.payload(), full.getBoardPayload());
+        assertNotEquals(0, full.getBoardVersion());
+
+        assertTrue(delta.hasDelta());
+        assertTrue(delta.getBoardPayload().isEmpty());
+        assertEquals(full.getBoardVersion(), delta.getDelta().getBaseVersion());
+        assertEquals(full.getBoardVersion() + 1, delta.getDelta().getVersion());
+        assertEquals(second.stations(), BoardDeltas.apply(first.stations(), delta.getDelta()));
+    }
+
+    @Test
+    void encode_SameHeader_DiffsOnlyChangedStations() {
+        DeparturesBoard first = DeparturesBoard.of(BoardCodec.encode(List.of(
+                station("Jungfernstieg", 2, 5), station("Rathaus", 9))).toByteString());
+        DeparturesBoard second = DeparturesBoard.of(BoardCodec.encode(List.of(
+                station("Jungfernstieg", 2, 5), station("Rathaus", 9, 12))).toByteString());
+        tracker.encode("session-1", first, ShowDeparturesPayloadRequest.newBuilder());
+
+        ShowDeparturesPayloadRequest.Builder delta = ShowDeparturesPayloadRequest.newBuilder();
+        tracker.encode("session-1", second, delta);
+        ShowDeparturesPayloadRequest.Builder unchanged = ShowDeparturesPayloadRequest.newBuilder();
+        tracker.encode("session-1", DeparturesBoard.of(second.payload()), unchanged);
+
+        assertEquals(first.header(), second.header());
+        assertEquals(1, delta.getDelta().getStationsCount());
+        assertEquals(1, delta.getDelta().getStations(0).getStationIndex());
+        assertEquals(second.stations(), BoardDeltas.apply(first.stations(), delta.getDelta()));
+        assertTrue(unchanged.hasDelta());
+        assertEquals(0, unchanged.getDelta().getStationsCount());
+    }
+
+    @Test
+    void encode_WithoutSession_SendsUnversionedBoard() {
+        DeparturesBoard board = board(2, 5);
+
+        ShowDeparturesPayloadRequest.Builder request = ShowDeparturesPayloadRequest.newBuilder();
+        tracker.encode("", board, request);
+
+        assertEquals(board.payload(), request.getBoardPayload());
+        assertEquals(0, request.getBoardVersion());
+        assertEquals(0, tracker.sessions());
+    }
+
+    @Test
+    void resync_SendsLastBoardFullWithNewVersion() {
+        tracker.encode("session-1", board(2, 5, 9, 14, 18, 21, 25, 29, 32, 36, 40, 44),
+                ShowDeparturesPayloadRequest.newBuilder());
+        ShowDeparturesPayloadRequest.Builder delta = ShowDeparturesPayloadRequest.newBuilder();
+        DeparturesBoard latest = board(5, 9, 14, 18, 21, 25, 29, 32, 36, 40, 44, 47);
+        tracker.encode("session-1", latest, delta);
+
+        ShowDeparturesPayloadRequest.Builder full = ShowDeparturesPayloadRequest.newBuilder();
+        assertTrue(tracker.resync("session-1", full));
+
+        assertFalse(full.hasDelta());
+        assertEquals(latest.payload(), full.getBoardPayload());
+        assertTrue(delta.hasDelta());
+        assertNotEquals(delta.getDelta().getVersion(), full.getBoardVersion());
+        assertFalse(tracker.resync("unbekannt", ShowDeparturesPayloadRequest.newBuilder()));
+    }
+
+    @Test
+    void encode_BeyondMaxSessions_EvictsLeastRecentlyUsed() {
+        tracker.encode("session-1", board(2), ShowDeparturesPayloadRequest.newBuilder());
+        tracker.encode("session-2", board(3), ShowDeparturesPayloadRequest.newBuilder());
+        tracker.encode("session-3", board(4), ShowDeparturesPayloadRequest.newBuilder());
+
+        assertEquals(2, tracker.sessions());
+        assertFalse(tracker.resync("session-1", ShowDeparturesPayloadRequest.newBuilder()));
+    }
+
+    private static DeparturesBoard board(int... minutes) {
+        return DeparturesBoard.of(List.of(station("Jungfernstieg", minutes)));
+    }
+
+    private static DepartureStation station(String name, int... minutes) {
+        DepartureStation.Builder station = DepartureStation.newBuilder()
+                .setStationId("Master:" + name)
+                .setStationName(name)
+                .setDistance(40);
+        for (int minute : minutes) {
+            station.addDepartures(Departure.newBuilder()
+                    .setLineName("U1 Norderstedt Mitte")
+                    .setLine("U1")
+                    .setDirection("Norderstedt Mitte")
+                    .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + minute * 60L)));
+        }
+        return station.build();
+    }
+}
@@ -0,0 +1,189 @@
+package vsp;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vsp.client.BoardStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für {@link BoardStream} gegen einen In-Process-DisplayManager.
+ */
+class BoardStreamTest {
+
+    private final List<Long> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger streamsOpened = new AtomicInteger();
+    private Server server;
+    private ManagedChannel channel;
+    private BoardStream boardStream;
+
+    @AfterEach
+    void tearDown() {
+        if (boardStream != null) {
+            boardStream.close();
+        }
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void send_OverOneStream_CompletesWithAcks() throws Exception {
+        start(new AckingDisplaymanager(4, -1), unaryNotExpected());
+
+        List<CompletableFuture<Ack>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(boardStream.send(request("corr-" + i)));
+        }
+
+        for (CompletableFuture<Ack> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS).hasAcceptedAt());
+        }
+        assertEquals(1, streamsOpened.get());
+        assertEquals(20, received.size());
+        assertEquals(0, boardStream.pending());
+    }
+
+    @Test
+    void send_WhenStreamBreaks_ReconnectsAndResendsUnacked() throws Exception {
+        // erster Stream bricht nach dem dritten Frame ohne Ack ab
+        start(new AckingDisplaymanager(8, 3), unaryNotExpected());
+
+        List<CompletableFuture<Ack>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(boardStream.send(request("corr-" + i)));
+        }
+
+        for (CompletableFuture<Ack> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, streamsOpened.get());
+    }
+
+    @Test
+    void send_WhenServerHasNoStream_FallsBackToUnary() throws Exception {
+        List<ShowDeparturesPayloadRequest> unary = new CopyOnWriteArrayList<>();
+        start(new DisplaymanagerIngressGrpc.DisplaymanagerIngressImplBase() {
+        }, request -> {
+            unary.add(request);
+            return CompletableFuture.completedFuture(Ack.getDefaultInstance());
+        });
+
+        assertNotNull(boardStream.send(request("corr-1")).get(5, TimeUnit.SECONDS));
+        assertNotNull(boardStream.send(request("corr-2")).get(5, TimeUnit.SECONDS));
+
+        assertEquals(2, unary.size());
+    }
+
+    @Test
+    void send_WhenFrameRejected_FailsOnlyThatFrame() throws Exception {
+        start(new AckingDisplaymanager(4, -1) {
+            @Override
+            BoardStreamAck.Builder ackFor(BoardStreamFrame frame) {
+                return frame.getRequest().getMeta().getCorrelationId().equals("bad")
+                        ? BoardStreamAck.newBuilder().setError(ErrorStatus.newBuilder()
+                                .setCode(ErrorStatus.Code.INVALID_ARGUMENT).setMessage("Stations list is empty"))
+                        : super.ackFor(frame);
+            }
+        }, unaryNotExpected());
+
+        CompletableFuture<Ack> bad = boardStream.send(request("bad"));
+        CompletableFuture<Ack> good = boardStream.send(request("good"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(e.getCause()).getCode());
+        assertNotNull(good.get(5, TimeUnit.SECONDS));
+    }
+
+    private void start(DisplaymanagerIngressGrpc.DisplaymanagerIngressImplBase service,
+                       Function<ShowDeparturesPayloadRequest, CompletableFuture<Ack>> fallback)
+            throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        boardStream = new BoardStream(channel, CallOptions.DEFAULT, fallback, 16, 10, 100);
+    }
+
+    private static Function<ShowDeparturesPayloadRequest, CompletableFuture<Ack>> unaryNotExpected() {
+        return request -> CompletableFuture.failedFuture(new AssertionError("unexpected unary fallback"));
+    }
+
+    private static ShowDeparturesPayloadRequest request(String correlationId) {
+        return ShowDeparturesPayloadRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId(correlationId))
+                .setBoardPayload(DepartureStationList.newBuilder()
+                        .addStations(DepartureStation.newBuilder().setStationName("Jungfernstieg"))
+                        .build()
+                        .toByteString())
+                .build();
+    }
+
+    /**
+     * DisplayManager-Attrappe: vergibt window Credits und bestätigt jeden Frame mit einem Credit.
+     * Mit breakAfter >= 0 bricht der erste Stream nach so vielen Frames ohne Ack ab.
+     */
+    private class AckingDisplaymanager extends DisplaymanagerIngressGrpc.DisplaymanagerIngressImplBase {
+
+        private final int window;
+        private final int breakAfter;
+
+        AckingDisplaymanager(int window, int breakAfter) {
+            this.window = window;
+            this.breakAfter = breakAfter;
+        }
+
+        BoardStreamAck.Builder ackFor(BoardStreamFrame frame) {
+            return BoardStreamAck.newBuilder().setAcceptedAt(Timestamp.newBuilder().setSeconds(1));
+        }
+
+        @Override
+        public StreamObserver<BoardStreamFrame> streamBoards(StreamObserver<BoardStreamAck> acks) {
+            boolean first = streamsOpened.incrementAndGet() == 1;
+            acks.onNext(BoardStreamAck.newBuilder().setCredits(window).build());
+            return new StreamObserver<>() {
+                private int frames;
+
+                @Override
+                public void onNext(BoardStreamFrame frame) {
+                    if (first && breakAfter >= 0 && ++frames >= breakAfter) {
+                        if (frames == breakAfter) {
+                            acks.onError(Status.UNAVAILABLE.withDescription("restart").asRuntimeException());
+                        }
+                        return;
+                    }
+                    received.add(frame.getSequence());
+                    acks.onNext(ackFor(frame).setSequence(frame.getSequence()).setCredits(1).build());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    acks.onCompleted();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package vsp;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vsp.client.DeparturesBoard;
+import vsp.grpc.BoardCodec;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeparturesBoardTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    @DisplayName("of(bytes): Tafel aus der externalRest-Antwort wird erst bei stations() dekodiert")
+    void fromPayload_DecodesLazily() {
+        DepartureStation station = DepartureStation.newBuilder()
+                .setStationId("Master:10950")
+                .setStationName("Jungfernstieg")
+                .setDistance(40)
+                .addDepartures(Departure.newBuilder()
+                        .setLineName("U1")
+                        .setDirection("Norderstedt Mitte")
+                        .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW).build()))
+                .build();
+        ByteString payload = BoardCodec.encode(List.of(station)).toByteString();
+
+        DeparturesBoard board = DeparturesBoard.of(payload);
+
+        assertSame(payload, board.payload());
+        assertEquals(payload.size(), board.sizeInBytes());
+        assertEquals("Jungfernstieg", board.stations().get(0).getStationName());
+        assertEquals("U1", board.stations().get(0).getDepartures(0).getLineName());
+        assertEquals(DeparturesBoard.of(List.of(station)), board);
+    }
+
+    @Test
+    @DisplayName("stationPayloads: Stationen bleiben Bytes, station(i) dekodiert nur eine davon")
+    void stationPayloads_SplitWithoutDecoding() {
+        List<DepartureStation> stations = List.of(
+                DepartureStation.newBuilder()
+                        .setStationName("Jungfernstieg")
+                        .addDepartures(Departure.newBuilder()
+                                .setLineName("U1")
+                                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW).build()))
+                        .build(),
+                DepartureStation.newBuilder()
+                        .setStationName("Rathaus")
+                        .addDepartures(Departure.newBuilder()
+                                .setLineName("U3")
+                                .setDepartureTime(Timestamp.newBuilder().setSeconds(NOW + 120).build()))
+                        .build());
+        DepartureStationList list = BoardCodec.encode(stations);
+
+        DeparturesBoard board = DeparturesBoard.of(list.toByteString());
+
+        assertEquals(2, board.stationPayloads().size());
+        assertEquals(list.getStations(1).toByteString(), board.stationPayloads().get(1));
+        assertEquals(list.toBuilder().clearStations().build().toByteString(), board.header());
+        assertEquals(DeparturesBoard.of(list.toByteString()).stations().get(1), board.station(1));
+    }
+
+    @Test
+    @DisplayName("of: leere Tafel ist EMPTY und dekodiert zu einer leeren Liste")
+    void empty_IsEmptyBoard() {
+        assertSame(DeparturesBoard.EMPTY, DeparturesBoard.of(ByteString.EMPTY));
+        assertSame(DeparturesBoard.EMPTY, DeparturesBoard.of(List.of()));
+        assertTrue(DeparturesBoard.EMPTY.stations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("stations: ungültige Bytes werden als IllegalStateException gemeldet")
+    void invalidPayload_Throws() {
+        DeparturesBoard board = DeparturesBoard.of(ByteString.copyFrom(new byte[]{(byte) 0xff, (byte) 0xff}));
+
+        assertThrows(IllegalStateException.class, board::stations);
+    }
+}
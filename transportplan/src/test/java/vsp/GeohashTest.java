@@ -0,0 +1,47 @@
+package vsp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vsp.cache.Geohash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeohashTest {
+
+    @Test
+    @DisplayName("encode/toString: liefert den bekannten Geohash fuer Referenzkoordinaten")
+    void encode_KnownReference() {
+        long cell = Geohash.encode(57.64911, 10.40744, 11);
+
+        assertEquals("u4pruydqqvj", Geohash.toString(cell));
+    }
+
+    @Test
+    @DisplayName("encode: benachbarte Koordinaten landen in derselben Zelle, entfernte nicht")
+    void encode_QuantizesNearbyCoordinates() {
+        long jungfernstieg = Geohash.encode(53.55310, 9.99270, 8);
+        long fewMetresAway = Geohash.encode(53.55311, 9.99271, 8);
+        long northOfIt = Geohash.encode(53.55350, 9.99270, 8);
+
+        assertEquals("u1x0emh3", Geohash.toString(jungfernstieg));
+        assertEquals(jungfernstieg, fewMetresAway);
+        assertNotEquals(jungfernstieg, northOfIt);
+    }
+
+    @Test
+    @DisplayName("encode: unterschiedliche Precision ergibt unterschiedliche Schluessel")
+    void encode_PrecisionIsPartOfKey() {
+        long coarse = Geohash.encode(53.5531, 9.9927, 7);
+        long fine = Geohash.encode(53.5531, 9.9927, 8);
+
+        assertNotEquals(coarse, fine);
+        assertTrue(Geohash.toString(fine).startsWith(Geohash.toString(coarse)));
+    }
+
+    @Test
+    @DisplayName("encode: ungueltige Precision wird abgelehnt")
+    void encode_InvalidPrecision_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> Geohash.encode(53.5, 10.0, 0));
+        assertThrows(IllegalArgumentException.class, () -> Geohash.encode(53.5, 10.0, 13));
+    }
+}
@@ -0,0 +1,204 @@
+package vsp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vsp.cache.StationCellCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationCellCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("loadCoalesced/lookup: speichert Stationen ohne Abfahrten pro Zelle")
+    void loadThenLookup_ReturnsStationsWithoutDepartures() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofMinutes(10), 10, clock::get);
+        long cell = cache.cellOf(coordinates(53.5531, 9.9927));
+
+        assertNull(cache.lookup(cell));
+
+        List<DepartureStation> loaded = cache.loadCoalesced(cell, () -> List.of(station("A", true)));
+
+        assertEquals(1, loaded.get(0).getDeparturesCount(), "Aufrufer bekommt das volle Ergebnis");
+        List<DepartureStation> cached = cache.lookup(cell);
+        assertNotNull(cached);
+        assertEquals("A", cached.get(0).getStationName());
+        assertEquals(0, cached.get(0).getDeparturesCount(), "Cache haelt nur die Stationen");
+    }
+
+    @Test
+    @DisplayName("lookup: abgelaufene Eintraege werden nicht geliefert")
+    void lookup_AfterTtl_ReturnsNull() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofSeconds(60), 10, clock::get);
+        long cell = cache.cellOf(coordinates(53.5531, 9.9927));
+        cache.loadCoalesced(cell, () -> List.of(station("A", false)));
+
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertNotNull(cache.lookup(cell));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.lookup(cell));
+    }
+
+    @Test
+    @DisplayName("loadCoalesced: leere Ergebnisse werden nicht gecacht")
+    void loadCoalesced_EmptyResult_NotCached() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofMinutes(10), 10, clock::get);
+        long cell = cache.cellOf(coordinates(53.5531, 9.9927));
+
+        cache.loadCoalesced(cell, List::of);
+
+        assertNull(cache.lookup(cell));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("loadCoalesced: bei vollem Cache wird der aelteste Eintrag verdraengt")
+    void loadCoalesced_WhenFull_EvictsOldestEntry() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofMinutes(10), 2, clock::get);
+        long first = cache.cellOf(coordinates(53.55, 9.99));
+        long second = cache.cellOf(coordinates(53.56, 9.99));
+        long third = cache.cellOf(coordinates(53.57, 9.99));
+
+        cache.loadCoalesced(first, () -> List.of(station("A", false)));
+        clock.addAndGet(1);
+        cache.loadCoalesced(second, () -> List.of(station("B", false)));
+        clock.addAndGet(1);
+        cache.loadCoalesced(third, () -> List.of(station("C", false)));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.lookup(first));
+        assertNotNull(cache.lookup(second));
+        assertNotNull(cache.lookup(third));
+    }
+
+    @Test
+    @DisplayName("loadCoalesced: bei vollem Cache bekommt ein gelesener Eintrag eine zweite Chance")
+    void loadCoalesced_WhenFull_KeepsRecentlyReadEntry() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofMinutes(10), 2, clock::get);
+        long first = cache.cellOf(coordinates(53.55, 9.99));
+        long second = cache.cellOf(coordinates(53.56, 9.99));
+        long third = cache.cellOf(coordinates(53.57, 9.99));
+
+        cache.loadCoalesced(first, () -> List.of(station("A", false)));
+        cache.loadCoalesced(second, () -> List.of(station("B", false)));
+        assertNotNull(cache.lookup(first));
+        cache.loadCoalesced(third, () -> List.of(station("C", false)));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.lookup(first));
+        assertNull(cache.lookup(second));
+        assertNotNull(cache.lookup(third));
+    }
+
+    @Test
+    @DisplayName("loadCoalesced: bei vollem Cache werden abgelaufene Eintraege vor gelesenen verdraengt")
+    void loadCoalesced_WhenFull_RemovesExpiredEntries() {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofSeconds(60), 3, clock::get);
+        long first = cache.cellOf(coordinates(53.55, 9.99));
+        long second = cache.cellOf(coordinates(53.56, 9.99));
+        long third = cache.cellOf(coordinates(53.57, 9.99));
+        long fourth = cache.cellOf(coordinates(53.58, 9.99));
+
+        cache.loadCoalesced(first, () -> List.of(station("A", false)));
+        assertNotNull(cache.lookup(first));
+        cache.loadCoalesced(second, () -> List.of(station("B", false)));
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        cache.loadCoalesced(third, () -> List.of(station("C", false)));
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        cache.loadCoalesced(fourth, () -> List.of(station("D", false)));
+
+        // first (trotz Lesezugriff) und second sind abgelaufen und fallen im selben Insert
+        assertEquals(2, cache.size());
+        assertNotNull(cache.lookup(third));
+        assertNotNull(cache.lookup(fourth));
+    }
+
+    @Test
+    @DisplayName("loadCoalesced: gleichzeitige Misses fuer dieselbe Zelle loesen nur einen Upstream-Call aus")
+    void loadCoalesced_ConcurrentMisses_CallLoaderOnce() throws Exception {
+        StationCellCache cache = new StationCellCache(true, 8, Duration.ofMinutes(10), 10, clock::get);
+        long cell = cache.cellOf(coordinates(53.5531, 9.9927));
+
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<DepartureStation>> leader = executor.submit(() -> cache.loadCoalesced(cell, () -> {
+                upstreamCalls.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return List.of(station("A", true));
+            }));
+            assertTrue(loaderStarted.await(1, TimeUnit.SECONDS));
+
+            Future<List<DepartureStation>> follower1 = executor.submit(() -> cache.loadCoalesced(cell, () -> {
+                upstreamCalls.incrementAndGet();
+                return List.of();
+            }));
+            Future<List<DepartureStation>> follower2 = executor.submit(() -> cache.loadCoalesced(cell, () -> {
+                upstreamCalls.incrementAndGet();
+                return List.of();
+            }));
+
+            // Follower sollen auf den laufenden Call warten
+            Thread.sleep(100);
+            releaseLoader.countDown();
+
+            assertEquals("A", leader.get(1, TimeUnit.SECONDS).get(0).getStationName());
+            assertEquals("A", follower1.get(1, TimeUnit.SECONDS).get(0).getStationName());
+            assertEquals("A", follower2.get(1, TimeUnit.SECONDS).get(0).getStationName());
+            assertEquals(1, upstreamCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("disabled: lookup liefert nie etwas, loader wird immer aufgerufen")
+    void disabled_AlwaysCallsLoader() {
+        StationCellCache cache = new StationCellCache(false, 8, Duration.ofMinutes(10), 10, clock::get);
+        long cell = cache.cellOf(coordinates(53.5531, 9.9927));
+
+        cache.loadCoalesced(cell, () -> List.of(station("A", false)));
+
+        assertNull(cache.lookup(cell));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Coordinates coordinates(double latitude, double longitude) {
+        return Coordinates.newBuilder().setLatitude(latitude).setLongitude(longitude).build();
+    }
+
+    private static DepartureStation station(String name, boolean withDeparture) {
+        DepartureStation.Builder builder = DepartureStation.newBuilder()
+                .setStationId("id-" + name)
+                .setStationName(name)
+                .setDistance(10);
+        if (withDeparture) {
+            builder.addDepartures(Departure.newBuilder().setLineName("U1").build());
+        }
+        return builder.build();
+    }
+}
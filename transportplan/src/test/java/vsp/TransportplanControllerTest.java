@@ -1,11 +1,21 @@
 package vsp;
 
+import com.google.protobuf.ByteString;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vsp.app.TransportplanApplicationConfig;
+import vsp.cache.StationCellCache;
+import vsp.client.DeparturesBoard;
 import vsp.client.DeparturesClient;
 import vsp.client.DisplayClient;
+import vsp.grpc.DeadlineBudget;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,23 +26,25 @@ import static org.mockito.Mockito.*;
  * Unit-Tests fuer {@link TransportplanController}.
  *
  * Fokus:
- * - Controller speichert Coordinates
- * - Controller limitiert Stationen auf 3 und sortiert nach Distanz
- * - Controller delegiert Abfahrts-Ermittlung an DeparturesClient
- * - Controller sendet Ergebnis (asynchron) an DisplayClient
+ * - Controller legt den abgeschlossenen Request (Coordinates, Departures) im Model ab
+ * - Controller fordert genau 3 Stationen inkl. Abfahrten in einem Aufruf an
+ *   (Ranking nach Distanz passiert in externalRest)
+ * - Controller nutzt bekannte Stationen der Geohash-Zelle und holt dann nur noch Abfahrten
+ * - Controller sendet Ergebnis (asynchron und als serialisierte Tafel) an DisplayClient
  * - Fehlerpfad: sendet leere Liste an DisplayClient
+ * - Abgelaufenes Budget: keine Abfrage mehr, Zähler vsp.deadline.exceeded
  */
 class TransportplanControllerTest {
 
     @Test
-    @DisplayName("onGetDeparturesRequest: sortiert nach Distanz, limitiert auf 3, holt Departures und sendet an Display")
-    void onGetDeparturesRequest_SortsAndLimitsAndSends() {
+    @DisplayName("onGetDeparturesRequest: holt 3 Stationen mit Departures in einem Aufruf und sendet an Display")
+    void onGetDeparturesRequest_FetchesNearbyDeparturesAndSends() {
         // Arrange
         TransportplanModel model = mock(TransportplanModel.class);
         DeparturesClient departuresClient = mock(DeparturesClient.class);
         DisplayClient displayClient = mock(DisplayClient.class);
 
-        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient);
+        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient, newStationCache());
 
         Coordinates coordinates = Coordinates.newBuilder()
                 .setLatitude(53.5531)
@@ -40,57 +52,48 @@ class TransportplanControllerTest {
                 .build();
         String correlationId = "corr-123";
 
-        DepartureStation s1 = DepartureStation.newBuilder().setStationName("A").setDistance(300).build();
-        DepartureStation s2 = DepartureStation.newBuilder().setStationName("B").setDistance(10).build();
-        DepartureStation s3 = DepartureStation.newBuilder().setStationName("C").setDistance(200).build();
-        DepartureStation s4 = DepartureStation.newBuilder().setStationName("D").setDistance(50).build();
-        DepartureStation s5 = DepartureStation.newBuilder().setStationName("E").setDistance(150).build();
+        // externalRest liefert bereits die 3 naechsten Stationen mit Abfahrten, sortiert nach Distanz
+        Departure departure = Departure.newBuilder().setLineName("U1").build();
+        DepartureStation s1 = DepartureStation.newBuilder().setStationName("B").setDistance(10).addDepartures(departure).build();
+        DepartureStation s2 = DepartureStation.newBuilder().setStationName("D").setDistance(50).addDepartures(departure).build();
+        DepartureStation s3 = DepartureStation.newBuilder().setStationName("E").setDistance(150).addDepartures(departure).build();
 
-        List<DepartureStation> nearbyStations = List.of(s1, s2, s3, s4, s5);
+        List<DepartureStation> nearbyDepartures = List.of(s1, s2, s3);
+        DeparturesBoard board = DeparturesBoard.of(nearbyDepartures);
 
-        when(departuresClient.getNearbyStations(eq(coordinates), eq(50)))
-                .thenReturn(nearbyStations);
-
-        // Wir geben "Departures" zurueck (kann auch identisch zur Input-Liste sein)
-        when(departuresClient.getDepartures(anyList()))
-                .thenAnswer(inv -> inv.getArgument(0));
+        when(departuresClient.getNearbyDeparturesBoard(eq(coordinates), eq(3), any()))
+                .thenReturn(board);
 
         // Act
         controller.onGetDeparturesRequest(coordinates, correlationId);
 
-        // Assert (Model)
-        verify(model).saveCoordinates(eq(coordinates));
-
-        // Assert (DeparturesClient: getDepartures bekommt exakt 3 Stationen, sortiert nach Distanz)
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<List<DepartureStation>> stationsCaptor = ArgumentCaptor.forClass((Class) List.class);
-        verify(departuresClient).getDepartures(stationsCaptor.capture());
-
-        List<DepartureStation> passedStations = stationsCaptor.getValue();
-        assertEquals(3, passedStations.size(), "Controller sollte auf 3 Stationen limitieren");
+        // Assert (DeparturesClient: nur ein Round-Trip zu externalRest)
+        verify(departuresClient).getNearbyDeparturesBoard(eq(coordinates), eq(3), any());
+        verify(departuresClient, never()).getNearbyStations(any(), anyInt());
+        verify(departuresClient, never()).getDeparturesBoard(anyList(), any());
 
-        // Erwartete Reihenfolge nach Distanz: B(10), D(50), E(150)
-        assertEquals(List.of("B", "D", "E"),
-                passedStations.stream().map(DepartureStation::getStationName).toList(),
-                "Stationen muessen nach Distanz sortiert und die 3 naechsten sein");
+        // Assert (Model: abgeschlossener Request mit Coordinates und Departures)
+        ArgumentCaptor<DeparturesRequest> recorded = ArgumentCaptor.forClass(DeparturesRequest.class);
+        verify(model).record(recorded.capture());
+        assertEquals(correlationId, recorded.getValue().correlationId());
+        assertEquals(coordinates, recorded.getValue().coordinates());
+        assertEquals(nearbyDepartures, recorded.getValue().departureStations());
+        assertNull(recorded.getValue().error());
 
-        // Assert (Model: gespeicherte Departures)
-        verify(model).saveDeparturesMap(eq(passedStations));
-
-        // Assert (async Send): wir warten via Mockito timeout
+        // Assert (async Send): dieselbe Tafel wird ungeparst weitergereicht, wir warten via Mockito timeout
         verify(displayClient, timeout(1000))
-                .sendDeparturesToDisplayManager(eq(passedStations), eq(correlationId));
+                .sendBoardToDisplayManager(eq(board), eq(correlationId), isNull());
     }
 
     @Test
-    @DisplayName("onGetDeparturesRequest: wenn getNearbyStations scheitert, sendet Controller leere Liste an Display")
-    void onGetDeparturesRequest_WhenNearbyStationsThrows_SendsEmptyList() {
+    @DisplayName("onGetDeparturesRequest: wenn getNearbyDeparturesBoard scheitert, sendet Controller leere Liste an Display")
+    void onGetDeparturesRequest_WhenNearbyDeparturesThrows_SendsEmptyList() {
         // Arrange
         TransportplanModel model = mock(TransportplanModel.class);
         DeparturesClient departuresClient = mock(DeparturesClient.class);
         DisplayClient displayClient = mock(DisplayClient.class);
 
-        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient);
+        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient, newStationCache());
 
         Coordinates coordinates = Coordinates.newBuilder()
                 .setLatitude(53.5531)
@@ -98,29 +101,30 @@ class TransportplanControllerTest {
                 .build();
         String correlationId = "corr-err";
 
-        when(departuresClient.getNearbyStations(eq(coordinates), eq(50)))
+        when(departuresClient.getNearbyDeparturesBoard(eq(coordinates), eq(3), any()))
                 .thenThrow(new RuntimeException("boom"));
 
         // Act
         controller.onGetDeparturesRequest(coordinates, correlationId);
 
         // Assert
-        verify(model).saveCoordinates(eq(coordinates));
-        verify(departuresClient, never()).getDepartures(anyList());
-        verify(model, never()).saveDeparturesMap(anyList());
+        ArgumentCaptor<DeparturesRequest> recorded = ArgumentCaptor.forClass(DeparturesRequest.class);
+        verify(model).record(recorded.capture());
+        assertEquals("boom", recorded.getValue().error());
+        assertNull(recorded.getValue().departureStations());
 
-        verify(displayClient).sendDeparturesToDisplayManager(eq(List.of()), eq(correlationId));
+        verify(displayClient).sendDeparturesToDisplayManager(eq(List.of()), eq(correlationId), isNull());
     }
 
     @Test
-    @DisplayName("onGetDeparturesRequest: wenn getDepartures scheitert, sendet Controller leere Liste an Display")
-    void onGetDeparturesRequest_WhenGetDeparturesThrows_SendsEmptyList() {
+    @DisplayName("onGetDeparturesRequest: wenn externalRest einen Fehler meldet, sendet Controller leere Liste an Display")
+    void onGetDeparturesRequest_WhenDeparturesServiceReportsError_SendsEmptyList() {
         // Arrange
         TransportplanModel model = mock(TransportplanModel.class);
         DeparturesClient departuresClient = mock(DeparturesClient.class);
         DisplayClient displayClient = mock(DisplayClient.class);
 
-        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient);
+        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient, newStationCache());
 
         Coordinates coordinates = Coordinates.newBuilder()
                 .setLatitude(53.5531)
@@ -128,22 +132,128 @@ class TransportplanControllerTest {
                 .build();
         String correlationId = "corr-dep";
 
-        List<DepartureStation> nearbyStations = List.of(
-                DepartureStation.newBuilder().setStationName("A").setDistance(10).build(),
-                DepartureStation.newBuilder().setStationName("B").setDistance(20).build()
-        );
-
-        when(departuresClient.getNearbyStations(eq(coordinates), eq(50)))
-                .thenReturn(nearbyStations);
-        when(departuresClient.getDepartures(anyList()))
-                .thenThrow(new RuntimeException("boom"));
+        when(departuresClient.getNearbyDeparturesBoard(eq(coordinates), eq(3), any()))
+                .thenThrow(new DeparturesClient.DeparturesException("Geofox API unavailable"));
 
         // Act
         controller.onGetDeparturesRequest(coordinates, correlationId);
 
         // Assert
-        verify(model).saveCoordinates(eq(coordinates));
-        verify(model, never()).saveDeparturesMap(anyList());
-        verify(displayClient).sendDeparturesToDisplayManager(eq(List.of()), eq(correlationId));
+        verify(model).record(argThat(request -> request.error() != null && request.departureStations() == null));
+        verify(displayClient).sendDeparturesToDisplayManager(eq(List.of()), eq(correlationId), isNull());
+    }
+
+    @Test
+    @DisplayName("onGetDeparturesRequest: zweiter Request in derselben Zelle nutzt gecachte Stationen")
+    void onGetDeparturesRequest_SameCell_UsesCachedStations() {
+        // Arrange
+        TransportplanModel model = mock(TransportplanModel.class);
+        DeparturesClient departuresClient = mock(DeparturesClient.class);
+        DisplayClient displayClient = mock(DisplayClient.class);
+
+        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient, newStationCache());
+
+        // Zwei Koordinaten wenige Meter auseinander (gleiche Geohash-Zelle)
+        Coordinates first = Coordinates.newBuilder().setLatitude(53.55310).setLongitude(9.99270).build();
+        Coordinates second = Coordinates.newBuilder().setLatitude(53.55311).setLongitude(9.99271).build();
+
+        Departure departure = Departure.newBuilder().setLineName("U1").build();
+        DepartureStation withDepartures = DepartureStation.newBuilder()
+                .setStationId("Master:10950").setStationName("Jungfernstieg").setDistance(40)
+                .addDepartures(departure)
+                .build();
+        // gecacht ohne Abfahrten und ohne die Distanz zum ersten Aufrufer
+        DepartureStation withoutDepartures = withDepartures.toBuilder().clearDepartures().clearDistance().build();
+
+        DeparturesBoard board = DeparturesBoard.of(DeparturesBoard.of(List.of(withDepartures)).payload(),
+                List.of(withDepartures.toBuilder().clearDepartures().build()));
+        when(departuresClient.getNearbyDeparturesBoard(eq(first), eq(3), any())).thenReturn(board);
+        when(departuresClient.getDeparturesBoard(eq(List.of(withoutDepartures)), any())).thenReturn(board);
+
+        // Act
+        controller.onGetDeparturesRequest(first, "corr-1");
+        controller.onGetDeparturesRequest(second, "corr-2");
+
+        // Assert: nur ein fusionierter Call, danach nur noch Abfahrten fuer die bekannten Stationen
+        verify(departuresClient, times(1)).getNearbyDeparturesBoard(any(), anyInt(), any());
+        verify(departuresClient).getDeparturesBoard(eq(List.of(withoutDepartures)), any());
+        verify(displayClient, timeout(1000))
+                .sendBoardToDisplayManager(eq(board), eq("corr-2"), isNull());
+    }
+
+    @Test
+    @DisplayName("onGetDeparturesRequest: Station ohne aktuelle Abfahrten bleibt im Cache der Zelle")
+    void onGetDeparturesRequest_StationWithoutDepartures_StaysCached() {
+        DeparturesClient departuresClient = mock(DeparturesClient.class);
+        DisplayClient displayClient = mock(DisplayClient.class);
+        TransportplanController controller = new TransportplanController(mock(TransportplanModel.class),
+                departuresClient, displayClient, newStationCache());
+        Coordinates first = Coordinates.newBuilder().setLatitude(53.55310).setLongitude(9.99270).build();
+        Coordinates second = Coordinates.newBuilder().setLatitude(53.55311).setLongitude(9.99271).build();
+
+        DepartureStation a = DepartureStation.newBuilder().setStationId("A").setStationName("A").setDistance(40).build();
+        DepartureStation b = DepartureStation.newBuilder().setStationId("B").setStationName("B").setDistance(90).build();
+        DepartureStation c = DepartureStation.newBuilder().setStationId("C").setStationName("C").setDistance(120).build();
+        Departure departure = Departure.newBuilder().setLineName("U1").build();
+        // B hat gerade keine Abfahrten und fehlt in der Tafel, gehört aber zu den drei nächsten Stationen
+        ByteString payload = DeparturesBoard.of(List.of(
+                a.toBuilder().addDepartures(departure).build(),
+                c.toBuilder().addDepartures(departure).build())).payload();
+        DeparturesBoard nearby = DeparturesBoard.of(payload, List.of(a, b, c));
+        when(departuresClient.getNearbyDeparturesBoard(eq(first), eq(3), any())).thenReturn(nearby);
+        List<DepartureStation> cached = List.of(a.toBuilder().clearDistance().build(),
+                b.toBuilder().clearDistance().build(), c.toBuilder().clearDistance().build());
+        when(departuresClient.getDeparturesBoard(eq(cached), any())).thenReturn(nearby);
+
+        controller.onGetDeparturesRequest(first, "corr-1");
+        controller.onGetDeparturesRequest(second, "corr-2");
+
+        verify(departuresClient).getDeparturesBoard(eq(cached), any());
+    }
+
+    @Test
+    @DisplayName("onGetDeparturesRequest: abgelaufenes Budget fragt keine Abfahrten mehr ab und zaehlt")
+    void onGetDeparturesRequest_WithExpiredBudget_SkipsFetchAndCounts() {
+        TransportplanModel model = new TransportplanModel();
+        DeparturesClient departuresClient = mock(DeparturesClient.class);
+        DisplayClient displayClient = mock(DisplayClient.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransportplanController controller = new TransportplanController(model, departuresClient, displayClient,
+                newStationCache(), new TransportplanApplicationConfig(), registry);
+        Coordinates coordinates = Coordinates.newBuilder().setLatitude(53.5531).setLongitude(9.9927).build();
+        DeadlineBudget expired = DeadlineBudget.fromMeta(
+                RequestMeta.newBuilder().setDeadlineUnixMillis(1_000).build(),
+                Clock.fixed(Instant.ofEpochMilli(2_000), ZoneOffset.UTC));
+
+        controller.onGetDeparturesRequest(coordinates, "corr-late", null, expired);
+
+        verifyNoInteractions(departuresClient, displayClient);
+        assertEquals("deadline exceeded", model.find("corr-late").error());
+        assertEquals(1.0, registry.get("vsp.deadline.exceeded").tag("stage", "transportplan").counter().count());
+    }
+
+    @Test
+    @DisplayName("onGetDeparturesRequest: Call-Deadline ist auf das Stufen-Timeout gekappt")
+    void onGetDeparturesRequest_WithBudget_CapsDeparturesCall() {
+        DeparturesClient departuresClient = mock(DeparturesClient.class);
+        DisplayClient displayClient = mock(DisplayClient.class);
+        TransportplanApplicationConfig config = new TransportplanApplicationConfig();
+        config.getDeadline().setDeparturesTimeoutMs(800);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransportplanController controller = new TransportplanController(new TransportplanModel(), departuresClient,
+                displayClient, newStationCache(), config, registry);
+        Coordinates coordinates = Coordinates.newBuilder().setLatitude(53.5531).setLongitude(9.9927).build();
+        ArgumentCaptor<DeadlineBudget> callBudget = ArgumentCaptor.forClass(DeadlineBudget.class);
+        when(departuresClient.getNearbyDeparturesBoard(eq(coordinates), eq(3), callBudget.capture()))
+                .thenThrow(new DeparturesClient.DeparturesException("Departures deadline exceeded", true));
+
+        controller.onGetDeparturesRequest(coordinates, "corr-1", null, DeadlineBudget.after(10_000));
+
+        assertTrue(callBudget.getValue().remainingMillis() <= 800);
+        assertEquals(1.0, registry.get("vsp.deadline.exceeded").tag("stage", "transportplan").counter().count());
+    }
+
+    private static StationCellCache newStationCache() {
+        return new StationCellCache(true, 8, Duration.ofHours(1), 100, System::nanoTime);
     }
 }
@@ -4,6 +4,7 @@ import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import vsp.grpc.DeadlineBudget;
 import vsp.service.TransportplanIngressService;
 
 import java.time.Instant;
@@ -35,7 +36,7 @@ class TransportplanIngressServiceTest {
         service.getDepartures(request, responseObserver);
 
         // Assert: Controller aufgerufen
-        verify(controller).onGetDeparturesRequest(eq(coordinates), eq(correlationId));
+        verify(controller).onGetDeparturesRequest(eq(coordinates), eq(correlationId), eq(""), eq(DeadlineBudget.NONE));
 
         // Assert: ACK sofort zurueck
         ArgumentCaptor<Ack> ackCaptor = ArgumentCaptor.forClass(Ack.class);
@@ -52,6 +53,26 @@ class TransportplanIngressServiceTest {
         assertTrue(Math.abs(now - accepted) < 10, "acceptedAt sollte in der Naehe von 'now' liegen");
     }
 
+    @Test
+    @DisplayName("getDepartures: reicht die Session-ID an den Controller weiter")
+    void getDepartures_ForwardsSessionId() {
+        TransportplanController controller = mock(TransportplanController.class);
+        TransportplanIngressService service = new TransportplanIngressService(controller);
+
+        Coordinates coordinates = Coordinates.newBuilder().setLatitude(53.55).setLongitude(9.99).build();
+        GetDeparturesRequest request = GetDeparturesRequest.newBuilder()
+                .setMeta(RequestMeta.newBuilder().setCorrelationId("corr-2").setSessionId("session-1").build())
+                .setCoordinates(coordinates)
+                .build();
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<Ack> responseObserver = mock(StreamObserver.class);
+
+        service.getDepartures(request, responseObserver);
+
+        verify(controller).onGetDeparturesRequest(coordinates, "corr-2", "session-1", DeadlineBudget.NONE);
+    }
+
     @Test
     @DisplayName("getDepartures: wenn Controller wirft, wird onError aufgerufen")
     void getDepartures_WhenControllerThrows_CallsOnError() {
@@ -71,7 +92,7 @@ class TransportplanIngressServiceTest {
         StreamObserver<Ack> responseObserver = mock(StreamObserver.class);
 
         doThrow(new RuntimeException("boom"))
-                .when(controller).onGetDeparturesRequest(eq(coordinates), eq(correlationId));
+                .when(controller).onGetDeparturesRequest(eq(coordinates), eq(correlationId), eq(""), eq(DeadlineBudget.NONE));
 
         // Act
         service.getDepartures(request, responseObserver);
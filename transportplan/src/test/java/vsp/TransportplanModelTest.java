@@ -10,51 +10,58 @@ import static org.junit.jupiter.api.Assertions.*;
 class TransportplanModelTest {
 
     @Test
-    @DisplayName("saveCoordinates/getCoordinates: speichert und liefert Koordinaten")
-    void saveAndGetCoordinates() {
+    @DisplayName("record/find: liefert den abgeschlossenen Request zur Correlation-ID")
+    void recordAndFindByCorrelationId() {
         TransportplanModel model = new TransportplanModel();
         Coordinates coords = Coordinates.newBuilder()
                 .setLatitude(53.5531)
                 .setLongitude(9.9927)
                 .build();
-
-        model.saveCoordinates(coords);
-
-        assertNotNull(model.getCoordinates());
-        assertEquals(53.5531, model.getCoordinates().getLatitude(), 1e-6);
-        assertEquals(9.9927, model.getCoordinates().getLongitude(), 1e-6);
-    }
-
-    @Test
-    @DisplayName("saveDeparturesMap/getDepartureStations: speichert und liefert DepartureStations")
-    void saveAndGetDepartureStations() {
-        TransportplanModel model = new TransportplanModel();
-
         DepartureStation station = DepartureStation.newBuilder()
                 .setStationName("Jungfernstieg")
                 .setDistance(10)
                 .addDepartures(Departure.newBuilder().setLineName("U1").build())
                 .build();
 
-        model.saveDeparturesMap(List.of(station));
+        model.record(DeparturesRequest.received("corr-1", "session-1", coords)
+                .withDepartureStations(List.of(station)));
 
-        assertNotNull(model.getDepartureStations());
-        assertEquals(1, model.getDepartureStations().size());
-        assertEquals("Jungfernstieg", model.getDepartureStations().get(0).getStationName());
-        assertEquals(1, model.getDepartureStations().get(0).getDeparturesCount());
+        DeparturesRequest found = model.find("corr-1");
+        assertNotNull(found);
+        assertEquals("session-1", found.sessionId());
+        assertEquals(53.5531, found.coordinates().getLatitude(), 1e-6);
+        assertEquals("Jungfernstieg", found.departureStations().get(0).getStationName());
+        assertNull(model.find("corr-unbekannt"));
     }
 
     @Test
-    @DisplayName("clear: setzt Coordinates auf null und Departures auf leere Liste")
-    void clearResetsState() {
+    @DisplayName("record: parallele Requests überschreiben sich nicht gegenseitig")
+    void recordKeepsRequestsSeparate() {
         TransportplanModel model = new TransportplanModel();
-        model.saveCoordinates(Coordinates.newBuilder().setLatitude(1).setLongitude(2).build());
-        model.saveDeparturesMap(List.of(DepartureStation.newBuilder().setStationName("X").build()));
+        Coordinates first = Coordinates.newBuilder().setLatitude(1).setLongitude(2).build();
+        Coordinates second = Coordinates.newBuilder().setLatitude(3).setLongitude(4).build();
+
+        model.record(DeparturesRequest.received("corr-1", null, first));
+        model.record(DeparturesRequest.received("corr-2", null, second).withError("boom"));
+
+        assertEquals(first, model.find("corr-1").coordinates());
+        assertEquals(second, model.find("corr-2").coordinates());
+        assertEquals("boom", model.find("corr-2").error());
+        assertEquals("corr-2", model.recent().get(0).correlationId());
+    }
+
+    @Test
+    @DisplayName("record: Ringpuffer bleibt auf die Kapazität begrenzt")
+    void recordIsBoundedByCapacity() {
+        TransportplanModel model = new TransportplanModel(2);
+        Coordinates coords = Coordinates.newBuilder().setLatitude(1).setLongitude(2).build();
 
-        model.clear();
+        for (int i = 1; i <= 5; i++) {
+            model.record(DeparturesRequest.received("corr-" + i, null, coords));
+        }
 
-        assertNull(model.getCoordinates());
-        assertNotNull(model.getDepartureStations());
-        assertTrue(model.getDepartureStations().isEmpty());
+        assertEquals(2, model.recent().size());
+        assertNull(model.find("corr-3"));
+        assertNotNull(model.find("corr-5"));
     }
 }